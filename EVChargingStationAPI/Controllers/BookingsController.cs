@@ -23,14 +23,16 @@ namespace EVChargingStationAPI.Controllers
     {
         private readonly IBookingService _bookingService;
         private readonly IQRService _qrService;
+        private readonly BookingStatusHub _statusHub;
 
         /// <summary>
         /// Constructor to initialize bookings controller
         /// </summary>
-        public BookingsController(IBookingService bookingService, IQRService qrService)
+        public BookingsController(IBookingService bookingService, IQRService qrService, BookingStatusHub statusHub)
         {
             _bookingService = bookingService;
             _qrService = qrService;
+            _statusHub = statusHub;
         }
 
         /// <summary>
@@ -171,6 +173,38 @@ namespace EVChargingStationAPI.Controllers
             }
         }
 
+        /// <summary>
+        /// Gets the QR verification key and today's approved bookings at the operator's stations
+        /// </summary>
+        [HttpGet("operator/qr-verification")]
+        [Authorize(Roles = "StationOperator")]
+        public async Task<IActionResult> GetQRVerificationData()
+        {
+            try
+            {
+                var userId = User.FindFirst(ClaimTypes.NameIdentifier)?.Value;
+                if (string.IsNullOrEmpty(userId))
+                {
+                    return BadRequest(new ApiResponseDTO<object>
+                    {
+                        Success = false,
+                        Message = "User ID not found in token"
+                    });
+                }
+
+                var result = await _bookingService.GetQRVerificationDataAsync(userId);
+                return Ok(result);
+            }
+            catch (Exception ex)
+            {
+                return StatusCode(500, new ApiResponseDTO<object>
+                {
+                    Success = false,
+                    Message = "An internal error occurred"
+                });
+            }
+        }
+
         /// <summary>
         /// Gets bookings for a specific EV owner
         /// </summary>
@@ -458,11 +492,14 @@ namespace EVChargingStationAPI.Controllers
         }
 
         /// <summary>
-        /// Gets booking history for an EV owner
+        /// Gets booking history for an EV owner, newest reservation first
         /// </summary>
+        /// <param name="before">Optional page cursor: only bookings reserved before this time</param>
+        /// <param name="beforeId">Optional with before: the previous page's last booking id, to split ties on the time</param>
+        /// <param name="limit">Optional page size</param>
         [HttpGet("evowner/{nic}/history")]
         [Authorize(Roles = "EVOwner")]
-        public async Task<IActionResult> GetBookingHistory(string nic)
+        public async Task<IActionResult> GetBookingHistory(string nic, [FromQuery] DateTime? before = null, [FromQuery] string? beforeId = null, [FromQuery] int? limit = null)
         {
             try
             {
@@ -472,7 +509,7 @@ namespace EVChargingStationAPI.Controllers
                     return Forbid();
                 }
 
-                var result = await _bookingService.GetBookingHistoryAsync(nic);
+                var result = await _bookingService.GetBookingHistoryAsync(nic, before, beforeId, limit);
                 return Ok(result);
             }
             catch (Exception ex)
@@ -485,6 +522,59 @@ namespace EVChargingStationAPI.Controllers
             }
         }
 
+        /// <summary>
+        /// Streams status changes to the signed-in EV owner's bookings over a WebSocket.
+        /// A client reconnecting with its last token receives what it missed, or a reset if that is too old.
+        /// </summary>
+        [HttpGet("status/stream")]
+        [Authorize(Roles = "EVOwner")]
+        public async Task StreamBookingStatus([FromQuery] string? resumeToken)
+        {
+            var evOwnerNIC = User.FindFirst("NIC")?.Value;
+            if (string.IsNullOrEmpty(evOwnerNIC))
+            {
+                HttpContext.Response.StatusCode = StatusCodes.Status403Forbidden;
+                return;
+            }
+            if (!HttpContext.WebSockets.IsWebSocketRequest)
+            {
+                HttpContext.Response.StatusCode = StatusCodes.Status400BadRequest;
+                return;
+            }
+
+            using var socket = await HttpContext.WebSockets.AcceptWebSocketAsync();
+            await _statusHub.StreamAsync(socket, resumeToken, evOwnerNIC, HttpContext.RequestAborted);
+        }
+
+        /// <summary>
+        /// Gets the booked intervals at a charging station and its slot counts, for client-side availability checks
+        /// </summary>
+        /// <param name="from">Optional start of the range, default now</param>
+        /// <param name="to">Optional end of the range, default the end of the booking window</param>
+        [HttpGet("station/{stationId}/occupancy")]
+        public async Task<IActionResult> GetStationOccupancy(string stationId, [FromQuery] DateTime? from = null, [FromQuery] DateTime? to = null)
+        {
+            try
+            {
+                var result = await _bookingService.GetStationOccupancyAsync(stationId, from, to);
+
+                if (result.Success)
+                {
+                    return Ok(result);
+                }
+
+                return NotFound(result);
+            }
+            catch (Exception ex)
+            {
+                return StatusCode(500, new ApiResponseDTO<object>
+                {
+                    Success = false,
+                    Message = "An internal error occurred"
+                });
+            }
+        }
+
         /// <summary>
         /// Verifies QR code for booking (Station Operators)
         /// </summary>
@@ -526,13 +616,18 @@ namespace EVChargingStationAPI.Controllers
         /// <summary>
         /// Gets enhanced session history for station operators with EV owner details
         /// </summary>
+        /// <param name="since">Optional: only sessions updated at or after this time, for incremental sync</param>
+        /// <param name="before">Optional page cursor: only sessions created before this time</param>
+        /// <param name="beforeId">Optional with before: the previous page's last booking id, to split ties on the time</param>
+        /// <param name="limit">Optional page size</param>
+        /// <param name="includeActive">With since, also sessions still in progress however long ago they were updated</param>
         [HttpGet("session-history")]
         [Authorize(Roles = "BackOffice,StationOperator")]
-        public async Task<IActionResult> GetSessionHistory()
+        public async Task<IActionResult> GetSessionHistory([FromQuery] DateTime? since = null, [FromQuery] DateTime? before = null, [FromQuery] string? beforeId = null, [FromQuery] int? limit = null, [FromQuery] bool includeActive = false)
         {
             try
             {
-                var result = await _bookingService.GetSessionHistoryAsync();
+                var result = await _bookingService.GetSessionHistoryAsync(since, before, beforeId, limit, includeActive);
                 return Ok(result);
             }
             catch (Exception ex)
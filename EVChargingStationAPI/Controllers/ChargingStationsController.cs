@@ -23,13 +23,16 @@ namespace EVChargingStationAPI.Controllers
     public class ChargingStationsController : ControllerBase
     {
         private readonly IChargingStationService _chargingStationService;
+        private readonly StationAvailabilityHub _availabilityHub;
 
         /// <summary>
         /// Constructor to initialize charging stations controller
         /// </summary>
-        public ChargingStationsController(IChargingStationService chargingStationService)
+        public ChargingStationsController(IChargingStationService chargingStationService,
+            StationAvailabilityHub availabilityHub)
         {
             _chargingStationService = chargingStationService;
+            _availabilityHub = availabilityHub;
         }
 
         /// <summary>
@@ -101,6 +104,23 @@ namespace EVChargingStationAPI.Controllers
             }
         }
 
+        /// <summary>
+        /// Streams slot availability changes over a WebSocket. A client reconnecting
+        /// with its last token receives what it missed, or a reset if that is too old.
+        /// </summary>
+        [HttpGet("availability/stream")]
+        public async Task StreamAvailability([FromQuery] string? resumeToken)
+        {
+            if (!HttpContext.WebSockets.IsWebSocketRequest)
+            {
+                HttpContext.Response.StatusCode = StatusCodes.Status400BadRequest;
+                return;
+            }
+
+            using var socket = await HttpContext.WebSockets.AcceptWebSocketAsync();
+            await _availabilityHub.StreamAsync(socket, resumeToken, null, HttpContext.RequestAborted);
+        }
+
         /// <summary>
         /// Gets charging stations by operator ID
         /// </summary>
@@ -0,0 +1,58 @@
+﻿// ========================================
+// Controllers/RoutingController.cs
+// ========================================
+/*
+ * RoutingController.cs
+ * Offline routing data controller
+ * Date: September 2025
+ * Description: Serves the road graph the mobile app routes on when OSRM cannot be reached
+ */
+
+using EVChargingStationAPI.Models.DTOs;
+using Microsoft.AspNetCore.Authorization;
+using Microsoft.AspNetCore.Mvc;
+using Microsoft.Net.Http.Headers;
+
+namespace EVChargingStationAPI.Controllers
+{
+    [ApiController]
+    [Route("api/routing")]
+    [Authorize]
+    public class RoutingController : ControllerBase
+    {
+        private readonly IConfiguration _configuration;
+
+        /// <summary>
+        /// Constructor to initialize routing controller
+        /// </summary>
+        public RoutingController(IConfiguration configuration)
+        {
+            _configuration = configuration;
+        }
+
+        /// <summary>
+        /// Downloads the region road graph built by Tools/build_road_graph.py.
+        /// Honours If-Modified-Since and If-None-Match, so clients can poll it cheaply.
+        /// The graph is public map data, so the app can fetch it before anyone signs in.
+        /// </summary>
+        [HttpGet("graph")]
+        [AllowAnonymous]
+        public IActionResult GetRoadGraph()
+        {
+            var graphPath = _configuration["Routing:GraphPath"];
+            if (string.IsNullOrEmpty(graphPath) || !System.IO.File.Exists(graphPath))
+            {
+                return NotFound(new ApiResponseDTO<object>
+                {
+                    Success = false,
+                    Message = "No road graph is installed on this server"
+                });
+            }
+
+            var file = new FileInfo(graphPath);
+            var lastModified = new DateTimeOffset(file.LastWriteTimeUtc);
+            var entityTag = new EntityTagHeaderValue($"\"{file.Length:x}-{file.LastWriteTimeUtc.Ticks:x}\"");
+            return PhysicalFile(file.FullName, "application/octet-stream", lastModified, entityTag);
+        }
+    }
+}
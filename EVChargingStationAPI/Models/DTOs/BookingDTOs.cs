@@ -9,6 +9,7 @@
  */
 
 using System.ComponentModel.DataAnnotations;
+using System.Text.Json.Serialization;
 
 namespace EVChargingStationAPI.Models.DTOs
 {
@@ -81,9 +82,58 @@ namespace EVChargingStationAPI.Models.DTOs
         public double? EnergyDelivered { get; set; }
         public string Notes { get; set; } = string.Empty;
         public DateTime CreatedAt { get; set; }
+        public DateTime UpdatedAt { get; set; }
         public List<VehicleDetailDTO> CustomerVehicles { get; set; } = new();
     }
 
+    public class StationOccupancyDTO
+    {
+        public string ChargingStationId { get; set; } = string.Empty;
+        public int TotalSlots { get; set; }
+        public int AvailableSlots { get; set; }
+        public DateTime From { get; set; }
+        public DateTime To { get; set; }
+        public List<BookedIntervalDTO> Bookings { get; set; } = new();
+    }
+
+    public class BookedIntervalDTO
+    {
+        public DateTime ReservationDateTime { get; set; }
+        public int DurationMinutes { get; set; }
+    }
+
+    public class QRVerificationDataDTO
+    {
+        public string KeyId { get; set; } = string.Empty;
+        public string Algorithm { get; set; } = string.Empty;
+        public string PublicKey { get; set; } = string.Empty;
+        public DateTime GeneratedAt { get; set; }
+        public List<QRBookingDTO> Bookings { get; set; } = new();
+    }
+
+    public class QRBookingDTO
+    {
+        public string BookingId { get; set; } = string.Empty;
+        public string EVOwnerNIC { get; set; } = string.Empty;
+        public string ChargingStationId { get; set; } = string.Empty;
+        public DateTime ReservationDateTime { get; set; }
+        public int DurationMinutes { get; set; }
+        public BookingStatus Status { get; set; }
+        public decimal TotalAmount { get; set; }
+    }
+
+    /// <summary>
+    /// New status of one booking, as pushed on the booking status stream
+    /// </summary>
+    public class BookingStatusChangeDTO
+    {
+        [JsonPropertyName("id")]
+        public string BookingId { get; set; } = string.Empty;
+
+        [JsonPropertyName("s")]
+        public string Status { get; set; } = string.Empty;
+    }
+
     public class VehicleDetailDTO
     {
         public string Make { get; set; } = string.Empty;
@@ -9,6 +9,7 @@
  */
 
 using System.ComponentModel.DataAnnotations;
+using System.Text.Json.Serialization;
 
 namespace EVChargingStationAPI.Models.DTOs
 {
@@ -81,5 +82,27 @@ namespace EVChargingStationAPI.Models.DTOs
 
         [Range(1, 50)]
         public double RadiusKm { get; set; } = 10;
+
+        // Leaves out stations closer than this, which the caller already has cached
+        [Range(0, 50)]
+        public double ExcludeRadiusKm { get; set; } = 0;
+    }
+
+    /// <summary>
+    /// Current slot availability of one station, as pushed on the availability stream
+    /// </summary>
+    public class AvailabilityDeltaDTO
+    {
+        [JsonPropertyName("id")]
+        public string StationId { get; set; } = string.Empty;
+
+        [JsonPropertyName("a")]
+        public int AvailableSlots { get; set; }
+
+        [JsonPropertyName("t")]
+        public int TotalSlots { get; set; }
+
+        [JsonPropertyName("on")]
+        public bool IsActive { get; set; }
     }
 }
@@ -47,6 +47,10 @@ builder.Services.AddScoped<IBookingService, BookingService>();
 builder.Services.AddScoped<IQRService, QRService>();
 builder.Services.AddScoped<IAuthService, AuthService>();
 
+// Live change streams are shared by every request
+builder.Services.AddSingleton<StationAvailabilityHub>();
+builder.Services.AddSingleton<BookingStatusHub>();
+
 // Add JWT authentication
 var jwtSettings = builder.Configuration.GetSection("JWT");
 builder.Services.AddAuthentication(JwtBearerDefaults.AuthenticationScheme)
@@ -202,6 +206,7 @@ else
 }
 
 app.UseCors("FrontendPolicy");
+app.UseWebSockets(new WebSocketOptions { KeepAliveInterval = TimeSpan.FromSeconds(30) });
 app.UseRateLimiter();
 app.UseAuthentication();
 app.UseMiddleware<TokenRefreshMiddleware>();
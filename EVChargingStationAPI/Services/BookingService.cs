@@ -10,8 +10,10 @@
 
 using EVChargingStationAPI.Models;
 using EVChargingStationAPI.Models.DTOs;
+using MongoDB.Bson;
 using MongoDB.Driver;
 using Sprache;
+using System.Linq.Expressions;
 
 namespace EVChargingStationAPI.Services
 {
@@ -22,11 +24,21 @@ namespace EVChargingStationAPI.Services
         private readonly IMongoCollection<EVOwner> _evOwners;
         private readonly IMongoCollection<User> _users;
         private readonly IQRService _qrService;
+        private readonly StationAvailabilityHub _availabilityHub;
+        private readonly BookingStatusHub _statusHub;
+
+        // Upper bound for a requested history page
+        private const int MaxPageSize = 100;
+
+        // Longest booking CreateBookingDTO allows, so occupancy queries can bound start times
+        private const int MaxBookingMinutes = 480;
+        private const int BookingWindowDays = 7;
 
         /// <summary>
         /// Constructor to initialize booking service with database collections
         /// </summary>
-        public BookingService(IMongoClient mongoClient, IQRService qrService)
+        public BookingService(IMongoClient mongoClient, IQRService qrService, StationAvailabilityHub availabilityHub,
+            BookingStatusHub statusHub)
         {
             var database = mongoClient.GetDatabase("EVChargingStationDB");
             _bookings = database.GetCollection<Booking>("Bookings");
@@ -34,6 +46,8 @@ namespace EVChargingStationAPI.Services
             _evOwners = database.GetCollection<EVOwner>("EVOwners");
             _users = database.GetCollection<User>("Users");
             _qrService = qrService;
+            _availabilityHub = availabilityHub;
+            _statusHub = statusHub;
         }
 
         /// <summary>
@@ -351,15 +365,19 @@ namespace EVChargingStationAPI.Services
                 var bookings = await _bookings.Find(b => b.EVOwnerNIC == evOwnerNIC).ToListAsync();
                 var bookingResponses = new List<BookingResponseDTO>();
 
+                // Clients partition this list themselves, so look up every station in one query
+                var stationIds = bookings.Select(b => b.ChargingStationId).Distinct().ToList();
+                var stationNames = (await _chargingStations.Find(s => stationIds.Contains(s.Id)).ToListAsync())
+                    .ToDictionary(s => s.Id, s => s.Name);
+
                 foreach (var booking in bookings)
                 {
-                    var chargingStation = await _chargingStations.Find(s => s.Id == booking.ChargingStationId).FirstOrDefaultAsync();
-
                     bookingResponses.Add(new BookingResponseDTO
                     {
                         Id = booking.Id,
                         EVOwnerNIC = booking.EVOwnerNIC,
-                        ChargingStationName = chargingStation?.Name ?? "Unknown Station",
+                        ChargingStationId = booking.ChargingStationId,
+                        ChargingStationName = stationNames.TryGetValue(booking.ChargingStationId, out var name) ? name : "Unknown Station",
                         ReservationDateTime = booking.ReservationDateTime,
                         DurationMinutes = booking.DurationMinutes,
                         Status = booking.Status,
@@ -603,16 +621,15 @@ namespace EVChargingStationAPI.Services
 
                 if (result.ModifiedCount > 0)
                 {
+                    _statusHub.PublishStatus(booking, BookingStatus.Cancelled);
+
                     // If booking was approved, return the slot
                     if (originalStatus == BookingStatus.Approved || originalStatus == BookingStatus.InProgress)
                     {
                         var chargingStation = await _chargingStations.Find(s => s.Id == booking.ChargingStationId).FirstOrDefaultAsync();
                         if (chargingStation != null && chargingStation.AvailableSlots < chargingStation.TotalSlots)
                         {
-                            var slotUpdate = Builders<ChargingStation>.Update
-                                .Set(s => s.AvailableSlots, chargingStation.AvailableSlots + 1)
-                                .Set(s => s.UpdatedAt, DateTime.UtcNow);
-                            await _chargingStations.UpdateOneAsync(s => s.Id == booking.ChargingStationId, slotUpdate);
+                            await AdjustAvailableSlotsAsync(chargingStation, 1);
                         }
                     }
 
@@ -680,14 +697,13 @@ namespace EVChargingStationAPI.Services
 
                 if (result.ModifiedCount > 0)
                 {
+                    _statusHub.PublishStatus(booking, BookingStatus.Approved);
+
                     // Reduce available slots by 1
                     var chargingStation = await _chargingStations.Find(s => s.Id == booking.ChargingStationId).FirstOrDefaultAsync();
                     if (chargingStation != null && chargingStation.AvailableSlots > 0)
                     {
-                        var slotUpdate = Builders<ChargingStation>.Update
-                            .Set(s => s.AvailableSlots, chargingStation.AvailableSlots - 1)
-                            .Set(s => s.UpdatedAt, DateTime.UtcNow);
-                        await _chargingStations.UpdateOneAsync(s => s.Id == booking.ChargingStationId, slotUpdate);
+                        await AdjustAvailableSlotsAsync(chargingStation, -1);
                     }
 
                     var updatedBooking = await _bookings.Find(b => b.Id == id).FirstOrDefaultAsync();
@@ -767,6 +783,8 @@ namespace EVChargingStationAPI.Services
 
                 if (result.ModifiedCount > 0)
                 {
+                    _statusHub.PublishStatus(booking, BookingStatus.InProgress);
+
                     var updatedBooking = await _bookings.Find(b => b.Id == id).FirstOrDefaultAsync();
                     var chargingStation = await _chargingStations.Find(s => s.Id == updatedBooking.ChargingStationId).FirstOrDefaultAsync();
 
@@ -844,14 +862,13 @@ namespace EVChargingStationAPI.Services
 
                 if (result.ModifiedCount > 0)
                 {
+                    _statusHub.PublishStatus(booking, BookingStatus.Completed);
+
                     // Increase available slots by 1
                     var chargingStation = await _chargingStations.Find(s => s.Id == booking.ChargingStationId).FirstOrDefaultAsync();
                     if (chargingStation != null && chargingStation.AvailableSlots < chargingStation.TotalSlots)
                     {
-                        var slotUpdate = Builders<ChargingStation>.Update
-                            .Set(s => s.AvailableSlots, chargingStation.AvailableSlots + 1)
-                            .Set(s => s.UpdatedAt, DateTime.UtcNow);
-                        await _chargingStations.UpdateOneAsync(s => s.Id == booking.ChargingStationId, slotUpdate);
+                        await AdjustAvailableSlotsAsync(chargingStation, 1);
                     }
 
                     var updatedBooking = await _bookings.Find(b => b.Id == id).FirstOrDefaultAsync();
@@ -945,16 +962,34 @@ namespace EVChargingStationAPI.Services
         }
 
         /// <summary>
-        /// Gets booking history for an EV owner
+        /// Gets booking history for an EV owner, newest reservation first
         /// </summary>
-        public async Task<ApiResponseDTO<List<BookingResponseDTO>>> GetBookingHistoryAsync(string evOwnerNIC)
+        /// <param name="before">When set, only bookings reserved before this time (the previous page's last reservation)</param>
+        /// <param name="beforeId">With before, also bookings reserved at exactly that time whose id sorts below this one</param>
+        /// <param name="limit">When set, at most this many bookings</param>
+        public async Task<ApiResponseDTO<List<BookingResponseDTO>>> GetBookingHistoryAsync(string evOwnerNIC, DateTime? before = null, string? beforeId = null, int? limit = null)
         {
             try
             {
-                var historicalBookings = await _bookings.Find(b =>
+                var filter = Builders<Booking>.Filter.Where(b =>
                     b.EVOwnerNIC == evOwnerNIC &&
-                    (b.Status == BookingStatus.Completed || b.Status == BookingStatus.Cancelled)
-                ).ToListAsync();
+                    (b.Status == BookingStatus.Completed || b.Status == BookingStatus.Cancelled));
+
+                if (before.HasValue)
+                {
+                    filter &= BeforeKey(b => b.ReservationDateTime, ToUtc(before.Value), beforeId);
+                }
+
+                // Sort and page in the database so only one page of stations is looked up.
+                // The id breaks ties, so bookings sharing a reservation time are not skipped between pages.
+                var query = _bookings.Find(filter)
+                    .SortByDescending(b => b.ReservationDateTime)
+                    .ThenByDescending(b => b.Id);
+                if (limit.HasValue)
+                {
+                    query = query.Limit(Math.Clamp(limit.Value, 1, MaxPageSize));
+                }
+                var historicalBookings = await query.ToListAsync();
 
                 var bookingResponses = new List<BookingResponseDTO>();
 
@@ -980,7 +1015,7 @@ namespace EVChargingStationAPI.Services
                 {
                     Success = true,
                     Message = "Booking history retrieved successfully",
-                    Data = bookingResponses.OrderByDescending(b => b.ReservationDateTime).ToList()
+                    Data = bookingResponses.OrderByDescending(b => b.ReservationDateTime).ThenByDescending(b => b.Id, StringComparer.Ordinal).ToList()
                 };
             }
             catch (Exception ex)
@@ -993,20 +1028,187 @@ namespace EVChargingStationAPI.Services
             }
         }
 
+        /// <summary>
+        /// Gets the booked intervals at a station that still hold a slot, without owner details,
+        /// so clients can check availability the same way CreateBookingAsync does
+        /// </summary>
+        /// <param name="from">Start of the range, default now</param>
+        /// <param name="to">End of the range, default the end of the booking window</param>
+        public async Task<ApiResponseDTO<StationOccupancyDTO>> GetStationOccupancyAsync(string stationId, DateTime? from = null, DateTime? to = null)
+        {
+            try
+            {
+                var chargingStation = await _chargingStations.Find(s => s.Id == stationId && s.IsActive).FirstOrDefaultAsync();
+                if (chargingStation == null)
+                {
+                    return new ApiResponseDTO<StationOccupancyDTO>
+                    {
+                        Success = false,
+                        Message = "Charging station not found or inactive"
+                    };
+                }
+
+                var rangeStart = from.HasValue ? ToUtc(from.Value) : DateTime.UtcNow;
+                var rangeEnd = to.HasValue
+                    ? ToUtc(to.Value)
+                    : rangeStart.AddDays(BookingWindowDays).AddMinutes(MaxBookingMinutes);
+
+                // Same statuses CreateBookingAsync counts as conflicts; a booking that
+                // overlaps the range starts at most MaxBookingMinutes before it
+                var earliestStart = rangeStart.AddMinutes(-MaxBookingMinutes);
+                var bookings = await _bookings.Find(b =>
+                        b.ChargingStationId == stationId &&
+                        b.Status != BookingStatus.Cancelled &&
+                        b.Status != BookingStatus.Completed &&
+                        b.ReservationDateTime >= earliestStart &&
+                        b.ReservationDateTime < rangeEnd)
+                    .Project(b => new BookedIntervalDTO
+                    {
+                        ReservationDateTime = b.ReservationDateTime,
+                        DurationMinutes = b.DurationMinutes
+                    })
+                    .ToListAsync();
+
+                return new ApiResponseDTO<StationOccupancyDTO>
+                {
+                    Success = true,
+                    Message = "Station occupancy retrieved successfully",
+                    Data = new StationOccupancyDTO
+                    {
+                        ChargingStationId = stationId,
+                        TotalSlots = chargingStation.TotalSlots,
+                        AvailableSlots = chargingStation.AvailableSlots,
+                        From = rangeStart,
+                        To = rangeEnd,
+                        Bookings = bookings
+                            .Where(b => b.ReservationDateTime.AddMinutes(b.DurationMinutes) > rangeStart)
+                            .OrderBy(b => b.ReservationDateTime)
+                            .ToList()
+                    }
+                };
+            }
+            catch (Exception ex)
+            {
+                return new ApiResponseDTO<StationOccupancyDTO>
+                {
+                    Success = false,
+                    Message = "An error occurred while retrieving station occupancy"
+                };
+            }
+        }
+
+        /// <summary>
+        /// QR verification key plus the approved bookings around today at the operator's
+        /// stations, so operator devices can verify signed QR codes without a round trip
+        /// </summary>
+        public async Task<ApiResponseDTO<QRVerificationDataDTO>> GetQRVerificationDataAsync(string operatorId)
+        {
+            try
+            {
+                var user = await _users.Find(u => u.Id == operatorId).FirstOrDefaultAsync();
+                if (user == null)
+                {
+                    return new ApiResponseDTO<QRVerificationDataDTO>
+                    {
+                        Success = false,
+                        Message = "Operator not found"
+                    };
+                }
+
+                var data = _qrService.GetVerificationKey();
+                if (user.ChargingStationIds == null || !user.ChargingStationIds.Any())
+                {
+                    return new ApiResponseDTO<QRVerificationDataDTO>
+                    {
+                        Success = true,
+                        Message = "Not assigned to any charging stations",
+                        Data = data
+                    };
+                }
+
+                // Covers the operator's local day whatever their time zone, plus bookings still running
+                var from = DateTime.UtcNow.AddMinutes(-MaxBookingMinutes);
+                var to = DateTime.UtcNow.AddDays(1);
+                var bookings = await _bookings
+                    .Find(b => user.ChargingStationIds.Contains(b.ChargingStationId) &&
+                               b.Status == BookingStatus.Approved &&
+                               b.ReservationDateTime >= from &&
+                               b.ReservationDateTime < to)
+                    .ToListAsync();
+
+                data.Bookings = bookings.Select(b => new QRBookingDTO
+                {
+                    BookingId = b.Id,
+                    EVOwnerNIC = b.EVOwnerNIC,
+                    ChargingStationId = b.ChargingStationId,
+                    ReservationDateTime = b.ReservationDateTime,
+                    DurationMinutes = b.DurationMinutes,
+                    Status = b.Status,
+                    TotalAmount = b.TotalAmount
+                }).ToList();
+
+                return new ApiResponseDTO<QRVerificationDataDTO>
+                {
+                    Success = true,
+                    Message = "QR verification data retrieved successfully",
+                    Data = data
+                };
+            }
+            catch (Exception ex)
+            {
+                return new ApiResponseDTO<QRVerificationDataDTO>
+                {
+                    Success = false,
+                    Message = "An error occurred while retrieving QR verification data"
+                };
+            }
+        }
+
         /// <summary>
                 /// Gets enhanced session history with EV owner details for station operators
                 /// </summary>
-                public async Task<ApiResponseDTO<List<SessionHistoryDTO>>> GetSessionHistoryAsync()
+                /// <param name="since">When set, only sessions updated at or after this time</param>
+                /// <param name="before">When set, only sessions created before this time (the previous page's last session)</param>
+                /// <param name="beforeId">With before, also sessions created at exactly that time whose id sorts below this one</param>
+                /// <param name="limit">When set, at most this many sessions, newest first</param>
+                /// <param name="includeActive">With since, also sessions still in progress that were last updated earlier</param>
+                public async Task<ApiResponseDTO<List<SessionHistoryDTO>>> GetSessionHistoryAsync(DateTime? since = null, DateTime? before = null, string? beforeId = null, int? limit = null, bool includeActive = false)
                 {
                     try
                     {
                         // Get all bookings with completed or in-progress status
-                        var bookings = await _bookings.Find(b =>
-                            b.Status == BookingStatus.Completed ||
-                            b.Status == BookingStatus.InProgress ||
-                            b.Status == BookingStatus.Cancelled ||
-                            b.Status == BookingStatus.NoShow)
-                            .ToListAsync();
+                        var filter = Builders<Booking>.Filter.In(b => b.Status, new[]
+                        {
+                            BookingStatus.Completed,
+                            BookingStatus.InProgress,
+                            BookingStatus.Cancelled,
+                            BookingStatus.NoShow
+                        });
+
+                        if (since.HasValue)
+                        {
+                            // Inclusive, so a session updated in the same millisecond as the cursor is not missed
+                            var updatedSince = Builders<Booking>.Filter.Gte(b => b.UpdatedAt, ToUtc(since.Value));
+                            filter &= includeActive
+                                ? updatedSince | Builders<Booking>.Filter.Eq(b => b.Status, BookingStatus.InProgress)
+                                : updatedSince;
+                        }
+
+                        if (before.HasValue)
+                        {
+                            filter &= BeforeKey(b => b.CreatedAt, ToUtc(before.Value), beforeId);
+                        }
+
+                        // Sort and page in the database so owner and station lookups run for one page only;
+                        // the id breaks ties between sessions created in the same millisecond
+                        var query = _bookings.Find(filter)
+                            .SortByDescending(b => b.CreatedAt)
+                            .ThenByDescending(b => b.Id);
+                        if (limit.HasValue)
+                        {
+                            query = query.Limit(Math.Clamp(limit.Value, 1, MaxPageSize));
+                        }
+                        var bookings = await query.ToListAsync();
 
                         var sessionHistoryList = new List<SessionHistoryDTO>();
 
@@ -1044,6 +1246,7 @@ namespace EVChargingStationAPI.Services
                                 EnergyDelivered = energyDelivered,
                                 Notes = booking.Notes,
                                 CreatedAt = booking.CreatedAt,
+                                UpdatedAt = booking.UpdatedAt,
                                 CustomerVehicles = evOwner?.VehicleDetails?.Select(v => new VehicleDetailDTO
                                 {
                                     Make = v.Make,
@@ -1060,7 +1263,7 @@ namespace EVChargingStationAPI.Services
                         {
                             Success = true,
                             Message = "Session history retrieved successfully",
-                            Data = sessionHistoryList.OrderByDescending(s => s.CreatedAt).ToList()
+                            Data = sessionHistoryList.OrderByDescending(s => s.CreatedAt).ThenByDescending(s => s.BookingId, StringComparer.Ordinal).ToList()
                         };
                     }
                     catch (Exception ex)
@@ -1075,6 +1278,48 @@ namespace EVChargingStationAPI.Services
 
 
 
+        /// <summary>
+        /// Treats a query timestamp without a zone as UTC, which is how the server stores times
+        /// </summary>
+        private static DateTime ToUtc(DateTime value)
+        {
+            return value.Kind == DateTimeKind.Unspecified
+                ? DateTime.SpecifyKind(value, DateTimeKind.Utc)
+                : value.ToUniversalTime();
+        }
+
+        /// <summary>
+        /// Moves a station's free-slot count by the given amount and pushes the new count to listening apps
+        /// </summary>
+        private async Task AdjustAvailableSlotsAsync(ChargingStation station, int change)
+        {
+            station.AvailableSlots += change;
+            station.UpdatedAt = DateTime.UtcNow;
+
+            var slotUpdate = Builders<ChargingStation>.Update
+                .Set(s => s.AvailableSlots, station.AvailableSlots)
+                .Set(s => s.UpdatedAt, station.UpdatedAt);
+            await _chargingStations.UpdateOneAsync(s => s.Id == station.Id, slotUpdate);
+
+            _availabilityHub.PublishStation(station);
+        }
+
+        /// <summary>
+        /// Keyset page filter for a (time, id) descending sort: rows strictly after the
+        /// previous page's last row. Without an id it falls back to the time alone.
+        /// </summary>
+        private static FilterDefinition<Booking> BeforeKey(Expression<Func<Booking, DateTime>> time, DateTime before, string? beforeId)
+        {
+            var builder = Builders<Booking>.Filter;
+            if (string.IsNullOrEmpty(beforeId) || !ObjectId.TryParse(beforeId, out _))
+            {
+                return builder.Lt(time, before);
+            }
+            return builder.Or(
+                builder.Lt(time, before),
+                builder.And(builder.Eq(time, before), builder.Lt(b => b.Id, beforeId)));
+        }
+
         /// <summary>
         /// Checks if a user can access a specific booking based on their associated charging stations
         /// </summary>
@@ -0,0 +1,36 @@
+﻿// ========================================
+// Services/BookingStatusHub.cs
+// ========================================
+/*
+ * BookingStatusHub.cs
+ * Live booking status changes
+ * Date: September 2025
+ * Description: Pushes status changes of a booking to its EV owner's connected
+ * apps, e.g. when an operator approves it or starts and completes the session
+ */
+
+using EVChargingStationAPI.Models;
+using EVChargingStationAPI.Models.DTOs;
+
+namespace EVChargingStationAPI.Services
+{
+    public class BookingStatusHub : ChangeStreamHub<BookingStatusChangeDTO>
+    {
+        protected override string ChangesProperty => "changes";
+
+        /// <summary>
+        /// Publishes a booking's new status to its owner's connected clients
+        /// </summary>
+        public void PublishStatus(Booking booking, BookingStatus status)
+        {
+            Publish(booking.EVOwnerNIC, new[]
+            {
+                new BookingStatusChangeDTO
+                {
+                    BookingId = booking.Id,
+                    Status = status.ToString()
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,221 @@
+﻿// ========================================
+// Services/ChangeStreamHub.cs
+// ========================================
+/*
+ * ChangeStreamHub.cs
+ * Resumable WebSocket change stream
+ * Date: September 2025
+ * Description: Fans out small change messages to connected WebSocket clients.
+ * Every message carries a resume token; a client that reconnects with its last
+ * token is sent what it missed from a bounded in-memory buffer, or told to
+ * reload ("reset") when the buffer no longer reaches back that far or the
+ * server has restarted since.
+ */
+
+using System.Net.WebSockets;
+using System.Text;
+using System.Text.Json;
+using System.Threading.Channels;
+
+namespace EVChargingStationAPI.Services
+{
+    public abstract class ChangeStreamHub<TChange>
+    {
+        private const int BufferSize = 1024;
+        private const int SubscriberQueueSize = 256;
+
+        private readonly object _gate = new();
+        private readonly LinkedList<BufferedMessage> _buffer = new();
+        private readonly List<Subscriber> _subscribers = new();
+        // Tokens from a previous server process cannot be replayed
+        private readonly string _epoch = DateTime.UtcNow.Ticks.ToString("x");
+        private long _sequence;
+
+        private record BufferedMessage(long Sequence, string? Audience, IReadOnlyList<TChange> Changes);
+
+        private record Subscriber(string? Audience, Channel<string> Queue);
+
+        /// <summary>
+        /// Name of the JSON property that holds the changes, e.g. "deltas"
+        /// </summary>
+        protected abstract string ChangesProperty { get; }
+
+        /// <summary>
+        /// Sends changes to every client of the audience (null for everyone) and buffers them for replay
+        /// </summary>
+        public void Publish(string? audience, IReadOnlyList<TChange> changes)
+        {
+            if (changes.Count == 0)
+            {
+                return;
+            }
+
+            lock (_gate)
+            {
+                var message = new BufferedMessage(++_sequence, audience, changes);
+                _buffer.AddLast(message);
+                if (_buffer.Count > BufferSize)
+                {
+                    _buffer.RemoveFirst();
+                }
+
+                var json = Serialize(message.Sequence, false, changes);
+                foreach (var subscriber in _subscribers.Where(s => Matches(s.Audience, audience)).ToList())
+                {
+                    // A client that cannot keep up is dropped; it reconnects with its token and catches up
+                    if (!subscriber.Queue.Writer.TryWrite(json))
+                    {
+                        subscriber.Queue.Writer.TryComplete();
+                        _subscribers.Remove(subscriber);
+                    }
+                }
+            }
+        }
+
+        /// <summary>
+        /// Runs an accepted WebSocket until the client disconnects or the request is aborted
+        /// </summary>
+        public async Task StreamAsync(WebSocket socket, string? resumeToken, string? audience, CancellationToken cancellationToken)
+        {
+            var queue = Channel.CreateBounded<string>(new BoundedChannelOptions(SubscriberQueueSize)
+            {
+                SingleReader = true,
+                FullMode = BoundedChannelFullMode.Wait
+            });
+            var subscriber = new Subscriber(audience, queue);
+
+            // Work out the replay and subscribe in one step, so nothing published in between is lost
+            List<string> replay;
+            lock (_gate)
+            {
+                replay = BuildReplay(resumeToken, audience);
+                _subscribers.Add(subscriber);
+            }
+
+            using var connection = CancellationTokenSource.CreateLinkedTokenSource(cancellationToken);
+            var receiving = ReceiveUntilClosedAsync(socket, connection);
+            try
+            {
+                foreach (var json in replay)
+                {
+                    await SendAsync(socket, json, connection.Token);
+                }
+                await foreach (var json in queue.Reader.ReadAllAsync(connection.Token))
+                {
+                    await SendAsync(socket, json, connection.Token);
+                }
+            }
+            catch (Exception ex) when (ex is OperationCanceledException || ex is WebSocketException)
+            {
+                // Client went away
+            }
+            finally
+            {
+                lock (_gate)
+                {
+                    _subscribers.Remove(subscriber);
+                }
+                connection.Cancel();
+                await receiving;
+                if (socket.State == WebSocketState.Open || socket.State == WebSocketState.CloseReceived)
+                {
+                    try
+                    {
+                        await socket.CloseOutputAsync(WebSocketCloseStatus.NormalClosure, null, CancellationToken.None);
+                    }
+                    catch (WebSocketException)
+                    {
+                        // Already gone
+                    }
+                }
+            }
+        }
+
+        /// <summary>
+        /// Messages to send a (re)connecting client before live ones. Always at least one,
+        /// so the client holds a current token even if nothing changes for a while.
+        /// </summary>
+        private List<string> BuildReplay(string? resumeToken, string? audience)
+        {
+            var replay = new List<string>();
+            if (!TryParseToken(resumeToken, out var since))
+            {
+                // Fresh connection, or a token from before a restart: the client must reload
+                replay.Add(Serialize(_sequence, resumeToken != null, Array.Empty<TChange>()));
+                return replay;
+            }
+
+            var oldest = _buffer.First?.Value.Sequence ?? _sequence + 1;
+            if (since > _sequence || since < oldest - 1)
+            {
+                replay.Add(Serialize(_sequence, true, Array.Empty<TChange>()));
+                return replay;
+            }
+
+            foreach (var message in _buffer)
+            {
+                if (message.Sequence > since && Matches(audience, message.Audience))
+                {
+                    replay.Add(Serialize(message.Sequence, false, message.Changes));
+                }
+            }
+            if (replay.Count == 0)
+            {
+                replay.Add(Serialize(_sequence, false, Array.Empty<TChange>()));
+            }
+            return replay;
+        }
+
+        private bool TryParseToken(string? token, out long sequence)
+        {
+            sequence = 0;
+            var parts = token?.Split('.');
+            return parts != null && parts.Length == 2 && parts[0] == _epoch && long.TryParse(parts[1], out sequence);
+        }
+
+        private string Serialize(long sequence, bool reset, IReadOnlyList<TChange> changes)
+        {
+            var message = new Dictionary<string, object>
+            {
+                ["token"] = $"{_epoch}.{sequence}",
+                ["reset"] = reset,
+                [ChangesProperty] = changes
+            };
+            return JsonSerializer.Serialize(message);
+        }
+
+        private static bool Matches(string? subscriberAudience, string? messageAudience)
+        {
+            return messageAudience == null || subscriberAudience == messageAudience;
+        }
+
+        private static Task SendAsync(WebSocket socket, string json, CancellationToken cancellationToken)
+        {
+            return socket.SendAsync(new ArraySegment<byte>(Encoding.UTF8.GetBytes(json)), WebSocketMessageType.Text, true, cancellationToken);
+        }
+
+        /// <summary>
+        /// Reads (and ignores) client frames so pings are answered and a close is noticed
+        /// </summary>
+        private static async Task ReceiveUntilClosedAsync(WebSocket socket, CancellationTokenSource connection)
+        {
+            var buffer = new byte[1024];
+            try
+            {
+                while (!connection.IsCancellationRequested)
+                {
+                    var result = await socket.ReceiveAsync(new ArraySegment<byte>(buffer), connection.Token);
+                    if (result.MessageType == WebSocketMessageType.Close)
+                    {
+                        break;
+                    }
+                }
+            }
+            catch (Exception ex) when (ex is OperationCanceledException || ex is WebSocketException)
+            {
+                // Connection closed or aborted
+            }
+            connection.Cancel();
+        }
+    }
+}
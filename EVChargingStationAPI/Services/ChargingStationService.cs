@@ -19,15 +19,17 @@ namespace EVChargingStationAPI.Services
         private readonly IMongoCollection<ChargingStation> _chargingStations;
         private readonly IMongoCollection<Booking> _bookings;
         private readonly IMongoDatabase _database;
+        private readonly StationAvailabilityHub _availabilityHub;
 
         /// <summary>
         /// Constructor to initialize charging station service with database collections
         /// </summary>
-        public ChargingStationService(IMongoClient mongoClient)
+        public ChargingStationService(IMongoClient mongoClient, StationAvailabilityHub availabilityHub)
         {
             _database = mongoClient.GetDatabase("EVChargingStationDB");
             _chargingStations = _database.GetCollection<ChargingStation>("ChargingStations");
             _bookings = _database.GetCollection<Booking>("Bookings");
+            _availabilityHub = availabilityHub;
         }
 
         /// <summary>
@@ -272,6 +274,10 @@ namespace EVChargingStationAPI.Services
                 if (result.ModifiedCount > 0)
                 {
                     var updatedStation = await _chargingStations.Find(s => s.Id == id).FirstOrDefaultAsync();
+                    if (updatedStation != null)
+                    {
+                        _availabilityHub.PublishStation(updatedStation);
+                    }
                     return new ApiResponseDTO<ChargingStation>
                     {
                         Success = true,
@@ -337,6 +343,9 @@ namespace EVChargingStationAPI.Services
 
                 if (result.DeletedCount > 0)
                 {
+                    // Listening maps drop a station once it reports inactive
+                    _availabilityHub.PublishStation(new ChargingStation { Id = id, IsActive = false });
+
                     return new ApiResponseDTO<bool>
                     {
                         Success = true,
@@ -404,6 +413,12 @@ namespace EVChargingStationAPI.Services
 
                 if (result.ModifiedCount > 0)
                 {
+                    var updatedStation = await _chargingStations.Find(s => s.Id == id).FirstOrDefaultAsync();
+                    if (updatedStation != null)
+                    {
+                        _availabilityHub.PublishStation(updatedStation);
+                    }
+
                     return new ApiResponseDTO<bool>
                     {
                         Success = true,
@@ -443,7 +458,7 @@ namespace EVChargingStationAPI.Services
                     var distance = CalculateDistance(request.Latitude, request.Longitude,
                                                    station.Location.Latitude, station.Location.Longitude);
 
-                    if (distance <= request.RadiusKm)
+                    if (distance <= request.RadiusKm && distance >= request.ExcludeRadiusKm)
                     {
                         nearbyStations.Add(station);
                     }
@@ -515,6 +530,9 @@ namespace EVChargingStationAPI.Services
 
                 if (result.ModifiedCount > 0)
                 {
+                    station.AvailableSlots = availableSlots;
+                    _availabilityHub.PublishStation(station);
+
                     return new ApiResponseDTO<bool>
                     {
                         Success = true,
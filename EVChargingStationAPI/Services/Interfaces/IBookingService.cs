@@ -28,7 +28,9 @@ namespace EVChargingStationAPI.Services
         Task<ApiResponseDTO<BookingResponseDTO>> StartBookingAsync(string id, string userId);
         Task<ApiResponseDTO<BookingResponseDTO>> CompleteBookingAsync(string id, string userId);
         Task<ApiResponseDTO<List<BookingResponseDTO>>> GetUpcomingBookingsAsync(string evOwnerNIC);
-        Task<ApiResponseDTO<List<BookingResponseDTO>>> GetBookingHistoryAsync(string evOwnerNIC);
-        Task<ApiResponseDTO<List<SessionHistoryDTO>>> GetSessionHistoryAsync();
+        Task<ApiResponseDTO<List<BookingResponseDTO>>> GetBookingHistoryAsync(string evOwnerNIC, DateTime? before = null, string? beforeId = null, int? limit = null);
+        Task<ApiResponseDTO<StationOccupancyDTO>> GetStationOccupancyAsync(string stationId, DateTime? from = null, DateTime? to = null);
+        Task<ApiResponseDTO<QRVerificationDataDTO>> GetQRVerificationDataAsync(string operatorId);
+        Task<ApiResponseDTO<List<SessionHistoryDTO>>> GetSessionHistoryAsync(DateTime? since = null, DateTime? before = null, string? beforeId = null, int? limit = null, bool includeActive = false);
     }
 }
\ No newline at end of file
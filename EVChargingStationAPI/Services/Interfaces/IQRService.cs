@@ -18,5 +18,6 @@ namespace EVChargingStationAPI.Services
         string GenerateQRCode(Booking booking);
         Task<ApiResponseDTO<Booking>> VerifyQRCodeAsync(string qrCode);
         bool ValidateQRCode(string qrCode);
+        QRVerificationDataDTO GetVerificationKey();
     }
 }
\ No newline at end of file
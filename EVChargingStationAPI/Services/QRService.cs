@@ -5,7 +5,9 @@
  * QRService.cs
  * QR Code service implementation
  * Date: September 2025
- * Description: Handles QR code generation and verification for bookings
+ * Description: Handles QR code generation and verification for bookings.
+ * QR codes are signed with an ECDSA P-256 key so operator devices can check
+ * them offline against the published public key.
  */
 
 using EVChargingStationAPI.Models;
@@ -19,6 +21,16 @@ namespace EVChargingStationAPI.Services
 {
     public class QRService : IQRService
     {
+        private const int TokenVersion = 2;
+        private const string SignatureAlgorithm = "SHA256withECDSA";
+
+        // Codes can be scanned from this long before the reservation until it ends
+        private const int EarlyArrivalMinutes = 30;
+
+        private static readonly object SigningKeyLock = new();
+        private static ECDsa? _signingKey;
+        private static string _keyId = string.Empty;
+
         private readonly IMongoCollection<Booking> _bookings;
         private readonly string _secretKey;
 
@@ -30,10 +42,35 @@ namespace EVChargingStationAPI.Services
             var database = mongoClient.GetDatabase("EVChargingStationDB");
             _bookings = database.GetCollection<Booking>("Bookings");
             _secretKey = configuration["JWT:SecretKey"] ?? "DefaultSecretKey";
+            EnsureSigningKey(configuration["QRSigning:PrivateKey"]);
+        }
+
+        /// <summary>
+        /// Loads the QR signing key once per process. Without a configured key a
+        /// temporary one is generated, which operator devices pick up on their
+        /// next refresh; codes signed before a restart then no longer verify.
+        /// </summary>
+        private static void EnsureSigningKey(string? privateKey)
+        {
+            lock (SigningKeyLock)
+            {
+                if (_signingKey != null)
+                    return;
+
+                var key = ECDsa.Create(ECCurve.NamedCurves.nistP256);
+                if (!string.IsNullOrWhiteSpace(privateKey))
+                {
+                    key.ImportPkcs8PrivateKey(Convert.FromBase64String(privateKey), out _);
+                }
+
+                var publicKey = key.ExportSubjectPublicKeyInfo();
+                _keyId = Convert.ToHexString(SHA256.HashData(publicKey), 0, 8).ToLowerInvariant();
+                _signingKey = key;
+            }
         }
 
         /// <summary>
-        /// Generates a secure QR code for a booking
+        /// Generates a signed, time-bound QR code for a booking
         /// </summary>
         public string GenerateQRCode(Booking booking)
         {
@@ -41,20 +78,26 @@ namespace EVChargingStationAPI.Services
             {
                 var qrData = new QRData
                 {
+                    Version = TokenVersion,
+                    KeyId = _keyId,
                     BookingId = booking.Id,
                     EVOwnerNIC = booking.EVOwnerNIC,
                     ChargingStationId = booking.ChargingStationId,
                     ReservationDateTime = booking.ReservationDateTime.ToString("yyyy-MM-ddTHH:mm:ssZ"),
+                    DurationMinutes = booking.DurationMinutes,
+                    NotBefore = new DateTimeOffset(booking.ReservationDateTime.AddMinutes(-EarlyArrivalMinutes)).ToUnixTimeSeconds(),
+                    ExpiresAt = new DateTimeOffset(booking.ReservationDateTime.AddMinutes(booking.DurationMinutes)).ToUnixTimeSeconds(),
                     Timestamp = DateTime.UtcNow.ToString("yyyy-MM-ddTHH:mm:ssZ")
                 };
 
                 var jsonData = JsonSerializer.Serialize(qrData);
                 var encodedData = Convert.ToBase64String(Encoding.UTF8.GetBytes(jsonData));
 
-                // Create a hash to verify integrity
-                var hash = GenerateHash($"{encodedData}{_secretKey}");
+                // DER-encoded signature over the encoded payload, as java.security.Signature expects
+                var signature = _signingKey!.SignData(Encoding.UTF8.GetBytes(encodedData),
+                    HashAlgorithmName.SHA256, DSASignatureFormat.Rfc3279DerSequence);
 
-                return $"{encodedData}.{hash}";
+                return $"{encodedData}.{Convert.ToBase64String(signature)}";
             }
             catch (Exception ex)
             {
@@ -62,6 +105,36 @@ namespace EVChargingStationAPI.Services
             }
         }
 
+        /// <summary>
+        /// Public half of the QR signing key, for offline verification on operator devices
+        /// </summary>
+        public QRVerificationDataDTO GetVerificationKey()
+        {
+            return new QRVerificationDataDTO
+            {
+                KeyId = _keyId,
+                Algorithm = SignatureAlgorithm,
+                PublicKey = Convert.ToBase64String(_signingKey!.ExportSubjectPublicKeyInfo()),
+                GeneratedAt = DateTime.UtcNow
+            };
+        }
+
+        /// <summary>
+        /// Checks a signed code's signature over its encoded payload; false if it does not match or is not Base64
+        /// </summary>
+        private static bool VerifySignature(string encodedData, string signature)
+        {
+            try
+            {
+                return _signingKey!.VerifyData(Encoding.UTF8.GetBytes(encodedData), Convert.FromBase64String(signature),
+                    HashAlgorithmName.SHA256, DSASignatureFormat.Rfc3279DerSequence);
+            }
+            catch (FormatException)
+            {
+                return false;
+            }
+        }
+
         /// <summary>
         /// Verifies QR code and retrieves associated booking
         /// </summary>
@@ -82,17 +155,6 @@ namespace EVChargingStationAPI.Services
                 var encodedData = parts[0];
                 var hash = parts[1];
 
-                // Verify hash integrity
-                var expectedHash = GenerateHash($"{encodedData}{_secretKey}");
-                if (hash != expectedHash)
-                {
-                    return new ApiResponseDTO<Booking>
-                    {
-                        Success = false,
-                        Message = "QR code has been tampered with"
-                    };
-                }
-
                 var jsonData = Encoding.UTF8.GetString(Convert.FromBase64String(encodedData));
                 var qrData = JsonSerializer.Deserialize<QRData>(jsonData);
 
@@ -105,10 +167,20 @@ namespace EVChargingStationAPI.Services
                     };
                 }
 
-                // Check if QR code is not too old (24 hours max)
-                if (DateTime.TryParse(qrData.Timestamp, out var timestamp))
+                if (qrData.Version >= TokenVersion)
                 {
-                    if (DateTime.UtcNow.Subtract(timestamp).TotalHours > 24)
+                    if (!VerifySignature(encodedData, hash))
+                    {
+                        return new ApiResponseDTO<Booking>
+                        {
+                            Success = false,
+                            Message = "QR code has been tampered with"
+                        };
+                    }
+
+                    // Signed codes are only valid around the reservation itself
+                    var now = DateTimeOffset.UtcNow.ToUnixTimeSeconds();
+                    if (now > qrData.ExpiresAt)
                     {
                         return new ApiResponseDTO<Booking>
                         {
@@ -116,6 +188,40 @@ namespace EVChargingStationAPI.Services
                             Message = "QR code has expired"
                         };
                     }
+                    if (now < qrData.NotBefore)
+                    {
+                        return new ApiResponseDTO<Booking>
+                        {
+                            Success = false,
+                            Message = "QR code is not valid yet"
+                        };
+                    }
+                }
+                else
+                {
+                    // Verify hash integrity of codes issued before signing
+                    var expectedHash = GenerateHash($"{encodedData}{_secretKey}");
+                    if (hash != expectedHash)
+                    {
+                        return new ApiResponseDTO<Booking>
+                        {
+                            Success = false,
+                            Message = "QR code has been tampered with"
+                        };
+                    }
+
+                    // Check if QR code is not too old (24 hours max)
+                    if (DateTime.TryParse(qrData.Timestamp, out var timestamp))
+                    {
+                        if (DateTime.UtcNow.Subtract(timestamp).TotalHours > 24)
+                        {
+                            return new ApiResponseDTO<Booking>
+                            {
+                                Success = false,
+                                Message = "QR code has expired"
+                            };
+                        }
+                    }
                 }
 
                 var booking = await _bookings.Find(b => b.Id == qrData.BookingId).FirstOrDefaultAsync();
@@ -139,6 +245,17 @@ namespace EVChargingStationAPI.Services
                     };
                 }
 
+                // A signed code is valid only while it is the one issued for the booking;
+                // re-approval after a change issues a new one
+                if (qrData.Version >= TokenVersion && booking.QRCode != qrCode)
+                {
+                    return new ApiResponseDTO<Booking>
+                    {
+                        Success = false,
+                        Message = "QR code has been replaced"
+                    };
+                }
+
                 return new ApiResponseDTO<Booking>
                 {
                     Success = true,
@@ -183,10 +300,15 @@ namespace EVChargingStationAPI.Services
         /// </summary>
         private class QRData
         {
+            public int Version { get; set; }
+            public string KeyId { get; set; } = string.Empty;
             public string BookingId { get; set; } = string.Empty;
             public string EVOwnerNIC { get; set; } = string.Empty;
             public string ChargingStationId { get; set; } = string.Empty;
             public string ReservationDateTime { get; set; } = string.Empty;
+            public int DurationMinutes { get; set; }
+            public long NotBefore { get; set; }
+            public long ExpiresAt { get; set; }
             public string Timestamp { get; set; } = string.Empty;
         }
     }
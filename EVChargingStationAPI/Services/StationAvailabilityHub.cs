@@ -0,0 +1,38 @@
+﻿// ========================================
+// Services/StationAvailabilityHub.cs
+// ========================================
+/*
+ * StationAvailabilityHub.cs
+ * Live charging station availability
+ * Date: September 2025
+ * Description: Pushes each station's free-slot count to connected apps whenever
+ * a booking or an operator changes it, so maps update without reloading
+ */
+
+using EVChargingStationAPI.Models;
+using EVChargingStationAPI.Models.DTOs;
+
+namespace EVChargingStationAPI.Services
+{
+    public class StationAvailabilityHub : ChangeStreamHub<AvailabilityDeltaDTO>
+    {
+        protected override string ChangesProperty => "deltas";
+
+        /// <summary>
+        /// Publishes a station's current availability to every connected client
+        /// </summary>
+        public void PublishStation(ChargingStation station)
+        {
+            Publish(null, new[]
+            {
+                new AvailabilityDeltaDTO
+                {
+                    StationId = station.Id,
+                    AvailableSlots = station.AvailableSlots,
+                    TotalSlots = station.TotalSlots,
+                    IsActive = station.IsActive
+                }
+            });
+        }
+    }
+}
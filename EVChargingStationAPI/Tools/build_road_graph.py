@@ -0,0 +1,152 @@
+#!/usr/bin/env python3
+"""
+build_road_graph.py
+Builds the road graph the mobile app uses for offline routing
+Description: Converts an OpenStreetMap XML extract (.osm, e.g. from the
+openstreetmap.org export or Overpass) into the ZRG1 file served by
+GET api/routing/graph. See RoadGraph.java in the mobile app for the layout.
+
+Usage: python3 build_road_graph.py region.osm region.zrg
+"""
+
+import math
+import re
+import struct
+import sys
+import xml.etree.ElementTree as ET
+
+MAGIC = 0x5A524731  # "ZRG1"
+VERSION = 1
+EARTH_RADIUS_M = 6371000.0
+KMH_PER_MPH = 1.609344
+MAXSPEED = re.compile(r"^\s*(\d+(?:\.\d+)?)\s*(mph)?\s*$")
+
+# Typical driving speeds in km/h for the road classes a car can use
+SPEEDS_KMH = {
+    "motorway": 100, "motorway_link": 60,
+    "trunk": 80, "trunk_link": 50,
+    "primary": 60, "primary_link": 40,
+    "secondary": 50, "secondary_link": 35,
+    "tertiary": 40, "tertiary_link": 30,
+    "unclassified": 30, "residential": 25,
+    "living_street": 10, "service": 15,
+}
+
+
+def distance_m(lat1, lon1, lat2, lon2):
+    phi1, phi2 = math.radians(lat1), math.radians(lat2)
+    d_phi = phi2 - phi1
+    d_lambda = math.radians(lon2 - lon1)
+    a = math.sin(d_phi / 2) ** 2 + math.cos(phi1) * math.cos(phi2) * math.sin(d_lambda / 2) ** 2
+    return 2 * EARTH_RADIUS_M * math.asin(min(1.0, math.sqrt(a)))
+
+
+def way_speed(tags):
+    speed = SPEEDS_KMH.get(tags.get("highway"))
+    if speed is None or tags.get("access") in ("no", "private") or tags.get("motor_vehicle") == "no":
+        return None
+    posted = parse_maxspeed(tags.get("maxspeed", ""))
+    if posted is not None:
+        speed = posted
+    return speed
+
+
+def parse_maxspeed(value):
+    """Posted limit in km/h, or None for values such as "none", "signals" or "0"."""
+    match = MAXSPEED.match(value)
+    if match is None:
+        return None
+    speed = float(match.group(1))
+    if match.group(2):
+        speed *= KMH_PER_MPH
+    return speed if speed > 0 else None
+
+
+def read_osm(path):
+    coordinates = {}
+    ways = []
+    for _, element in ET.iterparse(path, events=("end",)):
+        if element.tag == "node":
+            coordinates[element.get("id")] = (float(element.get("lat")), float(element.get("lon")))
+            element.clear()
+        elif element.tag == "way":
+            tags = {tag.get("k"): tag.get("v") for tag in element.findall("tag")}
+            speed = way_speed(tags)
+            if speed is not None:
+                refs = [nd.get("ref") for nd in element.findall("nd")]
+                oneway = tags.get("oneway")
+                if tags.get("junction") == "roundabout" or tags.get("highway") == "motorway":
+                    oneway = oneway or "yes"
+                ways.append((refs, speed, oneway))
+            element.clear()
+    return coordinates, ways
+
+
+def build(coordinates, ways):
+    node_index = {}
+    latitudes, longitudes = [], []
+    adjacency = []
+    max_speed = 1
+
+    def index_of(ref):
+        if ref not in node_index:
+            node_index[ref] = len(latitudes)
+            lat, lon = coordinates[ref]
+            latitudes.append(lat)
+            longitudes.append(lon)
+            adjacency.append([])
+        return node_index[ref]
+
+    for refs, speed, oneway in ways:
+        refs = [ref for ref in refs if ref in coordinates]
+        max_speed = max(max_speed, speed)
+        for a, b in zip(refs, refs[1:]):
+            if a == b:
+                continue
+            lat_a, lon_a = coordinates[a]
+            lat_b, lon_b = coordinates[b]
+            length = distance_m(lat_a, lon_a, lat_b, lon_b)
+            time = length / (speed / 3.6)
+            u, v = index_of(a), index_of(b)
+            if oneway == "-1":
+                u, v = v, u
+            adjacency[u].append((v, length, time))
+            if oneway not in ("yes", "true", "1", "-1"):
+                adjacency[v].append((u, length, time))
+
+    return latitudes, longitudes, adjacency, max_speed
+
+
+def write(path, latitudes, longitudes, adjacency, max_speed):
+    node_count = len(latitudes)
+    edge_count = sum(len(edges) for edges in adjacency)
+    first_edge = [0]
+    for edges in adjacency:
+        first_edge.append(first_edge[-1] + len(edges))
+
+    def ints(values):
+        return struct.pack(">%di" % len(values), *values)
+
+    with open(path, "wb") as out:
+        out.write(ints([MAGIC, VERSION, node_count, edge_count, math.ceil(max_speed)]))
+        out.write(ints([round(lat * 1e7) for lat in latitudes]))
+        out.write(ints([round(lon * 1e7) for lon in longitudes]))
+        out.write(ints(first_edge))
+        out.write(ints([v for edges in adjacency for v, _, _ in edges]))
+        # Round up so the A* heuristic, which assumes max_speed, stays a lower bound
+        out.write(ints([max(1, math.ceil(length * 10)) for edges in adjacency for _, length, _ in edges]))
+        out.write(ints([max(1, math.ceil(time * 10)) for edges in adjacency for _, _, time in edges]))
+    return node_count, edge_count
+
+
+def main():
+    if len(sys.argv) != 3:
+        print(__doc__.strip().splitlines()[-1])
+        sys.exit(1)
+    coordinates, ways = read_osm(sys.argv[1])
+    node_count, edge_count = write(sys.argv[2], *build(coordinates, ways))
+    print("Wrote %d nodes and %d edges to %s" % (node_count, edge_count, sys.argv[2]))
+
+
+if __name__ == "__main__":
+    main()
@@ -13,6 +13,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.ead.zap.R;
 import com.ead.zap.models.ChargingStation;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class StationMapListAdapter extends RecyclerView.Adapter<StationMapListAdapter.StationViewHolder> {
@@ -28,7 +29,8 @@ public class StationMapListAdapter extends RecyclerView.Adapter<StationMapListAd
 
     public StationMapListAdapter(Context context, List<ChargingStation> stations, OnStationClickListener listener) {
         this.context = context;
-        this.stations = stations;
+        // Own copy, so the caller's list and the adapter's never alias
+        this.stations = stations != null ? new ArrayList<>(stations) : new ArrayList<>();
         this.listener = listener;
     }
 
@@ -55,11 +57,8 @@ public class StationMapListAdapter extends RecyclerView.Adapter<StationMapListAd
     }
 
     public void updateStations(List<ChargingStation> newStations) {
-        // Create a new list to avoid reference issues
-        this.stations.clear();
-        if (newStations != null) {
-            this.stations.addAll(newStations);
-        }
+        // Build a new list; clearing in place would empty newStations if it is our own list
+        this.stations = newStations != null ? new ArrayList<>(newStations) : new ArrayList<>();
         notifyDataSetChanged();
     }
 
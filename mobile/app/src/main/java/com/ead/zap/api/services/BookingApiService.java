@@ -15,6 +15,7 @@ import retrofit2.http.PATCH;
 import retrofit2.http.POST;
 import retrofit2.http.PUT;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
 
 /**
  * Booking API service interface using Retrofit
@@ -53,13 +54,17 @@ public interface BookingApiService {
     );
 
     /**
-     * Get booking history for an EV owner
-     * GET /api/bookings/evowner/{nic}/history
+     * Get one page of booking history for an EV owner, newest reservation first
+     * GET /api/bookings/evowner/{nic}/history?before={before}&beforeId={beforeId}&limit={limit}
+     * A null before is the first page; beforeId splits ties on the reservation time
      */
     @GET(ApiConfig.Bookings.HISTORY)
     Call<ApiResponse<List<BookingResponseDTO>>> getBookingHistory(
         @Header("Authorization") String authToken,
-        @Path("nic") String nic
+        @Path("nic") String nic,
+        @Query("before") String before,
+        @Query("beforeId") String beforeId,
+        @Query("limit") int limit
     );
 
     /**
@@ -122,13 +127,43 @@ public interface BookingApiService {
         @Body QRVerificationRequest request
     );
 
+    /**
+     * Get the QR signing public key and today's approved bookings at the operator's stations
+     * GET /api/bookings/operator/qr-verification
+     */
+    @GET(ApiConfig.Bookings.QR_VERIFICATION_DATA)
+    Call<ApiResponse<QRVerificationDataDTO>> getQRVerificationData(
+        @Header("Authorization") String authToken
+    );
+
     /**
      * Get enhanced session history with customer details
-     * GET /api/bookings/session-history
+     * GET /api/bookings/session-history?since={since}&includeActive=true
+     * GET /api/bookings/session-history?before={before}&beforeId={beforeId}&limit={limit}
+     * With since, only sessions updated at or after that time; with before and
+     * limit, one page of sessions created before that time (or at it, with a
+     * lower id than beforeId), newest first. includeActive adds every session
+     * still in progress to a since query. Null parameters are left out.
      */
     @GET(ApiConfig.Bookings.BASE + "/session-history")
     Call<ApiResponse<List<SessionHistoryResponseDTO>>> getSessionHistory(
-        @Header("Authorization") String authToken
+        @Header("Authorization") String authToken,
+        @Query("since") String since,
+        @Query("includeActive") Boolean includeActive,
+        @Query("before") String before,
+        @Query("beforeId") String beforeId,
+        @Query("limit") Integer limit
+    );
+
+    /**
+     * Get the booked intervals and slot counts of a charging station
+     * GET /api/bookings/station/{stationId}/occupancy
+     * Defaults to the whole booking window from now.
+     */
+    @GET(ApiConfig.Bookings.STATION_OCCUPANCY)
+    Call<ApiResponse<StationOccupancyDTO>> getStationOccupancy(
+        @Header("Authorization") String authToken,
+        @Path("stationId") String stationId
     );
 
     /**
@@ -278,6 +313,7 @@ public interface BookingApiService {
         private Double energyDelivered;
         private String notes;
         private String createdAt;
+        private String updatedAt;
         private java.util.List<VehicleDetailDTO> customerVehicles;
 
         // Getters and setters
@@ -329,10 +365,109 @@ public interface BookingApiService {
         public String getCreatedAt() { return createdAt; }
         public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
 
+        public String getUpdatedAt() { return updatedAt; }
+        public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
+
         public java.util.List<VehicleDetailDTO> getCustomerVehicles() { return customerVehicles; }
         public void setCustomerVehicles(java.util.List<VehicleDetailDTO> customerVehicles) { this.customerVehicles = customerVehicles; }
     }
 
+    class StationOccupancyDTO {
+        private String chargingStationId;
+        private int totalSlots;
+        private int availableSlots;
+        private String from;
+        private String to;
+        private java.util.List<BookedIntervalDTO> bookings;
+
+        // Getters and setters
+        public String getChargingStationId() { return chargingStationId; }
+        public void setChargingStationId(String chargingStationId) { this.chargingStationId = chargingStationId; }
+
+        public int getTotalSlots() { return totalSlots; }
+        public void setTotalSlots(int totalSlots) { this.totalSlots = totalSlots; }
+
+        public int getAvailableSlots() { return availableSlots; }
+        public void setAvailableSlots(int availableSlots) { this.availableSlots = availableSlots; }
+
+        public String getFrom() { return from; }
+        public void setFrom(String from) { this.from = from; }
+
+        public String getTo() { return to; }
+        public void setTo(String to) { this.to = to; }
+
+        public java.util.List<BookedIntervalDTO> getBookings() { return bookings; }
+        public void setBookings(java.util.List<BookedIntervalDTO> bookings) { this.bookings = bookings; }
+    }
+
+    class BookedIntervalDTO {
+        private String reservationDateTime;
+        private int durationMinutes;
+
+        // Getters and setters
+        public String getReservationDateTime() { return reservationDateTime; }
+        public void setReservationDateTime(String reservationDateTime) { this.reservationDateTime = reservationDateTime; }
+
+        public int getDurationMinutes() { return durationMinutes; }
+        public void setDurationMinutes(int durationMinutes) { this.durationMinutes = durationMinutes; }
+    }
+
+    class QRVerificationDataDTO {
+        private String keyId;
+        private String algorithm;
+        private String publicKey;
+        private String generatedAt;
+        private java.util.List<QRBookingDTO> bookings;
+
+        // Getters and setters
+        public String getKeyId() { return keyId; }
+        public void setKeyId(String keyId) { this.keyId = keyId; }
+
+        public String getAlgorithm() { return algorithm; }
+        public void setAlgorithm(String algorithm) { this.algorithm = algorithm; }
+
+        public String getPublicKey() { return publicKey; }
+        public void setPublicKey(String publicKey) { this.publicKey = publicKey; }
+
+        public String getGeneratedAt() { return generatedAt; }
+        public void setGeneratedAt(String generatedAt) { this.generatedAt = generatedAt; }
+
+        public java.util.List<QRBookingDTO> getBookings() { return bookings; }
+        public void setBookings(java.util.List<QRBookingDTO> bookings) { this.bookings = bookings; }
+    }
+
+    class QRBookingDTO {
+        private String bookingId;
+        private String evOwnerNIC;
+        private String chargingStationId;
+        private String reservationDateTime;
+        private int durationMinutes;
+        private String status;
+        private double totalAmount;
+
+        // Getters and setters
+        public String getBookingId() { return bookingId; }
+        public void setBookingId(String bookingId) { this.bookingId = bookingId; }
+
+        public String getEvOwnerNIC() { return evOwnerNIC; }
+        public void setEvOwnerNIC(String evOwnerNIC) { this.evOwnerNIC = evOwnerNIC; }
+
+        public String getChargingStationId() { return chargingStationId; }
+        public void setChargingStationId(String chargingStationId) { this.chargingStationId = chargingStationId; }
+
+        public String getReservationDateTime() { return reservationDateTime; }
+        public void setReservationDateTime(String reservationDateTime) { this.reservationDateTime = reservationDateTime; }
+
+        public int getDurationMinutes() { return durationMinutes; }
+        public void setDurationMinutes(int durationMinutes) { this.durationMinutes = durationMinutes; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public double getTotalAmount() { return totalAmount; }
+        public void setTotalAmount(double totalAmount) { this.totalAmount = totalAmount; }
+    }
+
     class VehicleDetailDTO {
         private String make;
         private String model;
@@ -54,6 +54,8 @@ public interface ChargingStationApiService {
         private double latitude;
         private double longitude;
         private double radiusKm;
+        // Leave out stations closer than this, which the caller already has
+        private double excludeRadiusKm;
 
         public NearbyStationsRequest() {}
 
@@ -63,6 +65,11 @@ public interface ChargingStationApiService {
             this.radiusKm = radiusKm;
         }
 
+        public NearbyStationsRequest(double latitude, double longitude, double radiusKm, double excludeRadiusKm) {
+            this(latitude, longitude, radiusKm);
+            this.excludeRadiusKm = excludeRadiusKm;
+        }
+
         // Getters and setters
         public double getLatitude() { return latitude; }
         public void setLatitude(double latitude) { this.latitude = latitude; }
@@ -72,6 +79,9 @@ public interface ChargingStationApiService {
 
         public double getRadiusKm() { return radiusKm; }
         public void setRadiusKm(double radiusKm) { this.radiusKm = radiusKm; }
+
+        public double getExcludeRadiusKm() { return excludeRadiusKm; }
+        public void setExcludeRadiusKm(double excludeRadiusKm) { this.excludeRadiusKm = excludeRadiusKm; }
     }
 
     class ChargingStationResponseDTO {
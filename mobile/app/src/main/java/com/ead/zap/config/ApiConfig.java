@@ -68,6 +68,7 @@ public class ApiConfig {
         public static final String NEARBY = "chargingstations/nearby";
         public static final String SLOTS = "chargingstations/{id}/slots";
         public static final String STATUS = "chargingstations/{id}/status";
+        public static final String AVAILABILITY_STREAM = "chargingstations/availability/stream";
     }
     
     // Booking endpoints
@@ -78,8 +79,16 @@ public class ApiConfig {
         public static final String START = "bookings/{id}/start";
         public static final String COMPLETE = "bookings/{id}/complete";
         public static final String VERIFY_QR = "bookings/verify-qr";
+        public static final String QR_VERIFICATION_DATA = "bookings/operator/qr-verification";
         public static final String UPCOMING = "bookings/evowner/{nic}/upcoming";
         public static final String HISTORY = "bookings/evowner/{nic}/history";
+        public static final String STATION_OCCUPANCY = "bookings/station/{stationId}/occupancy";
+        public static final String STATUS_STREAM = "bookings/status/stream";
+    }
+    
+    // Routing endpoints
+    public static final class Routing {
+        public static final String GRAPH = "routing/graph";
     }
     
     // Request timeout configurations (in seconds)
@@ -12,7 +12,7 @@ public class AppDatabaseHelper extends SQLiteOpenHelper {
     
     // Database Info
     private static final String DATABASE_NAME = "zap_ev_database.db";
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 2;
     
     // Table Names
     public static final String TABLE_USERS = "users";
@@ -20,6 +20,7 @@ public class AppDatabaseHelper extends SQLiteOpenHelper {
     public static final String TABLE_VEHICLES = "vehicles";
     public static final String TABLE_BOOKINGS = "bookings";
     public static final String TABLE_CHARGING_STATIONS = "charging_stations";
+    public static final String TABLE_OPERATOR_SESSIONS = "operator_sessions";
     
     // Common column names
     public static final String KEY_ID = "id";
@@ -73,6 +74,12 @@ public class AppDatabaseHelper extends SQLiteOpenHelper {
     public static final String KEY_STATION_COST_PER_HOUR = "cost_per_hour";
     public static final String KEY_STATION_IS_ACTIVE = "is_active";
     
+    // Operator session table columns (synced session history)
+    public static final String KEY_SESSION_STATUS = "status";
+    public static final String KEY_SESSION_STARTED_AT = "started_at";
+    public static final String KEY_SESSION_ENERGY = "energy_delivered";
+    public static final String KEY_SESSION_DATA = "data";
+    
     private static AppDatabaseHelper instance;
     
     public static synchronized AppDatabaseHelper getInstance(Context context) {
@@ -166,11 +173,37 @@ public class AppDatabaseHelper extends SQLiteOpenHelper {
         db.execSQL(CREATE_VEHICLES_TABLE);
         db.execSQL(CREATE_BOOKINGS_TABLE);
         db.execSQL(CREATE_STATIONS_TABLE);
+        createOperatorSessionsTable(db);
+    }
+    
+    /**
+     * Operator session history, keyed by booking id. The row keeps the
+     * fields the dashboard aggregates need plus the full session as JSON.
+     */
+    private void createOperatorSessionsTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_OPERATOR_SESSIONS + "("
+                + KEY_ID + " TEXT PRIMARY KEY,"
+                + KEY_SESSION_STATUS + " TEXT,"
+                + KEY_SESSION_STARTED_AT + " INTEGER,"
+                + KEY_SESSION_ENERGY + " REAL,"
+                + KEY_SESSION_DATA + " TEXT,"
+                + KEY_CREATED_AT + " INTEGER,"
+                + KEY_UPDATED_AT + " INTEGER"
+                + ")");
+        db.execSQL("CREATE INDEX idx_" + TABLE_OPERATOR_SESSIONS + "_" + KEY_UPDATED_AT
+                + " ON " + TABLE_OPERATOR_SESSIONS + "(" + KEY_UPDATED_AT + ")");
     }
     
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion == 1 && newVersion == 2) {
+            // Version 2 only adds the operator session table; keep cached data
+            createOperatorSessionsTable(db);
+            return;
+        }
+        
         // Drop older tables if existed
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_OPERATOR_SESSIONS);
         db.execSQL("DROP TABLE IF EXISTS " + TABLE_CHARGING_STATIONS);
         db.execSQL("DROP TABLE IF EXISTS " + TABLE_BOOKINGS);
         db.execSQL("DROP TABLE IF EXISTS " + TABLE_VEHICLES);
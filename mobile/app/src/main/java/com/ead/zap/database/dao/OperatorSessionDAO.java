@@ -0,0 +1,156 @@
+package com.ead.zap.database.dao;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.ead.zap.api.services.BookingApiService;
+import com.ead.zap.database.AppDatabaseHelper;
+import com.ead.zap.utils.DateTimeCodec;
+import com.google.gson.Gson;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object for operator session history
+ * Sessions are stored by booking id so repeated syncs replace rows in place
+ */
+public class OperatorSessionDAO {
+
+    /**
+     * The columns the dashboard aggregates are built from
+     */
+    public static class SessionSummary {
+        public final String bookingId;
+        public final String status;
+        public final long startedAt;
+        public final Double energy;
+        public final long updatedAt;
+
+        SessionSummary(String bookingId, String status, long startedAt, Double energy, long updatedAt) {
+            this.bookingId = bookingId;
+            this.status = status;
+            this.startedAt = startedAt;
+            this.energy = energy;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    private final AppDatabaseHelper dbHelper;
+    private final Gson gson = new Gson();
+
+    public OperatorSessionDAO(Context context) {
+        this.dbHelper = AppDatabaseHelper.getInstance(context);
+    }
+
+    /**
+     * Insert or replace sessions in one transaction
+     */
+    public void insertOrUpdateSessions(List<BookingApiService.SessionHistoryResponseDTO> sessions) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            for (BookingApiService.SessionHistoryResponseDTO session : sessions) {
+                if (session.getBookingId() == null) {
+                    continue;
+                }
+                values.clear();
+                values.put(AppDatabaseHelper.KEY_ID, session.getBookingId());
+                values.put(AppDatabaseHelper.KEY_SESSION_STATUS, session.getStatus());
+                values.put(AppDatabaseHelper.KEY_SESSION_STARTED_AT, startedAt(session));
+                values.put(AppDatabaseHelper.KEY_SESSION_ENERGY, session.getEnergyDelivered());
+                values.put(AppDatabaseHelper.KEY_SESSION_DATA, gson.toJson(session));
+                values.put(AppDatabaseHelper.KEY_CREATED_AT, DateTimeCodec.parseMillis(session.getCreatedAt()));
+                values.put(AppDatabaseHelper.KEY_UPDATED_AT, DateTimeCodec.parseMillis(session.getUpdatedAt()));
+
+                db.insertWithOnConflict(
+                    AppDatabaseHelper.TABLE_OPERATOR_SESSIONS,
+                    null,
+                    values,
+                    SQLiteDatabase.CONFLICT_REPLACE
+                );
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Get one page of sessions, newest first
+     */
+    public List<BookingApiService.SessionHistoryResponseDTO> getSessions(int offset, int limit) {
+        List<BookingApiService.SessionHistoryResponseDTO> sessions = new ArrayList<>();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+
+        String selectQuery = "SELECT " + AppDatabaseHelper.KEY_SESSION_DATA +
+                           " FROM " + AppDatabaseHelper.TABLE_OPERATOR_SESSIONS +
+                           " ORDER BY " + AppDatabaseHelper.KEY_CREATED_AT + " DESC, " + AppDatabaseHelper.KEY_ID +
+                           " LIMIT " + limit + " OFFSET " + offset;
+
+        Cursor cursor = db.rawQuery(selectQuery, null);
+
+        if (cursor.moveToFirst()) {
+            do {
+                BookingApiService.SessionHistoryResponseDTO session =
+                        gson.fromJson(cursor.getString(0), BookingApiService.SessionHistoryResponseDTO.class);
+                if (session != null) {
+                    sessions.add(session);
+                }
+            } while (cursor.moveToNext());
+        }
+
+        cursor.close();
+        return sessions;
+    }
+
+    /**
+     * Get the aggregate fields of every stored session, without the JSON
+     */
+    public List<SessionSummary> getSessionSummaries() {
+        List<SessionSummary> summaries = new ArrayList<>();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+
+        String selectQuery = "SELECT " + AppDatabaseHelper.KEY_ID + ", " +
+                           AppDatabaseHelper.KEY_SESSION_STATUS + ", " +
+                           AppDatabaseHelper.KEY_SESSION_STARTED_AT + ", " +
+                           AppDatabaseHelper.KEY_SESSION_ENERGY + ", " +
+                           AppDatabaseHelper.KEY_UPDATED_AT +
+                           " FROM " + AppDatabaseHelper.TABLE_OPERATOR_SESSIONS;
+
+        Cursor cursor = db.rawQuery(selectQuery, null);
+
+        if (cursor.moveToFirst()) {
+            do {
+                summaries.add(new SessionSummary(
+                        cursor.getString(0),
+                        cursor.getString(1),
+                        cursor.getLong(2),
+                        cursor.isNull(3) ? null : cursor.getDouble(3),
+                        cursor.getLong(4)));
+            } while (cursor.moveToNext());
+        }
+
+        cursor.close();
+        return summaries;
+    }
+
+    /**
+     * Delete all stored sessions
+     */
+    public void clearAllSessions() {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.delete(AppDatabaseHelper.TABLE_OPERATOR_SESSIONS, null, null);
+    }
+
+    /**
+     * When the session started, or when it was booked for if it has not started
+     */
+    public static long startedAt(BookingApiService.SessionHistoryResponseDTO session) {
+        long started = DateTimeCodec.parseMillis(session.getActualStartTime());
+        return started != DateTimeCodec.INVALID ? started : DateTimeCodec.parseMillis(session.getReservationDateTime());
+    }
+}
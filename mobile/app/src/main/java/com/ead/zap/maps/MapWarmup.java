@@ -0,0 +1,263 @@
+package com.ead.zap.maps;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import org.osmdroid.config.Configuration;
+import org.osmdroid.tileprovider.MapTileCache;
+import org.osmdroid.tileprovider.modules.SqlTileWriter;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.tileprovider.tilesource.TileSourceFactory;
+import org.osmdroid.util.GeoPoint;
+import org.osmdroid.util.MapTileIndex;
+import org.osmdroid.views.MapView;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Prepares the osmdroid map subsystem in the background so the first map
+ * open does no disk I/O on the main thread. Loads the osmdroid configuration,
+ * creates the tile cache directories, opens the tile database (which also
+ * runs osmdroid's one-time cache trim) and decodes the tiles around the last
+ * map position into memory. The map hands those tiles to its tile cache with
+ * {@link #applyTo(MapView)}, so the first frame draws without reading the database.
+ * Screens create their MapView from {@link #whenConfigured(Runnable)} rather
+ * than waiting for the configuration on the main thread.
+ */
+public class MapWarmup {
+    private static final String TAG = "MapWarmup";
+
+    private static final String PREFS_NAME = "ZapMapPrefs";
+    private static final String OSMDROID_PREFS_NAME = "osmdroid";
+    private static final String KEY_LAST_LATITUDE = "LastLatitude";
+    private static final String KEY_LAST_LONGITUDE = "LastLongitude";
+    private static final String KEY_LAST_ZOOM = "LastZoom";
+
+    // Tiles either side of the centre tile; 5 x 5 covers most of a phone screen
+    private static final int WARM_RADIUS_TILES = 2;
+    // Longest a map screen waits for the configuration before going ahead with osmdroid's defaults
+    private static final long CONFIGURATION_TIMEOUT_MS = 3000;
+
+    private static MapWarmup instance;
+
+    private final Context context;
+    private final SharedPreferences cameraPrefs;
+    private final AtomicBoolean started = new AtomicBoolean();
+    // Released once the warm-up thread has finished writing the osmdroid configuration
+    private final CountDownLatch configured = new CountDownLatch(1);
+    // Callbacks waiting for the configuration, posted to the main thread when it is loaded
+    private final List<Runnable> configuredCallbacks = new ArrayList<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<Long, Drawable> warmTiles = new LinkedHashMap<>();
+    private boolean tilesApplied;
+
+    // Held for the life of the process so the tile database stays open
+    private SqlTileWriter tileWriter;
+
+    private MapWarmup(Context context) {
+        this.context = context;
+        this.cameraPrefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Get singleton instance of MapWarmup
+     */
+    public static synchronized MapWarmup getInstance(Context context) {
+        if (instance == null) {
+            instance = new MapWarmup(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Start the warm-up on a background thread. Only the first call does anything.
+     */
+    public void warmUpAsync() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+            warmUp();
+        }, TAG);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Run a callback on the main thread once the osmdroid configuration is
+     * loaded, starting the warm-up if needed. The configuration is only ever
+     * written on the warm-up thread, so a map must be created from the callback.
+     * Runs anyway after CONFIGURATION_TIMEOUT_MS, with osmdroid's defaults.
+     */
+    public void whenConfigured(Runnable callback) {
+        warmUpAsync();
+        AtomicBoolean ran = new AtomicBoolean();
+        Runnable once = () -> {
+            if (ran.compareAndSet(false, true)) {
+                callback.run();
+            }
+        };
+        synchronized (configuredCallbacks) {
+            if (configured.getCount() > 0) {
+                configuredCallbacks.add(once);
+                mainHandler.postDelayed(() -> {
+                    if (!ran.get()) {
+                        Log.w(TAG, "Map configuration still loading after " + CONFIGURATION_TIMEOUT_MS + " ms");
+                        once.run();
+                    }
+                }, CONFIGURATION_TIMEOUT_MS);
+                return;
+            }
+        }
+        mainHandler.post(once);
+    }
+
+    /**
+     * Hand the pre-decoded tiles to the map's memory cache. One-shot: later calls do nothing.
+     */
+    public void applyTo(MapView mapView) {
+        Map<Long, Drawable> tiles;
+        synchronized (warmTiles) {
+            // Tiles still loading after this point are left to the map's own provider
+            tilesApplied = true;
+            if (warmTiles.isEmpty()) {
+                return;
+            }
+            tiles = new LinkedHashMap<>(warmTiles);
+            warmTiles.clear();
+        }
+        MapTileCache tileCache = mapView.getTileProvider().getTileCache();
+        for (Map.Entry<Long, Drawable> tile : tiles.entrySet()) {
+            tileCache.putTile(tile.getKey(), tile.getValue());
+        }
+        Log.d(TAG, "Applied " + tiles.size() + " warm tiles to the map");
+    }
+
+    /**
+     * Remember where the map was so the next warm-up loads the right tiles
+     */
+    public void saveCamera(GeoPoint center, double zoom) {
+        cameraPrefs.edit()
+                .putLong(KEY_LAST_LATITUDE, Double.doubleToRawLongBits(center.getLatitude()))
+                .putLong(KEY_LAST_LONGITUDE, Double.doubleToRawLongBits(center.getLongitude()))
+                .putFloat(KEY_LAST_ZOOM, (float) zoom)
+                .apply();
+    }
+
+    /**
+     * The last saved map centre, or null if the map has never been opened
+     */
+    public GeoPoint getLastCenter() {
+        if (!cameraPrefs.contains(KEY_LAST_LATITUDE)) {
+            return null;
+        }
+        return new GeoPoint(
+                Double.longBitsToDouble(cameraPrefs.getLong(KEY_LAST_LATITUDE, 0)),
+                Double.longBitsToDouble(cameraPrefs.getLong(KEY_LAST_LONGITUDE, 0)));
+    }
+
+    public double getLastZoom(double defaultZoom) {
+        return cameraPrefs.getFloat(KEY_LAST_ZOOM, (float) defaultZoom);
+    }
+
+    private void warmUp() {
+        long start = SystemClock.elapsedRealtime();
+        Trace.beginSection("MapWarmup");
+        try {
+            try {
+                Configuration configuration = Configuration.getInstance();
+                configuration.load(context, context.getSharedPreferences(OSMDROID_PREFS_NAME, Context.MODE_PRIVATE));
+                configuration.setUserAgentValue(context.getPackageName());
+                configuration.getOsmdroidTileCache().mkdirs();
+            } finally {
+                releaseConfiguredCallbacks();
+            }
+
+            tileWriter = new SqlTileWriter();
+            long configuredAt = SystemClock.elapsedRealtime();
+
+            int warmed = warmRecentTiles(TileSourceFactory.MAPNIK);
+            Log.d(TAG, "Map configured in " + (configuredAt - start) + " ms, warmed "
+                    + warmed + " tiles in " + (SystemClock.elapsedRealtime() - configuredAt) + " ms");
+        } catch (Exception e) {
+            Log.w(TAG, "Map warm-up failed: " + e.getMessage());
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    private void releaseConfiguredCallbacks() {
+        List<Runnable> callbacks;
+        synchronized (configuredCallbacks) {
+            configured.countDown();
+            callbacks = new ArrayList<>(configuredCallbacks);
+            configuredCallbacks.clear();
+        }
+        for (Runnable callback : callbacks) {
+            mainHandler.post(callback);
+        }
+    }
+
+    /**
+     * Decode the cached tiles around the last map position
+     */
+    private int warmRecentTiles(ITileSource tileSource) {
+        GeoPoint center = getLastCenter();
+        if (center == null) {
+            return 0;
+        }
+        int zoom = (int) Math.round(getLastZoom(tileSource.getMinimumZoomLevel()));
+        zoom = Math.max(tileSource.getMinimumZoomLevel(), Math.min(zoom, tileSource.getMaximumZoomLevel()));
+
+        int tileCount = 1 << zoom;
+        int centerX = tileX(center.getLongitude(), tileCount);
+        int centerY = tileY(center.getLatitude(), tileCount);
+        int warmed = 0;
+        for (int dy = -WARM_RADIUS_TILES; dy <= WARM_RADIUS_TILES; dy++) {
+            int y = centerY + dy;
+            if (y < 0 || y >= tileCount) {
+                continue;
+            }
+            for (int dx = -WARM_RADIUS_TILES; dx <= WARM_RADIUS_TILES; dx++) {
+                int x = ((centerX + dx) % tileCount + tileCount) % tileCount;
+                long tileIndex = MapTileIndex.getTileIndex(zoom, x, y);
+                try {
+                    Drawable tile = tileWriter.loadTile(tileSource, tileIndex);
+                    if (tile != null) {
+                        synchronized (warmTiles) {
+                            if (tilesApplied) {
+                                return warmed;
+                            }
+                            warmTiles.put(tileIndex, tile);
+                        }
+                        warmed++;
+                    }
+                } catch (Exception e) {
+                    Log.w(TAG, "Could not warm tile: " + e.getMessage());
+                }
+            }
+        }
+        return warmed;
+    }
+
+    private static int tileX(double longitude, int tileCount) {
+        return (int) Math.floor((longitude + 180.0) / 360.0 * tileCount);
+    }
+
+    private static int tileY(double latitude, int tileCount) {
+        double latRad = Math.toRadians(Math.max(-85.05112878, Math.min(85.05112878, latitude)));
+        return (int) Math.floor((1 - Math.log(Math.tan(latRad) + 1 / Math.cos(latRad)) / Math.PI) / 2 * tileCount);
+    }
+}
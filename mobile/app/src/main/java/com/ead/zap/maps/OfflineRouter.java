@@ -0,0 +1,230 @@
+package com.ead.zap.maps;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.ead.zap.config.ApiConfig;
+import com.ead.zap.network.NetworkClient;
+import com.ead.zap.services.LocationService;
+
+import org.osmdroid.bonuspack.routing.Road;
+import org.osmdroid.util.GeoPoint;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * On-device routing used when OSRM cannot be reached.
+ * The region road graph is downloaded from the API into files/routing/region.zrg
+ * while the device is online, re-checked at most once per process with a
+ * conditional GET, and loaded on first use. Queries are answered with A*,
+ * returning the same Road shape the map renders for OSRM routes. When no graph
+ * has been installed, route() returns null and the caller keeps its existing
+ * fallback.
+ */
+public class OfflineRouter {
+    private static final String TAG = "OfflineRouter";
+
+    private static final String GRAPH_DIR = "routing";
+    private static final String GRAPH_FILE = "region.zrg";
+    private static final String DOWNLOAD_SUFFIX = ".download";
+    private static final int DOWNLOAD_TIMEOUT_SECONDS = 120;
+    private static final double MAX_SNAP_DISTANCE_KM = 2.0;
+
+    private static OfflineRouter instance;
+
+    private final File graphFile;
+    private final OkHttpClient downloadClient;
+    private final ExecutorService downloadExecutor;
+    private RoadGraphRouter router;
+    private boolean loadAttempted;
+    private boolean updateStarted;
+
+    private OfflineRouter(Context context) {
+        this.graphFile = new File(new File(context.getFilesDir(), GRAPH_DIR), GRAPH_FILE);
+        // The graph is public map data; skip the auth and body-logging interceptors,
+        // which would otherwise buffer the whole file
+        OkHttpClient.Builder builder = NetworkClient.getInstance(context).getOkHttpClient().newBuilder()
+                .readTimeout(DOWNLOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        builder.interceptors().clear();
+        this.downloadClient = builder.build();
+        this.downloadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(() -> {
+                android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, TAG);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get singleton instance of OfflineRouter
+     */
+    public static synchronized OfflineRouter getInstance(Context context) {
+        if (instance == null) {
+            instance = new OfflineRouter(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether a road graph is installed for offline routing
+     */
+    public boolean isAvailable() {
+        return graphFile.exists();
+    }
+
+    /**
+     * Download the road graph, or a newer one, in the background. Once the
+     * server has answered, later calls in the same process do nothing; after a
+     * network failure the next call tries again.
+     */
+    public synchronized void updateGraphAsync() {
+        if (updateStarted) {
+            return;
+        }
+        updateStarted = true;
+        downloadExecutor.execute(this::updateGraph);
+    }
+
+    private void updateGraph() {
+        Request.Builder request = new Request.Builder()
+                .url(ApiConfig.getBaseUrl() + ApiConfig.Routing.GRAPH);
+        if (graphFile.exists()) {
+            SimpleDateFormat httpDate = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+            httpDate.setTimeZone(TimeZone.getTimeZone("GMT"));
+            request.header("If-Modified-Since", httpDate.format(new Date(graphFile.lastModified())));
+        }
+
+        File download = new File(graphFile.getParentFile(), GRAPH_FILE + DOWNLOAD_SUFFIX);
+        try (Response response = downloadClient.newCall(request.build()).execute()) {
+            if (response.code() == 304) {
+                Log.d(TAG, "Road graph is up to date");
+                return;
+            }
+            if (!response.isSuccessful() || response.body() == null) {
+                // 404: the server has no graph for this region
+                Log.d(TAG, "No road graph available (" + response.code() + ")");
+                return;
+            }
+
+            File dir = graphFile.getParentFile();
+            if (dir != null && !dir.exists() && !dir.mkdirs()) {
+                throw new IOException("Cannot create " + dir);
+            }
+            try (InputStream body = response.body().byteStream();
+                 OutputStream out = new FileOutputStream(download)) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+
+            // Only install a file that loads; a truncated download must not replace a good graph
+            RoadGraph graph = RoadGraph.load(download);
+            if (!download.renameTo(graphFile)) {
+                throw new IOException("Cannot install " + graphFile);
+            }
+            Date lastModified = response.headers().getDate("Last-Modified");
+            if (lastModified != null) {
+                graphFile.setLastModified(lastModified.getTime());
+            }
+            synchronized (this) {
+                router = new RoadGraphRouter(graph);
+                loadAttempted = true;
+            }
+            Log.d(TAG, "Installed road graph with " + graph.getNodeCount() + " nodes");
+        } catch (IOException e) {
+            Log.w(TAG, "Road graph download failed: " + e.getMessage());
+            download.delete();
+            synchronized (this) {
+                updateStarted = false;
+            }
+        }
+    }
+
+    /**
+     * Compute a route on the device. Must be called off the main thread.
+     * Returns null when no graph is installed, either endpoint is outside the
+     * graph, or the endpoints are not connected.
+     */
+    public synchronized Road route(GeoPoint origin, GeoPoint destination) {
+        RoadGraphRouter graphRouter = getRouter();
+        if (graphRouter == null) {
+            return null;
+        }
+
+        RoadGraph graph = graphRouter.getGraph();
+        int source = graph.findNearestNode(origin.getLatitude(), origin.getLongitude());
+        int target = graph.findNearestNode(destination.getLatitude(), destination.getLongitude());
+        if (source < 0 || target < 0
+                || snapDistanceKm(graph, source, origin) > MAX_SNAP_DISTANCE_KM
+                || snapDistanceKm(graph, target, destination) > MAX_SNAP_DISTANCE_KM) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        RoadGraphRouter.Route route = graphRouter.route(source, target);
+        Log.d(TAG, "Offline route query took " + (System.nanoTime() - start) / 1000000 + " ms");
+        if (route == null) {
+            return null;
+        }
+
+        int[] nodes = route.getNodes();
+        ArrayList<GeoPoint> points = new ArrayList<>(nodes.length + 2);
+        points.add(origin);
+        for (int node : nodes) {
+            points.add(new GeoPoint(graph.getLatitude(node), graph.getLongitude(node)));
+        }
+        points.add(destination);
+
+        Road road = new Road();
+        road.mStatus = Road.STATUS_OK;
+        road.mLength = route.getLengthMeters() / 1000.0;
+        road.mDuration = route.getTimeSeconds();
+        road.mRouteHigh = points;
+        return road;
+    }
+
+    private RoadGraphRouter getRouter() {
+        if (router == null && !loadAttempted) {
+            loadAttempted = true;
+            if (!graphFile.exists()) {
+                return null;
+            }
+            try {
+                long start = System.nanoTime();
+                RoadGraph graph = RoadGraph.load(graphFile);
+                router = new RoadGraphRouter(graph);
+                Log.d(TAG, "Loaded road graph with " + graph.getNodeCount() + " nodes and "
+                        + graph.getEdgeCount() + " edges in " + (System.nanoTime() - start) / 1000000 + " ms");
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to load road graph", e);
+            }
+        }
+        return router;
+    }
+
+    private static double snapDistanceKm(RoadGraph graph, int node, GeoPoint point) {
+        return LocationService.calculateDistance(
+                graph.getLatitude(node), graph.getLongitude(node),
+                point.getLatitude(), point.getLongitude());
+    }
+}
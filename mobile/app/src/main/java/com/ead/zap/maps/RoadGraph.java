@@ -0,0 +1,128 @@
+package com.ead.zap.maps;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only road graph for one region, memory-mapped from a compact binary file.
+ * Nothing is copied onto the Java heap: node coordinates and the adjacency
+ * arrays are read straight from the mapped pages, so load time is a header read.
+ *
+ * File layout (big-endian):
+ * <pre>
+ * int   magic ("ZRG1")
+ * int   version
+ * int   nodeCount
+ * int   edgeCount
+ * int   maxSpeedKmh              fastest edge in the graph, used by the A* heuristic
+ * int[] nodeLatE7[nodeCount]     latitude * 1e7
+ * int[] nodeLonE7[nodeCount]     longitude * 1e7
+ * int[] firstEdge[nodeCount + 1] CSR offsets into the edge arrays
+ * int[] edgeTarget[edgeCount]
+ * int[] edgeLengthDm[edgeCount]  length in decimetres
+ * int[] edgeTimeDs[edgeCount]    travel time in deciseconds
+ * </pre>
+ */
+public class RoadGraph {
+    public static final int MAGIC = 0x5A524731; // "ZRG1"
+    public static final int VERSION = 1;
+    private static final int HEADER_INTS = 5;
+
+    private final int nodeCount;
+    private final int edgeCount;
+    private final int maxSpeedKmh;
+    private final IntBuffer nodeLat;
+    private final IntBuffer nodeLon;
+    private final IntBuffer firstEdge;
+    private final IntBuffer edgeTarget;
+    private final IntBuffer edgeLength;
+    private final IntBuffer edgeTime;
+
+    private RoadGraph(ByteBuffer buffer) throws IOException {
+        IntBuffer ints = buffer.asIntBuffer();
+        if (ints.remaining() < HEADER_INTS || ints.get(0) != MAGIC || ints.get(1) != VERSION) {
+            throw new IOException("Not a supported road graph file");
+        }
+        nodeCount = ints.get(2);
+        edgeCount = ints.get(3);
+        maxSpeedKmh = Math.max(1, ints.get(4));
+
+        long expectedInts = HEADER_INTS + 3L * nodeCount + 1 + 3L * edgeCount;
+        if (nodeCount < 0 || edgeCount < 0 || ints.remaining() < expectedInts) {
+            throw new IOException("Truncated road graph file");
+        }
+
+        int offset = HEADER_INTS;
+        nodeLat = slice(ints, offset, nodeCount);
+        offset += nodeCount;
+        nodeLon = slice(ints, offset, nodeCount);
+        offset += nodeCount;
+        firstEdge = slice(ints, offset, nodeCount + 1);
+        offset += nodeCount + 1;
+        edgeTarget = slice(ints, offset, edgeCount);
+        offset += edgeCount;
+        edgeLength = slice(ints, offset, edgeCount);
+        offset += edgeCount;
+        edgeTime = slice(ints, offset, edgeCount);
+    }
+
+    /**
+     * Memory-map a road graph file. The mapping stays valid after the channel is closed.
+     */
+    public static RoadGraph load(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new RoadGraph(buffer);
+        }
+    }
+
+    private static IntBuffer slice(IntBuffer ints, int offset, int length) {
+        IntBuffer duplicate = ints.duplicate();
+        duplicate.position(offset);
+        duplicate.limit(offset + length);
+        return duplicate.slice();
+    }
+
+    public int getNodeCount() { return nodeCount; }
+    public int getEdgeCount() { return edgeCount; }
+    public int getMaxSpeedKmh() { return maxSpeedKmh; }
+
+    public double getLatitude(int node) { return nodeLat.get(node) / 1e7; }
+    public double getLongitude(int node) { return nodeLon.get(node) / 1e7; }
+
+    public int getFirstEdge(int node) { return firstEdge.get(node); }
+    public int getEdgeEnd(int node) { return firstEdge.get(node + 1); }
+
+    public int getEdgeTarget(int edge) { return edgeTarget.get(edge); }
+    public double getEdgeLengthMeters(int edge) { return edgeLength.get(edge) / 10.0; }
+    public double getEdgeTimeSeconds(int edge) { return edgeTime.get(edge) / 10.0; }
+
+    /**
+     * Find the node closest to a coordinate. A linear scan over the mapped
+     * coordinate arrays is fast enough for a city-sized extract.
+     */
+    public int findNearestNode(double latitude, double longitude) {
+        int targetLat = (int) Math.round(latitude * 1e7);
+        int targetLon = (int) Math.round(longitude * 1e7);
+        double lonScale = Math.cos(Math.toRadians(latitude));
+
+        int nearest = -1;
+        double nearestDistance = Double.MAX_VALUE;
+        for (int node = 0; node < nodeCount; node++) {
+            double dLat = nodeLat.get(node) - targetLat;
+            double dLon = (nodeLon.get(node) - targetLon) * lonScale;
+            double distance = dLat * dLat + dLon * dLon;
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = node;
+            }
+        }
+        return nearest;
+    }
+}
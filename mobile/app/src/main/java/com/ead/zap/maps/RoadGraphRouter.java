@@ -0,0 +1,211 @@
+package com.ead.zap.maps;
+
+import java.util.Arrays;
+
+/**
+ * A* shortest-travel-time search over a RoadGraph.
+ * Search state lives in primitive arrays sized to the graph and is reused
+ * between queries (reset lazily with a search stamp), so a query allocates
+ * only its result. Not thread-safe; callers serialise queries.
+ */
+public class RoadGraphRouter {
+    private static final double EARTH_RADIUS_M = 6371000.0;
+
+    private final RoadGraph graph;
+    private final double maxSpeedMps;
+
+    private final float[] bestTime;
+    private final int[] parentEdge;
+    private final int[] parentNode;
+    private final int[] stamp;
+    private final boolean[] settled;
+    private int currentStamp;
+
+    // Binary min-heap with lazy deletion
+    private int[] heapNodes = new int[1024];
+    private float[] heapKeys = new float[1024];
+    private int heapSize;
+
+    /**
+     * Result of a route query
+     */
+    public static class Route {
+        private final int[] nodes;
+        private final double lengthMeters;
+        private final double timeSeconds;
+
+        Route(int[] nodes, double lengthMeters, double timeSeconds) {
+            this.nodes = nodes;
+            this.lengthMeters = lengthMeters;
+            this.timeSeconds = timeSeconds;
+        }
+
+        public int[] getNodes() { return nodes; }
+        public double getLengthMeters() { return lengthMeters; }
+        public double getTimeSeconds() { return timeSeconds; }
+    }
+
+    public RoadGraphRouter(RoadGraph graph) {
+        this.graph = graph;
+        this.maxSpeedMps = graph.getMaxSpeedKmh() / 3.6;
+        int nodeCount = graph.getNodeCount();
+        this.bestTime = new float[nodeCount];
+        this.parentEdge = new int[nodeCount];
+        this.parentNode = new int[nodeCount];
+        this.stamp = new int[nodeCount];
+        this.settled = new boolean[nodeCount];
+    }
+
+    public RoadGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Find the fastest route between two coordinates, snapping each to its nearest node.
+     * Returns null when either point cannot be snapped or no path exists.
+     */
+    public Route route(double fromLat, double fromLon, double toLat, double toLon) {
+        int source = graph.findNearestNode(fromLat, fromLon);
+        int target = graph.findNearestNode(toLat, toLon);
+        if (source < 0 || target < 0) {
+            return null;
+        }
+        return route(source, target);
+    }
+
+    /**
+     * Find the fastest route between two nodes, or null when unreachable
+     */
+    public Route route(int source, int target) {
+        nextStamp();
+        heapSize = 0;
+
+        double targetLat = graph.getLatitude(target);
+        double targetLon = graph.getLongitude(target);
+
+        touch(source);
+        bestTime[source] = 0f;
+        push(source, (float) heuristic(source, targetLat, targetLon));
+
+        while (heapSize > 0) {
+            int node = pop();
+            if (settled[node]) {
+                continue;
+            }
+            settled[node] = true;
+            if (node == target) {
+                return buildRoute(source, target);
+            }
+
+            float nodeTime = bestTime[node];
+            for (int edge = graph.getFirstEdge(node), end = graph.getEdgeEnd(node); edge < end; edge++) {
+                int next = graph.getEdgeTarget(edge);
+                touch(next);
+                if (settled[next]) {
+                    continue;
+                }
+                float candidate = nodeTime + (float) graph.getEdgeTimeSeconds(edge);
+                if (candidate < bestTime[next]) {
+                    bestTime[next] = candidate;
+                    parentEdge[next] = edge;
+                    parentNode[next] = node;
+                    push(next, candidate + (float) heuristic(next, targetLat, targetLon));
+                }
+            }
+        }
+        return null;
+    }
+
+    private Route buildRoute(int source, int target) {
+        int count = 1;
+        for (int node = target; node != source; node = parentNode[node]) {
+            count++;
+        }
+
+        int[] nodes = new int[count];
+        double length = 0;
+        int index = count - 1;
+        for (int node = target; node != source; node = parentNode[node]) {
+            nodes[index--] = node;
+            length += graph.getEdgeLengthMeters(parentEdge[node]);
+        }
+        nodes[0] = source;
+        return new Route(nodes, length, bestTime[target]);
+    }
+
+    /**
+     * Lower bound on travel time: great-circle distance at the graph's top speed
+     */
+    private double heuristic(int node, double targetLat, double targetLon) {
+        double lat1 = Math.toRadians(graph.getLatitude(node));
+        double lat2 = Math.toRadians(targetLat);
+        double dLat = lat2 - lat1;
+        double dLon = Math.toRadians(targetLon - graph.getLongitude(node));
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        double distance = 2 * EARTH_RADIUS_M * Math.asin(Math.min(1.0, Math.sqrt(a)));
+        return distance / maxSpeedMps;
+    }
+
+    private void nextStamp() {
+        currentStamp++;
+        if (currentStamp == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            currentStamp = 1;
+        }
+    }
+
+    /**
+     * Reset a node's search state the first time the current query sees it
+     */
+    private void touch(int node) {
+        if (stamp[node] != currentStamp) {
+            stamp[node] = currentStamp;
+            bestTime[node] = Float.POSITIVE_INFINITY;
+            settled[node] = false;
+        }
+    }
+
+    private void push(int node, float key) {
+        if (heapSize == heapNodes.length) {
+            heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+        }
+        int index = heapSize++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heapKeys[parent] <= key) {
+                break;
+            }
+            heapNodes[index] = heapNodes[parent];
+            heapKeys[index] = heapKeys[parent];
+            index = parent;
+        }
+        heapNodes[index] = node;
+        heapKeys[index] = key;
+    }
+
+    private int pop() {
+        int top = heapNodes[0];
+        int lastNode = heapNodes[--heapSize];
+        float lastKey = heapKeys[heapSize];
+
+        int index = 0;
+        int half = heapSize >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                child++;
+            }
+            if (lastKey <= heapKeys[child]) {
+                break;
+            }
+            heapNodes[index] = heapNodes[child];
+            heapKeys[index] = heapKeys[child];
+            index = child;
+        }
+        heapNodes[index] = lastNode;
+        heapKeys[index] = lastKey;
+        return top;
+    }
+}
@@ -0,0 +1,227 @@
+package com.ead.zap.maps;
+
+import com.ead.zap.models.ChargingStation;
+import com.ead.zap.services.ColumnarStationStore;
+
+import org.osmdroid.util.GeoPoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds stations within a fixed distance of a route, ordered by distance along it.
+ * Route segments are bucketed once into a lat/lon grid whose cells are as wide
+ * as the corridor, with each segment registered in every cell its expanded
+ * bounding box touches. A station then needs one cell lookup and an exact
+ * point-to-segment test against only the few segments in that cell.
+ */
+public class RouteCorridor {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180.0;
+
+    private final double corridorKm;
+    private final double[] lat;
+    private final double[] lon;
+    private final double[] cumulativeKm; // distance along the route to each vertex
+    private final double cellLatDegrees;
+    private final double cellLonDegrees;
+    private final Map<Long, int[]> buckets = new HashMap<>();
+
+    /**
+     * A station near the route
+     */
+    public static class Hit {
+        private final ChargingStation station;
+        private final double distanceFromRouteKm;
+        private final double distanceAlongRouteKm;
+
+        Hit(ChargingStation station, double distanceFromRouteKm, double distanceAlongRouteKm) {
+            this.station = station;
+            this.distanceFromRouteKm = distanceFromRouteKm;
+            this.distanceAlongRouteKm = distanceAlongRouteKm;
+        }
+
+        public ChargingStation getStation() { return station; }
+        public double getDistanceFromRouteKm() { return distanceFromRouteKm; }
+        public double getDistanceAlongRouteKm() { return distanceAlongRouteKm; }
+    }
+
+    public RouteCorridor(List<GeoPoint> route, double corridorKm) {
+        this.corridorKm = corridorKm;
+        int count = route.size();
+        this.lat = new double[count];
+        this.lon = new double[count];
+        this.cumulativeKm = new double[count];
+
+        double maxAbsLat = 0;
+        for (int i = 0; i < count; i++) {
+            lat[i] = route.get(i).getLatitude();
+            lon[i] = route.get(i).getLongitude();
+            maxAbsLat = Math.max(maxAbsLat, Math.abs(lat[i]));
+            if (i > 0) {
+                cumulativeKm[i] = cumulativeKm[i - 1] + haversineKm(lat[i - 1], lon[i - 1], lat[i], lon[i]);
+            }
+        }
+
+        double padLat = corridorKm / KM_PER_DEGREE;
+        double padLon = padLat / Math.max(0.01, Math.cos(Math.toRadians(Math.min(89.0, maxAbsLat + padLat))));
+        this.cellLatDegrees = Math.max(padLat, 1e-4);
+        this.cellLonDegrees = Math.max(padLon, 1e-4);
+
+        Map<Long, int[]> growing = new HashMap<>();
+        for (int segment = 0; segment + 1 < count; segment++) {
+            bucketSegment(segment, padLat, padLon, growing);
+        }
+        for (Map.Entry<Long, int[]> entry : growing.entrySet()) {
+            int[] value = entry.getValue();
+            buckets.put(entry.getKey(), Arrays.copyOfRange(value, 1, value[0] + 1));
+        }
+    }
+
+    public double getCorridorKm() {
+        return corridorKm;
+    }
+
+    public double getRouteLengthKm() {
+        return cumulativeKm.length == 0 ? 0 : cumulativeKm[cumulativeKm.length - 1];
+    }
+
+    /**
+     * Stations within the corridor, ordered by distance along the route
+     */
+    public List<Hit> query(Collection<ChargingStation> stations) {
+        List<Hit> hits = new ArrayList<>();
+        for (ChargingStation station : stations) {
+            if (station == null || station.getLocation() == null) {
+                continue;
+            }
+            double[] position = locate(station.getLocation().getLatitude(), station.getLocation().getLongitude());
+            if (position != null) {
+                hits.add(new Hit(station, position[0], position[1]));
+            }
+        }
+        Collections.sort(hits, (a, b) -> Double.compare(a.distanceAlongRouteKm, b.distanceAlongRouteKm));
+        return hits;
+    }
+
+    /**
+     * Stations of a column store within the corridor, ordered by distance along
+     * the route. Rows are located by their coordinates; only hits are materialised.
+     */
+    public List<Hit> query(ColumnarStationStore stations) {
+        List<Hit> hits = new ArrayList<>();
+        for (int row = 0; row < stations.size(); row++) {
+            if (!stations.hasLocation(row)) {
+                continue;
+            }
+            double[] position = locate(stations.getLatitude(row), stations.getLongitude(row));
+            if (position != null) {
+                hits.add(new Hit(stations.materialize(row), position[0], position[1]));
+            }
+        }
+        Collections.sort(hits, (a, b) -> Double.compare(a.distanceAlongRouteKm, b.distanceAlongRouteKm));
+        return hits;
+    }
+
+    /**
+     * Distance from the route and distance along it of a point, or null outside the corridor
+     */
+    private double[] locate(double stationLat, double stationLon) {
+        int[] segments = buckets.get(cellKey(cellIndex(stationLat, cellLatDegrees), cellIndex(stationLon, cellLonDegrees)));
+        if (segments == null) {
+            return null;
+        }
+
+        double cosLat = Math.cos(Math.toRadians(stationLat));
+        double bestDistance = Double.MAX_VALUE;
+        double bestAlong = 0;
+        for (int segment : segments) {
+            // Project into a local equirectangular plane around the station (km)
+            double ax = (lon[segment] - stationLon) * cosLat * KM_PER_DEGREE;
+            double ay = (lat[segment] - stationLat) * KM_PER_DEGREE;
+            double bx = (lon[segment + 1] - stationLon) * cosLat * KM_PER_DEGREE;
+            double by = (lat[segment + 1] - stationLat) * KM_PER_DEGREE;
+            double dx = bx - ax;
+            double dy = by - ay;
+            double lengthSquared = dx * dx + dy * dy;
+            double t = lengthSquared == 0 ? 0 : -(ax * dx + ay * dy) / lengthSquared;
+            t = Math.max(0, Math.min(1, t));
+            double cx = ax + t * dx;
+            double cy = ay + t * dy;
+            double distance = Math.sqrt(cx * cx + cy * cy);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                bestAlong = cumulativeKm[segment] + t * (cumulativeKm[segment + 1] - cumulativeKm[segment]);
+            }
+        }
+        return bestDistance <= corridorKm ? new double[]{bestDistance, bestAlong} : null;
+    }
+
+    /**
+     * Register a segment in every cell its corridor-expanded bounding box touches.
+     * Long segments are split so a diagonal does not claim its whole bounding box.
+     */
+    private void bucketSegment(int segment, double padLat, double padLon, Map<Long, int[]> growing) {
+        double lengthCells = Math.max(Math.abs(lat[segment + 1] - lat[segment]) / cellLatDegrees,
+                Math.abs(lon[segment + 1] - lon[segment]) / cellLonDegrees);
+        int pieces = Math.max(1, (int) Math.ceil(lengthCells));
+
+        for (int piece = 0; piece < pieces; piece++) {
+            double t0 = (double) piece / pieces;
+            double t1 = (double) (piece + 1) / pieces;
+            double lat0 = lat[segment] + (lat[segment + 1] - lat[segment]) * t0;
+            double lat1 = lat[segment] + (lat[segment + 1] - lat[segment]) * t1;
+            double lon0 = lon[segment] + (lon[segment + 1] - lon[segment]) * t0;
+            double lon1 = lon[segment] + (lon[segment + 1] - lon[segment]) * t1;
+
+            int fromRow = cellIndex(Math.min(lat0, lat1) - padLat, cellLatDegrees);
+            int toRow = cellIndex(Math.max(lat0, lat1) + padLat, cellLatDegrees);
+            int fromColumn = cellIndex(Math.min(lon0, lon1) - padLon, cellLonDegrees);
+            int toColumn = cellIndex(Math.max(lon0, lon1) + padLon, cellLonDegrees);
+            for (int row = fromRow; row <= toRow; row++) {
+                for (int column = fromColumn; column <= toColumn; column++) {
+                    append(growing, cellKey(row, column), segment);
+                }
+            }
+        }
+    }
+
+    /**
+     * Append to a growable int list stored as {size, values...}, skipping a repeated tail value
+     */
+    private static void append(Map<Long, int[]> growing, long key, int segment) {
+        int[] list = growing.get(key);
+        if (list == null) {
+            list = new int[5];
+            growing.put(key, list);
+        } else if (list[0] > 0 && list[list[0]] == segment) {
+            return;
+        } else if (list[0] + 1 == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+            growing.put(key, list);
+        }
+        list[++list[0]] = segment;
+    }
+
+    private static int cellIndex(double degrees, double cellDegrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
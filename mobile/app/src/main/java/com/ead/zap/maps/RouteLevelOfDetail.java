@@ -0,0 +1,154 @@
+package com.ead.zap.maps;
+
+import org.osmdroid.util.GeoPoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Zoom-bucketed Douglas-Peucker simplifications of a route polyline.
+ * A single Douglas-Peucker pass assigns every vertex the tolerance at which it
+ * would be dropped (clamped to its parent's, so levels are nested). Each zoom
+ * bucket then keeps only vertices that matter at about one screen pixel, and the
+ * map swaps the bucket in as the zoom changes instead of drawing every vertex.
+ */
+public class RouteLevelOfDetail {
+    public static final int MIN_ZOOM = 3;
+    public static final int MAX_ZOOM = 20;
+
+    private static final double EARTH_RADIUS_M = 6378137.0;
+    private static final double TILE_SIZE_PX = 256.0;
+    private static final double TOLERANCE_PX = 1.0;
+
+    private final List<GeoPoint> fullRoute;
+    private final List<List<GeoPoint>> buckets = new ArrayList<>();
+
+    public RouteLevelOfDetail(List<GeoPoint> route) {
+        this.fullRoute = route != null ? route : new ArrayList<>();
+
+        double[] importance = computeImportance(fullRoute);
+        for (int zoom = MIN_ZOOM; zoom <= MAX_ZOOM; zoom++) {
+            double tolerance = TOLERANCE_PX * metersPerPixel(zoom);
+            List<GeoPoint> simplified = new ArrayList<>();
+            for (int i = 0; i < fullRoute.size(); i++) {
+                if (importance[i] >= tolerance) {
+                    simplified.add(fullRoute.get(i));
+                }
+            }
+            buckets.add(simplified);
+        }
+    }
+
+    /**
+     * Zoom bucket used for a map zoom level; rounds up so detail is never too coarse
+     */
+    public static int bucketFor(double zoom) {
+        int bucket = (int) Math.ceil(zoom);
+        return Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, bucket));
+    }
+
+    /**
+     * Get the simplified route for a map zoom level
+     */
+    public List<GeoPoint> getPointsForZoom(double zoom) {
+        if (buckets.isEmpty()) {
+            return fullRoute;
+        }
+        return buckets.get(bucketFor(zoom) - MIN_ZOOM);
+    }
+
+    public List<GeoPoint> getFullRoute() {
+        return fullRoute;
+    }
+
+    /**
+     * Web Mercator metres covered by one pixel at a zoom level
+     */
+    private static double metersPerPixel(int zoom) {
+        return 2 * Math.PI * EARTH_RADIUS_M / (TILE_SIZE_PX * (1L << zoom));
+    }
+
+    /**
+     * Run Douglas-Peucker once with zero tolerance and record, for each vertex,
+     * the largest tolerance at which it is still kept. Iterative so long routes
+     * cannot overflow the stack.
+     */
+    private static double[] computeImportance(List<GeoPoint> route) {
+        int count = route.size();
+        double[] importance = new double[count];
+        if (count == 0) {
+            return importance;
+        }
+
+        double[] x = new double[count];
+        double[] y = new double[count];
+        for (int i = 0; i < count; i++) {
+            GeoPoint point = route.get(i);
+            x[i] = EARTH_RADIUS_M * Math.toRadians(point.getLongitude());
+            double lat = Math.max(-85.05112878, Math.min(85.05112878, point.getLatitude()));
+            y[i] = EARTH_RADIUS_M * Math.log(Math.tan(Math.PI / 4 + Math.toRadians(lat) / 2));
+        }
+
+        importance[0] = Double.POSITIVE_INFINITY;
+        importance[count - 1] = Double.POSITIVE_INFINITY;
+
+        int[] stackStart = new int[64];
+        int[] stackEnd = new int[64];
+        double[] stackLimit = new double[64];
+        int top = 0;
+        stackStart[0] = 0;
+        stackEnd[0] = count - 1;
+        stackLimit[0] = Double.POSITIVE_INFINITY;
+        top++;
+
+        while (top > 0) {
+            top--;
+            int start = stackStart[top];
+            int end = stackEnd[top];
+            double limit = stackLimit[top];
+            if (end - start < 2) {
+                continue;
+            }
+
+            int farthest = -1;
+            double farthestDistance = -1;
+            for (int i = start + 1; i < end; i++) {
+                double distance = segmentDistance(x[i], y[i], x[start], y[start], x[end], y[end]);
+                if (distance > farthestDistance) {
+                    farthestDistance = distance;
+                    farthest = i;
+                }
+            }
+
+            double value = Math.min(farthestDistance, limit);
+            importance[farthest] = value;
+
+            if (top + 2 > stackStart.length) {
+                stackStart = Arrays.copyOf(stackStart, stackStart.length * 2);
+                stackEnd = Arrays.copyOf(stackEnd, stackEnd.length * 2);
+                stackLimit = Arrays.copyOf(stackLimit, stackLimit.length * 2);
+            }
+            stackStart[top] = start;
+            stackEnd[top] = farthest;
+            stackLimit[top] = value;
+            top++;
+            stackStart[top] = farthest;
+            stackEnd[top] = end;
+            stackLimit[top] = value;
+            top++;
+        }
+        return importance;
+    }
+
+    private static double segmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        double cx = ax + t * dx - px;
+        double cy = ay + t * dy - py;
+        return Math.sqrt(cx * cx + cy * cy);
+    }
+}
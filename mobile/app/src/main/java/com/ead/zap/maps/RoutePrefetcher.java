@@ -0,0 +1,281 @@
+package com.ead.zap.maps;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.ead.zap.services.ChargingStationService;
+import com.ead.zap.services.LocationService;
+import com.ead.zap.services.StationCache;
+
+import org.osmdroid.bonuspack.routing.Road;
+import org.osmdroid.tileprovider.cachemanager.CacheManager;
+import org.osmdroid.tileprovider.modules.SqlTileWriter;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.tileprovider.tilesource.OnlineTileSourceBase;
+import org.osmdroid.util.GeoPoint;
+import org.osmdroid.util.MapTileIndex;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prefetches map tiles and charging stations along a calculated route.
+ * Walks the route polyline, warms the station cache for a corridor around it
+ * with queries spaced over the whole route, reports the cached stations inside
+ * that corridor, then queues the corridor's tiles at the route's zoom and one
+ * level out. Work runs on a single lowest-priority thread, one request at a
+ * time, so it never competes with interactive map or API requests. Tiles go
+ * through osmdroid's {@link CacheManager}, so they are fetched and stored
+ * exactly as the map's own tile provider would, and only from tile sources
+ * whose policy allows bulk download: the OpenStreetMap standard tiles
+ * (MAPNIK) do not, so with those only stations are warmed.
+ */
+public class RoutePrefetcher {
+    private static final String TAG = "RoutePrefetcher";
+
+    private static final double CORRIDOR_KM = 1.0;
+    // Per zoom level, so a long route still gets its overview tiles
+    private static final int MAX_TILES_PER_ZOOM = 400;
+    private static final int MAX_STATION_QUERIES_PER_ROUTE = 25;
+    private static final double MIN_STATION_QUERY_SPACING_KM = CORRIDOR_KM * 2;
+    private static final double EARTH_CIRCUMFERENCE_M = 40075016.686;
+
+    private final ChargingStationService chargingStationService;
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private SqlTileWriter tileWriter;
+    private Future<?> currentJob;
+    private int jobGeneration;
+
+    /**
+     * Receives the stations along a prefetched route, on the main thread
+     */
+    public interface CorridorCallback {
+        void onStationsAlongRoute(List<RouteCorridor.Hit> hits);
+    }
+
+    public RoutePrefetcher(Context context) {
+        this.chargingStationService = new ChargingStationService(context);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(() -> {
+                android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_LOWEST);
+                runnable.run();
+            }, TAG);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start prefetching for a new route. Any prefetch still running for a
+     * previous route is cancelled first, and its callback is not invoked.
+     */
+    public synchronized void prefetch(Road road, ITileSource tileSource, double zoom,
+                                      CorridorCallback callback) {
+        cancel();
+        if (road == null || road.mRouteHigh == null || road.mRouteHigh.size() < 2) {
+            return;
+        }
+
+        List<GeoPoint> route = new ArrayList<>(road.mRouteHigh);
+        int zoomLevel = (int) Math.round(zoom);
+        int generation = jobGeneration;
+        currentJob = executor.submit(() -> {
+            prefetchStations(route);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+
+            List<RouteCorridor.Hit> hits = StationCache.getInstance()
+                    .getStationsAlongRoute(new RouteCorridor(route, CORRIDOR_KM));
+            mainHandler.post(() -> {
+                synchronized (RoutePrefetcher.this) {
+                    if (generation != jobGeneration) {
+                        return;
+                    }
+                }
+                callback.onStationsAlongRoute(hits);
+            });
+
+            if (tileSource instanceof OnlineTileSourceBase) {
+                prefetchTiles(route, (OnlineTileSourceBase) tileSource, zoomLevel);
+            }
+        });
+    }
+
+    /**
+     * Cancel the current prefetch, if any
+     */
+    public synchronized void cancel() {
+        jobGeneration++;
+        if (currentJob != null) {
+            currentJob.cancel(true);
+            currentJob = null;
+        }
+    }
+
+    /**
+     * Stop the prefetch thread and release the tile cache. The cache is closed
+     * on the prefetch thread itself, after the cancelled job has returned, so
+     * it is never closed under a tile that is still being written.
+     */
+    public synchronized void shutdown() {
+        cancel();
+        if (executor.isShutdown()) {
+            return;
+        }
+        executor.execute(this::releaseTileWriter);
+        executor.shutdown();
+    }
+
+    private void prefetchTiles(List<GeoPoint> route, OnlineTileSourceBase tileSource, int zoom) {
+        // The same check osmdroid's own area download makes
+        if (!tileSource.getTileSourcePolicy().acceptsBulkDownload()) {
+            Log.d(TAG, "Tile source " + tileSource.name() + " does not allow bulk download; skipping tiles");
+            return;
+        }
+
+        int maxZoom = Math.min(zoom, tileSource.getMaximumZoomLevel());
+        int minZoom = Math.max(maxZoom - 1, tileSource.getMinimumZoomLevel());
+
+        // Coarser level first: it covers the whole route in few tiles
+        Set<Long> tiles = new LinkedHashSet<>();
+        for (int z = minZoom; z <= maxZoom; z++) {
+            Set<Long> zoomTiles = new LinkedHashSet<>();
+            collectCorridorTiles(route, z, zoomTiles);
+            tiles.addAll(zoomTiles);
+        }
+
+        CacheManager cacheManager = new CacheManager(tileSource, getTileWriter(), minZoom, maxZoom);
+        int downloaded = 0;
+        for (long tileIndex : tiles) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            if (cacheManager.checkTile(tileIndex)) {
+                continue;
+            }
+            if (cacheManager.loadTile(tileSource, tileIndex)) {
+                downloaded++;
+            }
+        }
+        Log.d(TAG, "Prefetched " + downloaded + " of " + tiles.size() + " corridor tiles");
+    }
+
+    /**
+     * Collect up to {@link #MAX_TILES_PER_ZOOM} tiles within the corridor
+     * around the route at one zoom, ordered along the route
+     */
+    private void collectCorridorTiles(List<GeoPoint> route, int zoom, Set<Long> tiles) {
+        int tileCount = 1 << zoom;
+        for (int i = 0; i < route.size() - 1 && tiles.size() < MAX_TILES_PER_ZOOM; i++) {
+            GeoPoint from = route.get(i);
+            GeoPoint to = route.get(i + 1);
+
+            // Step at half a tile so no tile along the segment is skipped
+            double tileMeters = tileWidthMeters(from.getLatitude(), zoom);
+            double segmentMeters = LocationService.calculateDistance(from.getLatitude(), from.getLongitude(),
+                    to.getLatitude(), to.getLongitude()) * 1000;
+            int steps = Math.max(1, (int) Math.ceil(segmentMeters / (tileMeters / 2)));
+            int radius = (int) Math.ceil(CORRIDOR_KM * 1000 / tileMeters);
+
+            for (int step = 0; step <= steps && tiles.size() < MAX_TILES_PER_ZOOM; step++) {
+                double fraction = (double) step / steps;
+                double lat = from.getLatitude() + (to.getLatitude() - from.getLatitude()) * fraction;
+                double lon = from.getLongitude() + (to.getLongitude() - from.getLongitude()) * fraction;
+                int centerX = tileX(lon, tileCount);
+                int centerY = tileY(lat, tileCount);
+
+                for (int dx = -radius; dx <= radius; dx++) {
+                    for (int dy = -radius; dy <= radius; dy++) {
+                        int x = centerX + dx;
+                        int y = centerY + dy;
+                        if (y < 0 || y >= tileCount) {
+                            continue;
+                        }
+                        x = ((x % tileCount) + tileCount) % tileCount;
+                        tiles.add(MapTileIndex.getTileIndex(zoom, x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Warm the station cache with nearby-station queries spaced evenly over the
+     * whole route. A long route spreads its query budget further apart and
+     * widens each query so the circles still cover the corridor between them.
+     */
+    private void prefetchStations(List<GeoPoint> route) {
+        double routeKm = 0;
+        for (int i = 1; i < route.size(); i++) {
+            routeKm += LocationService.calculateDistance(route.get(i - 1).getLatitude(),
+                    route.get(i - 1).getLongitude(), route.get(i).getLatitude(), route.get(i).getLongitude());
+        }
+        // At most routeKm / spacing samples along the way, plus one at each end
+        double spacingKm = Math.max(MIN_STATION_QUERY_SPACING_KM, routeKm / (MAX_STATION_QUERIES_PER_ROUTE - 2));
+        // Reaches the corridor edge halfway to the next sample
+        double queryRadiusKm = Math.hypot(spacingKm / 2, CORRIDOR_KM) * 1.05;
+        double sinceLastSample = spacingKm; // Always sample the route start
+        int queries = 0;
+
+        for (int i = 0; i < route.size() && queries < MAX_STATION_QUERIES_PER_ROUTE; i++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            GeoPoint point = route.get(i);
+            if (i > 0) {
+                GeoPoint previous = route.get(i - 1);
+                sinceLastSample += LocationService.calculateDistance(previous.getLatitude(), previous.getLongitude(),
+                        point.getLatitude(), point.getLongitude());
+            }
+            if (sinceLastSample < spacingKm && i < route.size() - 1) {
+                continue;
+            }
+            sinceLastSample = 0;
+            queries++;
+
+            try {
+                chargingStationService.getNearbyStationsBlocking(point.getLatitude(), point.getLongitude(), queryRadiusKm);
+            } catch (Exception e) {
+                Log.w(TAG, "Station prefetch failed: " + e.getMessage());
+                return;
+            }
+        }
+        Log.d(TAG, "Warmed station cache with " + queries + " corridor queries");
+    }
+
+    private synchronized SqlTileWriter getTileWriter() {
+        if (tileWriter == null) {
+            tileWriter = new SqlTileWriter();
+        }
+        return tileWriter;
+    }
+
+    private synchronized void releaseTileWriter() {
+        if (tileWriter != null) {
+            tileWriter.onDetach();
+            tileWriter = null;
+        }
+    }
+
+    private static double tileWidthMeters(double latitude, int zoom) {
+        return EARTH_CIRCUMFERENCE_M * Math.cos(Math.toRadians(latitude)) / (1 << zoom);
+    }
+
+    private static int tileX(double longitude, int tileCount) {
+        return (int) Math.floor((longitude + 180.0) / 360.0 * tileCount);
+    }
+
+    private static int tileY(double latitude, int tileCount) {
+        double latRad = Math.toRadians(Math.max(-85.05112878, Math.min(85.05112878, latitude)));
+        return (int) Math.floor((1 - Math.log(Math.tan(latRad) + 1 / Math.cos(latRad)) / Math.PI) / 2 * tileCount);
+    }
+}
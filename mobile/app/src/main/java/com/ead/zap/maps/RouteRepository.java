@@ -0,0 +1,307 @@
+package com.ead.zap.maps;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import org.osmdroid.bonuspack.routing.OSRMRoadManager;
+import org.osmdroid.bonuspack.routing.Road;
+import org.osmdroid.bonuspack.routing.RoadManager;
+import org.osmdroid.util.GeoPoint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes driving routes on a single managed routing thread.
+ * A new request supersedes the previous one, so only the latest tap can
+ * deliver a result. Routes are cached in memory (LRU) and on disk, keyed by
+ * origin and destination quantised to roughly 100 m, so repeat navigation
+ * to the same station returns without an OSRM round trip.
+ */
+public class RouteRepository {
+    private static final String TAG = "RouteRepository";
+
+    private static final String USER_AGENT = "ZapEV/1.0";
+    private static final String DISK_CACHE_DIR = "routes";
+    private static final int DISK_FORMAT_VERSION = 1;
+    private static final int MAX_MEMORY_ROUTES = 32;
+    private static final int MAX_DISK_ROUTES = 50;
+    private static final long DISK_ROUTE_TTL_MS = TimeUnit.DAYS.toMillis(7);
+    private static final double QUANTISATION = 1000.0; // ~110 m at 3 decimal places
+
+    private static RouteRepository instance;
+
+    private final Context context;
+    private final File diskCacheDir;
+    private final ExecutorService routingExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, CachedRoute> memoryCache =
+            new LinkedHashMap<String, CachedRoute>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedRoute> eldest) {
+                    return size() > MAX_MEMORY_ROUTES;
+                }
+            };
+
+    private RoadManager roadManager;
+    private Future<?> currentRequest;
+    private int requestGeneration;
+
+    /**
+     * Callback for route requests, always invoked on the main thread
+     */
+    public interface RouteCallback {
+        void onRouteReady(Road road, RouteLevelOfDetail levelOfDetail, boolean fromCache);
+        void onRouteFailed(String errorMessage);
+    }
+
+    /**
+     * A route together with its precomputed zoom simplifications
+     */
+    private static class CachedRoute {
+        final Road road;
+        final RouteLevelOfDetail levelOfDetail;
+
+        CachedRoute(Road road) {
+            this.road = road;
+            this.levelOfDetail = new RouteLevelOfDetail(road.mRouteHigh);
+        }
+    }
+
+    private RouteRepository(Context context) {
+        this.context = context;
+        this.diskCacheDir = new File(context.getCacheDir(), DISK_CACHE_DIR);
+        this.routingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, TAG);
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Fetch the offline graph while the network is likely up, before a route needs it
+        OfflineRouter.getInstance(context).updateGraphAsync();
+    }
+
+    /**
+     * Get singleton instance of RouteRepository
+     */
+    public static synchronized RouteRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new RouteRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Request a route, superseding any request still in flight.
+     * A memory cache hit is delivered synchronously.
+     */
+    public void requestRoute(GeoPoint origin, GeoPoint destination, RouteCallback callback) {
+        String key = cacheKey(origin, destination);
+        final int generation;
+        CachedRoute cached;
+        synchronized (this) {
+            cancelCurrentRequest();
+            generation = ++requestGeneration;
+            cached = memoryCache.get(key);
+        }
+
+        if (cached != null) {
+            Log.d(TAG, "Route served from memory cache");
+            callback.onRouteReady(cached.road, cached.levelOfDetail, true);
+            return;
+        }
+
+        Future<?> future = routingExecutor.submit(() -> {
+            Road road = readFromDisk(key);
+            boolean fromCache = road != null;
+
+            if (road == null) {
+                if (!isCurrent(generation)) {
+                    return;
+                }
+                ArrayList<GeoPoint> waypoints = new ArrayList<>();
+                waypoints.add(origin);
+                waypoints.add(destination);
+                try {
+                    road = getRoadManager().getRoad(waypoints);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error calculating route", e);
+                    road = null;
+                }
+
+                if (road == null || road.mStatus != Road.STATUS_OK) {
+                    // OSRM unreachable or failed: fall back to the on-device road graph
+                    Road offlineRoad = OfflineRouter.getInstance(context).route(origin, destination);
+                    if (offlineRoad == null) {
+                        deliverFailure(generation, callback, "No route found");
+                        return;
+                    }
+                    deliverRoute(generation, callback, new CachedRoute(offlineRoad), false);
+                    return;
+                }
+                writeToDisk(key, road);
+                // Online: retry the graph download if it failed earlier
+                OfflineRouter.getInstance(context).updateGraphAsync();
+            }
+
+            // Simplify on the routing thread so the map only swaps in precomputed levels
+            CachedRoute route = new CachedRoute(road);
+            synchronized (this) {
+                memoryCache.put(key, route);
+            }
+            deliverRoute(generation, callback, route, fromCache);
+        });
+
+        synchronized (this) {
+            if (generation == requestGeneration) {
+                currentRequest = future;
+            }
+        }
+    }
+
+    /**
+     * Cancel the request in flight; its callback will not be invoked
+     */
+    public synchronized void cancel() {
+        cancelCurrentRequest();
+        requestGeneration++;
+    }
+
+    private void cancelCurrentRequest() {
+        if (currentRequest != null) {
+            currentRequest.cancel(true);
+            currentRequest = null;
+        }
+    }
+
+    private synchronized boolean isCurrent(int generation) {
+        return generation == requestGeneration;
+    }
+
+    private void deliverRoute(int generation, RouteCallback callback, CachedRoute route, boolean fromCache) {
+        mainHandler.post(() -> {
+            if (isCurrent(generation)) {
+                callback.onRouteReady(route.road, route.levelOfDetail, fromCache);
+            }
+        });
+    }
+
+    private void deliverFailure(int generation, RouteCallback callback, String errorMessage) {
+        mainHandler.post(() -> {
+            if (isCurrent(generation)) {
+                callback.onRouteFailed(errorMessage);
+            }
+        });
+    }
+
+    private RoadManager getRoadManager() {
+        if (roadManager == null) {
+            roadManager = new OSRMRoadManager(context, USER_AGENT);
+        }
+        return roadManager;
+    }
+
+    private static String cacheKey(GeoPoint origin, GeoPoint destination) {
+        return String.format(Locale.US, "%d_%d_%d_%d",
+                Math.round(origin.getLatitude() * QUANTISATION),
+                Math.round(origin.getLongitude() * QUANTISATION),
+                Math.round(destination.getLatitude() * QUANTISATION),
+                Math.round(destination.getLongitude() * QUANTISATION));
+    }
+
+    /**
+     * Read a route stored on disk, or null when missing, stale or unreadable
+     */
+    private Road readFromDisk(String key) {
+        File file = new File(diskCacheDir, key);
+        if (!file.exists()) {
+            return null;
+        }
+        if (System.currentTimeMillis() - file.lastModified() > DISK_ROUTE_TTL_MS) {
+            file.delete();
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != DISK_FORMAT_VERSION) {
+                return null;
+            }
+            Road road = new Road();
+            road.mStatus = Road.STATUS_OK;
+            road.mLength = in.readDouble();
+            road.mDuration = in.readDouble();
+            int pointCount = in.readInt();
+            ArrayList<GeoPoint> points = new ArrayList<>(pointCount);
+            for (int i = 0; i < pointCount; i++) {
+                points.add(new GeoPoint(in.readDouble(), in.readDouble()));
+            }
+            road.mRouteHigh = points;
+            file.setLastModified(System.currentTimeMillis());
+            Log.d(TAG, "Route served from disk cache");
+            return road;
+        } catch (IOException e) {
+            Log.w(TAG, "Discarding unreadable cached route: " + e.getMessage());
+            file.delete();
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, Road road) {
+        if (road.mRouteHigh == null || (!diskCacheDir.exists() && !diskCacheDir.mkdirs())) {
+            return;
+        }
+
+        File target = new File(diskCacheDir, key);
+        File temp = new File(diskCacheDir, key + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(DISK_FORMAT_VERSION);
+            out.writeDouble(road.mLength);
+            out.writeDouble(road.mDuration);
+            out.writeInt(road.mRouteHigh.size());
+            for (GeoPoint point : road.mRouteHigh) {
+                out.writeDouble(point.getLatitude());
+                out.writeDouble(point.getLongitude());
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to cache route on disk: " + e.getMessage());
+            temp.delete();
+            return;
+        }
+
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            return;
+        }
+        trimDiskCache();
+    }
+
+    /**
+     * Keep only the most recently used routes on disk
+     */
+    private void trimDiskCache() {
+        File[] files = diskCacheDir.listFiles();
+        if (files == null || files.length <= MAX_DISK_ROUTES) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (int i = MAX_DISK_ROUTES; i < files.length; i++) {
+            files[i].delete();
+        }
+    }
+}
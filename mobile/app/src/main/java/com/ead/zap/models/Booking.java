@@ -1,5 +1,6 @@
 package com.ead.zap.models;
 
+import com.ead.zap.utils.DateTimeCodec;
 import com.google.gson.annotations.SerializedName;
 import java.io.Serializable;
 import java.util.Date;
@@ -60,6 +61,25 @@ public class Booking implements Serializable {
         this.createdAt = new Date();
     }
 
+    /**
+     * Copy of another booking, so a changed version can be shown without touching the original
+     */
+    public Booking(Booking other) {
+        this.bookingId = other.bookingId;
+        this.userId = other.userId;
+        this.stationId = other.stationId;
+        this.stationName = other.stationName;
+        this.stationAddress = other.stationAddress;
+        this.reservationDate = other.reservationDate;
+        this.reservationTime = other.reservationTime;
+        this.duration = other.duration;
+        this.totalCost = other.totalCost;
+        this.status = other.status;
+        this.qrCode = other.qrCode;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     // Getters and Setters
     public String getBookingId() { return bookingId; }
     public void setBookingId(String bookingId) { this.bookingId = bookingId; }
@@ -119,14 +139,14 @@ public class Booking implements Serializable {
     // Helper methods for display
     public String getDate() {
         if (reservationDate != null) {
-            return android.text.format.DateFormat.format("MMM dd, yyyy", reservationDate).toString();
+            return DateTimeCodec.formatDate(reservationDate);
         }
         return "";
     }
 
     public String getTime() {
         if (reservationTime != null) {
-            return android.text.format.DateFormat.format("hh:mm a", reservationTime).toString();
+            return DateTimeCodec.formatTime(reservationTime);
         }
         return "";
     }
@@ -1,6 +1,8 @@
 package com.ead.zap.models;
 
 import com.google.gson.annotations.SerializedName;
+
+import java.util.Calendar;
 import java.util.List;
 
 public class ChargingStation {
@@ -52,6 +54,21 @@ public class ChargingStation {
         this.pricePerHour = pricePerHour;
     }
 
+    // Copy constructor; location, hours and amenities are shared, they are not modified after parsing
+    public ChargingStation(ChargingStation other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.location = other.location;
+        this.type = other.type;
+        this.totalSlots = other.totalSlots;
+        this.availableSlots = other.availableSlots;
+        this.pricePerHour = other.pricePerHour;
+        this.operatingHours = other.operatingHours;
+        this.amenities = other.amenities;
+        this.isActive = other.isActive;
+        this.distance = other.distance;
+    }
+
     // Getters and setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -202,8 +219,50 @@ public class ChargingStation {
         }
 
         public boolean isOpenNow() {
-            // Basic implementation - you can enhance this with actual time checking
-            return true;
+            return isOpenAt(Calendar.getInstance());
+        }
+
+        /**
+         * Check the hours against a given local time. Days use the backend's
+         * DayOfWeek numbering (Sunday = 0); missing hours or days mean always open,
+         * and a close time before the open time spans midnight.
+         */
+        public boolean isOpenAt(Calendar time) {
+            int day = time.get(Calendar.DAY_OF_WEEK) - Calendar.SUNDAY;
+            int minute = time.get(Calendar.HOUR_OF_DAY) * 60 + time.get(Calendar.MINUTE);
+            int open = parseMinutes(openTime);
+            int close = parseMinutes(closeTime);
+            if (open < 0 || close < 0 || open == close) {
+                return isOperatingDay(day);
+            }
+            if (open < close) {
+                return isOperatingDay(day) && minute >= open && minute < close;
+            }
+            // Overnight: open from today's open time, or still open from yesterday
+            return (minute >= open && isOperatingDay(day))
+                    || (minute < close && isOperatingDay((day + 6) % 7));
+        }
+
+        private boolean isOperatingDay(int day) {
+            return operatingDays == null || operatingDays.isEmpty() || operatingDays.contains(day);
+        }
+
+        /**
+         * Parse "HH:mm" or "HH:mm:ss" into minutes after midnight, or -1
+         */
+        private static int parseMinutes(String time) {
+            if (time == null) {
+                return -1;
+            }
+            String[] parts = time.trim().split(":");
+            if (parts.length < 2) {
+                return -1;
+            }
+            try {
+                return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
         }
     }
 }
\ No newline at end of file
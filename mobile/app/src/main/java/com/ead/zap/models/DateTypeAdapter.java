@@ -0,0 +1,40 @@
+package com.ead.zap.models;
+
+import com.ead.zap.utils.DateTimeCodec;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Gson adapter for API timestamps, backed by DateTimeCodec
+ */
+public class DateTypeAdapter extends TypeAdapter<Date> {
+
+    @Override
+    public void write(JsonWriter out, Date value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(DateTimeCodec.format(value));
+        }
+    }
+
+    @Override
+    public Date read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String value = in.nextString();
+        Date date = DateTimeCodec.parse(value);
+        if (date == null) {
+            throw new JsonSyntaxException("Unreadable timestamp: " + value);
+        }
+        return date;
+    }
+}
@@ -24,6 +24,7 @@ import java.util.concurrent.TimeUnit;
 public class NetworkClient {
     private static NetworkClient instance;
     private final Retrofit retrofit;
+    private final OkHttpClient okHttpClient;
     private final PreferenceManager preferenceManager;
 
     private NetworkClient(Context context) {
@@ -31,7 +32,7 @@ public class NetworkClient {
 
         // Configure Gson for date handling and custom deserializers
         Gson gson = new GsonBuilder()
-                .setDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'")
+                .registerTypeAdapter(java.util.Date.class, new com.ead.zap.models.DateTypeAdapter())
                 .registerTypeAdapter(com.ead.zap.models.BookingStatus.class, 
                                    new com.ead.zap.models.BookingStatusDeserializer())
                 .create();
@@ -56,9 +57,10 @@ public class NetworkClient {
         }
 
         // Build Retrofit instance
+        okHttpClient = httpClient.build();
         retrofit = new Retrofit.Builder()
                 .baseUrl(ApiConfig.getBaseUrl())
-                .client(httpClient.build())
+                .client(okHttpClient)
                 .addConverterFactory(GsonConverterFactory.create(gson))
                 .build();
     }
@@ -80,6 +82,13 @@ public class NetworkClient {
         return retrofit.create(serviceClass);
     }
 
+    /**
+     * Shared OkHttp client, for connections Retrofit does not manage (e.g. WebSockets)
+     */
+    public OkHttpClient getOkHttpClient() {
+        return okHttpClient;
+    }
+
     /**
      * Authentication interceptor to add Bearer token to requests
      */
@@ -417,6 +417,10 @@ public class AuthService {
      */
     private void clearLocalData() {
         preferenceManager.clearAuthData();
+        OperatorSessionStore.getInstance(context).clear();
+        BookingStore.getInstance().clear();
+        BookingStatusStream.getInstance(context).clear();
+        OfflineQRVerifier.getInstance(context).clear();
         // You might also want to clear other local caches here
         // evOwnerDAO.clearAllEVOwners(); // Uncomment if you want to clear user data on logout
     }
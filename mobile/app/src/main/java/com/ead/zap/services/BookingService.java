@@ -5,15 +5,20 @@ import android.util.Log;
 
 import com.ead.zap.api.services.BookingApiService;
 import com.ead.zap.models.Booking;
+import com.ead.zap.models.BookingStatus;
 import com.ead.zap.models.common.ApiResponse;
 import com.ead.zap.network.NetworkClient;
+import com.ead.zap.utils.DateTimeCodec;
+import com.ead.zap.utils.PageKey;
+import com.ead.zap.utils.PageWindow;
 import com.ead.zap.utils.PreferenceManager;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -30,6 +35,45 @@ public class BookingService {
     private final BookingApiService bookingApiService;
     private final PreferenceManager preferenceManager;
 
+    // Recently loaded history pages, shared by all instances; bounded so long histories stay small
+    private static final int HISTORY_PAGE_CACHE_SIZE = 8;
+    private static final Map<String, HistoryPage> historyPageCache =
+            new LinkedHashMap<String, HistoryPage>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, HistoryPage> eldest) {
+                    return size() > HISTORY_PAGE_CACHE_SIZE;
+                }
+            };
+
+    private static class HistoryPage {
+        final List<Booking> bookings;
+        final String nextKey;
+
+        HistoryPage(List<Booking> bookings, String nextKey) {
+            this.bookings = bookings;
+            this.nextKey = nextKey;
+        }
+    }
+
+    // Slot availability per station; short-lived because other owners keep booking
+    private static final long SLOT_AVAILABILITY_MAX_AGE_MS = 60 * 1000;
+    private static final Map<String, SlotAvailabilityIndex> slotAvailabilityCache = new HashMap<>();
+
+    // History the snapshot holds; older pages are fetched from the server as they are scrolled to
+    private static final int SNAPSHOT_HISTORY_SIZE = 20;
+
+    // Callers waiting on the snapshot request in flight, or null when none is; main thread only
+    private static List<BooleanCallback> snapshotWaiters;
+    // BookingStore session the in-flight snapshot was requested in
+    private static int snapshotSession;
+
+    private static class SnapshotParts {
+        List<Booking> upcoming;
+        List<Booking> history;
+        String historyNextKey;
+        boolean failed;
+    }
+
     public BookingService(Context context) {
         this.context = context.getApplicationContext();
         this.bookingApiService = NetworkClient.getInstance(context).createService(BookingApiService.class);
@@ -60,6 +104,14 @@ public class BookingService {
         void onError(String error);
     }
 
+    /**
+     * Interface for handling slot availability responses
+     */
+    public interface SlotAvailabilityCallback {
+        void onSuccess(SlotAvailabilityIndex index);
+        void onError(String error);
+    }
+
     /**
      * Create a new booking
      */
@@ -71,9 +123,8 @@ public class BookingService {
             return;
         }
 
-        // Format date to ISO 8601
-        SimpleDateFormat isoFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.getDefault());
-        String formattedDate = isoFormat.format(reservationDateTime);
+        // Format date to ISO 8601 (UTC)
+        String formattedDate = DateTimeCodec.format(reservationDateTime);
 
         BookingApiService.CreateBookingRequest request = new BookingApiService.CreateBookingRequest(
                 stationId, formattedDate, durationMinutes, notes
@@ -86,6 +137,8 @@ public class BookingService {
             @Override
             public void onResponse(Call<ApiResponse<BookingApiService.BookingResponseDTO>> call, 
                                  Response<ApiResponse<BookingApiService.BookingResponseDTO>> response) {
+                // Either a slot was taken or the cached availability was wrong; reload it next time
+                invalidateSlotAvailability(stationId);
                 if (response.isSuccessful() && response.body() != null) {
                     ApiResponse<BookingApiService.BookingResponseDTO> apiResponse = response.body();
                     if (apiResponse.isSuccess() && apiResponse.getData() != null) {
@@ -106,6 +159,86 @@ public class BookingService {
         });
     }
 
+    /**
+     * Get the slot availability of a station for the whole booking window.
+     * A recent snapshot is returned straight from the cache; otherwise the
+     * station's booked intervals are fetched and indexed off the main thread.
+     */
+    public void getSlotAvailability(String stationId, SlotAvailabilityCallback callback) {
+        SlotAvailabilityIndex cached;
+        synchronized (slotAvailabilityCache) {
+            cached = slotAvailabilityCache.get(stationId);
+        }
+        if (cached != null && System.currentTimeMillis() - cached.getLoadedAt() < SLOT_AVAILABILITY_MAX_AGE_MS) {
+            callback.onSuccess(cached);
+            return;
+        }
+
+        String authToken = getAuthToken();
+        if (authToken == null) {
+            callback.onError("Not authenticated");
+            return;
+        }
+
+        Call<ApiResponse<BookingApiService.StationOccupancyDTO>> call =
+                bookingApiService.getStationOccupancy("Bearer " + authToken, stationId);
+
+        call.enqueue(new Callback<ApiResponse<BookingApiService.StationOccupancyDTO>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<BookingApiService.StationOccupancyDTO>> call,
+                                 Response<ApiResponse<BookingApiService.StationOccupancyDTO>> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    ApiResponse<BookingApiService.StationOccupancyDTO> apiResponse = response.body();
+                    if (apiResponse.isSuccess() && apiResponse.getData() != null) {
+                        BookingApiService.StationOccupancyDTO occupancy = apiResponse.getData();
+                        ResponseMapper.map("slot availability", () -> buildSlotAvailability(occupancy),
+                                index -> {
+                                    synchronized (slotAvailabilityCache) {
+                                        slotAvailabilityCache.put(stationId, index);
+                                    }
+                                    callback.onSuccess(index);
+                                }, callback::onError);
+                    } else {
+                        callback.onError(apiResponse.getMessage());
+                    }
+                } else {
+                    callback.onError("Failed to get slot availability: " + response.message());
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<BookingApiService.StationOccupancyDTO>> call, Throwable t) {
+                Log.e(TAG, "Get slot availability failed", t);
+                callback.onError("Network error: " + t.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Forget the cached availability of a station so the next check reloads it
+     */
+    public static void invalidateSlotAvailability(String stationId) {
+        synchronized (slotAvailabilityCache) {
+            slotAvailabilityCache.remove(stationId);
+        }
+    }
+
+    /**
+     * Index the booked intervals against the slot count the server checks new bookings against
+     */
+    private static SlotAvailabilityIndex buildSlotAvailability(BookingApiService.StationOccupancyDTO occupancy) {
+        SlotAvailabilityIndex.Builder builder = new SlotAvailabilityIndex.Builder();
+        if (occupancy.getBookings() != null) {
+            for (BookingApiService.BookedIntervalDTO interval : occupancy.getBookings()) {
+                long start = DateTimeCodec.parseMillis(interval.getReservationDateTime());
+                if (start != DateTimeCodec.INVALID) {
+                    builder.add(start, interval.getDurationMinutes());
+                }
+            }
+        }
+        return builder.build(occupancy.getAvailableSlots());
+    }
+
     /**
      * Get all bookings for current EV owner (including pending, approved, etc.)
      */
@@ -138,9 +271,11 @@ public class BookingService {
                 if (response.isSuccessful() && response.body() != null) {
                     ApiResponse<List<BookingApiService.BookingResponseDTO>> apiResponse = response.body();
                     if (apiResponse.isSuccess() && apiResponse.getData() != null) {
-                        List<Booking> bookings = convertToBookingList(apiResponse.getData());
-                        Log.d(TAG, "Successfully loaded all bookings: " + bookings.size());
-                        callback.onSuccess(bookings);
+                        ResponseMapper.map("all bookings", () -> convertToBookingList(apiResponse.getData()),
+                                bookings -> {
+                                    Log.d(TAG, "Successfully loaded all bookings: " + bookings.size());
+                                    callback.onSuccess(bookings);
+                                }, callback::onError);
                     } else {
                         Log.e(TAG, "API error: " + apiResponse.getMessage());
                         callback.onError(apiResponse.getMessage());
@@ -167,6 +302,103 @@ public class BookingService {
         });
     }
 
+    /**
+     * Make sure the {@link BookingStore} holds a recent snapshot of the owner's
+     * bookings, loading one if it is missing or stale. Call on the main thread.
+     */
+    public void ensureBookingSnapshot(BooleanCallback callback) {
+        if (!BookingStore.getInstance().isStale()) {
+            callback.onSuccess(true);
+            return;
+        }
+        refreshBookingSnapshot(callback);
+    }
+
+    /**
+     * Load the owner's upcoming bookings and the first page of history, in
+     * parallel, and hand them to the {@link BookingStore}, which partitions
+     * them into upcoming, history and counts. Older history stays paged from
+     * the server. Screens asking while a load is in flight share it; a load
+     * requested before a sign-out is not shared and its result is dropped.
+     * Call on the main thread.
+     */
+    public void refreshBookingSnapshot(BooleanCallback callback) {
+        int session = BookingStore.getInstance().getSession();
+        if (snapshotWaiters != null && snapshotSession == session) {
+            snapshotWaiters.add(callback);
+            return;
+        }
+        List<BooleanCallback> waiters = new ArrayList<>();
+        waiters.add(callback);
+        snapshotWaiters = waiters;
+        snapshotSession = session;
+
+        SnapshotParts parts = new SnapshotParts();
+        getUpcomingBookings(new BookingListCallback() {
+            @Override
+            public void onSuccess(List<Booking> bookings) {
+                parts.upcoming = bookings;
+                finishSnapshot(session, waiters, parts);
+            }
+
+            @Override
+            public void onError(String error) {
+                failSnapshot(waiters, parts, error);
+            }
+        });
+        getBookingHistoryPage(null, SNAPSHOT_HISTORY_SIZE, new PageWindow.PageCallback<Booking>() {
+            @Override
+            public void onSuccess(List<Booking> items, String nextKey) {
+                parts.history = items;
+                parts.historyNextKey = nextKey;
+                finishSnapshot(session, waiters, parts);
+            }
+
+            @Override
+            public void onError(String error) {
+                failSnapshot(waiters, parts, error);
+            }
+        });
+    }
+
+    private static void finishSnapshot(int session, List<BooleanCallback> waiters, SnapshotParts parts) {
+        if (parts.failed || parts.upcoming == null || parts.history == null) {
+            return;
+        }
+        releaseSnapshotWaiters(waiters);
+        BookingStore store = BookingStore.getInstance();
+        if (store.getSession() != session) {
+            for (BooleanCallback waiter : waiters) {
+                waiter.onError("Signed out");
+            }
+            return;
+        }
+        store.setBookings(session, parts.upcoming, parts.history, parts.historyNextKey);
+        for (BooleanCallback waiter : waiters) {
+            waiter.onSuccess(true);
+        }
+    }
+
+    private static void failSnapshot(List<BooleanCallback> waiters, SnapshotParts parts, String error) {
+        if (parts.failed) {
+            return;
+        }
+        parts.failed = true;
+        releaseSnapshotWaiters(waiters);
+        for (BooleanCallback waiter : waiters) {
+            waiter.onError(error);
+        }
+    }
+
+    /**
+     * Stop sharing a finished load, unless a newer session's load has taken its place
+     */
+    private static void releaseSnapshotWaiters(List<BooleanCallback> waiters) {
+        if (snapshotWaiters == waiters) {
+            snapshotWaiters = null;
+        }
+    }
+
     /**
      * Get upcoming bookings for current EV owner
      */
@@ -202,8 +434,8 @@ public class BookingService {
                 if (response.isSuccessful() && response.body() != null) {
                     ApiResponse<List<BookingApiService.BookingResponseDTO>> apiResponse = response.body();
                     if (apiResponse.isSuccess() && apiResponse.getData() != null) {
-                        List<Booking> bookings = convertToBookingList(apiResponse.getData());
-                        callback.onSuccess(bookings);
+                        ResponseMapper.map("upcoming bookings", () -> convertToBookingList(apiResponse.getData()),
+                                callback::onSuccess, callback::onError);
                     } else {
                         callback.onError(apiResponse.getMessage());
                     }
@@ -230,15 +462,15 @@ public class BookingService {
     }
 
     /**
-     * Get booking history for current EV owner
+     * Get one page of booking history for current EV owner, newest first.
+     * A null key is the first page; the next key is the {@link PageKey} of the
+     * last booking on the page. The first page always comes from the network and restarts
+     * the page cache; later pages are served from the cache when present.
      */
-    public void getBookingHistory(BookingListCallback callback) {
+    public void getBookingHistoryPage(String before, int limit, PageWindow.PageCallback<Booking> callback) {
         String authToken = getAuthToken();
         String nic = preferenceManager.getUserNIC();
         
-        Log.d(TAG, "Getting booking history - AuthToken: " + (authToken != null ? "Present" : "NULL") + 
-                   ", NIC: " + (nic != null ? nic : "NULL"));
-        
         if (authToken == null) {
             Log.e(TAG, "No auth token available");
             callback.onError("Not authenticated - no token");
@@ -251,8 +483,21 @@ public class BookingService {
             return;
         }
 
+        String cacheKey = nic + "|" + before + "|" + limit;
+        if (before != null) {
+            HistoryPage cached;
+            synchronized (historyPageCache) {
+                cached = historyPageCache.get(cacheKey);
+            }
+            if (cached != null) {
+                callback.onSuccess(cached.bookings, cached.nextKey);
+                return;
+            }
+        }
+
         Call<ApiResponse<List<BookingApiService.BookingResponseDTO>>> call = 
-                bookingApiService.getBookingHistory("Bearer " + authToken, nic);
+                bookingApiService.getBookingHistory("Bearer " + authToken, nic,
+                        PageKey.before(before), PageKey.beforeId(before), limit);
 
         call.enqueue(new Callback<ApiResponse<List<BookingApiService.BookingResponseDTO>>>() {
             @Override
@@ -261,8 +506,21 @@ public class BookingService {
                 if (response.isSuccessful() && response.body() != null) {
                     ApiResponse<List<BookingApiService.BookingResponseDTO>> apiResponse = response.body();
                     if (apiResponse.isSuccess() && apiResponse.getData() != null) {
-                        List<Booking> bookings = convertToBookingList(apiResponse.getData());
-                        callback.onSuccess(bookings);
+                        List<BookingApiService.BookingResponseDTO> data = apiResponse.getData();
+                        // The server's own timestamp plus the id, so the cursor is exact even on ties
+                        BookingApiService.BookingResponseDTO last = data.isEmpty() ? null : data.get(data.size() - 1);
+                        String nextKey = data.size() >= limit
+                                ? PageKey.of(last.getReservationDateTime(), last.getId()) : null;
+                        ResponseMapper.map("booking history page", () -> convertToBookingList(data),
+                                bookings -> {
+                                    synchronized (historyPageCache) {
+                                        if (before == null) {
+                                            historyPageCache.clear();
+                                        }
+                                        historyPageCache.put(cacheKey, new HistoryPage(bookings, nextKey));
+                                    }
+                                    callback.onSuccess(bookings, nextKey);
+                                }, callback::onError);
                     } else {
                         callback.onError(apiResponse.getMessage());
                     }
@@ -299,9 +557,8 @@ public class BookingService {
             return;
         }
 
-        // Format date to ISO 8601
-        SimpleDateFormat isoFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.getDefault());
-        String formattedDate = reservationDateTime != null ? isoFormat.format(reservationDateTime) : null;
+        // Format date to ISO 8601 (UTC)
+        String formattedDate = DateTimeCodec.format(reservationDateTime);
 
         BookingApiService.UpdateBookingRequest request = new BookingApiService.UpdateBookingRequest(
                 formattedDate, durationMinutes, notes
@@ -371,6 +628,79 @@ public class BookingService {
         });
     }
 
+    /**
+     * Change a booking's time and duration optimistically. The change shows
+     * in the {@link BookingStore} at once; when the server answers it is
+     * replaced by the server's copy, or rolled back if the server rejects it.
+     * Call on the main thread. The callback only reports the outcome.
+     */
+    public void modifyBooking(Booking booking, Date reservationDateTime, int durationMinutes,
+                              BookingCallback callback) {
+        Booking changed = new Booking(booking);
+        changed.setReservationDate(reservationDateTime);
+        changed.setReservationTime(reservationDateTime);
+        changed.setDuration(durationMinutes);
+        if (booking.getDuration() > 0) {
+            // Same rate as before until the server sends the real amount
+            changed.setTotalCost(booking.getTotalCost() / booking.getDuration() * durationMinutes);
+        }
+        changed.setUpdatedAt(new Date());
+
+        BookingStore store = BookingStore.getInstance();
+        BookingStore.PendingChange change = store.applyChange(changed);
+
+        updateBooking(booking.getBookingId(), reservationDateTime, durationMinutes, "", new BookingCallback() {
+            @Override
+            public void onSuccess(BookingApiService.BookingResponseDTO response) {
+                Booking confirmed = convertToBooking(response);
+                if (confirmed != null) {
+                    // Fields the response leaves out
+                    confirmed.setStationId(changed.getStationId());
+                    confirmed.setStationAddress(changed.getStationAddress());
+                    confirmed.setUpdatedAt(changed.getUpdatedAt());
+                }
+                store.confirm(change, confirmed);
+                invalidateSlotAvailability(booking.getStationId());
+                callback.onSuccess(response);
+            }
+
+            @Override
+            public void onError(String error) {
+                store.rollback(change);
+                callback.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Cancel a booking optimistically: it leaves the {@link BookingStore}'s
+     * upcoming list at once and comes back if the server rejects the cancel.
+     * Call on the main thread.
+     */
+    public void cancelBooking(Booking booking, BooleanCallback callback) {
+        Booking cancelled = new Booking(booking);
+        cancelled.setStatus(BookingStatus.CANCELLED);
+        cancelled.setUpdatedAt(new Date());
+
+        BookingStore store = BookingStore.getInstance();
+        BookingStore.PendingChange change = store.applyChange(cancelled);
+
+        cancelBooking(booking.getBookingId(), new BooleanCallback() {
+            @Override
+            public void onSuccess(boolean result) {
+                store.confirm(change, null);
+                invalidateSlotAvailability(booking.getStationId());
+                callback.onSuccess(result);
+            }
+
+            @Override
+            public void onError(String error) {
+                store.rollback(change);
+                callback.onError(error);
+            }
+        });
+    }
+
     /**
      * Helper method to get auth token
      */
@@ -401,34 +731,17 @@ public class BookingService {
     }
 
     /**
-     * Convert BookingResponseDTO list to Booking list
+     * Convert BookingResponseDTO list to Booking list. Runs on the ResponseMapper thread.
      */
     private List<Booking> convertToBookingList(List<BookingApiService.BookingResponseDTO> dtoList) {
         List<Booking> bookings = new ArrayList<>();
-        SimpleDateFormat isoFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.getDefault());
         
         for (BookingApiService.BookingResponseDTO dto : dtoList) {
             try {
-                Booking booking = new Booking();
-                booking.setBookingId(dto.getId());
-                booking.setUserId(dto.getEvOwnerNIC());
-                booking.setStationId(dto.getChargingStationId());
-                booking.setStationName(dto.getChargingStationName());
-                booking.setDuration(dto.getDurationMinutes());
-                booking.setTotalCost(dto.getTotalAmount());
-                // Handle status - convert from string (which might be a number from backend)
-                Log.d(TAG, "Converting status from API: '" + dto.getStatus() + "'");
-                booking.setStatusFromString(dto.getStatus());
-                Log.d(TAG, "Converted to enum: " + booking.getStatus().getDisplayName());
-                booking.setQrCode(dto.getQrCode());
-                
-                // Parse dates
-                Date reservationDateTime = isoFormat.parse(dto.getReservationDateTime());
-                booking.setReservationDate(reservationDateTime);
-                booking.setReservationTime(reservationDateTime);
-                
-                if (dto.getCreatedAt() != null) {
-                    booking.setCreatedAt(isoFormat.parse(dto.getCreatedAt()));
+                Booking booking = convertToBooking(dto);
+                if (booking == null) {
+                    Log.e(TAG, "Skipping booking with unreadable date: " + dto.getReservationDateTime());
+                    continue;
                 }
                 
                 bookings.add(booking);
@@ -439,4 +752,33 @@ public class BookingService {
         
         return bookings;
     }
-}
\ No newline at end of file
+
+    /**
+     * Convert one booking DTO, or return null if its reservation time cannot be read
+     */
+    private Booking convertToBooking(BookingApiService.BookingResponseDTO dto) {
+        Booking booking = new Booking();
+        booking.setBookingId(dto.getId());
+        booking.setUserId(dto.getEvOwnerNIC());
+        booking.setStationId(dto.getChargingStationId());
+        booking.setStationName(dto.getChargingStationName());
+        booking.setDuration(dto.getDurationMinutes());
+        booking.setTotalCost(dto.getTotalAmount());
+        // Handle status - convert from string (which might be a number from backend)
+        booking.setStatusFromString(dto.getStatus());
+        booking.setQrCode(dto.getQrCode());
+        
+        // Parse dates
+        Date reservationDateTime = DateTimeCodec.parse(dto.getReservationDateTime());
+        if (reservationDateTime == null) {
+            return null;
+        }
+        booking.setReservationDate(reservationDateTime);
+        booking.setReservationTime(reservationDateTime);
+        
+        if (dto.getCreatedAt() != null) {
+            booking.setCreatedAt(DateTimeCodec.parse(dto.getCreatedAt()));
+        }
+        return booking;
+    }
+}
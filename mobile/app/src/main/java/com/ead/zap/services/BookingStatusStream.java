@@ -0,0 +1,115 @@
+package com.ead.zap.services;
+
+import android.content.Context;
+
+import com.ead.zap.config.ApiConfig;
+import com.ead.zap.models.Booking;
+import com.ead.zap.models.BookingStatus;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+
+/**
+ * Live status changes to the signed-in owner's bookings over a WebSocket,
+ * e.g. an operator approving a booking or starting and completing its
+ * session, resumable as described in {@link ResumableWebSocketStream}.
+ * Changes are applied to the {@link BookingStore}, whose own listeners
+ * redraw the screens; while the socket is up the store's snapshot counts as
+ * fresh, so screens stop reloading it.
+ *
+ * Message format, with the status in any form {@link BookingStatus#fromString} reads:
+ * <pre>
+ * {"token":"311","reset":false,"changes":[{"id":"bk1","s":"Approved"}]}
+ * </pre>
+ */
+public class BookingStatusStream extends ResumableWebSocketStream<
+        BookingStatusStream.StatusListener, BookingStatusStream.StatusMessage> {
+    private static final String TAG = "BookingStatusStream";
+
+    private static BookingStatusStream instance;
+
+    /**
+     * Receives booking changes on the main thread
+     */
+    public interface StatusListener extends ResumableWebSocketStream.StreamListener {
+        void onStatusChanged(List<Booking> changedBookings);
+    }
+
+    /**
+     * New status for one booking
+     */
+    public static class StatusChange {
+        @SerializedName("id")
+        private String bookingId;
+
+        @SerializedName("s")
+        private String status;
+
+        public String getBookingId() { return bookingId; }
+        public BookingStatus getStatus() { return BookingStatus.fromString(status); }
+    }
+
+    static class StatusMessage extends ResumableWebSocketStream.StreamMessage {
+        @SerializedName("changes")
+        List<StatusChange> changes;
+    }
+
+    private BookingStatusStream(Context context) {
+        super(context, TAG, ApiConfig.Bookings.STATUS_STREAM, StatusMessage.class);
+    }
+
+    /**
+     * Get singleton instance of BookingStatusStream
+     */
+    public static synchronized BookingStatusStream getInstance(Context context) {
+        if (instance == null) {
+            instance = new BookingStatusStream(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Forget the resume token, e.g. on logout, so the next owner starts afresh
+     */
+    public void clear() {
+        forgetResumeToken();
+    }
+
+    @Override
+    protected void onConnected(boolean resuming, List<StatusListener> targets) {
+        BookingStore store = BookingStore.getInstance();
+        store.setLive(true);
+        // Without a token nothing is replayed, so a snapshot loaded earlier may have missed changes
+        if (!resuming && store.isLoaded()) {
+            requestResync(targets);
+        }
+    }
+
+    @Override
+    protected void onDisconnected() {
+        // Changes may be missed until the socket is back, so the snapshot ages normally again
+        BookingStore.getInstance().setLive(false);
+    }
+
+    @Override
+    protected void onMessage(StatusMessage message, List<StatusListener> targets) {
+        BookingStore store = BookingStore.getInstance();
+        if (message.changes != null && store.isLoaded()) {
+            for (StatusChange change : message.changes) {
+                if (change.getBookingId() != null && !store.contains(change.getBookingId())) {
+                    // e.g. booked from the web portal; only a reload brings in the whole booking
+                    requestResync(targets);
+                    return;
+                }
+            }
+        }
+
+        List<Booking> changed = store.applyStatusChanges(message.changes);
+        if (changed.isEmpty()) {
+            return;
+        }
+        for (StatusListener listener : targets) {
+            listener.onStatusChanged(changed);
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.ead.zap.services;
+
+import android.util.Log;
+
+import com.ead.zap.models.Booking;
+import com.ead.zap.models.BookingStatus;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * The signed-in owner's bookings, loaded once as a snapshot and shared by the
+ * owner screens. The snapshot is bounded: every upcoming booking plus the
+ * first page of history. History past that page stays on the server, and
+ * {@link #getHistoryPage} says when a page has to be fetched from there.
+ * The snapshot is partitioned on the device the same way the server's
+ * upcoming and history endpoints filter, plus per-status counts for the
+ * dashboard. The partitions are indexes kept up to date as each booking
+ * is added, replaced or removed, so reads never rescan the snapshot.
+ *
+ * Modify and cancel are applied optimistically: {@link #applyChange} shows
+ * the changed booking at once, and the caller later confirms it with the
+ * server's copy or rolls it back if the server rejects it. A reload that
+ * lands while a change is pending keeps the pending value on top, so the
+ * screens never flash back to the old booking.
+ *
+ * Status changes pushed by {@link BookingStatusStream} are applied the same
+ * way, and while that stream is connected the snapshot does not go stale.
+ *
+ * Bookings in the store are never changed in place; a change is a new
+ * object. All calls are on the main thread. Each sign-in is a new session
+ * ({@link #getSession}); a snapshot requested in an earlier one is dropped.
+ */
+public class BookingStore {
+    private static final String TAG = "BookingStore";
+
+    // How long a loaded snapshot is trusted before screens reload it
+    private static final long STALE_AFTER_MS = 5 * 60 * 1000;
+
+    // Reservation time, then id, so bookings at the same time stay distinct
+    private static final Comparator<Booking> BY_TIME = (a, b) -> {
+        int byTime = Long.compare(timeOf(a), timeOf(b));
+        return byTime != 0 ? byTime : idOf(a).compareTo(idOf(b));
+    };
+
+    private static BookingStore instance;
+
+    private final Map<String, Booking> bookings = new HashMap<>();
+    // Pending and approved, soonest first; ones whose time has passed are skipped on read
+    private final NavigableSet<Booking> active = new TreeSet<>(BY_TIME);
+    // Completed and cancelled, latest first
+    private final NavigableSet<Booking> history = new TreeSet<>(BY_TIME.reversed());
+    private final Map<BookingStatus, Integer> statusCounts = new EnumMap<>(BookingStatus.class);
+
+    private final Map<String, PendingChange> pending = new HashMap<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    // Where the loaded history page ended when the server has more, else null
+    private Booking historyBoundary;
+    private int session;
+    private long loadedAt;
+    // Whether pushed status changes are arriving, so the snapshot cannot drift
+    private boolean live;
+
+    public interface Listener {
+        void onBookingsChanged();
+    }
+
+    /**
+     * A change shown before the server has answered
+     */
+    public static class PendingChange {
+        private final String bookingId;
+        private final Booking optimistic;
+        // What a rollback restores; moves forward when an earlier change is confirmed
+        private Booking previous;
+
+        PendingChange(String bookingId, Booking previous, Booking optimistic) {
+            this.bookingId = bookingId;
+            this.previous = previous;
+            this.optimistic = optimistic;
+        }
+    }
+
+    /**
+     * One page of history; nextKey is null on the last page
+     */
+    public static class HistoryPage {
+        private final List<Booking> bookings;
+        private final String nextKey;
+
+        HistoryPage(List<Booking> bookings, String nextKey) {
+            this.bookings = bookings;
+            this.nextKey = nextKey;
+        }
+
+        public List<Booking> getBookings() { return bookings; }
+        public String getNextKey() { return nextKey; }
+    }
+
+    private BookingStore() {
+    }
+
+    /**
+     * Get singleton instance of BookingStore
+     */
+    public static synchronized BookingStore getInstance() {
+        if (instance == null) {
+            instance = new BookingStore();
+        }
+        return instance;
+    }
+
+    public void addListener(Listener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Bumped by {@link #clear}; tag a snapshot request with it and pass it back to {@link #setBookings}
+     */
+    public int getSession() {
+        return session;
+    }
+
+    /**
+     * Replace the snapshot with the owner's upcoming bookings and the first
+     * history page loaded from the server. historyNextKey is the server's key
+     * for the page after it, or null if that page was the whole history.
+     * Ignored if the store was cleared since the request was sent.
+     */
+    public void setBookings(int requestSession, List<Booking> upcoming, List<Booking> historyPage,
+                            String historyNextKey) {
+        if (requestSession != session) {
+            Log.d(TAG, "Dropped a snapshot requested before the last sign-out");
+            return;
+        }
+        bookings.clear();
+        active.clear();
+        history.clear();
+        statusCounts.clear();
+        for (Booking booking : upcoming) {
+            put(booking);
+        }
+        for (Booking booking : historyPage) {
+            put(booking);
+        }
+        historyBoundary = historyNextKey != null ? probeFor(historyNextKey) : null;
+        // The server has not seen these yet, or the reload raced their answer
+        for (PendingChange change : pending.values()) {
+            put(change.optimistic);
+        }
+        loadedAt = System.currentTimeMillis();
+        Log.d(TAG, "Loaded " + bookings.size() + " bookings");
+        notifyListeners();
+    }
+
+    /**
+     * Upcoming bookings, soonest first
+     */
+    public List<Booking> getUpcoming() {
+        List<Booking> upcoming = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Booking booking : active) {
+            if (timeOf(booking) > now) {
+                upcoming.add(booking);
+            }
+        }
+        return upcoming;
+    }
+
+    /**
+     * The next upcoming booking, or null if there is none
+     */
+    public Booking getNextUpcoming() {
+        long now = System.currentTimeMillis();
+        for (Booking booking : active) {
+            if (timeOf(booking) > now) {
+                return booking;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One page of completed and cancelled bookings, latest first. A null key
+     * is the first page; the next key names the last booking on the page, in
+     * the same "millis|id" form the server's history pages use. Returns null
+     * when the page lies past the loaded history, so the caller fetches it
+     * from the server with the same key.
+     */
+    public HistoryPage getHistoryPage(String key, int limit) {
+        Iterator<Booking> iterator = key == null
+                ? history.iterator()
+                : history.tailSet(probeFor(key), false).iterator();
+        List<Booking> page = new ArrayList<>(limit);
+        boolean more = false;
+        while (iterator.hasNext()) {
+            Booking booking = iterator.next();
+            if (historyBoundary != null && history.comparator().compare(booking, historyBoundary) > 0) {
+                // Older than the loaded page; the server may hold bookings in between
+                break;
+            }
+            if (page.size() == limit) {
+                more = true;
+                break;
+            }
+            page.add(booking);
+        }
+        if (page.isEmpty() && historyBoundary != null) {
+            return null;
+        }
+        more |= historyBoundary != null;
+        String nextKey = more && !page.isEmpty() ? keyFor(page.get(page.size() - 1)) : null;
+        return new HistoryPage(page, nextKey);
+    }
+
+    /**
+     * Number of bookings with this status in the snapshot (upcoming plus the first history page)
+     */
+    public int getCount(BookingStatus status) {
+        Integer count = statusCounts.get(status);
+        return count != null ? count : 0;
+    }
+
+    public boolean isLoaded() {
+        return loadedAt != 0;
+    }
+
+    public boolean contains(String bookingId) {
+        return bookings.containsKey(bookingId);
+    }
+
+    /**
+     * Whether screens should reload the snapshot from the server
+     */
+    public boolean isStale() {
+        if (loadedAt == 0) {
+            return true;
+        }
+        return !live && System.currentTimeMillis() - loadedAt > STALE_AFTER_MS;
+    }
+
+    /**
+     * Set by the status stream as it connects and drops. The snapshot was
+     * current up to the moment the stream dropped, so it ages from then.
+     */
+    public void setLive(boolean live) {
+        if (this.live && !live && loadedAt != 0) {
+            loadedAt = System.currentTimeMillis();
+        }
+        this.live = live;
+    }
+
+    /**
+     * Add a booking the server has just created
+     */
+    public void add(Booking booking) {
+        if (booking.getBookingId() == null) {
+            return;
+        }
+        put(booking);
+        notifyListeners();
+    }
+
+    /**
+     * Apply status changes pushed by the server; unknown bookings are
+     * skipped. Returns the bookings whose shown status changed.
+     */
+    public List<Booking> applyStatusChanges(List<BookingStatusStream.StatusChange> changes) {
+        List<Booking> changed = new ArrayList<>();
+        if (changes == null) {
+            return changed;
+        }
+        for (BookingStatusStream.StatusChange change : changes) {
+            String bookingId = change.getBookingId();
+            Booking current = bookingId != null ? bookings.get(bookingId) : null;
+            if (current == null) {
+                continue;
+            }
+            PendingChange waiting = pending.get(bookingId);
+            if (waiting != null) {
+                // Keep showing the owner's own change; a rollback restores the pushed status
+                if (waiting.previous != null) {
+                    waiting.previous = withStatus(waiting.previous, change.getStatus());
+                }
+                continue;
+            }
+            if (current.getStatus() == change.getStatus()) {
+                continue;
+            }
+            Booking updated = withStatus(current, change.getStatus());
+            put(updated);
+            changed.add(updated);
+        }
+        if (!changed.isEmpty()) {
+            Log.d(TAG, "Applied " + changed.size() + " pushed status changes");
+            notifyListeners();
+        }
+        return changed;
+    }
+
+    /**
+     * Show a changed booking before the server confirms it. The booking must
+     * be a new object, not one already in the store.
+     */
+    public PendingChange applyChange(Booking changed) {
+        String bookingId = changed.getBookingId();
+        PendingChange earlier = pending.get(bookingId);
+        // Roll back to what the server last confirmed, not to another unconfirmed change
+        Booking previous = earlier != null ? earlier.previous : bookings.get(bookingId);
+        PendingChange change = new PendingChange(bookingId, previous, changed);
+        pending.put(bookingId, change);
+        put(changed);
+        notifyListeners();
+        return change;
+    }
+
+    /**
+     * The server accepted a change; show its copy, or keep the optimistic one if it sent none
+     */
+    public void confirm(PendingChange change, Booking confirmed) {
+        if (pending.get(change.bookingId) != change) {
+            // A later change to the same booking is still waiting; it rolls back to this one
+            PendingChange later = pending.get(change.bookingId);
+            if (later != null) {
+                later.previous = confirmed != null ? confirmed : change.optimistic;
+            }
+            return;
+        }
+        pending.remove(change.bookingId);
+        put(confirmed != null ? confirmed : change.optimistic);
+        notifyListeners();
+    }
+
+    /**
+     * The server rejected a change; put the booking back as it was
+     */
+    public void rollback(PendingChange change) {
+        if (pending.get(change.bookingId) != change) {
+            return;
+        }
+        pending.remove(change.bookingId);
+        if (change.previous != null) {
+            put(change.previous);
+        } else {
+            remove(change.bookingId);
+        }
+        Log.d(TAG, "Rolled back change to booking " + change.bookingId);
+        notifyListeners();
+    }
+
+    /**
+     * Forget all bookings, e.g. on logout
+     */
+    public void clear() {
+        session++;
+        bookings.clear();
+        active.clear();
+        history.clear();
+        statusCounts.clear();
+        pending.clear();
+        historyBoundary = null;
+        loadedAt = 0;
+        live = false;
+        notifyListeners();
+    }
+
+    /**
+     * Insert or replace one booking, moving it between the indexes
+     */
+    private void put(Booking booking) {
+        if (booking.getBookingId() == null || booking.getReservationTime() == null) {
+            return;
+        }
+        Booking previous = bookings.put(booking.getBookingId(), booking);
+        if (previous != null) {
+            unindex(previous);
+        }
+        index(booking);
+    }
+
+    private void remove(String bookingId) {
+        Booking previous = bookings.remove(bookingId);
+        if (previous != null) {
+            unindex(previous);
+        }
+    }
+
+    /**
+     * Same partitions the server uses: upcoming is pending or approved (and
+     * still in the future), history is completed or cancelled
+     */
+    private void index(Booking booking) {
+        BookingStatus status = booking.getStatus();
+        if (status == BookingStatus.PENDING || status == BookingStatus.APPROVED) {
+            active.add(booking);
+        } else if (status == BookingStatus.COMPLETED || status == BookingStatus.CANCELLED) {
+            history.add(booking);
+        }
+        statusCounts.put(status, getCount(status) + 1);
+    }
+
+    private void unindex(Booking booking) {
+        active.remove(booking);
+        history.remove(booking);
+        BookingStatus status = booking.getStatus();
+        int count = getCount(status) - 1;
+        if (count > 0) {
+            statusCounts.put(status, count);
+        } else {
+            statusCounts.remove(status);
+        }
+    }
+
+    private static Booking withStatus(Booking booking, BookingStatus status) {
+        Booking copy = new Booking(booking);
+        copy.setStatus(status);
+        return copy;
+    }
+
+    private static String keyFor(Booking booking) {
+        return timeOf(booking) + "|" + idOf(booking);
+    }
+
+    /**
+     * A stand-in booking that sorts exactly where the keyed one did
+     */
+    private static Booking probeFor(String key) {
+        int separator = key.indexOf('|');
+        Booking probe = new Booking();
+        // A key without an id gets the empty id, the lowest at that time
+        probe.setReservationTime(new Date(Long.parseLong(separator >= 0 ? key.substring(0, separator) : key)));
+        probe.setBookingId(separator >= 0 ? key.substring(separator + 1) : "");
+        return probe;
+    }
+
+    private static long timeOf(Booking booking) {
+        return booking.getReservationTime().getTime();
+    }
+
+    private static String idOf(Booking booking) {
+        return booking.getBookingId() != null ? booking.getBookingId() : "";
+    }
+
+    private void notifyListeners() {
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onBookingsChanged();
+        }
+    }
+}
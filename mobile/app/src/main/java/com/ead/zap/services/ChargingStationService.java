@@ -9,8 +9,10 @@ import com.ead.zap.models.common.ApiResponse;
 import com.ead.zap.network.NetworkClient;
 import com.ead.zap.utils.PreferenceManager;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -21,6 +23,7 @@ import retrofit2.Response;
  */
 public class ChargingStationService {
     private static final String TAG = "ChargingStationService";
+    private static final double[] ADAPTIVE_RADII_KM = {2.0, 5.0, 10.0, 25.0, 50.0};
     
     private final Context context;
     private final ChargingStationApiService stationApiService;
@@ -39,6 +42,13 @@ public class ChargingStationService {
         void onError(String errorMessage);
     }
 
+    /**
+     * Callback for adaptive nearby search; partial results arrive after each ring
+     */
+    public interface AdaptiveStationsCallback extends ChargingStationsCallback {
+        default void onPartialResult(List<ChargingStation> stations, double radiusKm) {}
+    }
+
     public interface ChargingStationCallback {
         void onSuccess(ChargingStation station);
         void onError(String errorMessage);
@@ -48,6 +58,14 @@ public class ChargingStationService {
      * Get all charging stations
      */
     public void getAllChargingStations(ChargingStationsCallback callback) {
+        getAllChargingStations(null, callback);
+    }
+
+    /**
+     * Get all charging stations, narrowed by a filter that runs on the mapping thread
+     */
+    private void getAllChargingStations(Function<List<ChargingStation>, List<ChargingStation>> filter,
+                                        ChargingStationsCallback callback) {
         String authToken = getAuthToken();
         if (authToken == null) {
             callback.onError("Not authenticated");
@@ -64,8 +82,13 @@ public class ChargingStationService {
                 if (response.isSuccessful() && response.body() != null) {
                     ApiResponse<List<ChargingStationApiService.ChargingStationResponseDTO>> apiResponse = response.body();
                     if (apiResponse.isSuccess() && apiResponse.getData() != null) {
-                        List<ChargingStation> stations = convertToStationList(apiResponse.getData());
-                        callback.onSuccess(stations);
+                        ResponseMapper.map("all stations", () -> convertToStationList(apiResponse.getData()),
+                                stations -> {
+                                    // The shared cache is written on the main thread
+                                    StationCache.getInstance().putAll(stations);
+                                    StationSnapshot.getInstance(context).saveAsync();
+                                    callback.onSuccess(filter != null ? filter.apply(stations) : stations);
+                                }, callback::onError);
                     } else {
                         callback.onError(apiResponse.getMessage());
                     }
@@ -138,8 +161,52 @@ public class ChargingStationService {
             return;
         }
 
+        // Serve from cached geohash cells; only fetch the cells that are missing or stale
+        NearbyStationCache nearbyCache = NearbyStationCache.getInstance();
+        List<ChargingStation> cachedStations = nearbyCache.getIfCached(latitude, longitude, radiusKm);
+        List<NearbyStationCache.FetchArea> areas = cachedStations == null
+                ? nearbyCache.getMissingAreas(latitude, longitude, radiusKm)
+                : new ArrayList<>();
+        if (areas.isEmpty()) {
+            callback.onSuccess(cachedStations != null ? cachedStations
+                    : nearbyCache.collect(latitude, longitude, radiusKm));
+            return;
+        }
+
+        // A wide query can need several requests; answer once all of them are stored
+        int[] remaining = {areas.size()};
+        boolean[] failed = {false};
+        for (NearbyStationCache.FetchArea area : areas) {
+            fetchNearbyArea(authToken, area, new ChargingStationsCallback() {
+                @Override
+                public void onSuccess(List<ChargingStation> stations) {
+                    if (--remaining[0] == 0 && !failed[0]) {
+                        // Only stations within the radius the caller asked for
+                        ResponseMapper.map("nearby stations",
+                                () -> nearbyCache.collect(latitude, longitude, radiusKm),
+                                callback::onSuccess, callback::onError);
+                    }
+                }
+
+                @Override
+                public void onError(String errorMessage) {
+                    if (!failed[0]) {
+                        failed[0] = true;
+                        callback.onError(errorMessage);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Fetch one area's stations and store them in the nearby cache. Callbacks run on the main thread.
+     */
+    private void fetchNearbyArea(String authToken, NearbyStationCache.FetchArea area,
+                                 ChargingStationsCallback callback) {
         ChargingStationApiService.NearbyStationsRequest request = 
-                new ChargingStationApiService.NearbyStationsRequest(latitude, longitude, radiusKm);
+                new ChargingStationApiService.NearbyStationsRequest(
+                        area.getLatitude(), area.getLongitude(), area.getRadiusKm(), area.getExcludeRadiusKm());
         
         Call<ApiResponse<List<ChargingStationApiService.ChargingStationResponseDTO>>> call = 
                 stationApiService.getNearbyStations("Bearer " + authToken, request);
@@ -151,8 +218,13 @@ public class ChargingStationService {
                 if (response.isSuccessful() && response.body() != null) {
                     ApiResponse<List<ChargingStationApiService.ChargingStationResponseDTO>> apiResponse = response.body();
                     if (apiResponse.isSuccess() && apiResponse.getData() != null) {
-                        List<ChargingStation> stations = convertToStationList(apiResponse.getData());
-                        callback.onSuccess(stations);
+                        ResponseMapper.map("nearby stations", () -> convertToStationList(apiResponse.getData()),
+                                stations -> {
+                                    StationCache.getInstance().putAll(stations);
+                                    StationSnapshot.getInstance(context).saveAsync();
+                                    NearbyStationCache.getInstance().store(area, stations);
+                                    callback.onSuccess(stations);
+                                }, callback::onError);
                     } else {
                         callback.onError(apiResponse.getMessage());
                     }
@@ -170,71 +242,118 @@ public class ChargingStationService {
     }
 
     /**
-     * Get active charging stations only
+     * Get the nearest stations with an expanding search radius.
+     * Starts at 2 km and widens through ADAPTIVE_RADII_KM until targetCount stations
+     * with free slots are found or the 50 km cap is reached. Inner rings are
+     * served from the nearby cell cache, so each step only fetches the new ring.
      */
-    public void getActiveChargingStations(ChargingStationsCallback callback) {
-        getAllChargingStations(new ChargingStationsCallback() {
+    public void getNearbyStationsAdaptive(double latitude, double longitude, int targetCount,
+                                          AdaptiveStationsCallback callback) {
+        searchRing(latitude, longitude, targetCount, 0, null, callback);
+    }
+
+    private void searchRing(double latitude, double longitude, int targetCount, int ringIndex,
+                            List<ChargingStation> previous, AdaptiveStationsCallback callback) {
+        double radiusKm = ADAPTIVE_RADII_KM[ringIndex];
+        getNearbyStations(latitude, longitude, radiusKm, new ChargingStationsCallback() {
             @Override
             public void onSuccess(List<ChargingStation> stations) {
-                // Filter only active stations
-                List<ChargingStation> activeStations = stations.stream()
-                    .filter(ChargingStation::isActive)
-                    .collect(java.util.stream.Collectors.toList());
-                callback.onSuccess(activeStations);
+                int available = 0;
+                for (ChargingStation station : stations) {
+                    if (station.isActive() && station.getAvailableSlots() > 0) {
+                        available++;
+                    }
+                }
+
+                boolean lastRing = ringIndex == ADAPTIVE_RADII_KM.length - 1;
+                if (available >= targetCount || lastRing) {
+                    Log.d(TAG, "Adaptive search stopped at " + radiusKm + " km with " + stations.size() + " stations");
+                    callback.onSuccess(stations);
+                } else {
+                    callback.onPartialResult(stations, radiusKm);
+                    searchRing(latitude, longitude, targetCount, ringIndex + 1, stations, callback);
+                }
             }
 
             @Override
             public void onError(String errorMessage) {
-                callback.onError(errorMessage);
+                // Keep what the inner rings already found
+                if (previous != null) {
+                    callback.onSuccess(previous);
+                } else {
+                    callback.onError(errorMessage);
+                }
             }
         });
     }
 
     /**
-     * Get stations with available slots
+     * Get nearby charging stations synchronously.
+     * Must only be called from a background thread (used by prefetchers).
      */
-    public void getAvailableChargingStations(ChargingStationsCallback callback) {
-        getAllChargingStations(new ChargingStationsCallback() {
-            @Override
-            public void onSuccess(List<ChargingStation> stations) {
-                // Filter stations with available slots
-                List<ChargingStation> availableStations = stations.stream()
-                    .filter(station -> station.isActive() && station.getAvailableSlots() > 0)
-                    .collect(java.util.stream.Collectors.toList());
-                callback.onSuccess(availableStations);
-            }
+    public List<ChargingStation> getNearbyStationsBlocking(double latitude, double longitude, double radiusKm)
+            throws IOException {
+        String authToken = getAuthToken();
+        if (authToken == null) {
+            throw new IOException("Not authenticated");
+        }
 
-            @Override
-            public void onError(String errorMessage) {
-                callback.onError(errorMessage);
+        NearbyStationCache nearbyCache = NearbyStationCache.getInstance();
+        List<ChargingStation> cachedStations = nearbyCache.getIfCached(latitude, longitude, radiusKm);
+        if (cachedStations != null) {
+            return cachedStations;
+        }
+        for (NearbyStationCache.FetchArea area : nearbyCache.getMissingAreas(latitude, longitude, radiusKm)) {
+            ChargingStationApiService.NearbyStationsRequest request =
+                    new ChargingStationApiService.NearbyStationsRequest(
+                            area.getLatitude(), area.getLongitude(), area.getRadiusKm(), area.getExcludeRadiusKm());
+
+            Response<ApiResponse<List<ChargingStationApiService.ChargingStationResponseDTO>>> response =
+                    stationApiService.getNearbyStations("Bearer " + authToken, request).execute();
+
+            if (!response.isSuccessful() || response.body() == null
+                    || !response.body().isSuccess() || response.body().getData() == null) {
+                throw new IOException("Failed to get nearby stations: " + response.message());
             }
-        });
+            List<ChargingStation> stations = convertToStationList(response.body().getData());
+            StationCache.getInstance().putAll(stations);
+            StationSnapshot.getInstance(context).saveAsync();
+            nearbyCache.store(area, stations);
+        }
+        return nearbyCache.collect(latitude, longitude, radiusKm);
+    }
+
+    /**
+     * Get active charging stations only
+     */
+    public void getActiveChargingStations(ChargingStationsCallback callback) {
+        getAllChargingStations(stations -> stations.stream()
+                .filter(ChargingStation::isActive)
+                .collect(java.util.stream.Collectors.toList()), callback);
+    }
+
+    /**
+     * Get stations with available slots
+     */
+    public void getAvailableChargingStations(ChargingStationsCallback callback) {
+        getAllChargingStations(stations -> stations.stream()
+                .filter(station -> station.isActive() && station.getAvailableSlots() > 0)
+                .collect(java.util.stream.Collectors.toList()), callback);
     }
 
     /**
      * Search stations by name or location
      */
     public void searchStations(String query, ChargingStationsCallback callback) {
-        getAllChargingStations(new ChargingStationsCallback() {
-            @Override
-            public void onSuccess(List<ChargingStation> stations) {
-                String lowerQuery = query.toLowerCase().trim();
-                List<ChargingStation> filteredStations = stations.stream()
-                    .filter(station -> 
-                        station.getName().toLowerCase().contains(lowerQuery) ||
-                        (station.getLocation().getAddress() != null && 
-                         station.getLocation().getAddress().toLowerCase().contains(lowerQuery)) ||
-                        (station.getLocation().getCity() != null && 
-                         station.getLocation().getCity().toLowerCase().contains(lowerQuery)))
-                    .collect(java.util.stream.Collectors.toList());
-                callback.onSuccess(filteredStations);
-            }
-
-            @Override
-            public void onError(String errorMessage) {
-                callback.onError(errorMessage);
-            }
-        });
+        String lowerQuery = query.toLowerCase().trim();
+        getAllChargingStations(stations -> stations.stream()
+                .filter(station ->
+                    station.getName().toLowerCase().contains(lowerQuery) ||
+                    (station.getLocation().getAddress() != null &&
+                     station.getLocation().getAddress().toLowerCase().contains(lowerQuery)) ||
+                    (station.getLocation().getCity() != null &&
+                     station.getLocation().getCity().toLowerCase().contains(lowerQuery)))
+                .collect(java.util.stream.Collectors.toList()), callback);
     }
 
     /**
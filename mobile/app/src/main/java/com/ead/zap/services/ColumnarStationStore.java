@@ -0,0 +1,470 @@
+package com.ead.zap.services;
+
+import com.ead.zap.models.ChargingStation;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact column store for large station sets. It holds the in-memory
+ * {@link StationCache} and is the encoding of the on-disk {@link StationSnapshot}.
+ * Each field lives in its own primitive array indexed by row. Low-cardinality
+ * strings (type, city, province, opening times, amenities) are interned into
+ * a shared pool and stored as int indexes, and operating days are a bitmask.
+ * ChargingStation objects are only materialised when a row is read; rows are
+ * found by id and located by their coordinate columns without that.
+ * Not thread-safe.
+ */
+public class ColumnarStationStore {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NONE = -1;
+    private static final int FLAG_ACTIVE = 1;
+    private static final int FLAG_LOCATION = 2;
+    private static final int FLAG_HOURS = 4;
+
+    private int size;
+
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] addresses = new String[INITIAL_CAPACITY];
+    private double[] latitudes = new double[INITIAL_CAPACITY];
+    private double[] longitudes = new double[INITIAL_CAPACITY];
+    private int[] totalSlots = new int[INITIAL_CAPACITY];
+    private int[] availableSlots = new int[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private boolean[] active = new boolean[INITIAL_CAPACITY];
+    private boolean[] hasLocation = new boolean[INITIAL_CAPACITY];
+    private int[] types = new int[INITIAL_CAPACITY];
+    private int[] cities = new int[INITIAL_CAPACITY];
+    private int[] provinces = new int[INITIAL_CAPACITY];
+    private int[] openTimes = new int[INITIAL_CAPACITY];
+    private int[] closeTimes = new int[INITIAL_CAPACITY];
+    private byte[] operatingDays = new byte[INITIAL_CAPACITY];
+    private boolean[] hasOperatingHours = new boolean[INITIAL_CAPACITY];
+
+    // Amenities of row i are amenityPool[amenityStart[i] .. amenityStart[i + 1])
+    private int[] amenityStart = new int[INITIAL_CAPACITY + 1];
+    private int[] amenityPool = new int[INITIAL_CAPACITY];
+    private int amenityCount;
+
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+    private final Map<String, Integer> rowsById = new HashMap<>();
+
+    /**
+     * Append a station, or overwrite its row if the id is already stored
+     */
+    public int put(ChargingStation station) {
+        Integer existing = station.getId() != null ? rowsById.get(station.getId()) : null;
+        int row = existing != null ? existing : size;
+        if (existing == null) {
+            ensureCapacity(size + 1);
+            size++;
+            if (station.getId() != null) {
+                rowsById.put(station.getId(), row);
+            }
+        }
+
+        ids[row] = station.getId();
+        names[row] = station.getName();
+        totalSlots[row] = station.getTotalSlots();
+        availableSlots[row] = station.getAvailableSlots();
+        prices[row] = station.getPricePerHour();
+        active[row] = station.isActive();
+        types[row] = intern(station.getType());
+
+        ChargingStation.Location location = station.getLocation();
+        hasLocation[row] = location != null;
+        if (location != null) {
+            latitudes[row] = location.getLatitude();
+            longitudes[row] = location.getLongitude();
+            addresses[row] = location.getAddress();
+            cities[row] = intern(location.getCity());
+            provinces[row] = intern(location.getProvince());
+        } else {
+            addresses[row] = null;
+            cities[row] = NONE;
+            provinces[row] = NONE;
+        }
+
+        ChargingStation.OperatingHours hours = station.getOperatingHours();
+        hasOperatingHours[row] = hours != null;
+        openTimes[row] = hours != null ? intern(hours.getOpenTime()) : NONE;
+        closeTimes[row] = hours != null ? intern(hours.getCloseTime()) : NONE;
+        operatingDays[row] = hours != null ? toDayMask(hours.getOperatingDays()) : 0;
+
+        writeAmenities(row, existing == null, station.getAmenities());
+        return row;
+    }
+
+    public void putAll(List<ChargingStation> stations) {
+        for (ChargingStation station : stations) {
+            if (station != null) {
+                put(station);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Row of a station id, or -1 if it is not stored
+     */
+    public int rowOf(String id) {
+        Integer row = id != null ? rowsById.get(id) : null;
+        return row != null ? row : -1;
+    }
+
+    public String getId(int row) {
+        return ids[row];
+    }
+
+    public boolean hasLocation(int row) {
+        return hasLocation[row];
+    }
+
+    public double getLatitude(int row) {
+        return latitudes[row];
+    }
+
+    public double getLongitude(int row) {
+        return longitudes[row];
+    }
+
+    /**
+     * Apply an availability change to a row; null leaves that field as it is.
+     * Returns whether anything changed.
+     */
+    public boolean updateAvailability(int row, int available, Integer total, Boolean isActive) {
+        boolean changed = availableSlots[row] != available;
+        availableSlots[row] = available;
+        if (total != null && total != totalSlots[row]) {
+            totalSlots[row] = total;
+            changed = true;
+        }
+        if (isActive != null && isActive != active[row]) {
+            active[row] = isActive;
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Independent copy of every column, e.g. to write out while this store keeps changing
+     */
+    public ColumnarStationStore copy() {
+        ColumnarStationStore copy = new ColumnarStationStore();
+        copy.ensureCapacity(size);
+        copy.ensureAmenityCapacity(amenityCount);
+        System.arraycopy(ids, 0, copy.ids, 0, size);
+        System.arraycopy(names, 0, copy.names, 0, size);
+        System.arraycopy(addresses, 0, copy.addresses, 0, size);
+        System.arraycopy(latitudes, 0, copy.latitudes, 0, size);
+        System.arraycopy(longitudes, 0, copy.longitudes, 0, size);
+        System.arraycopy(totalSlots, 0, copy.totalSlots, 0, size);
+        System.arraycopy(availableSlots, 0, copy.availableSlots, 0, size);
+        System.arraycopy(prices, 0, copy.prices, 0, size);
+        System.arraycopy(active, 0, copy.active, 0, size);
+        System.arraycopy(hasLocation, 0, copy.hasLocation, 0, size);
+        System.arraycopy(types, 0, copy.types, 0, size);
+        System.arraycopy(cities, 0, copy.cities, 0, size);
+        System.arraycopy(provinces, 0, copy.provinces, 0, size);
+        System.arraycopy(openTimes, 0, copy.openTimes, 0, size);
+        System.arraycopy(closeTimes, 0, copy.closeTimes, 0, size);
+        System.arraycopy(operatingDays, 0, copy.operatingDays, 0, size);
+        System.arraycopy(hasOperatingHours, 0, copy.hasOperatingHours, 0, size);
+        System.arraycopy(amenityStart, 0, copy.amenityStart, 0, size + 1);
+        System.arraycopy(amenityPool, 0, copy.amenityPool, 0, amenityCount);
+        copy.strings.addAll(strings);
+        copy.stringIndex.putAll(stringIndex);
+        copy.rowsById.putAll(rowsById);
+        copy.size = size;
+        copy.amenityCount = amenityCount;
+        return copy;
+    }
+
+    /**
+     * Build a ChargingStation object for one row
+     */
+    public ChargingStation materialize(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+
+        ChargingStation station = new ChargingStation();
+        station.setId(ids[row]);
+        station.setName(names[row]);
+        station.setType(lookup(types[row]));
+        station.setTotalSlots(totalSlots[row]);
+        station.setAvailableSlots(availableSlots[row]);
+        station.setPricePerHour(prices[row]);
+        station.setActive(active[row]);
+
+        if (hasLocation[row]) {
+            ChargingStation.Location location = new ChargingStation.Location();
+            location.setLatitude(latitudes[row]);
+            location.setLongitude(longitudes[row]);
+            location.setAddress(addresses[row]);
+            location.setCity(lookup(cities[row]));
+            location.setProvince(lookup(provinces[row]));
+            station.setLocation(location);
+        }
+
+        if (hasOperatingHours[row]) {
+            ChargingStation.OperatingHours hours = new ChargingStation.OperatingHours();
+            hours.setOpenTime(lookup(openTimes[row]));
+            hours.setCloseTime(lookup(closeTimes[row]));
+            hours.setOperatingDays(fromDayMask(operatingDays[row]));
+            station.setOperatingHours(hours);
+        }
+
+        int from = amenityStart[row];
+        int to = amenityStart[row + 1];
+        if (to > from) {
+            List<String> amenities = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                amenities.add(strings.get(amenityPool[i]));
+            }
+            station.setAmenities(amenities);
+        }
+        return station;
+    }
+
+    /**
+     * Serialise every column. Strings are written as a length (-1 for null)
+     * followed by UTF-8 bytes; primitive columns are written back to back so
+     * readFrom() can bulk-copy them out of a mapped buffer.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(amenityCount);
+        out.writeInt(strings.size());
+        for (String value : strings) {
+            writeString(out, value);
+        }
+        for (int row = 0; row < size; row++) {
+            writeString(out, ids[row]);
+            writeString(out, names[row]);
+            writeString(out, addresses[row]);
+        }
+        for (int row = 0; row < size; row++) out.writeDouble(latitudes[row]);
+        for (int row = 0; row < size; row++) out.writeDouble(longitudes[row]);
+        for (int row = 0; row < size; row++) out.writeDouble(prices[row]);
+        for (int row = 0; row < size; row++) out.writeInt(totalSlots[row]);
+        for (int row = 0; row < size; row++) out.writeInt(availableSlots[row]);
+        for (int row = 0; row < size; row++) out.writeInt(types[row]);
+        for (int row = 0; row < size; row++) out.writeInt(cities[row]);
+        for (int row = 0; row < size; row++) out.writeInt(provinces[row]);
+        for (int row = 0; row < size; row++) out.writeInt(openTimes[row]);
+        for (int row = 0; row < size; row++) out.writeInt(closeTimes[row]);
+        for (int row = 0; row <= size; row++) out.writeInt(amenityStart[row]);
+        for (int i = 0; i < amenityCount; i++) out.writeInt(amenityPool[i]);
+        for (int row = 0; row < size; row++) out.writeByte(operatingDays[row]);
+        for (int row = 0; row < size; row++) {
+            out.writeByte((active[row] ? FLAG_ACTIVE : 0)
+                    | (hasLocation[row] ? FLAG_LOCATION : 0)
+                    | (hasOperatingHours[row] ? FLAG_HOURS : 0));
+        }
+    }
+
+    /**
+     * Rebuild a store from a buffer positioned at data written by writeTo()
+     */
+    public static ColumnarStationStore readFrom(ByteBuffer buffer) throws IOException {
+        try {
+            int size = buffer.getInt();
+            int amenityCount = buffer.getInt();
+            int stringCount = buffer.getInt();
+            if (size < 0 || amenityCount < 0 || stringCount < 0) {
+                throw new IOException("Corrupt station store");
+            }
+
+            ColumnarStationStore store = new ColumnarStationStore();
+            store.ensureCapacity(size);
+            store.ensureAmenityCapacity(amenityCount);
+            for (int i = 0; i < stringCount; i++) {
+                String value = readString(buffer);
+                store.stringIndex.put(value, store.strings.size());
+                store.strings.add(value);
+            }
+            for (int row = 0; row < size; row++) {
+                store.ids[row] = readString(buffer);
+                store.names[row] = readString(buffer);
+                store.addresses[row] = readString(buffer);
+                if (store.ids[row] != null) {
+                    store.rowsById.put(store.ids[row], row);
+                }
+            }
+
+            buffer.asDoubleBuffer().get(store.latitudes, 0, size);
+            buffer.position(buffer.position() + size * 8);
+            buffer.asDoubleBuffer().get(store.longitudes, 0, size);
+            buffer.position(buffer.position() + size * 8);
+            buffer.asDoubleBuffer().get(store.prices, 0, size);
+            buffer.position(buffer.position() + size * 8);
+            readInts(buffer, store.totalSlots, size);
+            readInts(buffer, store.availableSlots, size);
+            readInts(buffer, store.types, size);
+            readInts(buffer, store.cities, size);
+            readInts(buffer, store.provinces, size);
+            readInts(buffer, store.openTimes, size);
+            readInts(buffer, store.closeTimes, size);
+            readInts(buffer, store.amenityStart, size + 1);
+            readInts(buffer, store.amenityPool, amenityCount);
+            buffer.get(store.operatingDays, 0, size);
+            for (int row = 0; row < size; row++) {
+                byte flags = buffer.get();
+                store.active[row] = (flags & FLAG_ACTIVE) != 0;
+                store.hasLocation[row] = (flags & FLAG_LOCATION) != 0;
+                store.hasOperatingHours[row] = (flags & FLAG_HOURS) != 0;
+            }
+            store.size = size;
+            store.amenityCount = amenityCount;
+            return store;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Truncated station store", e);
+        }
+    }
+
+    private static void readInts(ByteBuffer buffer, int[] target, int count) {
+        buffer.asIntBuffer().get(target, 0, count);
+        buffer.position(buffer.position() + count * 4);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Store a row's amenities. Rows are appended in order, so a new row's
+     * amenities go at the end of the pool; an overwritten row whose amenity
+     * count changed has its pool range rebuilt in place.
+     */
+    private void writeAmenities(int row, boolean newRow, List<String> amenities) {
+        int count = amenities != null ? amenities.size() : 0;
+        if (newRow) {
+            ensureAmenityCapacity(amenityCount + count);
+            amenityStart[row] = amenityCount;
+            for (int i = 0; i < count; i++) {
+                amenityPool[amenityCount++] = intern(amenities.get(i));
+            }
+            amenityStart[row + 1] = amenityCount;
+            return;
+        }
+
+        int from = amenityStart[row];
+        int oldCount = amenityStart[row + 1] - from;
+        int shift = count - oldCount;
+        if (shift != 0) {
+            ensureAmenityCapacity(amenityCount + shift);
+            System.arraycopy(amenityPool, from + oldCount, amenityPool, from + count,
+                    amenityCount - from - oldCount);
+            for (int r = row + 1; r <= size; r++) {
+                amenityStart[r] += shift;
+            }
+            amenityCount += shift;
+        }
+        for (int i = 0; i < count; i++) {
+            amenityPool[from + i] = intern(amenities.get(i));
+        }
+    }
+
+    private int intern(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        Integer index = stringIndex.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.add(value);
+            stringIndex.put(value, index);
+        }
+        return index;
+    }
+
+    private String lookup(int index) {
+        return index == NONE ? null : strings.get(index);
+    }
+
+    /**
+     * Operating days use the backend's numbering, Sunday = 0 to Saturday = 6
+     */
+    private static byte toDayMask(List<Integer> days) {
+        int mask = 0;
+        if (days != null) {
+            for (Integer day : days) {
+                if (day != null && day >= 0 && day < 7) {
+                    mask |= 1 << day;
+                }
+            }
+        }
+        return (byte) mask;
+    }
+
+    private static List<Integer> fromDayMask(byte mask) {
+        List<Integer> days = new ArrayList<>(7);
+        for (int day = 0; day < 7; day++) {
+            if ((mask & (1 << day)) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        names = Arrays.copyOf(names, newCapacity);
+        addresses = Arrays.copyOf(addresses, newCapacity);
+        latitudes = Arrays.copyOf(latitudes, newCapacity);
+        longitudes = Arrays.copyOf(longitudes, newCapacity);
+        totalSlots = Arrays.copyOf(totalSlots, newCapacity);
+        availableSlots = Arrays.copyOf(availableSlots, newCapacity);
+        prices = Arrays.copyOf(prices, newCapacity);
+        active = Arrays.copyOf(active, newCapacity);
+        hasLocation = Arrays.copyOf(hasLocation, newCapacity);
+        types = Arrays.copyOf(types, newCapacity);
+        cities = Arrays.copyOf(cities, newCapacity);
+        provinces = Arrays.copyOf(provinces, newCapacity);
+        openTimes = Arrays.copyOf(openTimes, newCapacity);
+        closeTimes = Arrays.copyOf(closeTimes, newCapacity);
+        operatingDays = Arrays.copyOf(operatingDays, newCapacity);
+        hasOperatingHours = Arrays.copyOf(hasOperatingHours, newCapacity);
+        amenityStart = Arrays.copyOf(amenityStart, newCapacity + 1);
+    }
+
+    private void ensureAmenityCapacity(int capacity) {
+        if (capacity > amenityPool.length) {
+            amenityPool = Arrays.copyOf(amenityPool, Math.max(capacity, amenityPool.length * 2));
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.ead.zap.services;
+
+import android.content.Context;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Process-wide location stream shared by every screen.
+ * Each provider is registered at most once, at the fastest interval any
+ * subscriber asked for, and released as soon as the last subscriber that needs
+ * it leaves. Fixes are throttled to each subscriber's interval and can be
+ * batched so a subscriber wakes up once per batch instead of once per fix.
+ * Must be used from the main thread; callbacks are delivered on it.
+ */
+public class LocationHub {
+    private static final String TAG = "LocationHub";
+
+    private static LocationHub instance;
+
+    private final LocationManager locationManager;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Subscription> subscriptions = new ArrayList<>();
+
+    private final ProviderRegistration gps = new ProviderRegistration(LocationManager.GPS_PROVIDER);
+    private final ProviderRegistration network = new ProviderRegistration(LocationManager.NETWORK_PROVIDER);
+
+    private Location lastLocation;
+    private long gpsActiveSince;
+    private long gpsActiveTotalMs;
+
+    /**
+     * Accuracy requested by a subscriber
+     */
+    public enum Accuracy {
+        HIGH,       // GPS and network
+        BALANCED    // network only, GPS when network location is off
+    }
+
+    /**
+     * Receives batched fixes; always invoked on the main thread
+     */
+    public interface Subscriber {
+        void onLocations(List<Location> locations);
+        void onProviderDisabled(String provider);
+    }
+
+    /**
+     * Per-subscriber location request
+     */
+    public static class Request {
+        private final Accuracy accuracy;
+        private final long intervalMs;
+        private final float minDistanceMeters;
+        private final long maxBatchDelayMs;
+
+        public Request(Accuracy accuracy, long intervalMs, float minDistanceMeters, long maxBatchDelayMs) {
+            this.accuracy = accuracy;
+            this.intervalMs = intervalMs;
+            this.minDistanceMeters = minDistanceMeters;
+            this.maxBatchDelayMs = maxBatchDelayMs;
+        }
+
+        public Accuracy getAccuracy() { return accuracy; }
+        public long getIntervalMs() { return intervalMs; }
+        public float getMinDistanceMeters() { return minDistanceMeters; }
+        public long getMaxBatchDelayMs() { return maxBatchDelayMs; }
+    }
+
+    /**
+     * Handle returned by subscribe(); pass it to unsubscribe() to leave the stream
+     */
+    public final class Subscription {
+        private final Request request;
+        private final Subscriber subscriber;
+        private final List<Location> pending = new ArrayList<>();
+        private long lastDeliveredAt = Long.MIN_VALUE / 2;
+        private boolean active = true;
+        private final Runnable flush = this::flush;
+
+        private Subscription(Request request, Subscriber subscriber) {
+            this.request = request;
+            this.subscriber = subscriber;
+        }
+
+        private void offer(Location location) {
+            long now = SystemClock.elapsedRealtime();
+            if (now - lastDeliveredAt < request.intervalMs) {
+                return;
+            }
+            lastDeliveredAt = now;
+            pending.add(location);
+
+            if (request.maxBatchDelayMs <= 0) {
+                flush();
+            } else if (pending.size() == 1) {
+                mainHandler.postDelayed(flush, request.maxBatchDelayMs);
+            }
+        }
+
+        private void flush() {
+            mainHandler.removeCallbacks(flush);
+            if (!active || pending.isEmpty()) {
+                return;
+            }
+            List<Location> batch = new ArrayList<>(pending);
+            pending.clear();
+            subscriber.onLocations(Collections.unmodifiableList(batch));
+        }
+
+        private boolean needs(ProviderRegistration provider) {
+            if (provider == gps) {
+                return request.accuracy == Accuracy.HIGH || !isProviderEnabled(network.name);
+            }
+            return true;
+        }
+    }
+
+    private LocationHub(Context context) {
+        this.locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+    }
+
+    /**
+     * Get singleton instance of LocationHub
+     */
+    public static synchronized LocationHub getInstance(Context context) {
+        if (instance == null) {
+            instance = new LocationHub(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Join the location stream. The caller must hold a location permission.
+     */
+    public Subscription subscribe(Request request, Subscriber subscriber) throws SecurityException {
+        Subscription subscription = new Subscription(request, subscriber);
+        subscriptions.add(subscription);
+        updateRegistrations();
+        return subscription;
+    }
+
+    /**
+     * Leave the location stream, flushing any batched fixes first.
+     * Providers no longer needed by anyone are released. Safe to call twice.
+     */
+    public void unsubscribe(Subscription subscription) {
+        if (subscription == null || !subscription.active) {
+            return;
+        }
+        subscription.flush();
+        subscription.active = false;
+        subscriptions.remove(subscription);
+        try {
+            updateRegistrations();
+        } catch (SecurityException e) {
+            // Removing updates does not need the permission; nothing to release
+        }
+    }
+
+    /**
+     * Most recent fix seen by the stream, or null
+     */
+    public Location getLastLocation() {
+        return lastLocation;
+    }
+
+    /**
+     * Total time the GPS provider has been registered, for battery diagnostics
+     */
+    public long getGpsActiveMillis() {
+        long total = gpsActiveTotalMs;
+        if (gpsActiveSince > 0) {
+            total += SystemClock.elapsedRealtime() - gpsActiveSince;
+        }
+        return total;
+    }
+
+    private boolean isProviderEnabled(String provider) {
+        try {
+            return locationManager != null && locationManager.isProviderEnabled(provider);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Re-register each provider at the fastest interval its subscribers need
+     */
+    private void updateRegistrations() throws SecurityException {
+        if (locationManager == null) {
+            return;
+        }
+        updateRegistration(network);
+        updateRegistration(gps);
+    }
+
+    private void updateRegistration(ProviderRegistration provider) throws SecurityException {
+        long interval = Long.MAX_VALUE;
+        float distance = Float.MAX_VALUE;
+        for (Subscription subscription : subscriptions) {
+            if (subscription.needs(provider)) {
+                interval = Math.min(interval, subscription.request.intervalMs);
+                distance = Math.min(distance, subscription.request.minDistanceMeters);
+            }
+        }
+
+        if (interval == Long.MAX_VALUE) {
+            provider.release();
+        } else if (provider.registered) {
+            if (provider.intervalMs != interval || provider.minDistance != distance) {
+                provider.register(interval, distance);
+            }
+        } else if (isProviderEnabled(provider.name)) {
+            provider.register(interval, distance);
+        }
+    }
+
+    private void dispatch(Location location) {
+        lastLocation = location;
+        for (Subscription subscription : new ArrayList<>(subscriptions)) {
+            subscription.offer(location);
+        }
+    }
+
+    /**
+     * The single listener registered for one provider
+     */
+    private class ProviderRegistration implements LocationListener {
+        private final String name;
+        private boolean registered;
+        private long intervalMs;
+        private float minDistance;
+
+        ProviderRegistration(String name) {
+            this.name = name;
+        }
+
+        void register(long interval, float distance) throws SecurityException {
+            locationManager.requestLocationUpdates(name, interval, distance, this, Looper.getMainLooper());
+            if (!registered && this == gps) {
+                gpsActiveSince = SystemClock.elapsedRealtime();
+            }
+            registered = true;
+            intervalMs = interval;
+            minDistance = distance;
+            Log.d(TAG, "Registered " + name + " at " + interval + " ms");
+        }
+
+        void release() {
+            if (!registered) {
+                return;
+            }
+            locationManager.removeUpdates(this);
+            registered = false;
+            if (this == gps) {
+                gpsActiveTotalMs += SystemClock.elapsedRealtime() - gpsActiveSince;
+                gpsActiveSince = 0;
+                Log.d(TAG, "Released gps, total active " + gpsActiveTotalMs + " ms");
+            } else {
+                Log.d(TAG, "Released " + name);
+            }
+        }
+
+        @Override
+        public void onLocationChanged(Location location) {
+            dispatch(location);
+        }
+
+        @Override
+        public void onStatusChanged(String provider, int status, Bundle extras) {}
+
+        @Override
+        public void onProviderEnabled(String provider) {
+            try {
+                updateRegistrations();
+            } catch (SecurityException e) {
+                Log.w(TAG, "Location permission revoked");
+            }
+        }
+
+        @Override
+        public void onProviderDisabled(String provider) {
+            for (Subscription subscription : new ArrayList<>(subscriptions)) {
+                subscription.subscriber.onProviderDisabled(provider);
+            }
+            try {
+                updateRegistrations();
+            } catch (SecurityException e) {
+                Log.w(TAG, "Location permission revoked");
+            }
+        }
+    }
+}
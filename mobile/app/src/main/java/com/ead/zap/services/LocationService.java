@@ -4,14 +4,16 @@ import android.Manifest;
 import android.content.Context;
 import android.content.pm.PackageManager;
 import android.location.Location;
-import android.location.LocationListener;
 import android.location.LocationManager;
-import android.os.Bundle;
 
 import androidx.core.app.ActivityCompat;
 
+import java.util.List;
+
 /**
- * Service class for handling location operations
+ * Service class for handling location operations.
+ * Live fixes come from the process-wide LocationHub, so every instance shares
+ * the same provider registrations.
  */
 public class LocationService {
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 1001;
@@ -21,6 +23,7 @@ public class LocationService {
     private Context context;
     private LocationManager locationManager;
     private LocationCallback locationCallback;
+    private LocationHub.Subscription subscription;
 
     // Interface for location callbacks
     public interface LocationCallback {
@@ -112,62 +115,39 @@ public class LocationService {
     }
 
     /**
-     * Request location updates
+     * Request a single fix from the shared location stream
      */
     private void requestLocationUpdates() throws SecurityException {
-        LocationListener locationListener = new LocationListener() {
+        stopLocationUpdates();
+        LocationHub.Request request = new LocationHub.Request(
+                LocationHub.Accuracy.HIGH, MIN_TIME, MIN_DISTANCE, 0);
+        subscription = LocationHub.getInstance(context).subscribe(request, new LocationHub.Subscriber() {
             @Override
-            public void onLocationChanged(Location location) {
+            public void onLocations(List<Location> locations) {
+                Location location = locations.get(locations.size() - 1);
+                // Stop listening after getting first location
+                stopLocationUpdates();
                 if (locationCallback != null) {
                     locationCallback.onLocationReceived(location.getLatitude(), location.getLongitude());
                 }
-                // Stop listening after getting first location
-                stopLocationUpdates();
             }
 
-            @Override
-            public void onStatusChanged(String provider, int status, Bundle extras) {}
-
-            @Override
-            public void onProviderEnabled(String provider) {}
-
             @Override
             public void onProviderDisabled(String provider) {
-                if (locationCallback != null) {
+                if (locationCallback != null && !isLocationEnabled()) {
                     locationCallback.onLocationError("Location provider disabled");
                 }
             }
-        };
-
-        // Request updates from both providers
-        if (locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER)) {
-            locationManager.requestLocationUpdates(LocationManager.GPS_PROVIDER, MIN_TIME, MIN_DISTANCE, locationListener);
-        }
-
-        if (locationManager.isProviderEnabled(LocationManager.NETWORK_PROVIDER)) {
-            locationManager.requestLocationUpdates(LocationManager.NETWORK_PROVIDER, MIN_TIME, MIN_DISTANCE, locationListener);
-        }
+        });
     }
 
     /**
      * Stop location updates
      */
     public void stopLocationUpdates() {
-        if (locationManager != null) {
-            try {
-                locationManager.removeUpdates(new LocationListener() {
-                    @Override
-                    public void onLocationChanged(Location location) {}
-                    @Override
-                    public void onStatusChanged(String provider, int status, Bundle extras) {}
-                    @Override
-                    public void onProviderEnabled(String provider) {}
-                    @Override
-                    public void onProviderDisabled(String provider) {}
-                });
-            } catch (SecurityException e) {
-                // Ignore security exception when stopping updates
-            }
+        if (subscription != null) {
+            LocationHub.getInstance(context).unsubscribe(subscription);
+            subscription = null;
         }
     }
 
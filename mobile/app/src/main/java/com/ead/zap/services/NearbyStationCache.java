@@ -0,0 +1,285 @@
+package com.ead.zap.services;
+
+import com.ead.zap.models.ChargingStation;
+import com.ead.zap.utils.GeoHash;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geohash-cell cache for nearby-station results.
+ * A radius query is mapped to the geohash cells covering its bounding box.
+ * Each cell remembers the ids of the complete set of stations inside it
+ * (possibly none) for a TTL, so queries a few metres apart share cells and
+ * only cells that are missing or stale need a server round trip. A query is
+ * answered from the union of its cells, read from {@link StationCache} so it
+ * carries pushed availability, and filtered to the exact radius. Missing cells are
+ * fetched in circles no larger than the server accepts, so a wide query may
+ * need several requests. A circle leaves out the disc around its centre that
+ * holds none of its cells, so when the missing cells are a ring around fresh
+ * ones, as on the wider steps of the expanding search, the fresh centre is
+ * not downloaded again.
+ */
+public class NearbyStationCache {
+    private static final int CELL_PRECISION = 5; // ~4.9 x 4.9 km cells
+    private static final long CELL_TTL_MS = TimeUnit.MINUTES.toMillis(5); // slot counts go stale
+    private static final int MAX_CELLS = 1024;
+    private static final double KM_PER_DEGREE = 111.195;
+    // Radius limits of the server's nearby-stations request
+    private static final double MIN_FETCH_RADIUS_KM = 1.0;
+    private static final double MAX_FETCH_RADIUS_KM = 50.0;
+
+    private static NearbyStationCache instance;
+
+    private final Map<String, Cell> cells = new LinkedHashMap<String, Cell>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cell> eldest) {
+            return size() > MAX_CELLS;
+        }
+    };
+
+    private long queries;
+    private long queryHits;
+    private long cellHits;
+    private long cellMisses;
+
+    private static class Cell {
+        final long fetchedAt;
+        final List<String> stationIds = new ArrayList<>();
+
+        Cell(long fetchedAt) {
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    /**
+     * Ring to request from the server so that every missing cell is fully
+     * covered: the circle of radiusKm less the disc of excludeRadiusKm, which
+     * is zero when the centre lies in one of the cells
+     */
+    public static class FetchArea {
+        private final List<String> cells;
+        private final double latitude;
+        private final double longitude;
+        private final double radiusKm;
+        private final double excludeRadiusKm;
+
+        FetchArea(List<String> cells, double latitude, double longitude, double radiusKm, double excludeRadiusKm) {
+            this.cells = cells;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.radiusKm = radiusKm;
+            this.excludeRadiusKm = excludeRadiusKm;
+        }
+
+        public List<String> getCells() { return cells; }
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public double getRadiusKm() { return radiusKm; }
+        public double getExcludeRadiusKm() { return excludeRadiusKm; }
+    }
+
+    private NearbyStationCache() {}
+
+    /**
+     * Get singleton instance of NearbyStationCache
+     */
+    public static synchronized NearbyStationCache getInstance() {
+        if (instance == null) {
+            instance = new NearbyStationCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Answer a radius query from cache, or return null when any covering cell is missing or stale
+     */
+    public synchronized List<ChargingStation> getIfCached(double latitude, double longitude, double radiusKm) {
+        queries++;
+        long now = System.currentTimeMillis();
+        boolean complete = true;
+        for (String hash : coveringCells(latitude, longitude, radiusKm)) {
+            if (isFresh(cells.get(hash), now)) {
+                cellHits++;
+            } else {
+                cellMisses++;
+                complete = false;
+            }
+        }
+        if (!complete) {
+            return null;
+        }
+        queryHits++;
+        return collect(latitude, longitude, radiusKm);
+    }
+
+    /**
+     * Work out what to fetch for a query: circles that together cover every
+     * missing or stale cell, each within the server's radius limit. Empty when
+     * every covering cell is fresh.
+     */
+    public synchronized List<FetchArea> getMissingAreas(double latitude, double longitude, double radiusKm) {
+        long now = System.currentTimeMillis();
+        List<String> missing = new ArrayList<>();
+        for (String hash : coveringCells(latitude, longitude, radiusKm)) {
+            if (!isFresh(cells.get(hash), now)) {
+                missing.add(hash);
+            }
+        }
+        List<FetchArea> areas = new ArrayList<>();
+        if (!missing.isEmpty()) {
+            addFetchAreas(missing, areas);
+        }
+        return areas;
+    }
+
+    /**
+     * Store a server response for a fetch area. Every cell in the area is marked
+     * complete, including cells that turned out to contain no stations. The
+     * stations themselves must already be in {@link StationCache}.
+     */
+    public synchronized void store(FetchArea area, List<ChargingStation> stations) {
+        long now = System.currentTimeMillis();
+        Map<String, Cell> fetched = new LinkedHashMap<>();
+        for (String hash : area.getCells()) {
+            fetched.put(hash, new Cell(now));
+        }
+        for (ChargingStation station : stations) {
+            if (station == null || station.getId() == null || station.getLocation() == null) {
+                continue;
+            }
+            String hash = GeoHash.encode(station.getLocation().getLatitude(),
+                    station.getLocation().getLongitude(), CELL_PRECISION);
+            Cell cell = fetched.get(hash);
+            if (cell != null) {
+                cell.stationIds.add(station.getId());
+            }
+        }
+        cells.putAll(fetched);
+    }
+
+    /**
+     * Union of the cached cells covering a query, filtered to the radius and sorted by distance.
+     * The stations are the caller's own copies, carrying the distance from the query point.
+     */
+    public synchronized List<ChargingStation> collect(double latitude, double longitude, double radiusKm) {
+        StationCache stationCache = StationCache.getInstance();
+        List<ChargingStation> result = new ArrayList<>();
+        for (String hash : coveringCells(latitude, longitude, radiusKm)) {
+            Cell cell = cells.get(hash);
+            if (cell == null) {
+                continue;
+            }
+            for (String stationId : cell.stationIds) {
+                ChargingStation station = stationCache.get(stationId);
+                if (station == null || station.getLocation() == null) {
+                    continue;
+                }
+                double distance = LocationService.calculateDistance(latitude, longitude,
+                        station.getLocation().getLatitude(), station.getLocation().getLongitude());
+                if (distance <= radiusKm) {
+                    station.setDistance(distance);
+                    result.add(station);
+                }
+            }
+        }
+        Collections.sort(result, (a, b) -> Double.compare(a.getDistance(), b.getDistance()));
+        return result;
+    }
+
+    /**
+     * Fraction of queries answered entirely from cache
+     */
+    public synchronized double getQueryHitRate() {
+        return queries == 0 ? 0 : (double) queryHits / queries;
+    }
+
+    /**
+     * Fraction of covering cells that were fresh when queried
+     */
+    public synchronized double getCellHitRate() {
+        long total = cellHits + cellMisses;
+        return total == 0 ? 0 : (double) cellHits / total;
+    }
+
+    public synchronized void clear() {
+        cells.clear();
+    }
+
+    /**
+     * Cover the cells with the smallest circle around their bounding box, or
+     * bisect them along the box's longer side until each circle is small enough
+     */
+    private static void addFetchAreas(List<String> hashes, List<FetchArea> areas) {
+        double minLat = 90, minLon = 180, maxLat = -90, maxLon = -180;
+        for (String hash : hashes) {
+            double[] bounds = GeoHash.bounds(hash);
+            minLat = Math.min(minLat, bounds[0]);
+            minLon = Math.min(minLon, bounds[1]);
+            maxLat = Math.max(maxLat, bounds[2]);
+            maxLon = Math.max(maxLon, bounds[3]);
+        }
+
+        double centerLat = (minLat + maxLat) / 2;
+        double centerLon = (minLon + maxLon) / 2;
+        double radius = Math.max(
+                LocationService.calculateDistance(centerLat, centerLon, minLat, minLon),
+                LocationService.calculateDistance(centerLat, centerLon, maxLat, maxLon));
+        radius = Math.max(radius, LocationService.calculateDistance(centerLat, centerLon, minLat, maxLon));
+        radius = Math.max(radius, LocationService.calculateDistance(centerLat, centerLon, maxLat, minLon));
+        radius *= 1.01;
+
+        if (radius <= MAX_FETCH_RADIUS_KM || hashes.size() == 1) {
+            areas.add(new FetchArea(new ArrayList<>(hashes), centerLat, centerLon,
+                    Math.max(MIN_FETCH_RADIUS_KM, Math.min(MAX_FETCH_RADIUS_KM, radius)),
+                    excludeRadius(hashes, centerLat, centerLon)));
+            return;
+        }
+
+        double heightKm = (maxLat - minLat) * KM_PER_DEGREE;
+        double widthKm = (maxLon - minLon) * KM_PER_DEGREE * Math.cos(Math.toRadians(centerLat));
+        int axis = heightKm >= widthKm ? 0 : 1;
+        List<String> sorted = new ArrayList<>(hashes);
+        Collections.sort(sorted, (a, b) -> Double.compare(cellCenter(a, axis), cellCenter(b, axis)));
+        int half = sorted.size() / 2;
+        addFetchAreas(sorted.subList(0, half), areas);
+        addFetchAreas(sorted.subList(half, sorted.size()), areas);
+    }
+
+    /**
+     * Radius of the disc around the centre that none of the cells reach into,
+     * kept a little short of the nearest cell
+     */
+    private static double excludeRadius(List<String> hashes, double centerLat, double centerLon) {
+        double nearest = Double.MAX_VALUE;
+        for (String hash : hashes) {
+            double[] bounds = GeoHash.bounds(hash);
+            double lat = Math.max(bounds[0], Math.min(bounds[2], centerLat));
+            double lon = Math.max(bounds[1], Math.min(bounds[3], centerLon));
+            nearest = Math.min(nearest, LocationService.calculateDistance(centerLat, centerLon, lat, lon));
+        }
+        double radius = nearest * 0.98;
+        // Not worth carving out a disc smaller than the smallest fetch
+        return radius >= MIN_FETCH_RADIUS_KM ? radius : 0;
+    }
+
+    private static double cellCenter(String hash, int axis) {
+        double[] bounds = GeoHash.bounds(hash);
+        return (bounds[axis] + bounds[axis + 2]) / 2;
+    }
+
+    private static boolean isFresh(Cell cell, long now) {
+        return cell != null && now - cell.fetchedAt < CELL_TTL_MS;
+    }
+
+    private static List<String> coveringCells(double latitude, double longitude, double radiusKm) {
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double lonSpan = latSpan / Math.max(0.01, Math.cos(Math.toRadians(Math.min(89.0, Math.abs(latitude) + latSpan))));
+        return GeoHash.cover(latitude - latSpan, longitude - lonSpan,
+                latitude + latSpan, longitude + lonSpan, CELL_PRECISION);
+    }
+}
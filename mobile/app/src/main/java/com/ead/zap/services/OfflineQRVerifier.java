@@ -0,0 +1,347 @@
+package com.ead.zap.services;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Base64;
+import android.util.Log;
+
+import com.ead.zap.api.services.BookingApiService;
+import com.ead.zap.models.BookingStatus;
+import com.ead.zap.utils.DateTimeCodec;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks signed booking QR codes on the operator's device, without a round
+ * trip. The server signs each code with its ECDSA key and bounds it to the
+ * reservation's time window; this class holds the public key and today's
+ * approved bookings at the operator's stations, both fetched by
+ * {@link OperatorService} and kept in preferences so they survive a restart
+ * while the uplink is down.
+ *
+ * A code is only rejected here for reasons no fresher data could change: a
+ * bad signature, a time window that has passed or not yet started, or data
+ * that contradicts the signed booking. Anything the cache cannot answer
+ * (an older unsigned code, a rotated key, a booking not in the cached list)
+ * is left for the server.
+ *
+ * A code verified here is still confirmed with the server. If the server
+ * turns it down, the rejection is recorded against the booking until the
+ * screen showing it is done with it, and {@link RejectionListener}s are told.
+ */
+public class OfflineQRVerifier {
+    private static final String TAG = "OfflineQRVerifier";
+
+    private static final String PREFS_NAME = "ZapQRVerification";
+    private static final String KEY_DATA = "Data";
+    private static final String KEY_LOADED_AT = "LoadedAt";
+
+    private static final int SIGNED_TOKEN_VERSION = 2;
+    private static final String KEY_ALGORITHM = "EC";
+    private static final String DEFAULT_SIGNATURE_ALGORITHM = "SHA256withECDSA";
+
+    // How long the cached bookings are trusted before a refresh is attempted
+    private static final long STALE_AFTER_MS = 15 * 60 * 1000;
+    // Tolerated difference between the device clock and the server's
+    private static final long CLOCK_SKEW_MS = 2 * 60 * 1000;
+
+    private static OfflineQRVerifier instance;
+
+    private final SharedPreferences prefs;
+    private final Gson gson = new Gson();
+
+    private String keyId;
+    private String signatureAlgorithm;
+    private PublicKey publicKey;
+    private final Map<String, BookingApiService.QRBookingDTO> bookings = new HashMap<>();
+    private long loadedAt;
+
+    // Booking id to the server's reason, for codes the device had verified
+    private final Map<String, String> serverRejections = new HashMap<>();
+    private final List<RejectionListener> rejectionListeners = new ArrayList<>();
+
+    /**
+     * Told when the server rejects a code this device verified; on the main thread
+     */
+    public interface RejectionListener {
+        void onServerRejected(String bookingId, String error);
+    }
+
+    /**
+     * Result of an offline check
+     */
+    public static class Outcome {
+        public enum Kind {
+            VERIFIED,
+            REJECTED,
+            // The cache cannot decide; ask the server
+            UNDECIDED
+        }
+
+        private final Kind kind;
+        private final String message;
+        private final BookingApiService.QRBookingDTO booking;
+
+        Outcome(Kind kind, String message, BookingApiService.QRBookingDTO booking) {
+            this.kind = kind;
+            this.message = message;
+            this.booking = booking;
+        }
+
+        public Kind getKind() { return kind; }
+        public String getMessage() { return message; }
+        public BookingApiService.QRBookingDTO getBooking() { return booking; }
+    }
+
+    /**
+     * Signed part of a QR code, as serialized by the server
+     */
+    private static class QRPayload {
+        @SerializedName("Version")
+        int version;
+
+        @SerializedName("KeyId")
+        String keyId;
+
+        @SerializedName("BookingId")
+        String bookingId;
+
+        @SerializedName("EVOwnerNIC")
+        String evOwnerNIC;
+
+        @SerializedName("ChargingStationId")
+        String chargingStationId;
+
+        @SerializedName("NotBefore")
+        long notBefore;
+
+        @SerializedName("ExpiresAt")
+        long expiresAt;
+    }
+
+    private OfflineQRVerifier(Context context) {
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String stored = prefs.getString(KEY_DATA, null);
+        if (stored != null) {
+            try {
+                apply(gson.fromJson(stored, BookingApiService.QRVerificationDataDTO.class),
+                        prefs.getLong(KEY_LOADED_AT, 0));
+            } catch (JsonParseException e) {
+                Log.w(TAG, "Ignoring unreadable cached verification data");
+            }
+        }
+    }
+
+    /**
+     * Get singleton instance of OfflineQRVerifier
+     */
+    public static synchronized OfflineQRVerifier getInstance(Context context) {
+        if (instance == null) {
+            instance = new OfflineQRVerifier(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Replace the cached key and bookings with ones just fetched from the server
+     */
+    public synchronized void update(BookingApiService.QRVerificationDataDTO data) {
+        long now = System.currentTimeMillis();
+        if (!apply(data, now)) {
+            return;
+        }
+        prefs.edit()
+                .putString(KEY_DATA, gson.toJson(data))
+                .putLong(KEY_LOADED_AT, now)
+                .apply();
+        Log.d(TAG, "Cached key " + keyId + " and " + bookings.size() + " bookings");
+    }
+
+    /**
+     * Whether the cache should be refreshed when the server is reachable
+     */
+    public synchronized boolean isStale() {
+        return publicKey == null || System.currentTimeMillis() - loadedAt > STALE_AFTER_MS;
+    }
+
+    /**
+     * Forget the cached key and bookings, e.g. on logout
+     */
+    public synchronized void clear() {
+        keyId = null;
+        signatureAlgorithm = null;
+        publicKey = null;
+        bookings.clear();
+        serverRejections.clear();
+        loadedAt = 0;
+        prefs.edit().clear().apply();
+    }
+
+    /**
+     * Record that the server rejected a code verified here, and tell the
+     * listeners. Call on the main thread.
+     */
+    public void recordServerRejection(String bookingId, String error) {
+        if (bookingId == null) {
+            return;
+        }
+        List<RejectionListener> listeners;
+        synchronized (this) {
+            serverRejections.put(bookingId, error);
+            listeners = new ArrayList<>(rejectionListeners);
+        }
+        Log.w(TAG, "Server rejected booking " + bookingId + " verified on device: " + error);
+        for (RejectionListener listener : listeners) {
+            listener.onServerRejected(bookingId, error);
+        }
+    }
+
+    /**
+     * The server's reason for rejecting this booking's code, or null if it has not
+     */
+    public synchronized String getServerRejection(String bookingId) {
+        return bookingId != null ? serverRejections.get(bookingId) : null;
+    }
+
+    /**
+     * Forget a recorded rejection once the booking's screen is finished with it
+     */
+    public synchronized void clearServerRejection(String bookingId) {
+        serverRejections.remove(bookingId);
+    }
+
+    public synchronized void addRejectionListener(RejectionListener listener) {
+        if (!rejectionListeners.contains(listener)) {
+            rejectionListeners.add(listener);
+        }
+    }
+
+    public synchronized void removeRejectionListener(RejectionListener listener) {
+        rejectionListeners.remove(listener);
+    }
+
+    /**
+     * Check a scanned QR code against the cached key and bookings
+     */
+    public synchronized Outcome verify(String qrCode, long nowMillis) {
+        if (publicKey == null) {
+            return undecided("No verification data cached");
+        }
+
+        String[] parts = qrCode != null ? qrCode.trim().split("\\.") : new String[0];
+        if (parts.length != 2 || parts[0].isEmpty() || parts[1].isEmpty()) {
+            return rejected("Invalid QR code format");
+        }
+
+        QRPayload payload;
+        byte[] signature;
+        try {
+            byte[] json = Base64.decode(parts[0], Base64.DEFAULT);
+            payload = gson.fromJson(new String(json, StandardCharsets.UTF_8), QRPayload.class);
+            signature = Base64.decode(parts[1], Base64.DEFAULT);
+        } catch (IllegalArgumentException | JsonParseException e) {
+            return rejected("Invalid QR code data");
+        }
+        if (payload == null || payload.bookingId == null) {
+            return rejected("Invalid QR code data");
+        }
+
+        if (payload.version < SIGNED_TOKEN_VERSION) {
+            return undecided("Unsigned QR code");
+        }
+        if (!keyId.equals(payload.keyId)) {
+            return undecided("QR code signed with key " + payload.keyId);
+        }
+        if (!isSignatureValid(parts[0], signature)) {
+            return rejected("QR code has been tampered with");
+        }
+
+        if (nowMillis > payload.expiresAt * 1000 + CLOCK_SKEW_MS) {
+            return rejected("QR code has expired");
+        }
+        if (nowMillis < payload.notBefore * 1000 - CLOCK_SKEW_MS) {
+            return rejected("QR code is not valid yet");
+        }
+
+        BookingApiService.QRBookingDTO booking = bookings.get(payload.bookingId);
+        if (booking == null) {
+            return undecided("Booking not in today's list");
+        }
+        if (payload.evOwnerNIC == null || !payload.evOwnerNIC.equals(booking.getEvOwnerNIC())
+                || payload.chargingStationId == null
+                || !payload.chargingStationId.equals(booking.getChargingStationId())) {
+            return rejected("QR code data mismatch");
+        }
+        if (BookingStatus.fromString(booking.getStatus()) != BookingStatus.APPROVED) {
+            return undecided("Booking is no longer approved");
+        }
+        // A modified booking is issued a new code; the old one's window no longer matches
+        long start = DateTimeCodec.parseMillis(booking.getReservationDateTime());
+        if (start == DateTimeCodec.INVALID
+                || start / 1000 + booking.getDurationMinutes() * 60L != payload.expiresAt) {
+            return undecided("Booking changed since the QR code was issued");
+        }
+
+        return new Outcome(Outcome.Kind.VERIFIED, "QR code verified", booking);
+    }
+
+    private boolean isSignatureValid(String signedPart, byte[] signature) {
+        try {
+            Signature verifier = Signature.getInstance(signatureAlgorithm);
+            verifier.initVerify(publicKey);
+            verifier.update(signedPart.getBytes(StandardCharsets.UTF_8));
+            return verifier.verify(signature);
+        } catch (GeneralSecurityException e) {
+            // A malformed signature is as good as a wrong one
+            return false;
+        }
+    }
+
+    private boolean apply(BookingApiService.QRVerificationDataDTO data, long fetchedAt) {
+        if (data == null || data.getKeyId() == null || data.getPublicKey() == null) {
+            return false;
+        }
+        PublicKey key;
+        try {
+            byte[] encoded = Base64.decode(data.getPublicKey(), Base64.DEFAULT);
+            key = KeyFactory.getInstance(KEY_ALGORITHM).generatePublic(new X509EncodedKeySpec(encoded));
+        } catch (IllegalArgumentException | GeneralSecurityException e) {
+            Log.e(TAG, "Unusable QR verification key", e);
+            return false;
+        }
+
+        keyId = data.getKeyId();
+        signatureAlgorithm = data.getAlgorithm() != null ? data.getAlgorithm() : DEFAULT_SIGNATURE_ALGORITHM;
+        publicKey = key;
+        bookings.clear();
+        if (data.getBookings() != null) {
+            for (BookingApiService.QRBookingDTO booking : data.getBookings()) {
+                if (booking.getBookingId() != null) {
+                    bookings.put(booking.getBookingId(), booking);
+                }
+            }
+        }
+        loadedAt = fetchedAt;
+        return true;
+    }
+
+    private static Outcome rejected(String message) {
+        return new Outcome(Outcome.Kind.REJECTED, message, null);
+    }
+
+    private static Outcome undecided(String reason) {
+        return new Outcome(Outcome.Kind.UNDECIDED, reason, null);
+    }
+}
@@ -7,8 +7,12 @@ import com.ead.zap.api.services.BookingApiService;
 import com.ead.zap.models.Booking;
 import com.ead.zap.models.common.ApiResponse;
 import com.ead.zap.network.NetworkClient;
+import com.ead.zap.utils.PageKey;
+import com.ead.zap.utils.PageWindow;
 import com.ead.zap.utils.PreferenceManager;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import retrofit2.Call;
@@ -21,15 +25,22 @@ import retrofit2.Response;
  */
 public class OperatorService {
     private static final String TAG = "OperatorService";
+
+    // Sessions per page for history paging and back-fill
+    public static final int SESSION_PAGE_SIZE = 25;
     
     private final Context context;
     private final BookingApiService bookingApiService;
     private final PreferenceManager preferenceManager;
+    private final OperatorSessionStore sessionStore;
+    private final OfflineQRVerifier qrVerifier;
 
     public OperatorService(Context context) {
         this.context = context.getApplicationContext();
         this.bookingApiService = NetworkClient.getInstance(context).createService(BookingApiService.class);
         this.preferenceManager = new PreferenceManager(context);
+        this.sessionStore = OperatorSessionStore.getInstance(context);
+        this.qrVerifier = OfflineQRVerifier.getInstance(context);
     }
 
     /**
@@ -38,6 +49,11 @@ public class OperatorService {
     public interface QRVerificationCallback {
         void onSuccess(BookingVerificationResult verificationResult);
         void onError(String error);
+
+        /**
+         * The server turned down a code already verified on the device
+         */
+        default void onServerRejected(String error) {}
     }
 
     public interface BookingOperationCallback {
@@ -68,6 +84,7 @@ public class OperatorService {
         private String endTime;
         private String status;
         private boolean isValid;
+        private boolean verifiedOffline;
         private String message;
 
         // Constructors
@@ -106,6 +123,9 @@ public class OperatorService {
         public boolean isValid() { return isValid; }
         public void setValid(boolean valid) { isValid = valid; }
 
+        public boolean isVerifiedOffline() { return verifiedOffline; }
+        public void setVerifiedOffline(boolean verifiedOffline) { this.verifiedOffline = verifiedOffline; }
+
         public String getMessage() { return message; }
         public void setMessage(String message) { this.message = message; }
 
@@ -121,15 +141,114 @@ public class OperatorService {
     }
 
     /**
-     * Verify QR code for booking
+     * Verify QR code for booking. Signed codes for today's bookings are
+     * checked on the device and answered at once, then confirmed with the
+     * server in the background; anything the device cannot decide goes to
+     * the server as before.
      */
     public void verifyQRCode(String qrCode, QRVerificationCallback callback) {
+        OfflineQRVerifier.Outcome outcome = qrVerifier.verify(qrCode, System.currentTimeMillis());
+        switch (outcome.getKind()) {
+            case VERIFIED: {
+                BookingApiService.QRBookingDTO booking = outcome.getBooking();
+                BookingVerificationResult result = new BookingVerificationResult(true, outcome.getMessage());
+                result.setBookingId(booking.getBookingId());
+                result.setCustomerName(booking.getEvOwnerNIC()); // Use NIC as customer identifier
+                result.setStationId(booking.getChargingStationId());
+                result.setStartTime(booking.getReservationDateTime());
+                result.setDuration(booking.getDurationMinutes());
+                result.setTotalCost(booking.getTotalAmount());
+                result.setVerifiedOffline(true);
+
+                Log.d(TAG, "QR verified on device for booking: " + booking.getBookingId());
+                callback.onSuccess(result);
+                String bookingId = booking.getBookingId();
+                verifyQRCodeOnline(qrCode, new QRVerificationCallback() {
+                    @Override
+                    public void onSuccess(BookingVerificationResult verificationResult) {
+                        callback.onSuccess(verificationResult);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        callback.onError(error);
+                    }
+
+                    @Override
+                    public void onServerRejected(String error) {
+                        // Kept by the verifier, so the booking's screen sees it whenever it is shown
+                        qrVerifier.recordServerRejection(bookingId, error);
+                        callback.onServerRejected(error);
+                    }
+                }, true);
+                return;
+            }
+            case REJECTED:
+                Log.d(TAG, "QR rejected on device: " + outcome.getMessage());
+                callback.onSuccess(new BookingVerificationResult(false, outcome.getMessage()));
+                return;
+            default:
+                Log.d(TAG, "QR needs the server: " + outcome.getMessage());
+                verifyQRCodeOnline(qrCode, callback, false);
+        }
+    }
+
+    /**
+     * Refresh the signing key and today's bookings used to verify QR codes
+     * on the device, unless they were fetched recently
+     */
+    public void syncQRVerificationData(BookingOperationCallback callback) {
+        if (!qrVerifier.isStale()) {
+            callback.onSuccess("QR verification data is up to date");
+            return;
+        }
         String authToken = getAuthToken();
         if (authToken == null) {
             callback.onError("Not authenticated");
             return;
         }
 
+        Call<ApiResponse<BookingApiService.QRVerificationDataDTO>> call =
+                bookingApiService.getQRVerificationData("Bearer " + authToken);
+
+        call.enqueue(new Callback<ApiResponse<BookingApiService.QRVerificationDataDTO>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<BookingApiService.QRVerificationDataDTO>> call,
+                                 Response<ApiResponse<BookingApiService.QRVerificationDataDTO>> response) {
+                if (response.isSuccessful() && response.body() != null
+                        && response.body().isSuccess() && response.body().getData() != null) {
+                    qrVerifier.update(response.body().getData());
+                    callback.onSuccess("QR verification data updated");
+                } else {
+                    String error = "Failed to load QR verification data: " + response.message();
+                    Log.e(TAG, error);
+                    callback.onError(error);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<BookingApiService.QRVerificationDataDTO>> call, Throwable t) {
+                String error = "Network error: " + t.getMessage();
+                Log.e(TAG, error, t);
+                callback.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Verify a QR code with the server. When confirming a code already
+     * verified on the device, only a rejection by the server is reported;
+     * network trouble leaves the device's answer standing.
+     */
+    private void verifyQRCodeOnline(String qrCode, QRVerificationCallback callback, boolean confirming) {
+        String authToken = getAuthToken();
+        if (authToken == null) {
+            if (!confirming) {
+                callback.onError("Not authenticated");
+            }
+            return;
+        }
+
         // Create QR verification request
         BookingApiService.QRVerificationRequest request = new BookingApiService.QRVerificationRequest(qrCode);
 
@@ -154,17 +273,28 @@ public class OperatorService {
                         result.setTotalCost(booking.getTotalAmount());
                         
                         Log.d(TAG, "QR verification successful for booking: " + booking.getId());
-                        callback.onSuccess(result);
+                        if (!confirming) {
+                            callback.onSuccess(result);
+                        }
                     } else {
                         String error = apiResponse.getMessage() != null ? 
                                       apiResponse.getMessage() : "QR verification failed";
                         Log.e(TAG, error);
-                        callback.onError(error);
+                        if (confirming) {
+                            callback.onServerRejected(error);
+                        } else {
+                            callback.onError(error);
+                        }
                     }
                 } else {
                     String error = "QR verification failed: " + response.message();
                     Log.e(TAG, error);
-                    callback.onError(error);
+                    if (!confirming) {
+                        callback.onError(error);
+                    } else if (response.code() == 400) {
+                        // The server answers an invalid code with Bad Request
+                        callback.onServerRejected(error);
+                    }
                 }
             }
 
@@ -172,7 +302,9 @@ public class OperatorService {
             public void onFailure(Call<ApiResponse<BookingApiService.BookingResponseDTO>> call, Throwable t) {
                 String error = "Network error verifying QR code: " + t.getMessage();
                 Log.e(TAG, error, t);
-                callback.onError(error);
+                if (!confirming) {
+                    callback.onError(error);
+                }
             }
         });
     }
@@ -266,17 +398,195 @@ public class OperatorService {
     }
 
     /**
-     * Get enhanced session history for station operator
+     * Bring the local session store up to date: sessions updated since the
+     * last sync, or on the first sync every session of today and every one
+     * still in progress, so the dashboard counters are complete.
+     * Dashboard counters are then read from the store.
+     */
+    public void syncSessionHistory(BookingOperationCallback callback) {
+        String authToken = getAuthToken();
+        if (authToken == null) {
+            callback.onError("Not authenticated");
+            return;
+        }
+
+        // Responses that land after a logout cleared the store are dropped
+        int generation = sessionStore.getGeneration();
+        // The first call in a process reads the stored sessions off the main thread
+        ResponseMapper.map("session store", sessionStore::load, since -> {
+            if (since == null || !sessionStore.isInitialSyncDone()) {
+                initialSessionSync(authToken, generation, callback);
+                return;
+            }
+            fetchSessions(authToken, since, false, null, null, new SessionHistoryCallback() {
+                @Override
+                public void onSuccess(List<BookingApiService.SessionHistoryResponseDTO> updates) {
+                    ResponseMapper.map("session sync", () -> {
+                        sessionStore.merge(updates, generation);
+                        return updates.size();
+                    }, count -> callback.onSuccess("Synced " + count + " sessions"), callback::onError);
+                }
+
+                @Override
+                public void onError(String error) {
+                    callback.onError(error);
+                }
+            });
+        }, callback::onError);
+    }
+
+    /**
+     * Fetch everything the counters need (sessions updated since local midnight
+     * and all sessions in progress) and, if the back-fill has not started, the
+     * newest history page; store them together once both have arrived
+     */
+    private void initialSessionSync(String authToken, int generation, BookingOperationCallback callback) {
+        boolean startBackfill = sessionStore.getBackfillCursor() == null;
+        List<List<BookingApiService.SessionHistoryResponseDTO>> results = new ArrayList<>(Arrays.asList(null, null));
+        int[] remaining = {startBackfill ? 2 : 1};
+        boolean[] failed = {false};
+
+        Runnable storeWhenDone = () -> ResponseMapper.map("initial session sync", () -> {
+            sessionStore.mergeInitial(results.get(0), results.get(1), SESSION_PAGE_SIZE, generation);
+            return results.get(0).size();
+        }, count -> callback.onSuccess("Synced " + count + " sessions for today"), callback::onError);
+
+        fetchSessions(authToken, OperatorSessionStore.getTodayStart(), true, null, null, new SessionHistoryCallback() {
+            @Override
+            public void onSuccess(List<BookingApiService.SessionHistoryResponseDTO> sessions) {
+                results.set(0, sessions);
+                if (--remaining[0] == 0 && !failed[0]) {
+                    storeWhenDone.run();
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                if (!failed[0]) {
+                    failed[0] = true;
+                    callback.onError(error);
+                }
+            }
+        });
+        if (startBackfill) {
+            fetchSessions(authToken, null, false, null, SESSION_PAGE_SIZE, new SessionHistoryCallback() {
+                @Override
+                public void onSuccess(List<BookingApiService.SessionHistoryResponseDTO> page) {
+                    results.set(1, page);
+                    if (--remaining[0] == 0 && !failed[0]) {
+                        storeWhenDone.run();
+                    }
+                }
+
+                @Override
+                public void onError(String error) {
+                    if (!failed[0]) {
+                        failed[0] = true;
+                        callback.onError(error);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Get one page of enhanced session history for station operator, newest
+     * first, read from the local session store. The key is the row offset;
+     * the first page syncs the store before reading, and pages past the end
+     * of what is stored back-fill older sessions from the server.
      */
-    public void getSessionHistory(SessionHistoryCallback callback) {
+    public void getSessionHistoryPage(String key, int pageSize,
+                                      PageWindow.PageCallback<BookingApiService.SessionHistoryResponseDTO> callback) {
+        int offset = key != null ? Integer.parseInt(key) : 0;
+        if (key != null) {
+            readSessionPage(offset, pageSize, true, null, callback);
+            return;
+        }
+
+        syncSessionHistory(new BookingOperationCallback() {
+            @Override
+            public void onSuccess(String message) {
+                readSessionPage(offset, pageSize, true, null, callback);
+            }
+
+            @Override
+            public void onError(String error) {
+                // Offline: show what is stored
+                Log.w(TAG, "Session sync failed, reading stored sessions: " + error);
+                readSessionPage(offset, pageSize, false, error, callback);
+            }
+        });
+    }
+
+    private void readSessionPage(int offset, int pageSize, boolean allowBackfill, String syncError,
+                                 PageWindow.PageCallback<BookingApiService.SessionHistoryResponseDTO> callback) {
+        ResponseMapper.map("session page", () -> sessionStore.getPage(offset, pageSize), page -> {
+            if (page.size() < pageSize && allowBackfill && !sessionStore.isBackfillComplete()) {
+                backfillSessions(pageSize, new BookingOperationCallback() {
+                    @Override
+                    public void onSuccess(String message) {
+                        Log.d(TAG, message);
+                        readSessionPage(offset, pageSize, false, null, callback);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        deliverSessionPage(offset, pageSize, page, error, callback);
+                    }
+                });
+            } else {
+                deliverSessionPage(offset, pageSize, page, syncError, callback);
+            }
+        }, callback::onError);
+    }
+
+    private void deliverSessionPage(int offset, int pageSize, List<BookingApiService.SessionHistoryResponseDTO> page,
+                                    String error, PageWindow.PageCallback<BookingApiService.SessionHistoryResponseDTO> callback) {
+        if (page.isEmpty() && error != null) {
+            callback.onError(error);
+            return;
+        }
+        // A short page may still continue once older sessions are back-filled
+        boolean more = page.size() == pageSize || (!page.isEmpty() && !sessionStore.isBackfillComplete());
+        callback.onSuccess(page, more ? String.valueOf(offset + page.size()) : null);
+    }
+
+    /**
+     * Fetch the next page of older sessions into the store
+     */
+    private void backfillSessions(int pageSize, BookingOperationCallback callback) {
         String authToken = getAuthToken();
         if (authToken == null) {
             callback.onError("Not authenticated");
             return;
         }
 
+        int generation = sessionStore.getGeneration();
+        fetchSessions(authToken, null, false, sessionStore.getBackfillCursor(), pageSize, new SessionHistoryCallback() {
+            @Override
+            public void onSuccess(List<BookingApiService.SessionHistoryResponseDTO> page) {
+                ResponseMapper.map("session backfill", () -> {
+                    sessionStore.mergeBackfill(page, pageSize, generation);
+                    return page.size();
+                }, count -> callback.onSuccess("Back-filled " + count + " older sessions"), callback::onError);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Fetch sessions updated since a time (with includeActive, plus every session
+     * in progress), or one page created before a {@link PageKey}
+     */
+    private void fetchSessions(String authToken, String since, boolean includeActive, String beforeKey,
+                               Integer limit, SessionHistoryCallback callback) {
         Call<ApiResponse<List<BookingApiService.SessionHistoryResponseDTO>>> call = 
-            bookingApiService.getSessionHistory("Bearer " + authToken);
+            bookingApiService.getSessionHistory("Bearer " + authToken, since, includeActive ? true : null,
+                    PageKey.before(beforeKey), PageKey.beforeId(beforeKey), limit);
         
         call.enqueue(new Callback<ApiResponse<List<BookingApiService.SessionHistoryResponseDTO>>>() {
             @Override
@@ -285,7 +595,7 @@ public class OperatorService {
                 if (response.isSuccessful() && response.body() != null) {
                     ApiResponse<List<BookingApiService.SessionHistoryResponseDTO>> apiResponse = response.body();
                     if (apiResponse.isSuccess() && apiResponse.getData() != null) {
-                        Log.d(TAG, "Session history loaded successfully");
+                        Log.d(TAG, "Session history loaded: " + apiResponse.getData().size() + " sessions");
                         callback.onSuccess(apiResponse.getData());
                     } else {
                         String error = apiResponse.getMessage() != null ? 
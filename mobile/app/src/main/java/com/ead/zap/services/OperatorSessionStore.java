@@ -0,0 +1,394 @@
+package com.ead.zap.services;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.ead.zap.api.services.BookingApiService;
+import com.ead.zap.database.dao.OperatorSessionDAO;
+import com.ead.zap.models.BookingStatus;
+import com.ead.zap.utils.DateTimeCodec;
+import com.ead.zap.utils.PageKey;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local store of operator session history, kept in the app database.
+ *
+ * Two cursors keep it in step with the server without downloading the whole
+ * history: new and changed sessions arrive through an incremental sync from
+ * the newest updatedAt stored, and older sessions are back-filled a page at a
+ * time (by createdAt) as the history list scrolls. Screens read pages from the
+ * database, so only the rows on screen are held in memory.
+ *
+ * Dashboard counters (sessions today, energy delivered today, active
+ * sessions) are running aggregates adjusted as each session is inserted or
+ * replaced, so reading them never walks the history. They are only published
+ * once an initial sync has stored every session of today and every session
+ * still in progress; before that the store holds just a page of history and
+ * the counters would come out low. Loading, merging and
+ * page reads touch the database and must run off the main thread.
+ *
+ * Clearing on logout bumps a generation number. Merges carry the generation
+ * read when their request was sent, so a response that arrives after the
+ * clear is dropped instead of refilling the store for the next user.
+ */
+public class OperatorSessionStore {
+    private static final String TAG = "OperatorSessionStore";
+
+    private static final String PREFS_NAME = "ZapOperatorSessions";
+    private static final String KEY_BACKFILL_BEFORE = "BackfillBefore";
+    private static final String KEY_BACKFILL_COMPLETE = "BackfillComplete";
+    private static final String KEY_INITIAL_SYNC_DONE = "InitialSyncDone";
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    private static OperatorSessionStore instance;
+
+    private final OperatorSessionDAO sessionDAO;
+    private final SharedPreferences backfillPrefs;
+    private final ExecutorService clearer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, TAG);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, Contribution> contributions = new HashMap<>();
+    private final Map<Long, DayTotals> dayTotals = new HashMap<>();
+    private int activeSessions;
+    private long cursorMillis = DateTimeCodec.INVALID;
+    private boolean loaded;
+    // Bumped by clear() without taking the lock; the reset catches up to it under the lock
+    private final AtomicInteger generation = new AtomicInteger();
+    private int clearedGeneration;
+
+    // Published for lock-free reads from the main thread
+    private volatile SessionStats stats;
+
+    /**
+     * What one session adds to the aggregates
+     */
+    private static class Contribution {
+        final long day;
+        final double energy;
+        final boolean active;
+
+        Contribution(long day, double energy, boolean active) {
+            this.day = day;
+            this.energy = energy;
+            this.active = active;
+        }
+    }
+
+    private static class DayTotals {
+        int sessions;
+        double energy;
+    }
+
+    /**
+     * Dashboard counters for one local day
+     */
+    public static class SessionStats {
+        private final long day;
+        private final int todaySessions;
+        private final double todayEnergyKwh;
+        private final int activeSessions;
+
+        SessionStats(long day, int todaySessions, double todayEnergyKwh, int activeSessions) {
+            this.day = day;
+            this.todaySessions = todaySessions;
+            this.todayEnergyKwh = todayEnergyKwh;
+            this.activeSessions = activeSessions;
+        }
+
+        public int getTodaySessions() { return todaySessions; }
+        public double getTodayEnergyKwh() { return todayEnergyKwh; }
+        public int getActiveSessions() { return activeSessions; }
+    }
+
+    private OperatorSessionStore(Context context) {
+        this.sessionDAO = new OperatorSessionDAO(context);
+        this.backfillPrefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Get singleton instance of OperatorSessionStore
+     */
+    public static synchronized OperatorSessionStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new OperatorSessionStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Build the aggregates from the stored sessions once and return the sync
+     * cursor, or null if nothing has been stored yet. Call off the main thread.
+     */
+    public synchronized String load() {
+        finishPendingClear();
+        if (!loaded) {
+            long start = System.currentTimeMillis();
+            for (OperatorSessionDAO.SessionSummary summary : sessionDAO.getSessionSummaries()) {
+                apply(summary.bookingId, contributionOf(summary.status, summary.startedAt, summary.energy),
+                        summary.updatedAt);
+            }
+            loaded = true;
+            publishStats();
+            Log.d(TAG, "Loaded " + contributions.size() + " stored sessions in " + (System.currentTimeMillis() - start) + " ms");
+        }
+        return getCursor();
+    }
+
+    /**
+     * Generation to pass back to {@link #merge} and {@link #mergeBackfill}; read it before sending the request
+     */
+    public int getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Store sessions returned by an incremental sync. Dropped if the store has
+     * been cleared since the request was sent. Call off the main thread.
+     */
+    public synchronized void merge(List<BookingApiService.SessionHistoryResponseDTO> updates, int requestGeneration) {
+        if (requestGeneration != generation.get()) {
+            Log.d(TAG, "Dropped " + updates.size() + " sessions fetched before the store was cleared");
+            return;
+        }
+        load();
+        if (!updates.isEmpty()) {
+            sessionDAO.insertOrUpdateSessions(updates);
+            for (BookingApiService.SessionHistoryResponseDTO session : updates) {
+                apply(session);
+            }
+            publishStats();
+        }
+        Log.d(TAG, "Merged " + updates.size() + " updated sessions, " + contributions.size() + " stored");
+    }
+
+    /**
+     * Store the result of the initial sync: every session updated today or
+     * still in progress, plus the newest history page when the back-fill has
+     * not started yet (null otherwise). Publishes the counters from then on.
+     * Call off the main thread.
+     */
+    public synchronized void mergeInitial(List<BookingApiService.SessionHistoryResponseDTO> todayAndActive,
+                                          List<BookingApiService.SessionHistoryResponseDTO> newestPage,
+                                          int pageSize, int requestGeneration) {
+        if (newestPage != null) {
+            mergeBackfill(newestPage, pageSize, requestGeneration);
+        }
+        merge(todayAndActive, requestGeneration);
+        if (requestGeneration != generation.get()) {
+            return;
+        }
+        backfillPrefs.edit().putBoolean(KEY_INITIAL_SYNC_DONE, true).apply();
+        publishStats();
+    }
+
+    /**
+     * Whether the counters are complete; until then syncs must go through the initial sync
+     */
+    public boolean isInitialSyncDone() {
+        return backfillPrefs.getBoolean(KEY_INITIAL_SYNC_DONE, false);
+    }
+
+    /**
+     * Local midnight today, as an API timestamp
+     */
+    public static String getTodayStart() {
+        long now = System.currentTimeMillis();
+        long midnight = today() * MILLIS_PER_DAY;
+        return DateTimeCodec.format(midnight - TimeZone.getDefault().getOffset(now));
+    }
+
+    /**
+     * Store one back-filled page of older sessions and move the back-fill
+     * cursor past it. A page shorter than requested means the history is
+     * complete. Call off the main thread.
+     */
+    public synchronized void mergeBackfill(List<BookingApiService.SessionHistoryResponseDTO> page, int pageSize,
+                                           int requestGeneration) {
+        if (requestGeneration != generation.get()) {
+            Log.d(TAG, "Dropped a back-fill page fetched before the store was cleared");
+            return;
+        }
+        merge(page, requestGeneration);
+        if (requestGeneration != generation.get()) {
+            // Cleared while the page was being stored; the cursor belongs to the old user
+            return;
+        }
+        SharedPreferences.Editor editor = backfillPrefs.edit();
+        if (!page.isEmpty()) {
+            // The server's own timestamp and the id, so the next page starts exactly after this one
+            BookingApiService.SessionHistoryResponseDTO last = page.get(page.size() - 1);
+            editor.putString(KEY_BACKFILL_BEFORE, PageKey.of(last.getCreatedAt(), last.getBookingId()));
+        }
+        editor.putBoolean(KEY_BACKFILL_COMPLETE, page.size() < pageSize).apply();
+    }
+
+    /**
+     * {@link PageKey} of the next back-fill page (created-at and id), or null to start from the newest
+     */
+    public String getBackfillCursor() {
+        return backfillPrefs.getString(KEY_BACKFILL_BEFORE, null);
+    }
+
+    public boolean isBackfillComplete() {
+        return backfillPrefs.getBoolean(KEY_BACKFILL_COMPLETE, false);
+    }
+
+    /**
+     * One page of stored sessions, newest first. Call off the main thread.
+     */
+    public List<BookingApiService.SessionHistoryResponseDTO> getPage(int offset, int limit) {
+        synchronized (this) {
+            finishPendingClear();
+        }
+        return sessionDAO.getSessions(offset, limit);
+    }
+
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized int size() {
+        return contributions.size();
+    }
+
+    /**
+     * Dashboard counters for today, or null before the store has loaded and
+     * completed its initial sync. Safe to call on the main thread.
+     */
+    public SessionStats getStats() {
+        SessionStats current = stats;
+        if (current != null && current.day != today()) {
+            // The day rolled over since the last change; the new day's totals are already bucketed
+            synchronized (this) {
+                publishStats();
+                current = stats;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Forget all sessions, e.g. on logout. Safe to call on the main thread: it
+     * never waits for the lock, and the stored rows are deleted in the background.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        stats = null;
+        backfillPrefs.edit().clear().apply();
+        clearer.execute(() -> {
+            synchronized (OperatorSessionStore.this) {
+                finishPendingClear();
+            }
+        });
+    }
+
+    /**
+     * Apply a clear that has not been carried out yet, so nothing reads or
+     * merges against the old sessions. Caller holds the lock.
+     */
+    private void finishPendingClear() {
+        int target = generation.get();
+        if (clearedGeneration == target) {
+            return;
+        }
+        contributions.clear();
+        dayTotals.clear();
+        activeSessions = 0;
+        cursorMillis = DateTimeCodec.INVALID;
+        stats = null;
+        loaded = false;
+        sessionDAO.clearAllSessions();
+        clearedGeneration = target;
+    }
+
+    private void apply(BookingApiService.SessionHistoryResponseDTO session) {
+        apply(session.getBookingId(),
+                contributionOf(session.getStatus(), OperatorSessionDAO.startedAt(session), session.getEnergyDelivered()),
+                DateTimeCodec.parseMillis(session.getUpdatedAt()));
+    }
+
+    /**
+     * Insert or replace one session, moving its share of the aggregates
+     */
+    private void apply(String bookingId, Contribution next, long updatedAt) {
+        if (bookingId == null) {
+            return;
+        }
+
+        Contribution previous = contributions.put(bookingId, next);
+        if (previous != null) {
+            addToTotals(previous, -1);
+        }
+        addToTotals(next, 1);
+
+        if (updatedAt != DateTimeCodec.INVALID && (cursorMillis == DateTimeCodec.INVALID || updatedAt > cursorMillis)) {
+            cursorMillis = updatedAt;
+        }
+    }
+
+    private void addToTotals(Contribution contribution, int sign) {
+        if (contribution.active) {
+            activeSessions += sign;
+        }
+        if (contribution.day == DateTimeCodec.INVALID) {
+            return;
+        }
+        DayTotals totals = dayTotals.get(contribution.day);
+        if (totals == null) {
+            totals = new DayTotals();
+            dayTotals.put(contribution.day, totals);
+        }
+        totals.sessions += sign;
+        totals.energy += sign * contribution.energy;
+        if (totals.sessions == 0) {
+            dayTotals.remove(contribution.day);
+        }
+    }
+
+    private static Contribution contributionOf(String status, long startedAt, Double energyDelivered) {
+        long day = startedAt != DateTimeCodec.INVALID ? localDay(startedAt) : DateTimeCodec.INVALID;
+        double energy = energyDelivered != null ? energyDelivered : 0;
+        boolean active = status != null && BookingStatus.fromString(status) == BookingStatus.IN_PROGRESS;
+        return new Contribution(day, energy, active);
+    }
+
+    private void publishStats() {
+        if (!isInitialSyncDone()) {
+            stats = null;
+            return;
+        }
+        long day = today();
+        DayTotals totals = dayTotals.get(day);
+        stats = new SessionStats(day,
+                totals != null ? totals.sessions : 0,
+                totals != null ? totals.energy : 0,
+                activeSessions);
+    }
+
+    private String getCursor() {
+        return cursorMillis != DateTimeCodec.INVALID ? DateTimeCodec.format(cursorMillis) : null;
+    }
+
+    private static long today() {
+        return localDay(System.currentTimeMillis());
+    }
+
+    /**
+     * Day number in the device's time zone
+     */
+    private static long localDay(long epochMillis) {
+        return Math.floorDiv(epochMillis + TimeZone.getDefault().getOffset(epochMillis), MILLIS_PER_DAY);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ead.zap.services;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Background stage for turning API responses into models.
+ * Retrofit calls onResponse on the main thread; services hand DTO mapping,
+ * date parsing, filtering and sorting to this stage and get the finished
+ * result back on the main thread, so their callbacks still run where callers
+ * expect but the main thread only pays for a post.
+ *
+ * One thread runs every mapping, so results are delivered in the order the
+ * responses arrived and mappings never race each other. A mapping only builds
+ * new objects; anything shared with the UI is updated in the result callback,
+ * on the main thread.
+ */
+public final class ResponseMapper {
+    private static final String TAG = "ResponseMapper";
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(() -> {
+            android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+            runnable.run();
+        }, TAG);
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Work that builds the result, run on the mapping thread
+     */
+    public interface Mapping<T> {
+        T map();
+    }
+
+    private ResponseMapper() {
+    }
+
+    /**
+     * Run a mapping in the background and deliver its result, or an error
+     * if it throws, on the main thread
+     */
+    public static <T> void map(String label, Mapping<T> mapping, Consumer<T> onMapped, Consumer<String> onError) {
+        executor.execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            T result;
+            try {
+                result = mapping.map();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Mapping " + label + " failed", e);
+                mainHandler.post(() -> onError.accept("Failed to read response: " + e.getMessage()));
+                return;
+            }
+            Log.d(TAG, "Mapped " + label + " in " + (SystemClock.elapsedRealtime() - start) + " ms off the main thread");
+            mainHandler.post(() -> onMapped.accept(result));
+        });
+    }
+}
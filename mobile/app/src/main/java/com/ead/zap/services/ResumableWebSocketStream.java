@@ -0,0 +1,289 @@
+package com.ead.zap.services;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.ead.zap.config.ApiConfig;
+import com.ead.zap.network.NetworkClient;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+
+/**
+ * Base for server push streams over a WebSocket that resume where they left off.
+ * Each message carries a resume token, and a reconnect sends the last token
+ * back so the server can replay only what was missed. The socket is open
+ * only while at least one listener is registered; dropped connections are
+ * retried with exponential backoff and jitter, and a server that refuses the
+ * upgrade is not retried until the next listener arrives. Subclasses parse
+ * their own message type and apply it on the main thread.
+ *
+ * Every message has at least:
+ * <pre>
+ * {"token":"1842","reset":false, ...}
+ * </pre>
+ * "reset" means the token was too old to replay and clients should reload.
+ *
+ * @param <L> listener type
+ * @param <M> message type
+ */
+public abstract class ResumableWebSocketStream<L extends ResumableWebSocketStream.StreamListener,
+        M extends ResumableWebSocketStream.StreamMessage> {
+
+    private static final long INITIAL_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 60000;
+    private static final int NORMAL_CLOSURE = 1000;
+
+    private final String tag;
+    private final String pathSegments;
+    private final Class<M> messageType;
+    private final OkHttpClient client;
+    private final Gson gson = new Gson();
+    private final Random random = new Random();
+    private final List<L> listeners = new ArrayList<>();
+    protected final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private WebSocket webSocket;
+    private String resumeToken;
+    private long backoffMs = INITIAL_BACKOFF_MS;
+    private int connectionGeneration;
+
+    /**
+     * Receives stream events on the main thread
+     */
+    public interface StreamListener {
+        void onResyncRequired();
+    }
+
+    /**
+     * Fields every stream message carries
+     */
+    public static class StreamMessage {
+        @SerializedName("token")
+        String token;
+
+        @SerializedName("reset")
+        boolean reset;
+    }
+
+    protected ResumableWebSocketStream(Context context, String tag, String pathSegments, Class<M> messageType) {
+        this.tag = tag;
+        this.pathSegments = pathSegments;
+        this.messageType = messageType;
+        this.client = NetworkClient.getInstance(context).getOkHttpClient().newBuilder()
+                .readTimeout(0, TimeUnit.MILLISECONDS)
+                .pingInterval(30, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Start receiving updates; connects when the first listener is added
+     */
+    public synchronized void addListener(L listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        if (webSocket == null) {
+            connect();
+        }
+    }
+
+    /**
+     * Stop receiving updates; disconnects when the last listener leaves
+     */
+    public synchronized void removeListener(L listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty()) {
+            disconnect();
+        }
+    }
+
+    /**
+     * Forget the resume token, so the next connection starts afresh
+     */
+    protected synchronized void forgetResumeToken() {
+        resumeToken = null;
+    }
+
+    /**
+     * The socket opened; on the main thread. Without a token nothing is replayed.
+     */
+    protected void onConnected(boolean resuming, List<L> targets) {
+    }
+
+    /**
+     * The socket is down, closed on purpose or retrying; on the main thread
+     */
+    protected void onDisconnected() {
+    }
+
+    /**
+     * Apply a message that is not a reset; on the main thread, after its token is recorded
+     */
+    protected abstract void onMessage(M message, List<L> targets);
+
+    protected static <L extends StreamListener> void requestResync(List<L> targets) {
+        for (L listener : targets) {
+            listener.onResyncRequired();
+        }
+    }
+
+    private void connect() {
+        int generation = ++connectionGeneration;
+        HttpUrl baseUrl = HttpUrl.parse(ApiConfig.getBaseUrl());
+        if (baseUrl == null) {
+            Log.e(tag, "Invalid base URL");
+            return;
+        }
+        HttpUrl.Builder url = baseUrl.newBuilder().addPathSegments(pathSegments);
+        if (resumeToken != null) {
+            url.addQueryParameter("resumeToken", resumeToken);
+        }
+
+        // OkHttp maps http(s) to ws(s) for WebSocket requests; the shared client's
+        // auth interceptor tells the server who is listening
+        Request request = new Request.Builder().url(url.build()).build();
+        webSocket = client.newWebSocket(request, new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket socket, Response response) {
+                boolean resuming;
+                synchronized (ResumableWebSocketStream.this) {
+                    if (generation != connectionGeneration) {
+                        return;
+                    }
+                    backoffMs = INITIAL_BACKOFF_MS;
+                    resuming = resumeToken != null;
+                    Log.d(tag, "Connected" + (resuming ? ", resuming from " + resumeToken : ""));
+                }
+                mainHandler.post(() -> {
+                    List<L> targets = listenersFor(generation);
+                    if (targets != null) {
+                        onConnected(resuming, targets);
+                    }
+                });
+            }
+
+            @Override
+            public void onMessage(WebSocket socket, String text) {
+                handleMessage(generation, text);
+            }
+
+            @Override
+            public void onClosing(WebSocket socket, int code, String reason) {
+                socket.close(NORMAL_CLOSURE, null);
+            }
+
+            @Override
+            public void onClosed(WebSocket socket, int code, String reason) {
+                scheduleReconnect(generation);
+            }
+
+            @Override
+            public void onFailure(WebSocket socket, Throwable t, Response response) {
+                if (response != null) {
+                    // The server answered the handshake but refused the upgrade
+                    Log.w(tag, "Stream rejected with HTTP " + response.code());
+                    stopRetrying(generation);
+                    return;
+                }
+                Log.w(tag, "Stream failed: " + t.getMessage());
+                scheduleReconnect(generation);
+            }
+        });
+    }
+
+    /**
+     * Give up on a server that refuses the stream; the next screen to add a listener tries again
+     */
+    private synchronized void stopRetrying(int generation) {
+        if (generation != connectionGeneration) {
+            return;
+        }
+        webSocket = null;
+        mainHandler.post(this::onDisconnected);
+    }
+
+    private synchronized void disconnect() {
+        connectionGeneration++;
+        mainHandler.removeCallbacksAndMessages(null);
+        if (webSocket != null) {
+            webSocket.close(NORMAL_CLOSURE, null);
+            webSocket = null;
+        }
+        mainHandler.post(this::onDisconnected);
+    }
+
+    /**
+     * Reconnect with exponential backoff and jitter, unless the socket was closed on purpose
+     */
+    private synchronized void scheduleReconnect(int generation) {
+        if (generation != connectionGeneration || listeners.isEmpty()) {
+            return;
+        }
+        webSocket = null;
+        mainHandler.post(this::onDisconnected);
+        long delay = backoffMs / 2 + (long) (random.nextDouble() * backoffMs / 2);
+        backoffMs = Math.min(MAX_BACKOFF_MS, backoffMs * 2);
+        Log.d(tag, "Reconnecting in " + delay + " ms");
+        mainHandler.postDelayed(() -> {
+            synchronized (ResumableWebSocketStream.this) {
+                if (generation == connectionGeneration && webSocket == null && !listeners.isEmpty()) {
+                    connect();
+                }
+            }
+        }, delay);
+    }
+
+    private void handleMessage(int generation, String text) {
+        M message;
+        try {
+            message = gson.fromJson(text, messageType);
+        } catch (JsonParseException e) {
+            Log.w(tag, "Ignoring malformed message");
+            return;
+        }
+        if (message == null) {
+            return;
+        }
+
+        mainHandler.post(() -> {
+            List<L> targets;
+            synchronized (ResumableWebSocketStream.this) {
+                if (generation != connectionGeneration) {
+                    return;
+                }
+                if (message.token != null) {
+                    resumeToken = message.token;
+                }
+                targets = new ArrayList<>(listeners);
+            }
+
+            if (message.reset) {
+                requestResync(targets);
+                return;
+            }
+            onMessage(message, targets);
+        });
+    }
+
+    /**
+     * Copy of the listeners, or null if the connection has been replaced since
+     */
+    private synchronized List<L> listenersFor(int generation) {
+        return generation == connectionGeneration ? new ArrayList<>(listeners) : null;
+    }
+}
@@ -0,0 +1,189 @@
+package com.ead.zap.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Booked intervals at one station, indexed for slot availability checks.
+ * The server rejects a booking when the bookings overlapping it already fill
+ * the station's available slots, so the only query needed is "how many
+ * intervals overlap [start, end)". With the start and end times held in two
+ * sorted arrays that is #(starts before end) - #(ends at or before start),
+ * two binary searches, and a sweep over both arrays yields every free start
+ * time in a range. Immutable once built, so safe to share between threads.
+ */
+public class SlotAvailabilityIndex {
+    private static final long MILLIS_PER_MINUTE = 60000L;
+
+    private final long[] starts;
+    private final long[] ends;
+    private final int capacity;
+    private final long loadedAt;
+
+    /**
+     * A run of start times, inclusive at both ends, at which a booking of the
+     * requested duration fits
+     */
+    public static class FreeWindow {
+        private final long firstStart;
+        private final long lastStart;
+
+        FreeWindow(long firstStart, long lastStart) {
+            this.firstStart = firstStart;
+            this.lastStart = lastStart;
+        }
+
+        public long getFirstStart() { return firstStart; }
+        public long getLastStart() { return lastStart; }
+    }
+
+    /**
+     * Collects intervals before building the index
+     */
+    public static class Builder {
+        private long[] starts = new long[16];
+        private long[] ends = new long[16];
+        private int size;
+
+        public Builder add(long startMillis, int durationMinutes) {
+            if (durationMinutes <= 0) {
+                return this;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = startMillis;
+            ends[size] = startMillis + durationMinutes * MILLIS_PER_MINUTE;
+            size++;
+            return this;
+        }
+
+        public SlotAvailabilityIndex build(int capacity) {
+            long[] sortedStarts = Arrays.copyOf(starts, size);
+            long[] sortedEnds = Arrays.copyOf(ends, size);
+            Arrays.sort(sortedStarts);
+            Arrays.sort(sortedEnds);
+            return new SlotAvailabilityIndex(sortedStarts, sortedEnds, capacity);
+        }
+    }
+
+    private SlotAvailabilityIndex(long[] starts, long[] ends, int capacity) {
+        this.starts = starts;
+        this.ends = ends;
+        this.capacity = capacity;
+        this.loadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Number of booked intervals overlapping [startMillis, endMillis)
+     */
+    public int countOverlapping(long startMillis, long endMillis) {
+        // Every interval ending at or before startMillis also starts before endMillis
+        return countBefore(starts, endMillis) - countAtOrBefore(ends, startMillis);
+    }
+
+    /**
+     * Whether a booking of this length starting at startMillis leaves a slot free
+     */
+    public boolean isAvailable(long startMillis, int durationMinutes) {
+        return countOverlapping(startMillis, startMillis + durationMinutes * MILLIS_PER_MINUTE) < capacity;
+    }
+
+    /**
+     * Free start times between fromMillis and toMillis for a booking of this
+     * length, on whole minutes. One pass over both arrays plus one step per minute.
+     */
+    public List<FreeWindow> getFreeWindows(long fromMillis, long toMillis, int durationMinutes) {
+        List<FreeWindow> windows = new ArrayList<>();
+        if (capacity <= 0 || durationMinutes <= 0) {
+            return windows;
+        }
+
+        long duration = durationMinutes * MILLIS_PER_MINUTE;
+        long first = ceilToMinute(fromMillis);
+        // Pointers only move forward as the candidate start time increases
+        int startedBeforeEnd = countBefore(starts, first + duration);
+        int endedByStart = countAtOrBefore(ends, first);
+        long windowStart = -1;
+        long lastFree = -1;
+
+        for (long start = first; start <= toMillis; start += MILLIS_PER_MINUTE) {
+            long end = start + duration;
+            while (startedBeforeEnd < starts.length && starts[startedBeforeEnd] < end) {
+                startedBeforeEnd++;
+            }
+            while (endedByStart < ends.length && ends[endedByStart] <= start) {
+                endedByStart++;
+            }
+
+            if (startedBeforeEnd - endedByStart < capacity) {
+                if (windowStart < 0) {
+                    windowStart = start;
+                }
+                lastFree = start;
+            } else if (windowStart >= 0) {
+                windows.add(new FreeWindow(windowStart, lastFree));
+                windowStart = -1;
+            }
+        }
+        if (windowStart >= 0) {
+            windows.add(new FreeWindow(windowStart, lastFree));
+        }
+        return windows;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * When this snapshot was built, for callers deciding whether it is too old to trust
+     */
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    private static long ceilToMinute(long millis) {
+        return Math.floorDiv(millis + MILLIS_PER_MINUTE - 1, MILLIS_PER_MINUTE) * MILLIS_PER_MINUTE;
+    }
+
+    /**
+     * Number of values strictly less than key
+     */
+    private static int countBefore(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Number of values less than or equal to key
+     */
+    private static int countAtOrBefore(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ead.zap.services;
+
+import android.content.Context;
+
+import com.ead.zap.config.ApiConfig;
+import com.ead.zap.models.ChargingStation;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+
+/**
+ * Live station availability over a WebSocket.
+ * The server pushes compact deltas keyed by station id, resumable as described
+ * in {@link ResumableWebSocketStream}. Deltas are applied to StationCache's
+ * rows (the nearby cache reads its stations from there) and the changed
+ * stations are handed to listeners, so screens update markers without
+ * refetching the station list.
+ *
+ * Message format:
+ * <pre>
+ * {"token":"1842","reset":false,"deltas":[{"id":"st1","a":3,"t":4,"on":true}]}
+ * </pre>
+ */
+public class StationAvailabilityStream extends ResumableWebSocketStream<
+        StationAvailabilityStream.AvailabilityListener, StationAvailabilityStream.AvailabilityMessage> {
+    private static final String TAG = "AvailabilityStream";
+
+    private static StationAvailabilityStream instance;
+
+    /**
+     * Receives availability changes on the main thread
+     */
+    public interface AvailabilityListener extends ResumableWebSocketStream.StreamListener {
+        void onAvailabilityChanged(List<ChargingStation> changedStations);
+    }
+
+    /**
+     * Availability change for one station
+     */
+    public static class AvailabilityDelta {
+        @SerializedName("id")
+        private String stationId;
+
+        @SerializedName("a")
+        private int availableSlots;
+
+        @SerializedName("t")
+        private Integer totalSlots;
+
+        @SerializedName("on")
+        private Boolean active;
+
+        public String getStationId() { return stationId; }
+        public int getAvailableSlots() { return availableSlots; }
+        public Integer getTotalSlots() { return totalSlots; }
+        public Boolean getActive() { return active; }
+    }
+
+    static class AvailabilityMessage extends ResumableWebSocketStream.StreamMessage {
+        @SerializedName("deltas")
+        List<AvailabilityDelta> deltas;
+    }
+
+    private StationAvailabilityStream(Context context) {
+        super(context, TAG, ApiConfig.ChargingStations.AVAILABILITY_STREAM, AvailabilityMessage.class);
+    }
+
+    /**
+     * Get singleton instance of StationAvailabilityStream
+     */
+    public static synchronized StationAvailabilityStream getInstance(Context context) {
+        if (instance == null) {
+            instance = new StationAvailabilityStream(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    @Override
+    protected void onMessage(AvailabilityMessage message, List<AvailabilityListener> targets) {
+        List<ChargingStation> changed = StationCache.getInstance().applyAvailability(message.deltas);
+        if (changed.isEmpty()) {
+            return;
+        }
+        for (AvailabilityListener listener : targets) {
+            listener.onAvailabilityChanged(changed);
+        }
+    }
+}
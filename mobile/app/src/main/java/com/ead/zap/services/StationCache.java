@@ -0,0 +1,138 @@
+package com.ead.zap.services;
+
+import com.ead.zap.maps.RouteCorridor;
+import com.ead.zap.models.ChargingStation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process-wide in-memory cache of charging stations keyed by station id
+ * Filled by ChargingStationService responses, background prefetching and the
+ * on-disk snapshot. Stations are held as rows of a ColumnarStationStore and
+ * materialised only when read, so callers get their own copies; radius
+ * queries go through a grid spatial index kept in step with the rows.
+ */
+public class StationCache {
+    private static StationCache instance;
+
+    private ColumnarStationStore store = new ColumnarStationStore();
+    private final StationSpatialIndex spatialIndex = new StationSpatialIndex();
+
+    private StationCache() {}
+
+    /**
+     * Get singleton instance of StationCache
+     */
+    public static synchronized StationCache getInstance() {
+        if (instance == null) {
+            instance = new StationCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Add or replace stations in the cache
+     */
+    public synchronized void putAll(List<ChargingStation> newStations) {
+        if (newStations == null) {
+            return;
+        }
+        for (ChargingStation station : newStations) {
+            if (station != null && station.getId() != null) {
+                store.put(station);
+                if (station.getLocation() != null) {
+                    spatialIndex.put(station.getId(),
+                            station.getLocation().getLatitude(), station.getLocation().getLongitude());
+                } else {
+                    spatialIndex.remove(station.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Take over a snapshot's rows as they are, without building station
+     * objects. Only done while the cache is empty, since its rows are newer.
+     * Returns whether the snapshot was used.
+     */
+    public synchronized boolean loadSnapshot(ColumnarStationStore snapshot) {
+        if (store.size() > 0) {
+            return false;
+        }
+        store = snapshot;
+        for (int row = 0; row < store.size(); row++) {
+            if (store.getId(row) != null && store.hasLocation(row)) {
+                spatialIndex.put(store.getId(row), store.getLatitude(row), store.getLongitude(row));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copy of the cached rows, for writing out off the lock
+     */
+    public synchronized ColumnarStationStore copyStore() {
+        return store.copy();
+    }
+
+    /**
+     * Get a cached station by id, or null if it has not been loaded yet
+     */
+    public synchronized ChargingStation get(String stationId) {
+        int row = store.rowOf(stationId);
+        return row >= 0 ? store.materialize(row) : null;
+    }
+
+    /**
+     * Apply pushed availability deltas to the cached rows.
+     * Returns the stations that actually changed; unknown ids are ignored.
+     */
+    public synchronized List<ChargingStation> applyAvailability(List<StationAvailabilityStream.AvailabilityDelta> deltas) {
+        List<ChargingStation> changed = new ArrayList<>();
+        if (deltas == null) {
+            return changed;
+        }
+        for (StationAvailabilityStream.AvailabilityDelta delta : deltas) {
+            int row = delta != null ? store.rowOf(delta.getStationId()) : -1;
+            if (row < 0) {
+                continue;
+            }
+            if (store.updateAvailability(row, delta.getAvailableSlots(), delta.getTotalSlots(), delta.getActive())) {
+                changed.add(store.materialize(row));
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Get cached stations within the given radius of a point, nearest first
+     */
+    public synchronized List<ChargingStation> getStationsWithin(double latitude, double longitude, double radiusKm) {
+        List<StationSpatialIndex.Neighbor> neighbors = spatialIndex.findWithin(latitude, longitude, radiusKm);
+        List<ChargingStation> result = new ArrayList<>(neighbors.size());
+        for (StationSpatialIndex.Neighbor neighbor : neighbors) {
+            int row = store.rowOf(neighbor.getId());
+            if (row >= 0) {
+                result.add(store.materialize(row));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get cached stations within a route corridor, ordered by distance along the route
+     */
+    public synchronized List<RouteCorridor.Hit> getStationsAlongRoute(RouteCorridor corridor) {
+        return corridor.query(store);
+    }
+
+    public synchronized int size() {
+        return store.size();
+    }
+
+    public synchronized void clear() {
+        store = new ColumnarStationStore();
+        spatialIndex.clear();
+    }
+}
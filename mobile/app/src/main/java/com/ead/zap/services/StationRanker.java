@@ -0,0 +1,200 @@
+package com.ead.zap.services;
+
+import com.ead.zap.models.ChargingStation;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranks stations for the map list by distance, free slots, price and open-now status.
+ * Scores are in "equivalent kilometres" (lower is better). The part of the score
+ * that does not depend on the user's position is cached per station and only
+ * recomputed when that station changes or the minute ticks over, so a location
+ * update costs one equirectangular distance per station plus a bounded top-K
+ * heap. Exact distances are only computed for the K stations returned.
+ */
+public class StationRanker {
+    private static final double KM_PER_DEGREE = 111.195;
+
+    // Score weights, in km of detour the user would accept
+    private static final double FREE_SLOT_BONUS_KM = 0.5;
+    private static final int MAX_SLOT_BONUS = 4;
+    private static final double NO_FREE_SLOTS_PENALTY_KM = 5.0;
+    private static final double PRICE_PER_KM = 100.0; // Rs/hour that equals 1 km
+    private static final double CLOSED_PENALTY_KM = 25.0;
+    private static final double INACTIVE_PENALTY_KM = 50.0;
+
+    private final int topK;
+
+    private ChargingStation[] stations = new ChargingStation[0];
+    private double[] latitudes = new double[0];
+    private double[] longitudes = new double[0];
+    private double[] staticScores = new double[0];
+    private final Map<String, Integer> positions = new HashMap<>();
+    private long scoredMinute = -1;
+
+    // Max-heap of the best K indices by score, reused between rankings
+    private int[] heap;
+    private double[] heapScores;
+
+    public StationRanker(int topK) {
+        this.topK = topK;
+        this.heap = new int[topK];
+        this.heapScores = new double[topK];
+    }
+
+    /**
+     * Replace the station set
+     */
+    public synchronized void setStations(List<ChargingStation> newStations) {
+        List<ChargingStation> located = new ArrayList<>(newStations.size());
+        for (ChargingStation station : newStations) {
+            if (station != null && station.getLocation() != null) {
+                located.add(station);
+            }
+        }
+
+        int count = located.size();
+        stations = located.toArray(new ChargingStation[0]);
+        latitudes = new double[count];
+        longitudes = new double[count];
+        staticScores = new double[count];
+        positions.clear();
+
+        Calendar now = Calendar.getInstance();
+        for (int i = 0; i < count; i++) {
+            ChargingStation station = stations[i];
+            latitudes[i] = station.getLocation().getLatitude();
+            longitudes[i] = station.getLocation().getLongitude();
+            staticScores[i] = staticScore(station, now);
+            if (station.getId() != null) {
+                positions.put(station.getId(), i);
+            }
+        }
+        scoredMinute = currentMinute(now);
+    }
+
+    /**
+     * Rescore one station after its availability or details change
+     */
+    public synchronized void updateStation(ChargingStation station) {
+        Integer index = station.getId() != null ? positions.get(station.getId()) : null;
+        if (index == null || station.getLocation() == null) {
+            return;
+        }
+        stations[index] = station;
+        latitudes[index] = station.getLocation().getLatitude();
+        longitudes[index] = station.getLocation().getLongitude();
+        staticScores[index] = staticScore(station, Calendar.getInstance());
+    }
+
+    /**
+     * The best K stations for a position, best first. Sets each returned station's
+     * distance, so call it on the main thread, which owns the stations the list shows.
+     */
+    public synchronized List<ChargingStation> rank(double latitude, double longitude) {
+        Calendar now = Calendar.getInstance();
+        long minute = currentMinute(now);
+        if (minute != scoredMinute) {
+            // Open-now status can change on the minute
+            for (int i = 0; i < stations.length; i++) {
+                staticScores[i] = staticScore(stations[i], now);
+            }
+            scoredMinute = minute;
+        }
+
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        int size = 0;
+        for (int i = 0; i < stations.length; i++) {
+            double x = (longitudes[i] - longitude) * cosLat;
+            double y = latitudes[i] - latitude;
+            double score = Math.sqrt(x * x + y * y) * KM_PER_DEGREE + staticScores[i];
+            if (size < topK) {
+                siftUp(size++, i, score);
+            } else if (score < heapScores[0]) {
+                siftDown(size, i, score);
+            }
+        }
+
+        // Drain the max-heap from worst to best
+        int[] order = new int[size];
+        for (int remaining = size; remaining > 0; remaining--) {
+            order[remaining - 1] = heap[0];
+            siftDown(remaining - 1, heap[remaining - 1], heapScores[remaining - 1]);
+        }
+
+        List<ChargingStation> result = new ArrayList<>(size);
+        for (int index : order) {
+            ChargingStation station = stations[index];
+            station.setDistance(LocationService.calculateDistance(latitude, longitude, latitudes[index], longitudes[index]));
+            result.add(station);
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return stations.length;
+    }
+
+    private static double staticScore(ChargingStation station, Calendar now) {
+        double score = station.getPricePerHour() / PRICE_PER_KM;
+        int freeSlots = station.getAvailableSlots();
+        if (freeSlots <= 0) {
+            score += NO_FREE_SLOTS_PENALTY_KM;
+        } else {
+            score -= Math.min(freeSlots, MAX_SLOT_BONUS) * FREE_SLOT_BONUS_KM;
+        }
+        if (!station.isActive()) {
+            score += INACTIVE_PENALTY_KM;
+        }
+        if (station.getOperatingHours() != null && !station.getOperatingHours().isOpenAt(now)) {
+            score += CLOSED_PENALTY_KM;
+        }
+        return score;
+    }
+
+    private static long currentMinute(Calendar now) {
+        return now.getTimeInMillis() / 60000L;
+    }
+
+    private void siftUp(int index, int station, double score) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heapScores[parent] >= score) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heapScores[index] = heapScores[parent];
+            index = parent;
+        }
+        heap[index] = station;
+        heapScores[index] = score;
+    }
+
+    /**
+     * Replace the root of a heap of the given size and restore heap order
+     */
+    private void siftDown(int size, int station, double score) {
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heapScores[child + 1] > heapScores[child]) {
+                child++;
+            }
+            if (score >= heapScores[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            heapScores[index] = heapScores[child];
+            index = child;
+        }
+        if (size > 0) {
+            heap[index] = station;
+            heapScores[index] = score;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.ead.zap.services;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Binary snapshot of the last known station directory, used to draw markers
+ * on a cold start before the network answers. The snapshot is the
+ * ColumnarStationStore encoding behind a small header, written to a temp file
+ * and renamed into place so a crash mid-write never leaves a torn file, and
+ * read back through FileChannel.map. The store read back is handed to
+ * {@link StationCache} as is, so rows become objects only when asked for.
+ */
+public class StationSnapshot {
+    private static final String TAG = "StationSnapshot";
+
+    private static final String FILE_NAME = "stations.snap";
+    private static final int MAGIC = 0x5A535331; // "ZSS1"
+    private static final int VERSION = 1;
+
+    private static StationSnapshot instance;
+
+    private final File file;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, TAG);
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean writePending = new AtomicBoolean();
+
+    private StationSnapshot(Context context) {
+        this.file = new File(context.getFilesDir(), FILE_NAME);
+    }
+
+    /**
+     * Get singleton instance of StationSnapshot
+     */
+    public static synchronized StationSnapshot getInstance(Context context) {
+        if (instance == null) {
+            instance = new StationSnapshot(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Read the snapshot, or null if there is none or it cannot be read.
+     * Opens and maps the file, so call it off the main thread.
+     */
+    public ColumnarStationStore read() {
+        if (!file.exists()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                Log.w(TAG, "Ignoring snapshot with unknown format");
+                return null;
+            }
+            long writtenAt = buffer.getLong();
+            ColumnarStationStore store = ColumnarStationStore.readFrom(buffer);
+            Log.d(TAG, "Read " + store.size() + " stations written at " + writtenAt + " in "
+                    + (System.nanoTime() - start) / 1000 + " us");
+            return store;
+        } catch (IOException e) {
+            Log.w(TAG, "Discarding unreadable snapshot: " + e.getMessage());
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Write the station cache on the background writer. Calls made while a
+     * write is already queued collapse into that write.
+     */
+    public void saveAsync() {
+        if (!writePending.compareAndSet(false, true)) {
+            return;
+        }
+        writer.execute(() -> {
+            writePending.set(false);
+            write(StationCache.getInstance().copyStore());
+        });
+    }
+
+    private void write(ColumnarStationStore store) {
+        if (store.size() == 0) {
+            return;
+        }
+
+        File temp = new File(file.getParentFile(), FILE_NAME + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            store.writeTo(out);
+            out.flush();
+            fileOut.getFD().sync();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write snapshot: " + e.getMessage());
+            temp.delete();
+            return;
+        }
+
+        if (!temp.renameTo(file)) {
+            Log.w(TAG, "Failed to replace snapshot");
+            temp.delete();
+        }
+    }
+}
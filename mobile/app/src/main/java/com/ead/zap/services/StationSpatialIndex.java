@@ -0,0 +1,288 @@
+package com.ead.zap.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Uniform lat/lon grid over station positions for k-nearest and radius queries.
+ * Stations are bucketed into fixed-size cells, so a query only touches the
+ * cells around the query point instead of every station. Candidates are
+ * pre-filtered with the cheap equirectangular approximation and confirmed with
+ * the exact haversine distance. Updates are incremental: moving or removing a
+ * station only touches its own cells. Plain Java, not thread-safe.
+ * Does not handle the antimeridian.
+ */
+public class StationSpatialIndex {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180.0;
+    private static final double DEFAULT_CELL_DEGREES = 0.05; // ~5.5 km of latitude
+    private static final double PREFILTER_SLACK = 1.05;
+
+    private final double cellDegrees;
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private int minCellLat = Integer.MAX_VALUE;
+    private int maxCellLat = Integer.MIN_VALUE;
+    private int minCellLon = Integer.MAX_VALUE;
+    private int maxCellLon = Integer.MIN_VALUE;
+
+    /**
+     * A query hit: station id and exact distance from the query point
+     */
+    public static class Neighbor implements Comparable<Neighbor> {
+        private final String id;
+        private final double distanceKm;
+
+        Neighbor(String id, double distanceKm) {
+            this.id = id;
+            this.distanceKm = distanceKm;
+        }
+
+        public String getId() { return id; }
+        public double getDistanceKm() { return distanceKm; }
+
+        @Override
+        public int compareTo(Neighbor other) {
+            return Double.compare(distanceKm, other.distanceKm);
+        }
+    }
+
+    private static class Entry {
+        final String id;
+        final double latitude;
+        final double longitude;
+        final long cell;
+
+        Entry(String id, double latitude, double longitude, long cell) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+        }
+    }
+
+    public StationSpatialIndex() {
+        this(DEFAULT_CELL_DEGREES);
+    }
+
+    public StationSpatialIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    /**
+     * Add a station or move it to a new position
+     */
+    public void put(String id, double latitude, double longitude) {
+        Entry existing = entries.get(id);
+        if (existing != null) {
+            if (existing.latitude == latitude && existing.longitude == longitude) {
+                return;
+            }
+            removeFromCell(existing);
+        }
+
+        int cellLat = cellIndex(latitude);
+        int cellLon = cellIndex(longitude);
+        Entry entry = new Entry(id, latitude, longitude, cellKey(cellLat, cellLon));
+        entries.put(id, entry);
+        List<Entry> cell = cells.get(entry.cell);
+        if (cell == null) {
+            cell = new ArrayList<>(4);
+            cells.put(entry.cell, cell);
+        }
+        cell.add(entry);
+
+        minCellLat = Math.min(minCellLat, cellLat);
+        maxCellLat = Math.max(maxCellLat, cellLat);
+        minCellLon = Math.min(minCellLon, cellLon);
+        maxCellLon = Math.max(maxCellLon, cellLon);
+    }
+
+    public void remove(String id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            removeFromCell(entry);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        cells.clear();
+        entries.clear();
+        minCellLat = Integer.MAX_VALUE;
+        maxCellLat = Integer.MIN_VALUE;
+        minCellLon = Integer.MAX_VALUE;
+        maxCellLon = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Stations within radiusKm of a point, nearest first
+     */
+    public List<Neighbor> findWithin(double latitude, double longitude, double radiusKm) {
+        List<Neighbor> result = new ArrayList<>();
+        if (entries.isEmpty() || radiusKm < 0) {
+            return result;
+        }
+
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double lonSpan = latSpan / Math.max(0.01, Math.cos(Math.toRadians(Math.min(89.0, Math.abs(latitude) + latSpan))));
+        int fromLat = Math.max(minCellLat, cellIndex(latitude - latSpan));
+        int toLat = Math.min(maxCellLat, cellIndex(latitude + latSpan));
+        int fromLon = Math.max(minCellLon, cellIndex(longitude - lonSpan));
+        int toLon = Math.min(maxCellLon, cellIndex(longitude + lonSpan));
+
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        double prefilterLimit = radiusKm * PREFILTER_SLACK;
+        for (int cellLat = fromLat; cellLat <= toLat; cellLat++) {
+            for (int cellLon = fromLon; cellLon <= toLon; cellLon++) {
+                List<Entry> cell = cells.get(cellKey(cellLat, cellLon));
+                if (cell == null) {
+                    continue;
+                }
+                for (Entry entry : cell) {
+                    if (equirectangularKm(latitude, longitude, cosLat, entry) > prefilterLimit) {
+                        continue;
+                    }
+                    double distance = haversineKm(latitude, longitude, entry.latitude, entry.longitude);
+                    if (distance <= radiusKm) {
+                        result.add(new Neighbor(entry.id, distance));
+                    }
+                }
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * The k stations nearest to a point, nearest first
+     */
+    public List<Neighbor> findNearest(double latitude, double longitude, int k) {
+        return findNearest(latitude, longitude, k, Double.MAX_VALUE);
+    }
+
+    /**
+     * The k stations nearest to a point and no further than maxRadiusKm, nearest first.
+     * Searches rings of cells outward from the query cell and stops once the
+     * next ring cannot contain anything closer than the current k-th hit.
+     */
+    public List<Neighbor> findNearest(double latitude, double longitude, int k, double maxRadiusKm) {
+        if (entries.isEmpty() || k <= 0) {
+            return new ArrayList<>();
+        }
+
+        // Max-heap of the best k so far
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(k, Collections.reverseOrder());
+        int centerLat = cellIndex(latitude);
+        int centerLon = cellIndex(longitude);
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        int maxRing = Math.max(
+                Math.max(centerLat - minCellLat, maxCellLat - centerLat),
+                Math.max(centerLon - minCellLon, maxCellLon - centerLon));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            double ringMinKm = ringMinDistanceKm(latitude, ring);
+            if (ringMinKm > maxRadiusKm) {
+                break;
+            }
+            if (best.size() == k && ringMinKm > best.peek().getDistanceKm()) {
+                break;
+            }
+
+            for (int cellLat = centerLat - ring; cellLat <= centerLat + ring; cellLat++) {
+                if (cellLat < minCellLat || cellLat > maxCellLat) {
+                    continue;
+                }
+                boolean edgeRow = cellLat == centerLat - ring || cellLat == centerLat + ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int cellLon = centerLon - ring; cellLon <= centerLon + ring; cellLon += step) {
+                    if (cellLon < minCellLon || cellLon > maxCellLon) {
+                        continue;
+                    }
+                    List<Entry> cell = cells.get(cellKey(cellLat, cellLon));
+                    if (cell != null) {
+                        collectNearest(cell, latitude, longitude, cosLat, k, maxRadiusKm, best);
+                    }
+                }
+            }
+        }
+
+        List<Neighbor> result = new ArrayList<>(best);
+        Collections.sort(result);
+        return result;
+    }
+
+    private void collectNearest(List<Entry> cell, double latitude, double longitude, double cosLat,
+                                int k, double maxRadiusKm, PriorityQueue<Neighbor> best) {
+        for (Entry entry : cell) {
+            double limit = best.size() == k ? Math.min(maxRadiusKm, best.peek().getDistanceKm()) : maxRadiusKm;
+            if (equirectangularKm(latitude, longitude, cosLat, entry) > limit * PREFILTER_SLACK) {
+                continue;
+            }
+            double distance = haversineKm(latitude, longitude, entry.latitude, entry.longitude);
+            if (distance > maxRadiusKm) {
+                continue;
+            }
+            if (best.size() < k) {
+                best.add(new Neighbor(entry.id, distance));
+            } else if (distance < best.peek().getDistanceKm()) {
+                best.poll();
+                best.add(new Neighbor(entry.id, distance));
+            }
+        }
+    }
+
+    /**
+     * Lower bound on the distance from a point to any cell in the given ring
+     */
+    private double ringMinDistanceKm(double latitude, int ring) {
+        if (ring <= 0) {
+            return 0;
+        }
+        double reachLat = Math.min(89.0, Math.abs(latitude) + ring * cellDegrees);
+        double lonCellKm = cellDegrees * KM_PER_DEGREE * Math.cos(Math.toRadians(reachLat));
+        double latCellKm = cellDegrees * KM_PER_DEGREE;
+        return (ring - 1) * Math.min(latCellKm, lonCellKm);
+    }
+
+    private void removeFromCell(Entry entry) {
+        List<Entry> cell = cells.get(entry.cell);
+        if (cell != null) {
+            cell.remove(entry);
+            if (cell.isEmpty()) {
+                cells.remove(entry.cell);
+            }
+        }
+    }
+
+    private int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(int cellLat, int cellLon) {
+        return ((long) cellLat << 32) | (cellLon & 0xFFFFFFFFL);
+    }
+
+    private static double equirectangularKm(double latitude, double longitude, double cosLat, Entry entry) {
+        double x = (entry.longitude - longitude) * cosLat;
+        double y = entry.latitude - latitude;
+        return Math.sqrt(x * x + y * y) * KM_PER_DEGREE;
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -17,6 +17,7 @@ import com.google.android.material.textfield.TextInputLayout;
 
 import com.ead.zap.MainActivity;
 import com.ead.zap.R;
+import com.ead.zap.maps.MapWarmup;
 import com.ead.zap.models.auth.AuthResponse;
 import com.ead.zap.services.AuthService;
 import com.ead.zap.ui.owner.EVOwnerMain;
@@ -183,6 +184,8 @@ public class LoginActivity extends AppCompatActivity {
         
         if (response.isEVOwner()) {
             intent = new Intent(LoginActivity.this, EVOwnerMain.class);
+            // Prepare the map while the home tab loads
+            MapWarmup.getInstance(this).warmUpAsync();
         } else if (response.isStationOperator()) {
             intent = new Intent(LoginActivity.this, com.ead.zap.ui.operator.StationOperatorMain.class);
         } else {
@@ -22,6 +22,7 @@ import com.ead.zap.R;
 import com.ead.zap.api.services.BookingApiService;
 import com.ead.zap.models.Booking;
 import com.ead.zap.services.OperatorService;
+import com.ead.zap.services.OperatorSessionStore;
 
 public class OperatorQRScannerFragment extends Fragment {
 
@@ -31,6 +32,7 @@ public class OperatorQRScannerFragment extends Fragment {
     private Button btnScanQR, btnRefreshStatus, btnViewHistory;
     private TextView tvWelcome, tvInstructions, tvActiveSessions, tvAvailableSlots;
     private OperatorService operatorService;
+    private OperatorSessionStore sessionStore;
 
     @Nullable
     @Override
@@ -38,6 +40,7 @@ public class OperatorQRScannerFragment extends Fragment {
         View view = inflater.inflate(R.layout.fragment_operator_qr_scanner, container, false);
         
         operatorService = new OperatorService(requireContext());
+        sessionStore = OperatorSessionStore.getInstance(requireContext());
         initViews(view);
         setupClickListeners();
         loadStationStatus();
@@ -112,35 +115,25 @@ public class OperatorQRScannerFragment extends Fragment {
     }
 
     private void loadStationStatus() {
-        // Load session history to calculate active sessions
-        operatorService.getSessionHistory(new OperatorService.SessionHistoryCallback() {
+        // Show the stored counters straight away, then sync the sessions that changed
+        showStationStatus();
+        // Fetch the QR key and today's bookings while the uplink is up, ready for the next scan
+        operatorService.syncQRVerificationData(new OperatorService.BookingOperationCallback() {
             @Override
-            public void onSuccess(java.util.List<com.ead.zap.api.services.BookingApiService.SessionHistoryResponseDTO> sessions) {
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        // Count active sessions (status = IN_PROGRESS)
-                        int activeSessions = 0;
-                        for (com.ead.zap.api.services.BookingApiService.SessionHistoryResponseDTO session : sessions) {
-                            // Count sessions that are currently active/in progress
-                            if (session.getStatus() != null && 
-                                (session.getStatus().equals("InProgress") || 
-                                 session.getStatus().equals("IN_PROGRESS") ||
-                                 session.getStatusDisplayName() != null && 
-                                 session.getStatusDisplayName().equals("In Progress"))) {
-                                activeSessions++;
-                            }
-                        }
-                        
-                        // Update UI with real data
-                        tvActiveSessions.setText(String.valueOf(activeSessions));
-                        
-                        // Calculate available slots (assuming 5 total slots as example)
-                        int totalSlots = 5;
-                        int availableSlots = Math.max(0, totalSlots - activeSessions);
-                        tvAvailableSlots.setText(String.valueOf(availableSlots));
-                        
-                        Log.d(TAG, "Station status updated: " + activeSessions + " active, " + availableSlots + " available");
-                    });
+            public void onSuccess(String message) {
+                Log.d(TAG, message);
+            }
+
+            @Override
+            public void onError(String error) {
+                Log.w(TAG, "QR verification data not refreshed: " + error);
+            }
+        });
+        operatorService.syncSessionHistory(new OperatorService.BookingOperationCallback() {
+            @Override
+            public void onSuccess(String message) {
+                if (isAdded()) {
+                    showStationStatus();
                 }
             }
 
@@ -149,12 +142,34 @@ public class OperatorQRScannerFragment extends Fragment {
                 if (getActivity() != null) {
                     getActivity().runOnUiThread(() -> {
                         Log.e(TAG, "Failed to load station status: " + error);
-                        // Show fallback values
-                        tvActiveSessions.setText("0");
-                        tvAvailableSlots.setText("5");
+                        if (sessionStore.getStats() == null) {
+                            // Show fallback values
+                            tvActiveSessions.setText("0");
+                            tvAvailableSlots.setText("5");
+                        }
                     });
                 }
             }
         });
     }
+
+    /**
+     * Update the counters from the session store's running aggregates
+     */
+    private void showStationStatus() {
+        OperatorSessionStore.SessionStats stats = sessionStore.getStats();
+        if (stats == null) {
+            return;
+        }
+        int activeSessions = stats.getActiveSessions();
+        tvActiveSessions.setText(String.valueOf(activeSessions));
+        
+        // Calculate available slots (assuming 5 total slots as example)
+        int totalSlots = 5;
+        int availableSlots = Math.max(0, totalSlots - activeSessions);
+        tvAvailableSlots.setText(String.valueOf(availableSlots));
+        
+        Log.d(TAG, "Station status updated: " + activeSessions + " active, " + availableSlots + " available, "
+                + stats.getTodaySessions() + " sessions today");
+    }
 }
\ No newline at end of file
@@ -1,15 +1,21 @@
 package com.ead.zap.ui.operator;
 
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentTransaction;
+import androidx.lifecycle.Lifecycle;
 
 import com.ead.zap.R;
 import com.ead.zap.ui.profile.ProfileFragment;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 public class StationOperatorMain extends AppCompatActivity {
+    private static final String TAG = "StationOperatorMain";
+    private static final String TAB_TAG_PREFIX = "tab_";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -22,9 +28,9 @@ public class StationOperatorMain extends AppCompatActivity {
                 bottomNavigationView.setOnNavigationItemSelectedListener(navListener);
             }
 
-            // Load the default fragment
+            // Load the default fragment; after recreation the fragment manager restores the tabs
             if (savedInstanceState == null) {
-                loadFragment(new OperatorQRScannerFragment());
+                showTab(R.id.navigation_scanner);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -34,33 +40,70 @@ public class StationOperatorMain extends AppCompatActivity {
 
     private final BottomNavigationView.OnNavigationItemSelectedListener navListener =
             item -> {
-                Fragment selectedFragment = null;
-
-                int itemId = item.getItemId();
-                if (itemId == R.id.navigation_scanner) {
-                    selectedFragment = new OperatorQRScannerFragment();
-                } else if (itemId == R.id.navigation_history) {
-                    selectedFragment = new OperatorHistoryFragment();
-                } else if (itemId == R.id.navigation_profile) {
-                    selectedFragment = new ProfileFragment();
-                }
-
-                if (selectedFragment != null) {
-                    loadFragment(selectedFragment);
-                }
-
+                showTab(item.getItemId());
                 return true;
             };
 
-    private void loadFragment(Fragment fragment) {
+    /**
+     * Show the fragment for a tab, creating it the first time.
+     * Other tabs are hidden and capped at STARTED so they keep their views
+     * and loaded history instead of being rebuilt on every tap.
+     */
+    private void showTab(int itemId) {
         try {
-            if (fragment != null && !isFinishing()) {
-                FragmentTransaction transaction = getSupportFragmentManager().beginTransaction();
-                transaction.replace(R.id.fragment_container_operator, fragment);
-                transaction.commitAllowingStateLoss();
+            if (isFinishing()) {
+                return;
+            }
+            long start = SystemClock.elapsedRealtime();
+            FragmentManager fragmentManager = getSupportFragmentManager();
+            String tag = TAB_TAG_PREFIX + itemId;
+            Fragment target = fragmentManager.findFragmentByTag(tag);
+            if (target != null && !target.isHidden()) {
+                return;
+            }
+
+            FragmentTransaction transaction = fragmentManager.beginTransaction();
+            transaction.setReorderingAllowed(true);
+            for (Fragment fragment : fragmentManager.getFragments()) {
+                if (fragment != target && isTabFragment(fragment) && !fragment.isHidden()) {
+                    transaction.hide(fragment);
+                    transaction.setMaxLifecycle(fragment, Lifecycle.State.STARTED);
+                }
             }
+
+            boolean created = target == null;
+            if (created) {
+                target = createTabFragment(itemId);
+                if (target == null) {
+                    return;
+                }
+                transaction.add(R.id.fragment_container_operator, target, tag);
+            } else {
+                transaction.show(target);
+                transaction.setMaxLifecycle(target, Lifecycle.State.RESUMED);
+            }
+            transaction.commitNowAllowingStateLoss();
+
+            Log.d(TAG, "Tab switch to " + target.getClass().getSimpleName()
+                    + (created ? " (created)" : " (reused)") + " took "
+                    + (SystemClock.elapsedRealtime() - start) + " ms");
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    private Fragment createTabFragment(int itemId) {
+        if (itemId == R.id.navigation_scanner) {
+            return new OperatorQRScannerFragment();
+        } else if (itemId == R.id.navigation_history) {
+            return new OperatorHistoryFragment();
+        } else if (itemId == R.id.navigation_profile) {
+            return new ProfileFragment();
+        }
+        return null;
+    }
+
+    private static boolean isTabFragment(Fragment fragment) {
+        return fragment.getTag() != null && fragment.getTag().startsWith(TAB_TAG_PREFIX);
+    }
+}
@@ -6,20 +6,24 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.ead.zap.R;
 import com.ead.zap.ui.operator.models.SessionHistoryItem;
 
-import java.util.List;
+import java.util.Objects;
 
-public class SessionHistoryAdapter extends RecyclerView.Adapter<SessionHistoryAdapter.SessionHistoryViewHolder> {
+/**
+ * Session history list. Rows arrive preformatted and are diffed off the main thread by submitList.
+ */
+public class SessionHistoryAdapter extends ListAdapter<SessionHistoryItem, SessionHistoryAdapter.SessionHistoryViewHolder> {
 
-    private List<SessionHistoryItem> historyItems;
     private OnSessionClickListener clickListener;
 
-    public SessionHistoryAdapter(List<SessionHistoryItem> historyItems) {
-        this.historyItems = historyItems;
+    public SessionHistoryAdapter() {
+        super(new DiffCallback());
     }
 
     public interface OnSessionClickListener {
@@ -35,25 +39,21 @@ public class SessionHistoryAdapter extends RecyclerView.Adapter<SessionHistoryAd
     public SessionHistoryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_session_history, parent, false);
-        return new SessionHistoryViewHolder(view);
-    }
+        SessionHistoryViewHolder holder = new SessionHistoryViewHolder(view);
 
-    @Override
-    public void onBindViewHolder(@NonNull SessionHistoryViewHolder holder, int position) {
-        SessionHistoryItem item = historyItems.get(position);
-        holder.bind(item);
-        
-        // Set click listener
-        holder.itemView.setOnClickListener(v -> {
-            if (clickListener != null) {
-                clickListener.onSessionClick(item);
+        // Set click listener once per view holder
+        view.setOnClickListener(v -> {
+            int position = holder.getAdapterPosition();
+            if (clickListener != null && position != RecyclerView.NO_POSITION) {
+                clickListener.onSessionClick(getItem(position));
             }
         });
+        return holder;
     }
 
     @Override
-    public int getItemCount() {
-        return historyItems.size();
+    public void onBindViewHolder(@NonNull SessionHistoryViewHolder holder, int position) {
+        holder.bind(getItem(position));
     }
 
     static class SessionHistoryViewHolder extends RecyclerView.ViewHolder {
@@ -72,21 +72,26 @@ public class SessionHistoryAdapter extends RecyclerView.Adapter<SessionHistoryAd
         }
 
         public void bind(SessionHistoryItem item) {
-            // Format booking ID as a reference (show only last 6 characters)
-            String bookingRef = "Ref: ";
-            if (item.getBookingId() != null && item.getBookingId().length() > 6) {
-                bookingRef += "..." + item.getBookingId().substring(item.getBookingId().length() - 6);
-            } else {
-                bookingRef += item.getBookingId();
-            }
-            tvBookingId.setText(bookingRef);
-            
+            tvBookingId.setText(item.getBookingRef());
             tvCustomerName.setText(item.getCustomerName());
-            tvStationSlot.setText(item.getStationId() + " / " + item.getSlotNumber());
+            tvStationSlot.setText(item.getStationSlot());
             tvDate.setText(item.getDate());
             tvTimeRange.setText(item.getTimeRange());
             tvEnergyDelivered.setText(item.getEnergyDelivered());
             tvStatus.setText(item.getStatus());
         }
     }
-}
\ No newline at end of file
+
+    static class DiffCallback extends DiffUtil.ItemCallback<SessionHistoryItem> {
+        @Override
+        public boolean areItemsTheSame(@NonNull SessionHistoryItem oldItem, @NonNull SessionHistoryItem newItem) {
+            return Objects.equals(oldItem.getBookingId(), newItem.getBookingId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull SessionHistoryItem oldItem, @NonNull SessionHistoryItem newItem) {
+            // Unchanged sessions reuse the same cached row
+            return oldItem == newItem || Objects.equals(oldItem.getVersion(), newItem.getVersion());
+        }
+    }
+}
@@ -11,10 +11,9 @@ import androidx.annotation.NonNull;
 
 import com.ead.zap.R;
 import com.ead.zap.api.services.BookingApiService;
+import com.ead.zap.utils.DateTimeCodec;
 
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Locale;
 
 public class SessionDetailDialog extends Dialog {
     
@@ -106,9 +105,6 @@ public class SessionDetailDialog extends Dialog {
             tvStation.setText(stationName);
 
             // Date and Time
-            SimpleDateFormat dateFormat = new SimpleDateFormat("MMM d, yyyy", Locale.getDefault());
-            SimpleDateFormat timeFormat = new SimpleDateFormat("h:mm a", Locale.getDefault());
-
             String dateText = "N/A";
             String timeRangeText = "N/A";
 
@@ -120,16 +116,16 @@ public class SessionDetailDialog extends Dialog {
                 Date endDate = parseISODate(sessionHistory.getActualEndTime());
                 
                 if (startDate != null && endDate != null) {
-                    dateText = dateFormat.format(startDate);
-                    timeRangeText = timeFormat.format(startDate) + " - " + timeFormat.format(endDate);
+                    dateText = DateTimeCodec.formatDisplay(startDate, DateTimeCodec.SHORT_DATE_PATTERN);
+                    timeRangeText = DateTimeCodec.formatDisplay(startDate, DateTimeCodec.SHORT_TIME_PATTERN) + " - " + DateTimeCodec.formatDisplay(endDate, DateTimeCodec.SHORT_TIME_PATTERN);
                 }
             } else if (sessionHistory.getReservationDateTime() != null && !sessionHistory.getReservationDateTime().isEmpty()) {
                 Date reservationDate = parseISODate(sessionHistory.getReservationDateTime());
                 if (reservationDate != null) {
-                    dateText = dateFormat.format(reservationDate);
+                    dateText = DateTimeCodec.formatDisplay(reservationDate, DateTimeCodec.SHORT_DATE_PATTERN);
                     long endTimeMillis = reservationDate.getTime() + (sessionHistory.getDurationMinutes() * 60000L);
                     Date endDate = new Date(endTimeMillis);
-                    timeRangeText = timeFormat.format(reservationDate) + " - " + timeFormat.format(endDate) + " (Scheduled)";
+                    timeRangeText = DateTimeCodec.formatDisplay(reservationDate, DateTimeCodec.SHORT_TIME_PATTERN) + " - " + DateTimeCodec.formatDisplay(endDate, DateTimeCodec.SHORT_TIME_PATTERN) + " (Scheduled)";
                 }
             }
 
@@ -179,19 +175,11 @@ public class SessionDetailDialog extends Dialog {
         if (isoDateString == null || isoDateString.isEmpty()) {
             return null;
         }
-        
-        try {
-            SimpleDateFormat isoFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.getDefault());
-            return isoFormat.parse(isoDateString);
-        } catch (Exception e) {
-            try {
-                SimpleDateFormat fallbackFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.getDefault());
-                return fallbackFormat.parse(isoDateString);
-            } catch (Exception e2) {
-                android.util.Log.w("SessionDetailDialog", "Failed to parse date: " + isoDateString, e2);
-                return null;
-            }
+        Date date = DateTimeCodec.parse(isoDateString);
+        if (date == null) {
+            android.util.Log.w("SessionDetailDialog", "Failed to parse date: " + isoDateString);
         }
+        return date;
     }
 
     private String formatStatusName(String status) {
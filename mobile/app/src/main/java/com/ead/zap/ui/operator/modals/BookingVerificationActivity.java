@@ -11,10 +11,24 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.cardview.widget.CardView;
 
 import com.ead.zap.R;
+import com.ead.zap.services.OfflineQRVerifier;
 import com.ead.zap.services.OperatorService;
 
 public class BookingVerificationActivity extends AppCompatActivity {
 
+    private static final String STATE_SERVER_REJECTION = "server_rejection";
+
+    private String bookingId;
+    // The server's reason for turning down a code the device had verified
+    private String serverRejection;
+    private OfflineQRVerifier qrVerifier;
+    private final OfflineQRVerifier.RejectionListener rejectionListener = (rejectedId, error) -> {
+        if (rejectedId.equals(bookingId) && serverRejection == null) {
+            serverRejection = error;
+            blockSession();
+            Toast.makeText(this, "Server rejected this QR code: " + error, Toast.LENGTH_LONG).show();
+        }
+    };
     private TextView tvBookingId, tvCustomerName, tvStationId, tvSlotNumber, tvStartTime, tvEndTime;
     private Button btnStartSession, btnReject;
     private CardView cardBookingDetails;
@@ -27,11 +41,58 @@ public class BookingVerificationActivity extends AppCompatActivity {
 
         // Initialize services
         operatorService = new OperatorService(this);
+        qrVerifier = OfflineQRVerifier.getInstance(this);
 
         initViews();
         setupToolbar();
         loadBookingData();
         setupClickListeners();
+
+        if (savedInstanceState != null) {
+            serverRejection = savedInstanceState.getString(STATE_SERVER_REJECTION);
+        }
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        qrVerifier.addRejectionListener(rejectionListener);
+
+        // The server may have answered while this screen was stopped or being recreated
+        String rejection = qrVerifier.getServerRejection(bookingId);
+        if (rejection != null && serverRejection == null) {
+            Toast.makeText(this, "Server rejected this QR code: " + rejection, Toast.LENGTH_LONG).show();
+            serverRejection = rejection;
+        }
+        if (serverRejection != null) {
+            blockSession();
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        qrVerifier.removeRejectionListener(rejectionListener);
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putString(STATE_SERVER_REJECTION, serverRejection);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // Kept across a configuration change; only dropped once the booking is done with
+        if (isFinishing()) {
+            qrVerifier.clearServerRejection(bookingId);
+        }
+    }
+
+    private void blockSession() {
+        btnStartSession.setEnabled(false);
+        btnStartSession.setText("Rejected");
     }
 
     private void initViews() {
@@ -57,7 +118,7 @@ public class BookingVerificationActivity extends AppCompatActivity {
 
     private void loadBookingData() {
         Intent intent = getIntent();
-        String bookingId = intent.getStringExtra("booking_id");
+        bookingId = intent.getStringExtra("booking_id");
         String customerName = intent.getStringExtra("customer_name");
         String stationId = intent.getStringExtra("station_id");
         String slotNumber = intent.getStringExtra("slot_number");
@@ -85,6 +146,9 @@ public class BookingVerificationActivity extends AppCompatActivity {
     }
 
     private void startBookingSession() {
+        if (serverRejection != null) {
+            return;
+        }
         String bookingId = tvBookingId.getText().toString();
         
         // Disable button to prevent multiple clicks
@@ -116,9 +180,13 @@ public class BookingVerificationActivity extends AppCompatActivity {
                     Toast.makeText(BookingVerificationActivity.this, 
                         "Failed to start session: " + error, Toast.LENGTH_LONG).show();
                     
-                    // Re-enable button
-                    btnStartSession.setEnabled(true);
-                    btnStartSession.setText("Start Session");
+                    // Re-enable button, unless the server rejected the code meanwhile
+                    if (serverRejection != null) {
+                        blockSession();
+                    } else {
+                        btnStartSession.setEnabled(true);
+                        btnStartSession.setText("Start Session");
+                    }
                 });
             }
         });
@@ -2,6 +2,8 @@ package com.ead.zap.ui.operator.modals;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
@@ -19,6 +21,7 @@ import java.util.Collection;
 import java.util.List;
 
 public class QRScannerActivity extends AppCompatActivity {
+    private static final String TAG = "QRScannerActivity";
 
     private DecoratedBarcodeView barcodeView;
     private boolean isScanning = false;
@@ -57,16 +60,33 @@ public class QRScannerActivity extends AppCompatActivity {
 
         // Set status text
         barcodeView.setStatusText("Scan a customer's QR code");
+
+        // Refresh the key and today's bookings while the camera starts, so scans verify on the device
+        operatorService.syncQRVerificationData(new OperatorService.BookingOperationCallback() {
+            @Override
+            public void onSuccess(String message) {
+                Log.d(TAG, message);
+            }
+
+            @Override
+            public void onError(String error) {
+                // Scans fall back to the cached data, or to the server
+                Log.w(TAG, "QR verification data not refreshed: " + error);
+            }
+        });
     }
 
     private void handleQRResult(String qrData) {
         // Show loading while verifying QR code
         barcodeView.setStatusText("Verifying QR code...");
+        long scannedAt = SystemClock.elapsedRealtime();
         
-        // Use OperatorService to verify QR code with backend
+        // Verified on the device when possible, otherwise by the backend
         operatorService.verifyQRCode(qrData, new OperatorService.QRVerificationCallback() {
             @Override
             public void onSuccess(OperatorService.BookingVerificationResult result) {
+                Log.d(TAG, "Scan to verified: " + (SystemClock.elapsedRealtime() - scannedAt) + " ms ("
+                        + (result.isVerifiedOffline() ? "on device" : "server") + ")");
                 runOnUiThread(() -> {
                     if (result.isValid()) {
                         // Navigate to booking verification with verified data
@@ -97,6 +117,12 @@ public class QRScannerActivity extends AppCompatActivity {
                     resetScanning();
                 });
             }
+
+            @Override
+            public void onServerRejected(String error) {
+                // This screen has closed by now; the verification screen is told by OfflineQRVerifier
+                Log.w(TAG, "Server rejected a QR code verified on the device: " + error);
+            }
         });
     }
 
@@ -1,20 +1,31 @@
 package com.ead.zap.ui.operator.models;
 
+/**
+ * Immutable display row for the operator session history list.
+ * Every string is formatted once when the row is built, so binding only sets text.
+ */
 public class SessionHistoryItem {
-    private String bookingId;
-    private String customerName;
-    private String stationId;
-    private String slotNumber;
-    private String date;
-    private String timeRange;
-    private String energyDelivered;
-    private String status;
+    private final String bookingId;
+    private final String bookingRef;
+    private final String customerName;
+    private final String stationId;
+    private final String slotNumber;
+    private final String stationSlot;
+    private final String date;
+    private final String timeRange;
+    private final String energyDelivered;
+    private final String status;
+
+    // Changes whenever the underlying session changes; used for list diffing
+    private final String version;
     
     // Store the full session data for detailed view
-    private com.ead.zap.api.services.BookingApiService.SessionHistoryResponseDTO fullSessionData;
+    private final com.ead.zap.api.services.BookingApiService.SessionHistoryResponseDTO fullSessionData;
 
     public SessionHistoryItem(String bookingId, String customerName, String stationId, String slotNumber, 
-                             String date, String timeRange, String energyDelivered, String status) {
+                             String date, String timeRange, String energyDelivered, String status,
+                             String version,
+                             com.ead.zap.api.services.BookingApiService.SessionHistoryResponseDTO fullSessionData) {
         this.bookingId = bookingId;
         this.customerName = customerName;
         this.stationId = stationId;
@@ -23,39 +34,32 @@ public class SessionHistoryItem {
         this.timeRange = timeRange;
         this.energyDelivered = energyDelivered;
         this.status = status;
-    }
-    
-    public SessionHistoryItem(String bookingId, String customerName, String stationId, String slotNumber, 
-                             String date, String timeRange, String energyDelivered, String status,
-                             com.ead.zap.api.services.BookingApiService.SessionHistoryResponseDTO fullSessionData) {
-        this(bookingId, customerName, stationId, slotNumber, date, timeRange, energyDelivered, status);
+        this.version = version;
         this.fullSessionData = fullSessionData;
+
+        // Show only the last 6 characters of the booking ID as a reference
+        if (bookingId != null && bookingId.length() > 6) {
+            this.bookingRef = "Ref: ..." + bookingId.substring(bookingId.length() - 6);
+        } else {
+            this.bookingRef = "Ref: " + bookingId;
+        }
+        this.stationSlot = stationId + " / " + slotNumber;
     }
 
     // Getters
     public String getBookingId() { return bookingId; }
+    public String getBookingRef() { return bookingRef; }
     public String getCustomerName() { return customerName; }
     public String getStationId() { return stationId; }
     public String getSlotNumber() { return slotNumber; }
+    public String getStationSlot() { return stationSlot; }
     public String getDate() { return date; }
     public String getTimeRange() { return timeRange; }
     public String getEnergyDelivered() { return energyDelivered; }
     public String getStatus() { return status; }
+    public String getVersion() { return version; }
 
     public com.ead.zap.api.services.BookingApiService.SessionHistoryResponseDTO getFullSessionData() { 
         return fullSessionData; 
     }
-
-    // Setters
-    public void setBookingId(String bookingId) { this.bookingId = bookingId; }
-    public void setCustomerName(String customerName) { this.customerName = customerName; }
-    public void setStationId(String stationId) { this.stationId = stationId; }
-    public void setSlotNumber(String slotNumber) { this.slotNumber = slotNumber; }
-    public void setDate(String date) { this.date = date; }
-    public void setTimeRange(String timeRange) { this.timeRange = timeRange; }
-    public void setEnergyDelivered(String energyDelivered) { this.energyDelivered = energyDelivered; }
-    public void setStatus(String status) { this.status = status; }
-    public void setFullSessionData(com.ead.zap.api.services.BookingApiService.SessionHistoryResponseDTO fullSessionData) { 
-        this.fullSessionData = fullSessionData; 
-    }
-}
\ No newline at end of file
+}
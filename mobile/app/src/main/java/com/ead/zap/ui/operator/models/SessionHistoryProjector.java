@@ -0,0 +1,172 @@
+package com.ead.zap.ui.operator.models;
+
+import android.util.Log;
+
+import com.ead.zap.api.services.BookingApiService;
+import com.ead.zap.models.BookingStatus;
+import com.ead.zap.utils.DateTimeCodec;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Builds session history display rows from API sessions.
+ * Rows are cached by booking id and version (the session's updatedAt, or a
+ * fingerprint of its mutable fields for servers that do not send one), so a
+ * refresh only formats sessions that are new or changed and unchanged rows
+ * keep their identity for the list diff. Meant to run off the main thread.
+ */
+public class SessionHistoryProjector {
+    private static final String TAG = "SessionHistoryProjector";
+
+    private static final double ESTIMATED_KW = 7.5; // 7.5 kWh per hour
+
+    private final Map<String, SessionHistoryItem> rows = new HashMap<>();
+
+    /**
+     * Rows for the given sessions, in the same order
+     */
+    public synchronized List<SessionHistoryItem> project(List<BookingApiService.SessionHistoryResponseDTO> sessions) {
+        List<SessionHistoryItem> result = new ArrayList<>(sessions.size());
+        Map<String, SessionHistoryItem> current = new HashMap<>(sessions.size() * 2);
+        int built = 0;
+
+        for (BookingApiService.SessionHistoryResponseDTO session : sessions) {
+            String version = versionOf(session);
+            SessionHistoryItem row = session.getBookingId() != null ? rows.get(session.getBookingId()) : null;
+            if (row == null || !version.equals(row.getVersion())) {
+                row = buildRow(session, version);
+                built++;
+            }
+            if (session.getBookingId() != null) {
+                current.put(session.getBookingId(), row);
+            }
+            result.add(row);
+        }
+
+        // Drop rows for sessions that are gone
+        rows.clear();
+        rows.putAll(current);
+        Log.d(TAG, "Projected " + result.size() + " sessions, formatted " + built);
+        return result;
+    }
+
+    private static String versionOf(BookingApiService.SessionHistoryResponseDTO session) {
+        if (session.getUpdatedAt() != null) {
+            return session.getUpdatedAt();
+        }
+        return "h" + Objects.hash(session.getStatus(), session.getStatusDisplayName(),
+                session.getReservationDateTime(), session.getDurationMinutes(),
+                session.getActualStartTime(), session.getActualEndTime(), session.getEnergyDelivered(),
+                session.getEvOwnerName(), session.getChargingStationName());
+    }
+
+    private SessionHistoryItem buildRow(BookingApiService.SessionHistoryResponseDTO session, String version) {
+        String date = "N/A";
+        String timeRange = "N/A";
+
+        // Parse each timestamp once
+        Date actualStart = parseDate(session.getActualStartTime());
+        Date actualEnd = parseDate(session.getActualEndTime());
+
+        // Prefer actual start and end times (completed sessions)
+        if (actualStart != null && actualEnd != null) {
+            date = DateTimeCodec.formatDisplay(actualStart, DateTimeCodec.SHORT_DATE_PATTERN);
+            timeRange = DateTimeCodec.formatDisplay(actualStart, DateTimeCodec.SHORT_TIME_PATTERN) + " - "
+                    + DateTimeCodec.formatDisplay(actualEnd, DateTimeCodec.SHORT_TIME_PATTERN);
+        } else {
+            // Fallback to reservation time plus scheduled duration
+            Date reservation = parseDate(session.getReservationDateTime());
+            if (reservation != null) {
+                Date scheduledEnd = new Date(reservation.getTime() + session.getDurationMinutes() * 60000L);
+                date = DateTimeCodec.formatDisplay(reservation, DateTimeCodec.SHORT_DATE_PATTERN);
+                timeRange = DateTimeCodec.formatDisplay(reservation, DateTimeCodec.SHORT_TIME_PATTERN) + " - "
+                        + DateTimeCodec.formatDisplay(scheduledEnd, DateTimeCodec.SHORT_TIME_PATTERN) + " (Scheduled)";
+            }
+        }
+
+        // Energy delivered, or an estimate from the actual or scheduled duration
+        String energy = "N/A";
+        if (session.getEnergyDelivered() != null && session.getEnergyDelivered() > 0) {
+            energy = formatEnergy(session.getEnergyDelivered(), "");
+        } else if (actualStart != null && actualEnd != null) {
+            double actualHours = (actualEnd.getTime() - actualStart.getTime()) / (1000.0 * 60 * 60);
+            energy = formatEnergy(actualHours * ESTIMATED_KW, "");
+        } else if (session.getDurationMinutes() > 0) {
+            energy = formatEnergy(session.getDurationMinutes() / 60.0 * ESTIMATED_KW, " (Est.)");
+        }
+
+        // Use the proper customer name and add vehicle info
+        String customerName = session.getEvOwnerName();
+        if (customerName == null || customerName.trim().isEmpty() || "Unknown Customer".equals(customerName)) {
+            String nic = session.getEvOwnerNIC() != null ? session.getEvOwnerNIC() : "";
+            customerName = "Customer (" + nic.substring(0, Math.min(4, nic.length())) + "***)";
+        }
+        if (session.getCustomerVehicles() != null && !session.getCustomerVehicles().isEmpty()) {
+            BookingApiService.VehicleDetailDTO vehicle = session.getCustomerVehicles().get(0);
+            if (vehicle.getMake() != null && !vehicle.getMake().isEmpty()) {
+                customerName += "\n" + vehicle.getMake() + " " + vehicle.getModel() + " (" + vehicle.getLicensePlate() + ")";
+            }
+        }
+
+        String stationInfo = session.getChargingStationName() != null ?
+                session.getChargingStationName() :
+                "Station " + session.getChargingStationId();
+
+        String displayStatus = "Unknown";
+        if (session.getStatusDisplayName() != null && !session.getStatusDisplayName().trim().isEmpty()) {
+            displayStatus = session.getStatusDisplayName();
+        } else if (session.getStatus() != null && !session.getStatus().trim().isEmpty()) {
+            displayStatus = formatStatusName(session.getStatus());
+        }
+
+        return new SessionHistoryItem(
+                session.getBookingId(),
+                customerName,
+                stationInfo,
+                "A1", // Default slot - this could be enhanced if slot info is available
+                date,
+                timeRange,
+                energy,
+                displayStatus,
+                version,
+                session // Pass the full session data for detailed view
+        );
+    }
+
+    private static Date parseDate(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        Date date = DateTimeCodec.parse(value);
+        if (date == null) {
+            Log.w(TAG, "Failed to parse date: " + value);
+        }
+        return date;
+    }
+
+    /**
+     * One decimal place without String.format
+     */
+    private static String formatEnergy(double kwh, String suffix) {
+        long tenths = Math.round(Math.abs(kwh) * 10);
+        return (kwh < 0 && tenths > 0 ? "-" : "") + tenths / 10 + "." + tenths % 10 + " kWh" + suffix;
+    }
+
+    /**
+     * Format status name for display - handles both numeric and string values
+     */
+    private static String formatStatusName(String status) {
+        // Try to parse as numeric first (backend sends numbers)
+        try {
+            return BookingStatus.fromValue(Integer.parseInt(status.trim())).getDisplayName();
+        } catch (NumberFormatException e) {
+            // Not a number, use the BookingStatus enum's string parsing
+            return BookingStatus.fromString(status).getDisplayName();
+        }
+    }
+}
@@ -1,15 +1,22 @@
 package com.ead.zap.ui.owner;
 
 
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
+import android.os.StrictMode;
+import android.os.SystemClock;
+import android.util.Log;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentTransaction;
+import androidx.lifecycle.Lifecycle;
 
 import android.content.Intent;
 
 import com.ead.zap.R;
+import com.ead.zap.maps.MapWarmup;
 import com.ead.zap.services.AuthService;
 import com.ead.zap.ui.auth.LoginActivity;
 import com.ead.zap.ui.profile.ProfileFragment;
@@ -17,9 +24,12 @@ import com.ead.zap.utils.PreferenceManager;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 public class EVOwnerMain extends AppCompatActivity {
+    private static final String TAG = "EVOwnerMain";
+    private static final String TAB_TAG_PREFIX = "tab_";
     
     private AuthService authService;
     private PreferenceManager preferenceManager;
+    private BottomNavigationView bottomNavigationView;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -34,22 +44,35 @@ public class EVOwnerMain extends AppCompatActivity {
             return;
         }
         
+        // Flag main-thread disk access in debug builds, e.g. map setup that missed the warm-up
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectDiskReads()
+                    .detectDiskWrites()
+                    .penaltyLog()
+                    .build());
+        }
+
+        // No-op when the login screen already started it
+        MapWarmup.getInstance(this).warmUpAsync();
+        
         try {
             setContentView(R.layout.activity_owner_main);
 
-            BottomNavigationView bottomNavigationView = findViewById(R.id.bottom_navigation);
+            bottomNavigationView = findViewById(R.id.bottom_navigation);
             if (bottomNavigationView != null) {
                 bottomNavigationView.setOnNavigationItemSelectedListener(navListener);
             }
 
-            // Load the default fragment or specified fragment
+            // Load the default fragment or specified fragment.
+            // After recreation the fragment manager restores the tabs itself.
             if (savedInstanceState == null) {
                 // Check if we should open the bookings tab directly
                 if (getIntent().getBooleanExtra("open_bookings_tab", false)) {
-                    loadFragment(new OwnerBookingsFragment());
+                    showTab(R.id.navigation_bookings);
                     bottomNavigationView.setSelectedItemId(R.id.navigation_bookings);
                 } else {
-                    loadFragment(new OwnerHomeFragment());
+                    showTab(R.id.navigation_home);
                 }
             }
         } catch (Exception e) {
@@ -61,37 +84,86 @@ public class EVOwnerMain extends AppCompatActivity {
 
     private final BottomNavigationView.OnNavigationItemSelectedListener navListener =
             item -> {
-                Fragment selectedFragment = null;
-
-                int itemId = item.getItemId();
-                if (itemId == R.id.navigation_home) {
-                    selectedFragment = new OwnerHomeFragment();
-                } else if (itemId == R.id.navigation_bookings) {
-                    selectedFragment = new OwnerBookingsFragment();
-                } else if (itemId == R.id.navigation_map) {
-                    selectedFragment = new OwnerMapsFragment();
-                } else if (itemId == R.id.navigation_profile) {
-                    selectedFragment = new ProfileFragment();
-                }
-
-                if (selectedFragment != null) {
-                    loadFragment(selectedFragment);
-                }
-
+                showTab(item.getItemId());
                 return true;
             };
 
-    private void loadFragment(Fragment fragment) {
+    /**
+     * Switch to a bottom navigation tab from inside one of the tab fragments
+     */
+    public void selectTab(int itemId) {
+        if (bottomNavigationView != null) {
+            bottomNavigationView.setSelectedItemId(itemId);
+        } else {
+            showTab(itemId);
+        }
+    }
+
+    /**
+     * Show the fragment for a tab, creating it the first time.
+     * Tab fragments are kept alive: the others are hidden and capped at STARTED,
+     * so they get onPause but keep their views (map position, markers, lists)
+     * and do not reload when the user comes back.
+     */
+    private void showTab(int itemId) {
         try {
-            if (fragment != null && !isFinishing()) {
-                FragmentTransaction transaction = getSupportFragmentManager().beginTransaction();
-                transaction.replace(R.id.fragment_container, fragment);
-                transaction.commitAllowingStateLoss(); // Use this to prevent IllegalStateException
+            if (isFinishing()) {
+                return;
             }
+            long start = SystemClock.elapsedRealtime();
+            FragmentManager fragmentManager = getSupportFragmentManager();
+            String tag = TAB_TAG_PREFIX + itemId;
+            Fragment target = fragmentManager.findFragmentByTag(tag);
+            if (target != null && !target.isHidden()) {
+                return;
+            }
+
+            FragmentTransaction transaction = fragmentManager.beginTransaction();
+            transaction.setReorderingAllowed(true);
+            for (Fragment fragment : fragmentManager.getFragments()) {
+                if (fragment != target && isTabFragment(fragment) && !fragment.isHidden()) {
+                    transaction.hide(fragment);
+                    transaction.setMaxLifecycle(fragment, Lifecycle.State.STARTED);
+                }
+            }
+
+            boolean created = target == null;
+            if (created) {
+                target = createTabFragment(itemId);
+                if (target == null) {
+                    return;
+                }
+                transaction.add(R.id.fragment_container, target, tag);
+            } else {
+                transaction.show(target);
+                transaction.setMaxLifecycle(target, Lifecycle.State.RESUMED);
+            }
+            transaction.commitNowAllowingStateLoss(); // Use this to prevent IllegalStateException
+
+            Log.d(TAG, "Tab switch to " + target.getClass().getSimpleName()
+                    + (created ? " (created)" : " (reused)") + " took "
+                    + (SystemClock.elapsedRealtime() - start) + " ms");
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+
+    private Fragment createTabFragment(int itemId) {
+        if (itemId == R.id.navigation_home) {
+            return new OwnerHomeFragment();
+        } else if (itemId == R.id.navigation_bookings) {
+            return new OwnerBookingsFragment();
+        } else if (itemId == R.id.navigation_map) {
+            return new OwnerMapsFragment();
+        } else if (itemId == R.id.navigation_profile) {
+            return new ProfileFragment();
+        }
+        return null;
+    }
+
+    private static boolean isTabFragment(Fragment fragment) {
+        return fragment.getTag() != null && fragment.getTag().startsWith(TAB_TAG_PREFIX);
+    }
     
     @Override
     protected void onResume() {
@@ -22,11 +22,15 @@ import android.widget.TextView;
 
 import com.ead.zap.R;
 import com.ead.zap.models.Booking;
+import com.ead.zap.models.BookingStatus;
 import com.ead.zap.services.BookingService;
+import com.ead.zap.services.BookingStatusStream;
+import com.ead.zap.services.BookingStore;
 import com.ead.zap.ui.owner.modals.CreateBookingActivity;
 import com.ead.zap.ui.owner.modals.ModifyReservationActivity;
 import com.ead.zap.ui.owner.modals.CancelReservationActivity;
 import com.ead.zap.ui.owner.modals.QRCodeActivity;
+import com.ead.zap.utils.PageWindow;
 
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -42,6 +46,22 @@ public class OwnerBookingsFragment extends Fragment {
     // Services
     private BookingService bookingService;
 
+    // Both tabs are rendered from the shared booking snapshot, which modify and cancel update in place
+    private BookingStore bookingStore;
+    private final BookingStore.Listener storeListener = this::showUpcomingFromStore;
+    // Pushes approvals and session changes into the store while this screen is visible
+    private BookingStatusStream statusStream;
+
+    // Past bookings are paged; at most this many pages are held at once
+    private static final int HISTORY_PAGE_SIZE = 20;
+    private static final int MAX_PAGES_IN_MEMORY = 5;
+    private static final int PREFETCH_DISTANCE = 6;
+
+    private PageWindow<Booking> historyWindow;
+    private boolean showingHistory;
+    // Chosen per refresh, since store and server page keys are not interchangeable
+    private boolean historyFromStore;
+
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
@@ -49,6 +69,8 @@ public class OwnerBookingsFragment extends Fragment {
 
         // Initialize services
         bookingService = new BookingService(requireContext());
+        bookingStore = BookingStore.getInstance();
+        statusStream = BookingStatusStream.getInstance(requireContext());
 
         // Initialize views
         bookingsRecyclerView = view.findViewById(R.id.bookingsRecyclerView);
@@ -68,13 +90,48 @@ public class OwnerBookingsFragment extends Fragment {
         bookingsRecyclerView.setAdapter(bookingsAdapter);
         bookingsRecyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
 
-        // Default load
-        loadUpcomingBookings();
+        // Past bookings load a page at a time as the list nears either end
+        historyWindow = new PageWindow<>(this::loadHistoryPage, new PageWindow.Listener<Booking>() {
+            @Override
+            public void onItemsChanged(List<Booking> bookings) {
+                if (!isAdded() || !showingHistory) {
+                    return;
+                }
+                // Check again once laid out, in case one page does not fill the screen
+                bookingsAdapter.submitList(bookings, () -> bookingsRecyclerView.post(() -> notifyVisibleRange()));
+                if (bookings.isEmpty()) {
+                    Toast.makeText(getActivity(), "No past bookings found", 
+                        Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                if (!isAdded() || !showingHistory) {
+                    return;
+                }
+                if (historyWindow.getItems().isEmpty()) {
+                    bookingsAdapter.submitList(new ArrayList<>());
+                }
+                Toast.makeText(getActivity(), "Failed to load booking history: " + error, 
+                    Toast.LENGTH_SHORT).show();
+            }
+        }, HISTORY_PAGE_SIZE, MAX_PAGES_IN_MEMORY, PREFETCH_DISTANCE);
+
+        bookingsRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                // Posted so a cached page is not submitted inside the scroll callback
+                recyclerView.post(() -> notifyVisibleRange());
+            }
+        });
+
+        // Default tab, loaded in onResume
         setActiveTab(true);
 
         // Handle toggle buttons
         btnUpcoming.setOnClickListener(v -> {
-            loadUpcomingBookings();
+            showUpcomingBookings();
             setActiveTab(true);
         });
 
@@ -90,35 +147,94 @@ public class OwnerBookingsFragment extends Fragment {
         });
     }
 
+    @Override
+    public void onStart() {
+        super.onStart();
+        bookingStore.addListener(storeListener);
+        statusStream.addListener(statusListener);
+    }
+
     @Override
     public void onResume() {
         super.onResume();
-        // Refresh bookings when returning to this fragment (e.g., after creating a new booking)
-        refreshCurrentBookings();
+        // Local changes and pushed status changes are already in the store; the
+        // list only goes stale if the status stream has been down for a while
+        if (!showingHistory) {
+            showUpcomingFromStore();
+            if (bookingStore.isStale()) {
+                loadUpcomingBookings();
+            }
+        }
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        bookingStore.removeListener(storeListener);
+        statusStream.removeListener(statusListener);
     }
 
-    private void refreshCurrentBookings() {
-        // Refresh based on current active tab
-        if (btnUpcoming.getCurrentTextColor() == ContextCompat.getColor(requireContext(), R.color.white)) {
+    private final BookingStatusStream.StatusListener statusListener = new BookingStatusStream.StatusListener() {
+        @Override
+        public void onStatusChanged(List<Booking> changedBookings) {
+            // Upcoming redraws from the store listener; a store-backed history
+            // page only needs reloading when a booking has just moved into it
+            if (!showingHistory || !historyFromStore || !isAdded()) {
+                return;
+            }
+            for (Booking booking : changedBookings) {
+                BookingStatus status = booking.getStatus();
+                if (status == BookingStatus.COMPLETED || status == BookingStatus.CANCELLED) {
+                    historyWindow.refresh();
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onResyncRequired() {
+            bookingService.refreshBookingSnapshot(new BookingService.BooleanCallback() {
+                @Override
+                public void onSuccess(boolean loaded) {
+                    if (showingHistory && historyFromStore && isAdded()) {
+                        historyWindow.refresh();
+                    }
+                }
+
+                @Override
+                public void onError(String error) {
+                    // The stream asks again on its next reset; the list stays as it was
+                }
+            });
+        }
+    };
+
+    private void showUpcomingBookings() {
+        showingHistory = false;
+        showUpcomingFromStore();
+        if (bookingStore.isStale()) {
             loadUpcomingBookings();
-        } else {
-            loadPastBookings();
         }
     }
 
+    private void showUpcomingFromStore() {
+        if (showingHistory || !isAdded() || !bookingStore.isLoaded()) {
+            return;
+        }
+        bookingsAdapter.submitList(bookingStore.getUpcoming());
+    }
+
     private void loadUpcomingBookings() {
-        bookingService.getUpcomingBookings(new BookingService.BookingListCallback() {
+        // One request for every booking; the store partitions it for this screen and the home tab
+        bookingService.refreshBookingSnapshot(new BookingService.BooleanCallback() {
             @Override
-            public void onSuccess(List<Booking> bookings) {
+            public void onSuccess(boolean loaded) {
                 if (getActivity() != null) {
                     getActivity().runOnUiThread(() -> {
-                        if (bookings.isEmpty()) {
-                            // Show empty list - adapter will handle empty state
-                            bookingsAdapter.submitList(new ArrayList<>());
+                        // The store has notified the listener, which shows the list
+                        if (!showingHistory && bookingStore.getUpcoming().isEmpty()) {
                             Toast.makeText(getActivity(), "No upcoming bookings found", 
                                 Toast.LENGTH_SHORT).show();
-                        } else {
-                            bookingsAdapter.submitList(bookings);
                         }
                     });
                 }
@@ -128,7 +244,12 @@ public class OwnerBookingsFragment extends Fragment {
             public void onError(String error) {
                 if (getActivity() != null) {
                     getActivity().runOnUiThread(() -> {
-                        bookingsAdapter.submitList(new ArrayList<>());
+                        if (showingHistory) {
+                            return;
+                        }
+                        if (!bookingStore.isLoaded()) {
+                            bookingsAdapter.submitList(new ArrayList<>());
+                        }
                         Toast.makeText(getActivity(), "Failed to load upcoming bookings: " + error, 
                             Toast.LENGTH_SHORT).show();
                     });
@@ -138,34 +259,33 @@ public class OwnerBookingsFragment extends Fragment {
     }
 
     private void loadPastBookings() {
-        bookingService.getBookingHistory(new BookingService.BookingListCallback() {
-            @Override
-            public void onSuccess(List<Booking> bookings) {
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        if (bookings.isEmpty()) {
-                            // Show empty list - adapter will handle empty state
-                            bookingsAdapter.submitList(new ArrayList<>());
-                            Toast.makeText(getActivity(), "No past bookings found", 
-                                Toast.LENGTH_SHORT).show();
-                        } else {
-                            bookingsAdapter.submitList(bookings);
-                        }
-                    });
-                }
-            }
+        // Cancel any upcoming load still in flight from showing over the history
+        showingHistory = true;
+        historyFromStore = bookingStore.isLoaded();
+        historyWindow.refresh();
+    }
 
-            @Override
-            public void onError(String error) {
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        bookingsAdapter.submitList(new ArrayList<>());
-                        Toast.makeText(getActivity(), "Failed to load booking history: " + error, 
-                            Toast.LENGTH_SHORT).show();
-                    });
-                }
-            }
-        });
+    /**
+     * Past bookings come from the snapshot once it is loaded, without a
+     * request, as far as its first history page reaches; before that, and
+     * past it, they are paged from the server
+     */
+    private void loadHistoryPage(String key, int pageSize, PageWindow.PageCallback<Booking> callback) {
+        BookingStore.HistoryPage page = historyFromStore ? bookingStore.getHistoryPage(key, pageSize) : null;
+        if (page != null) {
+            callback.onSuccess(page.getBookings(), page.getNextKey());
+        } else {
+            bookingService.getBookingHistoryPage(key, pageSize, callback);
+        }
+    }
+
+    private void notifyVisibleRange() {
+        if (!showingHistory || !isAdded()) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) bookingsRecyclerView.getLayoutManager();
+        historyWindow.onVisibleRange(layoutManager.findFirstVisibleItemPosition(),
+                layoutManager.findLastVisibleItemPosition());
     }
 
     private void setActiveTab(boolean isUpcoming) {
@@ -19,9 +19,12 @@ import com.ead.zap.models.BookingStatus;
 import com.ead.zap.models.ChargingStation;
 import com.ead.zap.models.ProfileResponse;
 import com.ead.zap.services.BookingService;
+import com.ead.zap.services.BookingStatusStream;
+import com.ead.zap.services.BookingStore;
 import com.ead.zap.services.ChargingStationService;
 import com.ead.zap.services.LocationService;
 import com.ead.zap.services.ProfileService;
+import com.ead.zap.services.StationCache;
 import com.ead.zap.ui.owner.modals.CreateBookingActivity;
 import com.ead.zap.utils.PreferenceManager;
 import com.google.android.material.card.MaterialCardView;
@@ -30,6 +33,7 @@ import java.util.List;
 
 public class OwnerHomeFragment extends Fragment {
     private static final String TAG = "OwnerHomeFragment";
+    private static final double NEARBY_RADIUS_KM = 5.0;
 
     private TextView tvWelcomeText, tvPendingCount, tvApprovedCount, tvNearbyStationsCount;
     private MaterialCardView cardQuickCharge, cardHistory, cardUpcomingReservation;
@@ -42,6 +46,15 @@ public class OwnerHomeFragment extends Fragment {
     private LocationService locationService;
     private BookingService bookingService;
 
+    // Shared with the bookings tab, so opening both costs one request
+    private BookingStore bookingStore;
+    private final BookingStore.Listener storeListener = this::showBookingSummary;
+    // Keeps the counts and next reservation current as operators act on bookings
+    private BookingStatusStream statusStream;
+
+    // Set when the fragment stops; tab switches only pause it, so they don't reload
+    private boolean refreshOnResume = true;
+
     public OwnerHomeFragment() {
         // Required empty public constructor
     }
@@ -60,7 +73,6 @@ public class OwnerHomeFragment extends Fragment {
             initServices();
             initViews(view);
             setupClickListeners();
-            loadDashboardData();
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -73,7 +85,9 @@ public class OwnerHomeFragment extends Fragment {
             chargingStationService = new ChargingStationService(getContext());
             locationService = new LocationService(getContext());
             bookingService = new BookingService(getContext());
+            statusStream = BookingStatusStream.getInstance(getContext());
         }
+        bookingStore = BookingStore.getInstance();
     }
 
     private void initViews(View view) {
@@ -112,9 +126,7 @@ public class OwnerHomeFragment extends Fragment {
             cardHistory.setOnClickListener(v -> {
                 // Navigate to bookings tab
                 if (getActivity() instanceof EVOwnerMain) {
-                    Intent intent = new Intent(getActivity(), EVOwnerMain.class);
-                    intent.putExtra("open_bookings_tab", true);
-                    startActivity(intent);
+                    ((EVOwnerMain) getActivity()).selectTab(R.id.navigation_bookings);
                 }
             });
         }
@@ -124,12 +136,8 @@ public class OwnerHomeFragment extends Fragment {
             cardUpcomingReservation.setOnClickListener(v -> {
                 // Navigate to bookings tab to show all bookings
                 if (getActivity() instanceof EVOwnerMain) {
-                    EVOwnerMain mainActivity = (EVOwnerMain) getActivity();
                     // The bottom navigation will handle the fragment switching
-                    // We can trigger this by sending an intent or using a public method
-                    Intent intent = new Intent(getActivity(), EVOwnerMain.class);
-                    intent.putExtra("open_bookings_tab", true);
-                    startActivity(intent);
+                    ((EVOwnerMain) getActivity()).selectTab(R.id.navigation_bookings);
                 }
             });
         }
@@ -139,11 +147,9 @@ public class OwnerHomeFragment extends Fragment {
         // Load user profile data and update welcome text
         loadUserProfile();
 
-        // Load reservation counts
-        loadReservationCounts();
-        
-        // Load upcoming reservation
-        loadUpcomingReservation();
+        // Load reservation counts and the upcoming reservation
+        showBookingSummary();
+        loadBookingSummary();
         
         // Load nearby stations count
         loadNearbyStationsCount();
@@ -214,85 +220,37 @@ public class OwnerHomeFragment extends Fragment {
         }
     }
 
-    private void loadReservationCounts() {
+    private void loadBookingSummary() {
         if (bookingService == null) {
             Log.e(TAG, "BookingService is null");
+            hideUpcomingReservationCard();
             return;
         }
 
-        // Set loading state
-        if (tvPendingCount != null) {
-            tvPendingCount.setText("...");
-        }
-        if (tvApprovedCount != null) {
-            tvApprovedCount.setText("...");
+        if (!bookingStore.isLoaded()) {
+            // Set loading state
+            if (tvPendingCount != null) {
+                tvPendingCount.setText("...");
+            }
+            if (tvApprovedCount != null) {
+                tvApprovedCount.setText("...");
+            }
+            if (tvUpcomingStationName != null) {
+                tvUpcomingStationName.setText("Loading...");
+            }
         }
 
-        // Get all bookings to calculate counts
-        bookingService.getAllBookings(new BookingService.BookingListCallback() {
+        // Counts and the next reservation come from the same snapshot the bookings tab uses
+        bookingService.ensureBookingSnapshot(new BookingService.BooleanCallback() {
             @Override
-            public void onSuccess(List<Booking> bookings) {
-                if (getActivity() != null && isAdded()) {
-                    getActivity().runOnUiThread(() -> {
-                        // Calculate counts by status
-                        int pendingCount = 0;
-                        int approvedCount = 0;
-                        int inProgressCount = 0;
-                        int completedCount = 0;
-                        int cancelledCount = 0;
-                        
-                        Log.d(TAG, "Processing " + bookings.size() + " bookings for status counts");
-                        
-                        for (Booking booking : bookings) {
-                            BookingStatus status = booking.getStatus();
-                            Log.d(TAG, "Booking ID: " + booking.getBookingId() + 
-                                      ", Status: " + status + 
-                                      " (" + booking.getStatusString() + ")");
-                            
-                            switch (status) {
-                                case PENDING:
-                                    pendingCount++;
-                                    break;
-                                case APPROVED:
-                                    approvedCount++;
-                                    break;
-                                case IN_PROGRESS:
-                                    inProgressCount++;
-                                    break;
-                                case COMPLETED:
-                                    completedCount++;
-                                    break;
-                                case CANCELLED:
-                                case NO_SHOW:
-                                    cancelledCount++;
-                                    break;
-                            }
-                        }
-                        
-                        Log.d(TAG, "Status counts - Pending: " + pendingCount + 
-                                   ", Approved: " + approvedCount + 
-                                   ", In Progress: " + inProgressCount + 
-                                   ", Completed: " + completedCount + 
-                                   ", Cancelled/No-show: " + cancelledCount);
-                        
-                        // Update the count displays
-                        if (tvPendingCount != null) {
-                            tvPendingCount.setText(String.valueOf(pendingCount));
-                        }
-                        
-                        if (tvApprovedCount != null) {
-                            tvApprovedCount.setText(String.valueOf(approvedCount));
-                        }
-                        
-                        Log.d(TAG, "Loaded booking counts - Pending: " + pendingCount + ", Approved: " + approvedCount);
-                    });
-                }
+            public void onSuccess(boolean loaded) {
+                // The store has notified the listener, which shows the summary
             }
 
             @Override
             public void onError(String errorMessage) {
-                Log.e(TAG, "Failed to load booking counts: " + errorMessage);
-                if (getActivity() != null && isAdded()) {
+                Log.e(TAG, "Failed to load bookings: " + errorMessage);
+                if (getActivity() != null && isAdded() && !bookingStore.isLoaded()) {
                     getActivity().runOnUiThread(() -> {
                         // Set counts to 0 on error
                         if (tvPendingCount != null) {
@@ -301,52 +259,38 @@ public class OwnerHomeFragment extends Fragment {
                         if (tvApprovedCount != null) {
                             tvApprovedCount.setText("0");
                         }
+                        hideUpcomingReservationCard();
                     });
                 }
             }
         });
     }
 
-    private void loadUpcomingReservation() {
-        if (bookingService == null) {
-            Log.e(TAG, "BookingService is null");
-            hideUpcomingReservationCard();
+    /**
+     * Render counts and the next reservation from the booking store
+     */
+    private void showBookingSummary() {
+        if (!isAdded() || !bookingStore.isLoaded()) {
             return;
         }
 
-        // Show loading state
-        if (tvUpcomingStationName != null) {
-            tvUpcomingStationName.setText("Loading...");
+        int pendingCount = bookingStore.getCount(BookingStatus.PENDING);
+        int approvedCount = bookingStore.getCount(BookingStatus.APPROVED);
+        if (tvPendingCount != null) {
+            tvPendingCount.setText(String.valueOf(pendingCount));
         }
+        if (tvApprovedCount != null) {
+            tvApprovedCount.setText(String.valueOf(approvedCount));
+        }
+        Log.d(TAG, "Booking counts - Pending: " + pendingCount + ", Approved: " + approvedCount);
 
-        // Get upcoming bookings to find the next one
-        bookingService.getUpcomingBookings(new BookingService.BookingListCallback() {
-            @Override
-            public void onSuccess(List<Booking> bookings) {
-                if (getActivity() != null && isAdded()) {
-                    getActivity().runOnUiThread(() -> {
-                        if (bookings != null && !bookings.isEmpty()) {
-                            // Show the first upcoming booking
-                            Booking nextBooking = bookings.get(0);
-                            displayUpcomingReservation(nextBooking);
-                        } else {
-                            // No upcoming reservations
-                            hideUpcomingReservationCard();
-                        }
-                    });
-                }
-            }
-
-            @Override
-            public void onError(String errorMessage) {
-                Log.e(TAG, "Failed to load upcoming reservations: " + errorMessage);
-                if (getActivity() != null && isAdded()) {
-                    getActivity().runOnUiThread(() -> {
-                        hideUpcomingReservationCard();
-                    });
-                }
-            }
-        });
+        Booking nextBooking = bookingStore.getNextUpcoming();
+        if (nextBooking != null) {
+            displayUpcomingReservation(nextBooking);
+        } else {
+            // No upcoming reservations
+            hideUpcomingReservationCard();
+        }
     }
 
     private void displayUpcomingReservation(Booking booking) {
@@ -418,8 +362,14 @@ public class OwnerHomeFragment extends Fragment {
             locationService.getCurrentLocation(new LocationService.LocationCallback() {
                 @Override
                 public void onLocationReceived(double latitude, double longitude) {
-                    // Get nearby stations within 5km radius
-                    chargingStationService.getNearbyStations(latitude, longitude, 5.0,
+                    // Answer from stations already in memory, then refresh from the server
+                    List<ChargingStation> cached = StationCache.getInstance()
+                            .getStationsWithin(latitude, longitude, NEARBY_RADIUS_KM);
+                    if (!cached.isEmpty()) {
+                        updateNearbyStationsCount(cached.size());
+                    }
+
+                    chargingStationService.getNearbyStations(latitude, longitude, NEARBY_RADIUS_KM,
                         new ChargingStationService.ChargingStationsCallback() {
                             @Override
                             public void onSuccess(List<ChargingStation> stations) {
@@ -491,10 +441,64 @@ public class OwnerHomeFragment extends Fragment {
         }
     }
 
+    private final BookingStatusStream.StatusListener statusListener = new BookingStatusStream.StatusListener() {
+        @Override
+        public void onStatusChanged(List<Booking> changedBookings) {
+            // Already applied to the store, whose listener redraws the summary
+        }
+
+        @Override
+        public void onResyncRequired() {
+            if (bookingService == null) {
+                return;
+            }
+            bookingService.refreshBookingSnapshot(new BookingService.BooleanCallback() {
+                @Override
+                public void onSuccess(boolean loaded) {
+                }
+
+                @Override
+                public void onError(String errorMessage) {
+                    Log.e(TAG, "Failed to reload bookings: " + errorMessage);
+                }
+            });
+        }
+    };
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        bookingStore.addListener(storeListener);
+        if (statusStream != null) {
+            statusStream.addListener(statusListener);
+        }
+    }
+
     @Override
     public void onResume() {
         super.onResume();
-        // Refresh data when fragment becomes visible
-        loadDashboardData();
+        // Refresh data when fragment becomes visible after being stopped
+        if (refreshOnResume) {
+            refreshOnResume = false;
+            loadDashboardData();
+        }
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        bookingStore.removeListener(storeListener);
+        if (statusStream != null) {
+            statusStream.removeListener(statusListener);
+        }
+        refreshOnResume = true;
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (locationService != null) {
+            locationService.stopLocationUpdates();
+        }
     }
 }
\ No newline at end of file
@@ -4,6 +4,9 @@ import android.Manifest;
 import android.content.pm.PackageManager;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -19,28 +22,47 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.ead.zap.R;
 import com.ead.zap.adapters.StationMapListAdapter;
+import com.ead.zap.maps.RouteLevelOfDetail;
+import com.ead.zap.maps.MapWarmup;
+import com.ead.zap.maps.RouteCorridor;
+import com.ead.zap.maps.RoutePrefetcher;
+import com.ead.zap.maps.RouteRepository;
 import com.ead.zap.models.ChargingStation;
 import com.ead.zap.services.ChargingStationService;
 import com.ead.zap.services.LocationService;
+import com.ead.zap.services.ColumnarStationStore;
+import com.ead.zap.services.StationAvailabilityStream;
+import com.ead.zap.services.ResponseMapper;
+import com.ead.zap.services.StationCache;
+import com.ead.zap.services.StationRanker;
+import com.ead.zap.services.StationSnapshot;
 import com.google.android.material.bottomsheet.BottomSheetBehavior;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
 import org.osmdroid.api.IMapController;
-import org.osmdroid.config.Configuration;
+import org.osmdroid.events.MapListener;
+import org.osmdroid.events.ScrollEvent;
+import org.osmdroid.events.ZoomEvent;
 import org.osmdroid.tileprovider.tilesource.TileSourceFactory;
 import org.osmdroid.util.GeoPoint;
 import org.osmdroid.views.MapView;
 import org.osmdroid.views.overlay.Marker;
 import org.osmdroid.views.overlay.Polyline;
-import org.osmdroid.bonuspack.routing.OSRMRoadManager;
 import org.osmdroid.bonuspack.routing.Road;
 import org.osmdroid.bonuspack.routing.RoadManager;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class OwnerMapsFragment extends Fragment implements StationMapListAdapter.OnStationClickListener {
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 1001;
+    private static final int NEARBY_TARGET_COUNT = 10;
+    private static final int STATION_LIST_SIZE = 50;
+    private static final double ROUTE_ZOOM = 16.0;
+    // The widest step of the adaptive nearby search
+    private static final double SNAPSHOT_RADIUS_KM = 50.0;
 
     private MapView mapView;
     private LocationService locationService;
@@ -60,34 +82,56 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
     private List<ChargingStation> allStations = new ArrayList<>();
     private Marker selectedStationMarker;
     private Polyline routeOverlay;
-    private RoadManager roadManager;
+    private RouteLevelOfDetail routeLevelOfDetail;
+    private boolean showingRouteStations;
+    private final StationRanker stationRanker = new StationRanker(STATION_LIST_SIZE);
+    private final Map<String, Marker> stationMarkers = new HashMap<>();
+    private boolean firstMarkerLogged;
+    private StationAvailabilityStream availabilityStream;
+    private int routeZoomBucket = -1;
+    private RouteRepository routeRepository;
+    private RoutePrefetcher routePrefetcher;
+    private MapWarmup mapWarmup;
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         
-        // Initialize osmdroid configuration
-        Configuration.getInstance().setUserAgentValue(requireContext().getPackageName());
+        // osmdroid configuration is loaded by the warm-up, normally already in the background after login
+        mapWarmup = MapWarmup.getInstance(requireContext());
         
         locationService = new LocationService(requireContext());
         chargingStationService = new ChargingStationService(requireContext());
+        routeRepository = RouteRepository.getInstance(requireContext());
+        routePrefetcher = new RoutePrefetcher(requireContext());
+        availabilityStream = StationAvailabilityStream.getInstance(requireContext());
     }
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
-        View view = inflater.inflate(R.layout.fragment_owner_maps, container, false);
-        
-        initViews(view);
-        setupMap();
-        setupBottomSheet(view);
-        setupButtons();
-        
-        return view;
+        Trace.beginSection("OwnerMapsFragment.onCreateView");
+        try {
+            View view = inflater.inflate(R.layout.fragment_owner_maps, container, false);
+
+            initViews(view);
+            setupBottomSheet(view);
+
+            // The map placeholder shows until osmdroid is configured; the map and
+            // everything that draws on it start from there
+            mapWarmup.whenConfigured(() -> {
+                if (isAdded() && getView() == view) {
+                    createMap(view);
+                }
+            });
+
+            return view;
+        } finally {
+            Trace.endSection();
+        }
     }
     
     private void initViews(View view) {
-        mapView = view.findViewById(R.id.mapView);
         tvStationCount = view.findViewById(R.id.tvStationCount);
         recyclerViewStations = view.findViewById(R.id.recyclerViewStations);
         loadingView = view.findViewById(R.id.loadingView);
@@ -111,7 +155,7 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
         bottomSheetBehavior.setState(BottomSheetBehavior.STATE_COLLAPSED);
         
         // Setup RecyclerView
-        stationAdapter = new StationMapListAdapter(requireContext(), allStations, this);
+        stationAdapter = new StationMapListAdapter(requireContext(), new ArrayList<>(), this);
         recyclerViewStations.setLayoutManager(new LinearLayoutManager(requireContext()));
         recyclerViewStations.setAdapter(stationAdapter);
         
@@ -168,6 +212,24 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
         });
     }
 
+    private void createMap(View view) {
+        mapView = new MapView(requireContext());
+        mapView.setClickable(true);
+        mapView.setFocusable(true);
+        // Below the floating buttons
+        ViewGroup mapContainer = view.findViewById(R.id.mapContainer);
+        mapContainer.addView(mapView, 0, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        view.findViewById(R.id.mapPlaceholder).setVisibility(View.GONE);
+        if (isResumed()) {
+            mapView.onResume();
+        }
+
+        setupMap();
+        setupButtons();
+        showSnapshotStations();
+    }
+
     private void setupMap() {
         mapView.setTileSource(TileSourceFactory.MAPNIK);
         mapView.setMultiTouchControls(true);
@@ -176,6 +238,28 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
         IMapController mapController = mapView.getController();
         mapController.setZoom(15.0);
 
+        // Start where the map was last left, using the tiles warmed for that spot
+        GeoPoint lastCenter = mapWarmup.getLastCenter();
+        if (lastCenter != null) {
+            mapController.setZoom(mapWarmup.getLastZoom(15.0));
+            mapController.setCenter(lastCenter);
+        }
+        mapWarmup.applyTo(mapView);
+        
+        // Swap in the route simplification that matches the new zoom level
+        mapView.addMapListener(new MapListener() {
+            @Override
+            public boolean onScroll(ScrollEvent event) {
+                return false;
+            }
+
+            @Override
+            public boolean onZoom(ZoomEvent event) {
+                updateRouteLevelOfDetail(event.getZoomLevel());
+                return false;
+            }
+        });
+
         // Check for location permissions and get current location
         checkLocationPermissionAndLoadData();
         
@@ -205,6 +289,9 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
             public void onLocationReceived(double latitude, double longitude) {
                 currentLatitude = latitude;
                 currentLongitude = longitude;
+                if (mapView == null) {
+                    return; // The view went away while the fix was pending
+                }
                 
                 // Update map center
                 GeoPoint userLocation = new GeoPoint(latitude, longitude);
@@ -219,6 +306,9 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
 
             @Override
             public void onLocationError(String errorMessage) {
+                if (!isAdded() || mapView == null) {
+                    return;
+                }
                 Toast.makeText(requireContext(), "Location error: " + errorMessage, Toast.LENGTH_SHORT).show();
                 
                 // Use default location (Colombo) and load all stations
@@ -258,8 +348,16 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
         android.util.Log.d("OwnerMapsFragment", "Loading nearby stations at: " + currentLatitude + ", " + currentLongitude);
         showLoadingState();
         
-        chargingStationService.getNearbyStations(currentLatitude, currentLongitude, 
-            new ChargingStationService.ChargingStationsCallback() {
+        chargingStationService.getNearbyStationsAdaptive(currentLatitude, currentLongitude, NEARBY_TARGET_COUNT,
+            new ChargingStationService.AdaptiveStationsCallback() {
+                @Override
+                public void onPartialResult(List<ChargingStation> stations, double radiusKm) {
+                    // Show inner rings while the search widens
+                    if (!stations.isEmpty() && getActivity() != null && isAdded()) {
+                        getActivity().runOnUiThread(() -> addStationMarkersToMap(stations));
+                    }
+                }
+
                 @Override
                 public void onSuccess(List<ChargingStation> stations) {
                     android.util.Log.d("OwnerMapsFragment", "Successfully loaded " + stations.size() + " nearby stations");
@@ -267,6 +365,7 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
                     if (getActivity() != null && isAdded()) {
                         getActivity().runOnUiThread(() -> {
                             addStationMarkersToMap(stations);
+                            logTimeToFirstMarker("network");
                         });
                     }
                 }
@@ -400,27 +499,57 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
         }
     }
 
+    /**
+     * Draw the last known stations from the on-disk snapshot as soon as it is read,
+     * before the network refresh started by checkLocationPermissionAndLoadData() answers
+     */
+    private void showSnapshotStations() {
+        StationSnapshot stationSnapshot = StationSnapshot.getInstance(requireContext());
+        double latitude = currentLatitude;
+        double longitude = currentLongitude;
+        // The snapshot is read from disk off the main thread and becomes the station cache;
+        // only the stations around the user are turned into objects for markers
+        ResponseMapper.map("station snapshot", () -> {
+            ColumnarStationStore snapshot = stationSnapshot.read();
+            if (snapshot == null || !StationCache.getInstance().loadSnapshot(snapshot)) {
+                return new ArrayList<ChargingStation>();
+            }
+            return StationCache.getInstance().getStationsWithin(latitude, longitude, SNAPSHOT_RADIUS_KM);
+        }, stations -> {
+            // Skip it if the network answered first or the view is gone
+            if (stations.isEmpty() || !isAdded() || mapView == null || !allStations.isEmpty()) {
+                return;
+            }
+            addStationMarkersToMap(stations);
+            logTimeToFirstMarker("snapshot");
+        }, error -> android.util.Log.w("OwnerMapsFragment", "Station snapshot unreadable: " + error));
+    }
+    
+    private void logTimeToFirstMarker(String source) {
+        if (!firstMarkerLogged) {
+            firstMarkerLogged = true;
+            long sinceStart = SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+            android.util.Log.d("OwnerMapsFragment", "First markers from " + source + " " + sinceStart + " ms after process start");
+        }
+    }
+
     private void addStationMarkersToMap(List<ChargingStation> stations) {
+        if (mapView == null) {
+            return;
+        }
         // Clear existing station markers (keep user location marker and routes)
         mapView.getOverlays().removeIf(overlay -> overlay instanceof Marker && 
             !((Marker) overlay).getTitle().equals("Your Location"));
+        stationMarkers.clear();
 
         // Update stations list
         allStations.clear();
         allStations.addAll(stations);
+        stationRanker.setStations(stations);
         
-        // Calculate distances from current location if available
+        // Markers need no distance; the ranker sets exact distances for the stations it lists
         for (ChargingStation station : stations) {
             if (station.getLocation() != null) {
-                // Calculate distance if we have current location
-                if (currentLatitude != 6.9271 || currentLongitude != 79.8612) {
-                    double distance = LocationService.calculateDistance(
-                        currentLatitude, currentLongitude,
-                        station.getLocation().getLatitude(),
-                        station.getLocation().getLongitude()
-                    );
-                    station.setDistance(distance);
-                }
                 addStationMarker(station);
             }
         }
@@ -443,12 +572,8 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
         
         // Set marker title and description
         stationMarker.setTitle(station.getName());
-        String description = String.format("%s\n%s\n%s", 
-            station.getLocation().getAddress(),
-            station.getAvailabilityText(),
-            station.getFormattedPrice()
-        );
-        stationMarker.setSubDescription(description);
+        stationMarker.setSubDescription(describeStation(station));
+        stationMarker.setRelatedObject(station);
         
         // Set station marker icon
         try {
@@ -474,8 +599,64 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
         });
         
         mapView.getOverlays().add(stationMarker);
+        if (station.getId() != null) {
+            stationMarkers.put(station.getId(), stationMarker);
+        }
+    }
+
+    private String describeStation(ChargingStation station) {
+        return String.format("%s\n%s\n%s", 
+            station.getLocation().getAddress(),
+            station.getAvailabilityText(),
+            station.getFormattedPrice()
+        );
     }
 
+    /**
+     * Live availability pushed by the server, applied to markers and the list without a reload
+     */
+    private final StationAvailabilityStream.AvailabilityListener availabilityListener =
+            new StationAvailabilityStream.AvailabilityListener() {
+        @Override
+        public void onAvailabilityChanged(List<ChargingStation> changedStations) {
+            if (!isAdded() || mapView == null) {
+                return;
+            }
+            
+            boolean anyShown = false;
+            for (ChargingStation changed : changedStations) {
+                Marker marker = stationMarkers.get(changed.getId());
+                if (marker == null) {
+                    continue;
+                }
+                ChargingStation shown = (ChargingStation) marker.getRelatedObject();
+                if (shown != changed) {
+                    shown.setAvailableSlots(changed.getAvailableSlots());
+                    shown.setTotalSlots(changed.getTotalSlots());
+                    shown.setActive(changed.isActive());
+                }
+                marker.setSubDescription(describeStation(shown));
+                if (marker.isInfoWindowShown()) {
+                    marker.showInfoWindow();
+                }
+                stationRanker.updateStation(shown);
+                anyShown = true;
+            }
+            
+            if (anyShown) {
+                updateStationList();
+                mapView.invalidate();
+            }
+        }
+
+        @Override
+        public void onResyncRequired() {
+            if (isAdded()) {
+                loadNearbyStations();
+            }
+        }
+    };
+
     private void showStationDetails(ChargingStation station) {
         // Focus on the station marker
         if (station.getLocation() != null) {
@@ -502,7 +683,7 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
     }
     
     private void updateStationCount(int count) {
-        if (tvStationCount != null) {
+        if (tvStationCount != null && !showingRouteStations) {
             if (count == 0) {
                 tvStationCount.setText("No stations found");
             } else if (count == 1) {
@@ -528,12 +709,11 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
             android.util.Log.d("OwnerMapsFragment", "Showing station list");
             showStationList();
             
-            // Update the adapter with new data
-            if (stationAdapter != null) {
+            // Update the adapter with new data, unless it lists the stations along a route
+            if (stationAdapter != null && !showingRouteStations) {
                 android.util.Log.d("OwnerMapsFragment", "Updating adapter with new station list");
-                // Create a copy to avoid reference issues
-                List<ChargingStation> stationsCopy = new ArrayList<>(allStations);
-                stationAdapter.updateStations(stationsCopy);
+                // Best stations first by distance, free slots, price and opening hours
+                stationAdapter.updateStations(stationRanker.rank(currentLatitude, currentLongitude));
             }
             
             // Debug log
@@ -586,8 +766,10 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
             } else {
                 Toast.makeText(requireContext(), "Location permission denied. Using default location.", Toast.LENGTH_SHORT).show();
                 // Use default location
-                GeoPoint defaultLocation = new GeoPoint(currentLatitude, currentLongitude);
-                mapView.getController().setCenter(defaultLocation);
+                if (mapView != null) {
+                    GeoPoint defaultLocation = new GeoPoint(currentLatitude, currentLongitude);
+                    mapView.getController().setCenter(defaultLocation);
+                }
                 loadAllStations();
             }
         }
@@ -599,6 +781,7 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
         if (mapView != null) {
             mapView.onResume();
         }
+        availabilityStream.addListener(availabilityListener);
     }
 
     @Override
@@ -606,16 +789,28 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
         super.onPause();
         if (mapView != null) {
             mapView.onPause();
+            mapWarmup.saveCamera(new GeoPoint(mapView.getMapCenter().getLatitude(),
+                    mapView.getMapCenter().getLongitude()), mapView.getZoomLevelDouble());
         }
+        availabilityStream.removeListener(availabilityListener);
     }
 
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        mapView = null;
         if (locationService != null) {
             locationService.stopLocationUpdates();
         }
     }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        if (routePrefetcher != null) {
+            routePrefetcher.shutdown();
+        }
+    }
     
     // For testing purposes - add mock stations if API is not working
     private void addMockStationsForTesting() {
@@ -706,58 +901,58 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
         // Show loading toast
         Toast.makeText(getContext(), "Calculating route to " + station.getName(), Toast.LENGTH_SHORT).show();
         
-        // Calculate route in background thread
-        new Thread(() -> {
-            try {
-                // Initialize road manager if not already done
-                if (roadManager == null) {
-                    roadManager = new OSRMRoadManager(getContext(), "ZapEV/1.0");
+        // Calculate route on the shared routing thread; a newer tap supersedes this one
+        GeoPoint origin = new GeoPoint(currentLatitude, currentLongitude);
+        GeoPoint destination = new GeoPoint(station.getLocation().getLatitude(), station.getLocation().getLongitude());
+        
+        routeRepository.requestRoute(origin, destination, new RouteRepository.RouteCallback() {
+            @Override
+            public void onRouteReady(Road road, RouteLevelOfDetail levelOfDetail, boolean fromCache) {
+                if (!isAdded() || mapView == null) {
+                    return;
                 }
                 
-                // Create waypoints (from current location to station)
-                ArrayList<GeoPoint> waypoints = new ArrayList<>();
-                waypoints.add(new GeoPoint(currentLatitude, currentLongitude));
-                waypoints.add(new GeoPoint(station.getLocation().getLatitude(), station.getLocation().getLongitude()));
+                displayRoute(road, levelOfDetail, station);
                 
-                // Get the road
-                Road road = roadManager.getRoad(waypoints);
+                // Warm tiles and stations along the route at the zoom it is shown at,
+                // then list the chargers along the way
+                routePrefetcher.prefetch(road, mapView.getTileProvider().getTileSource(), ROUTE_ZOOM,
+                    hits -> showStationsAlongRoute(hits));
                 
-                // Update UI on main thread
-                requireActivity().runOnUiThread(() -> {
-                    if (road != null && road.mStatus == Road.STATUS_OK) {
-                        displayRoute(road, station);
-                        
-                        // Focus on the route
-                        mapView.getController().animateTo(new GeoPoint(station.getLocation().getLatitude(), station.getLocation().getLongitude()));
-                        mapView.getController().setZoom(16.0);
-                        
-                        Toast.makeText(getContext(), 
-                            String.format("Route: %.1f km, %.0f min", 
-                                road.mLength, road.mDuration / 60), 
-                            Toast.LENGTH_LONG).show();
-                    } else {
-                        // Fallback to direct navigation
-                        showDirectRoute(station);
-                        Toast.makeText(getContext(), "Using direct route to station", Toast.LENGTH_SHORT).show();
-                    }
-                });
+                // Focus on the route
+                mapView.getController().animateTo(destination);
+                mapView.getController().setZoom(ROUTE_ZOOM);
                 
-            } catch (Exception e) {
-                android.util.Log.e("OwnerMapsFragment", "Error calculating route", e);
-                requireActivity().runOnUiThread(() -> {
-                    showDirectRoute(station);
-                    Toast.makeText(getContext(), "Route calculation failed, showing direct path", Toast.LENGTH_SHORT).show();
-                });
+                Toast.makeText(getContext(), 
+                    String.format("Route: %.1f km, %.0f min", 
+                        road.mLength, road.mDuration / 60), 
+                    Toast.LENGTH_LONG).show();
             }
-        }).start();
+
+            @Override
+            public void onRouteFailed(String errorMessage) {
+                if (!isAdded() || mapView == null) {
+                    return;
+                }
+                
+                // Fallback to direct navigation
+                showDirectRoute(station);
+                Toast.makeText(getContext(), errorMessage + ", showing direct path", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
     
-    private void displayRoute(Road road, ChargingStation station) {
+    private void displayRoute(Road road, RouteLevelOfDetail levelOfDetail, ChargingStation station) {
         // Create polyline for the route
         routeOverlay = RoadManager.buildRoadOverlay(road);
         routeOverlay.getOutlinePaint().setColor(0xFF0066CC); // Blue color
         routeOverlay.getOutlinePaint().setStrokeWidth(12);
         
+        // Draw only the vertices visible at the current zoom
+        routeLevelOfDetail = levelOfDetail;
+        routeZoomBucket = -1;
+        updateRouteLevelOfDetail(mapView.getZoomLevelDouble());
+        
         // Add route to map
         mapView.getOverlays().add(routeOverlay);
         
@@ -768,12 +963,25 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
         mapView.invalidate();
     }
     
+    private void updateRouteLevelOfDetail(double zoom) {
+        if (routeOverlay == null || routeLevelOfDetail == null) {
+            return;
+        }
+        
+        int bucket = RouteLevelOfDetail.bucketFor(zoom);
+        if (bucket != routeZoomBucket) {
+            routeZoomBucket = bucket;
+            routeOverlay.setPoints(routeLevelOfDetail.getPointsForZoom(zoom));
+        }
+    }
+    
     private void showDirectRoute(ChargingStation station) {
         // Show a simple direct line to the station
         List<GeoPoint> geoPoints = new ArrayList<>();
         geoPoints.add(new GeoPoint(currentLatitude, currentLongitude));
         geoPoints.add(new GeoPoint(station.getLocation().getLatitude(), station.getLocation().getLongitude()));
         
+        routeLevelOfDetail = null;
         routeOverlay = new Polyline();
         routeOverlay.setPoints(geoPoints);
         routeOverlay.getOutlinePaint().setColor(0xFFFF6600); // Orange color for direct route
@@ -815,10 +1023,49 @@ public class OwnerMapsFragment extends Fragment implements StationMapListAdapter
         }
     }
     
+    /**
+     * List the stations within the route corridor, in the order the route passes them
+     */
+    private void showStationsAlongRoute(List<RouteCorridor.Hit> hits) {
+        if (!isAdded() || mapView == null || routeOverlay == null || hits.isEmpty()) {
+            return;
+        }
+        
+        List<ChargingStation> stations = new ArrayList<>(hits.size());
+        for (RouteCorridor.Hit hit : hits) {
+            stations.add(hit.getStation());
+        }
+        showingRouteStations = true;
+        if (stationAdapter != null) {
+            stationAdapter.updateStations(stations);
+        }
+        if (tvStationCount != null) {
+            tvStationCount.setText(stations.size() == 1
+                ? "1 station along your route"
+                : stations.size() + " stations along your route");
+        }
+    }
+    
     private void clearRoute() {
+        if (routeRepository != null) {
+            routeRepository.cancel();
+        }
+        if (routePrefetcher != null) {
+            routePrefetcher.cancel();
+        }
+        
+        // Back to the stations around the user
+        if (showingRouteStations) {
+            showingRouteStations = false;
+            updateStationCount(allStations.size());
+            updateStationList();
+        }
+        
         if (routeOverlay != null) {
             mapView.getOverlays().remove(routeOverlay);
             routeOverlay = null;
+            routeLevelOfDetail = null;
+            routeZoomBucket = -1;
             mapView.invalidate();
         }
         
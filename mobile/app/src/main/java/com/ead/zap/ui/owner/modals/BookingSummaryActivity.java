@@ -11,8 +11,8 @@ import androidx.appcompat.widget.Toolbar;
 
 import com.ead.zap.R;
 import com.ead.zap.models.Booking;
+import com.ead.zap.utils.DateTimeCodec;
 
-import java.text.SimpleDateFormat;
 import java.util.Locale;
 
 public class BookingSummaryActivity extends AppCompatActivity {
@@ -22,8 +22,6 @@ public class BookingSummaryActivity extends AppCompatActivity {
     private Button btnCancel, btnConfirm;
     private Booking booking;
 
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-    private SimpleDateFormat timeFormat = new SimpleDateFormat("hh:mm a", Locale.getDefault());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -70,8 +68,8 @@ public class BookingSummaryActivity extends AppCompatActivity {
         // Populate the views with booking data
         tvStationName.setText(booking.getStationName());
         tvStationAddress.setText(booking.getStationAddress());
-        tvBookingDate.setText(dateFormat.format(booking.getReservationDate()));
-        tvBookingTime.setText(timeFormat.format(booking.getReservationTime()));
+        tvBookingDate.setText(DateTimeCodec.formatDate(booking.getReservationDate()));
+        tvBookingTime.setText(DateTimeCodec.formatTime(booking.getReservationTime()));
         tvDuration.setText(String.format(Locale.getDefault(), "%d minutes", booking.getDuration()));
         
         // Calculate charging rate per minute
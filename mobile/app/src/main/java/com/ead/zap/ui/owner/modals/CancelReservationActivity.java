@@ -1,6 +1,7 @@
 package com.ead.zap.ui.owner.modals;
 
 import android.app.AlertDialog;
+import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
 import android.widget.Button;
@@ -14,8 +15,8 @@ import com.ead.zap.R;
 import com.ead.zap.models.Booking;
 import com.ead.zap.models.BookingStatus;
 import com.ead.zap.services.BookingService;
+import com.ead.zap.utils.DateTimeCodec;
 
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
@@ -28,8 +29,6 @@ public class CancelReservationActivity extends AppCompatActivity {
     private Booking booking;
     private BookingService bookingService;
 
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-    private SimpleDateFormat timeFormat = new SimpleDateFormat("hh:mm a", Locale.getDefault());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -89,8 +88,8 @@ public class CancelReservationActivity extends AppCompatActivity {
         // Populate booking information
         tvStationName.setText(booking.getStationName());
         tvStationAddress.setText(booking.getStationAddress());
-        tvBookingDate.setText(dateFormat.format(booking.getReservationDate()));
-        tvBookingTime.setText(timeFormat.format(booking.getReservationTime()));
+        tvBookingDate.setText(DateTimeCodec.formatDate(booking.getReservationDate()));
+        tvBookingTime.setText(DateTimeCodec.formatTime(booking.getReservationTime()));
         tvDuration.setText(String.format(Locale.getDefault(), "%d minutes", booking.getDuration()));
         tvTotalCost.setText(String.format(Locale.getDefault(), "LKR %.2f", booking.getTotalCost()));
         tvBookingId.setText(booking.getBookingId() != null ? booking.getBookingId() : "N/A");
@@ -146,8 +145,8 @@ public class CancelReservationActivity extends AppCompatActivity {
         builder.setTitle("Confirm Cancellation")
                .setMessage("Are you sure you want to cancel this reservation?\n\n" +
                           "Station: " + booking.getStationName() + "\n" +
-                          "Date: " + dateFormat.format(booking.getReservationDate()) + "\n" +
-                          "Time: " + timeFormat.format(booking.getReservationTime()) + "\n\n" +
+                          "Date: " + DateTimeCodec.formatDate(booking.getReservationDate()) + "\n" +
+                          "Time: " + DateTimeCodec.formatTime(booking.getReservationTime()) + "\n\n" +
                           "This action cannot be undone.")
                .setPositiveButton("Yes, Cancel Reservation", (dialog, which) -> {
                    cancelReservation();
@@ -162,41 +161,37 @@ public class CancelReservationActivity extends AppCompatActivity {
     private void cancelReservation() {
         // Disable button to prevent multiple clicks
         btnCancelReservation.setEnabled(false);
-        btnCancelReservation.setText("Cancelling...");
 
+        // The bookings list drops the reservation at once; a rejected cancel puts it back
+        Context appContext = getApplicationContext();
         bookingService.cancelBooking(
-            booking.getBookingId(),
+            booking,
             new BookingService.BooleanCallback() {
                 @Override
                 public void onSuccess(boolean result) {
-                    runOnUiThread(() -> {
-                        // Update local booking object
-                        booking.setStatus(BookingStatus.CANCELLED);
-                        booking.setUpdatedAt(new Date());
-
-                        // Return the cancelled booking to the calling activity
-                        Intent resultIntent = new Intent();
-                        resultIntent.putExtra("cancelled_booking", booking);
-                        setResult(RESULT_OK, resultIntent);
-                        
-                        // Show success dialog
-                        showCancellationSuccessDialog();
-                    });
+                    android.util.Log.d("CancelReservationActivity", "Cancellation confirmed: " + booking.getBookingId());
                 }
 
                 @Override
                 public void onError(String error) {
-                    runOnUiThread(() -> {
-                        Toast.makeText(CancelReservationActivity.this, 
-                            "Failed to cancel reservation: " + error, Toast.LENGTH_LONG).show();
-                        
-                        // Re-enable button
-                        btnCancelReservation.setEnabled(true);
-                        btnCancelReservation.setText("Cancel Reservation");
-                    });
+                    // This screen may have closed, so report on the application context
+                    Toast.makeText(appContext,
+                        "Failed to cancel reservation, it is still booked: " + error, Toast.LENGTH_LONG).show();
                 }
             }
         );
+
+        // Update local booking object
+        booking.setStatus(BookingStatus.CANCELLED);
+        booking.setUpdatedAt(new Date());
+
+        // Return the cancelled booking to the calling activity
+        Intent resultIntent = new Intent();
+        resultIntent.putExtra("cancelled_booking", booking);
+        setResult(RESULT_OK, resultIntent);
+
+        // Show success dialog
+        showCancellationSuccessDialog();
     }
 
     private void showCancellationSuccessDialog() {
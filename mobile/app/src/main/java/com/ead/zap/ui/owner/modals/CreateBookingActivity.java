@@ -19,32 +19,35 @@ import com.ead.zap.models.Vehicle;
 import com.ead.zap.models.VehicleDetail;
 import com.ead.zap.models.ChargingStation;
 import com.ead.zap.services.BookingService;
+import com.ead.zap.services.BookingStore;
 import com.ead.zap.services.ChargingStationService;
 import com.ead.zap.services.ProfileService;
+import com.ead.zap.services.SlotAvailabilityIndex;
 import com.ead.zap.utils.PreferenceManager;
+import com.ead.zap.utils.DateTimeCodec;
 import com.google.android.material.textfield.TextInputEditText;
 import android.widget.ArrayAdapter;
 import android.widget.AutoCompleteTextView;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 
 import java.util.Calendar;
+import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 public class CreateBookingActivity extends AppCompatActivity {
     private static final int STATION_SELECTION_REQUEST = 1001;
+    private static final int MIN_ADVANCE_HOURS = 12;
+    private static final int MAX_ADVANCE_DAYS = 7;
+    private static final int MAX_FREE_WINDOWS_SHOWN = 4;
 
     private TextInputEditText etBookingDate, etBookingTime;
     private AutoCompleteTextView etDuration;
-    private TextView tvSelectedStation, tvStationAddress, tvChargingRate, tvEstimatedCost;
+    private TextView tvSelectedStation, tvStationAddress, tvChargingRate, tvEstimatedCost, tvFreeWindows;
     private Button btnCancel, btnContinue;
     private RecyclerView rvVehicles;
     private VehicleSelectionAdapter vehicleAdapter;
 
     private Calendar selectedDate = Calendar.getInstance();
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-    private SimpleDateFormat timeFormat = new SimpleDateFormat("hh:mm a", Locale.getDefault());
 
     // Services
     private BookingService bookingService;
@@ -59,6 +62,9 @@ public class CreateBookingActivity extends AppCompatActivity {
     private double selectedStationPrice;
     private int selectedStationAvailableSlots;
 
+    // Booked intervals at the selected station, null until loaded
+    private SlotAvailabilityIndex slotAvailability;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -86,6 +92,7 @@ public class CreateBookingActivity extends AppCompatActivity {
         tvStationAddress = findViewById(R.id.tv_station_address);
         tvChargingRate = findViewById(R.id.tv_charging_rate);
         tvEstimatedCost = findViewById(R.id.tv_estimated_cost);
+        tvFreeWindows = findViewById(R.id.tv_free_windows);
         btnCancel = findViewById(R.id.btn_cancel);
         btnContinue = findViewById(R.id.btn_continue);
         rvVehicles = findViewById(R.id.rv_vehicles);
@@ -123,18 +130,23 @@ public class CreateBookingActivity extends AppCompatActivity {
             // Extract duration value from selected text
             String selected = durationOptions[position];
             updateCostCalculation();
+            updateFreeWindows();
+            if (!etBookingTime.getText().toString().isEmpty()) {
+                validateBookingDateTime();
+            }
         });
     }
 
     private void showDatePicker() {
         Calendar maxDate = Calendar.getInstance();
-        maxDate.add(Calendar.DAY_OF_YEAR, 7); // Max 7 days in future
+        maxDate.add(Calendar.DAY_OF_YEAR, MAX_ADVANCE_DAYS); // Max 7 days in future
 
         DatePickerDialog datePickerDialog = new DatePickerDialog(
                 this,
                 (view, year, month, dayOfMonth) -> {
                     selectedDate.set(year, month, dayOfMonth);
-                    etBookingDate.setText(dateFormat.format(selectedDate.getTime()));
+                    etBookingDate.setText(DateTimeCodec.formatDate(selectedDate.getTime()));
+                    updateFreeWindows();
                     validateBookingDateTime();
                 },
                 selectedDate.get(Calendar.YEAR),
@@ -153,7 +165,7 @@ public class CreateBookingActivity extends AppCompatActivity {
                 (view, hourOfDay, minute) -> {
                     selectedDate.set(Calendar.HOUR_OF_DAY, hourOfDay);
                     selectedDate.set(Calendar.MINUTE, minute);
-                    etBookingTime.setText(timeFormat.format(selectedDate.getTime()));
+                    etBookingTime.setText(DateTimeCodec.formatTime(selectedDate.getTime()));
                     validateBookingDateTime();
                 },
                 selectedDate.get(Calendar.HOUR_OF_DAY),
@@ -166,12 +178,18 @@ public class CreateBookingActivity extends AppCompatActivity {
     private void validateBookingDateTime() {
         Calendar now = Calendar.getInstance();
         Calendar minAllowedTime = Calendar.getInstance();
-        minAllowedTime.add(Calendar.HOUR, 12); // Must book at least 12 hours in advance
+        minAllowedTime.add(Calendar.HOUR, MIN_ADVANCE_HOURS); // Must book at least 12 hours in advance
 
+        int duration = getSelectedDuration();
         if (selectedDate.before(minAllowedTime)) {
             // Show error message
             etBookingTime.setError("Must book at least 12 hours in advance");
             btnContinue.setEnabled(false);
+        } else if (slotAvailability != null && duration > 0
+                && !slotAvailability.isAvailable(selectedDate.getTimeInMillis(), duration)) {
+            // Same rule the server applies, checked against the loaded bookings
+            etBookingTime.setError("No free slot at this time");
+            btnContinue.setEnabled(false);
         } else {
             etBookingTime.setError(null);
             btnContinue.setEnabled(true);
@@ -321,6 +339,13 @@ public class CreateBookingActivity extends AppCompatActivity {
             return;
         }
 
+        // Reject a known conflict here instead of waiting for the server to
+        if (slotAvailability != null && !slotAvailability.isAvailable(selectedDate.getTimeInMillis(), duration)) {
+            etBookingTime.setError("No free slot at this time");
+            Toast.makeText(this, "No free slot at this time. Pick one of the free times shown.", Toast.LENGTH_LONG).show();
+            return;
+        }
+
         // Show progress
         btnContinue.setEnabled(false);
         btnContinue.setText("Creating booking...");
@@ -348,6 +373,7 @@ public class CreateBookingActivity extends AppCompatActivity {
                         booking.setTotalCost(bookingResponse.getTotalAmount());
                         booking.setStatusFromString(bookingResponse.getStatus());
                         booking.setQrCode(bookingResponse.getQrCode());
+                        BookingStore.getInstance().add(booking);
 
                         // Pass booking to summary activity
                         Intent intent = new Intent(CreateBookingActivity.this, BookingSummaryActivity.class);
@@ -372,6 +398,9 @@ public class CreateBookingActivity extends AppCompatActivity {
                         // Reset button state
                         btnContinue.setEnabled(true);
                         btnContinue.setText("Continue");
+
+                        // The server may know of bookings we did not; reload before the next try
+                        loadSlotAvailability();
                     });
                 }
             }
@@ -398,6 +427,7 @@ public class CreateBookingActivity extends AppCompatActivity {
             
             // Update UI with selected station
             updateSelectedStationUI();
+            loadSlotAvailability();
             
             Toast.makeText(this, "Station selected: " + selectedStationName, Toast.LENGTH_SHORT).show();
         }
@@ -424,6 +454,109 @@ public class CreateBookingActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Load the selected station's bookings so free times show and conflicts are caught locally
+     */
+    private void loadSlotAvailability() {
+        if (selectedStationId == null) {
+            return;
+        }
+
+        String stationId = selectedStationId;
+        slotAvailability = null;
+        tvFreeWindows.setText("Checking availability...");
+
+        bookingService.getSlotAvailability(stationId, new BookingService.SlotAvailabilityCallback() {
+            @Override
+            public void onSuccess(SlotAvailabilityIndex index) {
+                runOnUiThread(() -> {
+                    if (!stationId.equals(selectedStationId) || isFinishing()) {
+                        return;
+                    }
+                    slotAvailability = index;
+                    updateFreeWindows();
+                    if (!etBookingTime.getText().toString().isEmpty()) {
+                        validateBookingDateTime();
+                    }
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                runOnUiThread(() -> {
+                    if (!stationId.equals(selectedStationId)) {
+                        return;
+                    }
+                    // Not fatal: the server still checks availability when the booking is made
+                    android.util.Log.w("CreateBookingActivity", "Slot availability not loaded: " + error);
+                    tvFreeWindows.setText("Free times unavailable right now");
+                });
+            }
+        });
+    }
+
+    /**
+     * Show the free start times on the selected date for the selected duration
+     */
+    private void updateFreeWindows() {
+        if (slotAvailability == null) {
+            return;
+        }
+
+        int duration = getSelectedDuration();
+        if (duration <= 0 || etBookingDate.getText().toString().isEmpty()) {
+            tvFreeWindows.setText("Select a date and duration to see free times");
+            return;
+        }
+
+        Calendar dayStart = (Calendar) selectedDate.clone();
+        dayStart.set(Calendar.HOUR_OF_DAY, 0);
+        dayStart.set(Calendar.MINUTE, 0);
+        dayStart.set(Calendar.SECOND, 0);
+        dayStart.set(Calendar.MILLISECOND, 0);
+        Calendar dayEnd = (Calendar) dayStart.clone();
+        dayEnd.add(Calendar.DAY_OF_YEAR, 1);
+
+        long now = System.currentTimeMillis();
+        long from = Math.max(dayStart.getTimeInMillis(), now + MIN_ADVANCE_HOURS * 3600000L);
+        long to = Math.min(dayEnd.getTimeInMillis() - 1, now + MAX_ADVANCE_DAYS * 86400000L);
+
+        List<SlotAvailabilityIndex.FreeWindow> windows = slotAvailability.getFreeWindows(from, to, duration);
+        if (windows.isEmpty()) {
+            tvFreeWindows.setText("No free times on this date for " + duration + " minutes");
+            return;
+        }
+
+        StringBuilder text = new StringBuilder("Free start times: ");
+        for (int i = 0; i < windows.size() && i < MAX_FREE_WINDOWS_SHOWN; i++) {
+            SlotAvailabilityIndex.FreeWindow window = windows.get(i);
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(DateTimeCodec.formatDisplay(new Date(window.getFirstStart()), DateTimeCodec.SHORT_TIME_PATTERN));
+            if (window.getLastStart() > window.getFirstStart()) {
+                text.append(" - ")
+                    .append(DateTimeCodec.formatDisplay(new Date(window.getLastStart()), DateTimeCodec.SHORT_TIME_PATTERN));
+            }
+        }
+        if (windows.size() > MAX_FREE_WINDOWS_SHOWN) {
+            text.append(", ...");
+        }
+        tvFreeWindows.setText(text);
+    }
+
+    /**
+     * Selected duration in minutes, or 0 if none is selected
+     */
+    private int getSelectedDuration() {
+        String durationStr = etDuration.getText().toString();
+        try {
+            return durationStr.isEmpty() ? 0 : Integer.parseInt(durationStr.split(" ")[0]);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     private void updateCostCalculation() {
         if (selectedStationPrice > 0 && !etDuration.getText().toString().isEmpty()) {
             try {
@@ -2,6 +2,7 @@ package com.ead.zap.ui.owner.modals;
 
 import android.app.DatePickerDialog;
 import android.app.TimePickerDialog;
+import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
 import android.widget.Button;
@@ -14,9 +15,9 @@ import androidx.appcompat.widget.Toolbar;
 import com.ead.zap.R;
 import com.ead.zap.models.Booking;
 import com.ead.zap.services.BookingService;
+import com.ead.zap.utils.DateTimeCodec;
 import com.google.android.material.textfield.TextInputEditText;
 
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
@@ -31,8 +32,6 @@ public class ModifyReservationActivity extends AppCompatActivity {
     private BookingService bookingService;
 
     private Calendar selectedDate = Calendar.getInstance();
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-    private SimpleDateFormat timeFormat = new SimpleDateFormat("hh:mm a", Locale.getDefault());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -100,14 +99,14 @@ public class ModifyReservationActivity extends AppCompatActivity {
         tvStationAddress.setText(booking.getStationAddress());
 
         // Show original booking details
-        tvOriginalDate.setText(dateFormat.format(booking.getReservationDate()));
-        tvOriginalTime.setText(timeFormat.format(booking.getReservationTime()));
+        tvOriginalDate.setText(DateTimeCodec.formatDate(booking.getReservationDate()));
+        tvOriginalTime.setText(DateTimeCodec.formatTime(booking.getReservationTime()));
         tvOriginalDuration.setText(String.format(Locale.getDefault(), "%d minutes", booking.getDuration()));
 
         // Pre-populate modification fields with current values
         selectedDate.setTime(booking.getReservationTime());
-        etBookingDate.setText(dateFormat.format(booking.getReservationDate()));
-        etBookingTime.setText(timeFormat.format(booking.getReservationTime()));
+        etBookingDate.setText(DateTimeCodec.formatDate(booking.getReservationDate()));
+        etBookingTime.setText(DateTimeCodec.formatTime(booking.getReservationTime()));
         etDuration.setText(String.valueOf(booking.getDuration()));
 
         // Show charging rate
@@ -140,7 +139,7 @@ public class ModifyReservationActivity extends AppCompatActivity {
                 this,
                 (view, year, month, dayOfMonth) -> {
                     selectedDate.set(year, month, dayOfMonth);
-                    etBookingDate.setText(dateFormat.format(selectedDate.getTime()));
+                    etBookingDate.setText(DateTimeCodec.formatDate(selectedDate.getTime()));
                     validateModificationDateTime();
                     updateEstimatedCost();
                 },
@@ -160,7 +159,7 @@ public class ModifyReservationActivity extends AppCompatActivity {
                 (view, hourOfDay, minute) -> {
                     selectedDate.set(Calendar.HOUR_OF_DAY, hourOfDay);
                     selectedDate.set(Calendar.MINUTE, minute);
-                    etBookingTime.setText(timeFormat.format(selectedDate.getTime()));
+                    etBookingTime.setText(DateTimeCodec.formatTime(selectedDate.getTime()));
                     validateModificationDateTime();
                     updateEstimatedCost();
                 },
@@ -213,54 +212,42 @@ public class ModifyReservationActivity extends AppCompatActivity {
             return;
         }
 
-        // Disable button to prevent multiple clicks
-        btnSaveChanges.setEnabled(false);
-        btnSaveChanges.setText("Saving...");
-
         String durationStr = etDuration.getText().toString().trim();
         int newDuration = Integer.parseInt(durationStr);
 
-        // Call the booking service to update the booking
-        bookingService.updateBooking(
-            booking.getBookingId(),
+        // The bookings list shows the change at once; a rejected change is undone there
+        Context appContext = getApplicationContext();
+        bookingService.modifyBooking(
+            booking,
             selectedDate.getTime(),
             newDuration,
-            "", // No notes for now
             new BookingService.BookingCallback() {
                 @Override
                 public void onSuccess(com.ead.zap.api.services.BookingApiService.BookingResponseDTO bookingResponse) {
-                    runOnUiThread(() -> {
-                        // Update local booking object with new data
-                        booking.setReservationDate(selectedDate.getTime());
-                        booking.setReservationTime(selectedDate.getTime());
-                        booking.setDuration(bookingResponse.getDurationMinutes());
-                        booking.setTotalCost(bookingResponse.getTotalAmount());
-                        booking.setStatusFromString(bookingResponse.getStatus());
-                        booking.setUpdatedAt(new Date());
-
-                        Intent resultIntent = new Intent();
-                        resultIntent.putExtra("modified_booking", booking);
-                        setResult(RESULT_OK, resultIntent);
-                        
-                        Toast.makeText(ModifyReservationActivity.this, 
-                            "Booking updated successfully!", Toast.LENGTH_SHORT).show();
-                        finish();
-                    });
+                    android.util.Log.d("ModifyReservationActivity", "Booking update confirmed: " + bookingResponse.getId());
                 }
 
                 @Override
                 public void onError(String error) {
-                    runOnUiThread(() -> {
-                        Toast.makeText(ModifyReservationActivity.this, 
-                            "Failed to update booking: " + error, Toast.LENGTH_LONG).show();
-                        
-                        // Re-enable button
-                        btnSaveChanges.setEnabled(true);
-                        btnSaveChanges.setText("Save Changes");
-                    });
+                    // This screen has closed by now, so report on the application context
+                    Toast.makeText(appContext,
+                        "Failed to update booking, changes undone: " + error, Toast.LENGTH_LONG).show();
                 }
             }
         );
+
+        // Update local booking object with new data
+        booking.setReservationDate(selectedDate.getTime());
+        booking.setReservationTime(selectedDate.getTime());
+        booking.setDuration(newDuration);
+        booking.setUpdatedAt(new Date());
+
+        Intent resultIntent = new Intent();
+        resultIntent.putExtra("modified_booking", booking);
+        setResult(RESULT_OK, resultIntent);
+
+        Toast.makeText(this, "Booking updated", Toast.LENGTH_SHORT).show();
+        finish();
     }
 
     private boolean validateForm() {
@@ -27,6 +27,7 @@ import com.google.android.material.card.MaterialCardView;
 import com.ead.zap.models.Booking;
 import com.ead.zap.models.BookingStatus;
 import com.ead.zap.ui.owner.EVOwnerMain;
+import com.ead.zap.utils.DateTimeCodec;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.WriterException;
 import com.journeyapps.barcodescanner.BarcodeEncoder;
@@ -35,7 +36,6 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.text.SimpleDateFormat;
 import java.util.Locale;
 
 public class QRCodeActivity extends AppCompatActivity {
@@ -50,8 +50,6 @@ public class QRCodeActivity extends AppCompatActivity {
     // UI Cards for different states
     private MaterialCardView cardQRCode, cardPendingStatus;
 
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-    private SimpleDateFormat timeFormat = new SimpleDateFormat("hh:mm a", Locale.getDefault());
 
     // Permission launcher for storage permissions
     private ActivityResultLauncher<String> requestPermissionLauncher =
@@ -114,8 +112,8 @@ public class QRCodeActivity extends AppCompatActivity {
         // Populate booking information
         tvBookingId.setText(booking.getBookingId() != null ? booking.getBookingId() : "N/A");
         tvStationName.setText(booking.getStationName());
-        tvBookingDate.setText(dateFormat.format(booking.getReservationDate()));
-        tvBookingTime.setText(timeFormat.format(booking.getReservationTime()));
+        tvBookingDate.setText(DateTimeCodec.formatDate(booking.getReservationDate()));
+        tvBookingTime.setText(DateTimeCodec.formatTime(booking.getReservationTime()));
         tvDuration.setText(String.format(Locale.getDefault(), "%d minutes", booking.getDuration()));
         tvStatus.setText(booking.getStatusString());
 
@@ -22,6 +22,7 @@ import java.util.List;
 
 public class StationSelectionActivity extends AppCompatActivity {
     private static final String TAG = "StationSelectionActivity";
+    private static final int NEARBY_TARGET_COUNT = 10;
 
     private RecyclerView recyclerView;
     private StationSelectionAdapter adapter;
@@ -88,9 +89,9 @@ public class StationSelectionActivity extends AppCompatActivity {
             locationService.getCurrentLocation(new LocationService.LocationCallback() {
                 @Override
                 public void onLocationReceived(double latitude, double longitude) {
-                    // Get nearby stations within 10km radius
-                    chargingStationService.getNearbyStations(latitude, longitude, 10.0,
-                        new ChargingStationService.ChargingStationsCallback() {
+                    // Widen the search until enough stations with free slots are found
+                    chargingStationService.getNearbyStationsAdaptive(latitude, longitude, NEARBY_TARGET_COUNT,
+                        new ChargingStationService.AdaptiveStationsCallback() {
                             @Override
                             public void onSuccess(List<ChargingStation> stations) {
                                 runOnUiThread(() -> {
@@ -294,6 +295,14 @@ public class StationSelectionActivity extends AppCompatActivity {
         updateStationList(mockStations);
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (locationService != null) {
+            locationService.stopLocationUpdates();
+        }
+    }
+
     @Override
     public boolean onSupportNavigateUp() {
         onBackPressed();
@@ -0,0 +1,278 @@
+package com.ead.zap.utils;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Thread-safe timestamp handling shared by services, Gson and the UI.
+ *
+ * API timestamps are parsed in a single pass without SimpleDateFormat. Accepted forms:
+ * <pre>
+ * 2025-10-06T14:30:00.123Z     fraction of any length, or none
+ * 2025-10-06T14:30:00+05:30    numeric offset, with or without the colon
+ * 2025-10-06T14:30:00          no offset: UTC, which is what the server stores
+ * 2025-10-06 14:30:00          space instead of 'T'
+ * 2025-10-06                   date only, midnight UTC
+ * </pre>
+ * Timestamps sent to the API are always written in UTC as yyyy-MM-dd'T'HH:mm:ss.SSS'Z'.
+ * Display formatting goes through per-thread formatters cached by locale and pattern.
+ */
+public final class DateTimeCodec {
+
+    /** Returned by {@link #parseMillis(CharSequence)} for input it cannot read */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    // Display patterns
+    public static final String DATE_PATTERN = "MMM dd, yyyy";
+    public static final String TIME_PATTERN = "hh:mm a";
+    public static final String SHORT_DATE_PATTERN = "MMM d, yyyy";
+    public static final String SHORT_TIME_PATTERN = "h:mm a";
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    private static final ThreadLocal<Map<Locale, Map<String, SimpleDateFormat>>> DISPLAY_FORMATS =
+            ThreadLocal.withInitial(HashMap::new);
+
+    private DateTimeCodec() {
+    }
+
+    /**
+     * Parse an API timestamp, or null if it is missing or malformed
+     */
+    public static Date parse(String value) {
+        long millis = parseMillis(value);
+        return millis == INVALID ? null : new Date(millis);
+    }
+
+    /**
+     * Parse an API timestamp to epoch millis, or {@link #INVALID}
+     */
+    public static long parseMillis(CharSequence value) {
+        if (value == null) {
+            return INVALID;
+        }
+        int length = value.length();
+        if (length < 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return INVALID;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            return INVALID;
+        }
+
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int millis = 0;
+        int pos = 10;
+        if (pos < length && (value.charAt(pos) == 'T' || value.charAt(pos) == 't' || value.charAt(pos) == ' ')) {
+            if (pos + 6 > length || value.charAt(pos + 3) != ':') {
+                return INVALID;
+            }
+            hour = digits(value, pos + 1, 2);
+            minute = digits(value, pos + 4, 2);
+            pos += 6;
+            if (pos < length && value.charAt(pos) == ':') {
+                if (pos + 3 > length) {
+                    return INVALID;
+                }
+                second = digits(value, pos + 1, 2);
+                pos += 3;
+                if (pos < length && (value.charAt(pos) == '.' || value.charAt(pos) == ',')) {
+                    // Keep the first three fraction digits; .NET sends up to seven
+                    int start = ++pos;
+                    while (pos < length && isDigit(value.charAt(pos))) {
+                        if (pos - start < 3) {
+                            millis = millis * 10 + (value.charAt(pos) - '0');
+                        }
+                        pos++;
+                    }
+                    int fractionDigits = pos - start;
+                    if (fractionDigits == 0) {
+                        return INVALID;
+                    }
+                    for (int i = fractionDigits; i < 3; i++) {
+                        millis *= 10;
+                    }
+                }
+            }
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 60) {
+                return INVALID;
+            }
+            // A leap second reads as the last second of the minute
+            second = Math.min(second, 59);
+        }
+
+        long offsetMillis = 0;
+        if (pos < length) {
+            char zone = value.charAt(pos);
+            if (zone == 'Z' || zone == 'z') {
+                pos++;
+            } else if (zone == '+' || zone == '-') {
+                if (pos + 3 > length) {
+                    return INVALID;
+                }
+                int offsetHours = digits(value, pos + 1, 2);
+                int offsetMinutes = 0;
+                pos += 3;
+                if (pos < length && value.charAt(pos) == ':') {
+                    pos++;
+                }
+                if (pos < length) {
+                    if (pos + 2 > length) {
+                        return INVALID;
+                    }
+                    offsetMinutes = digits(value, pos, 2);
+                    pos += 2;
+                }
+                if (offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0 || offsetMinutes > 59) {
+                    return INVALID;
+                }
+                offsetMillis = (offsetHours * 60L + offsetMinutes) * 60000L;
+                if (zone == '-') {
+                    offsetMillis = -offsetMillis;
+                }
+            }
+        }
+        if (pos != length) {
+            return INVALID;
+        }
+
+        long days = daysFromCivil(year, month, day);
+        return days * MILLIS_PER_DAY + ((hour * 60L + minute) * 60L + second) * 1000L + millis - offsetMillis;
+    }
+
+    /**
+     * Write a timestamp for the API, in UTC with milliseconds
+     */
+    public static String format(Date date) {
+        return date != null ? format(date.getTime()) : null;
+    }
+
+    public static String format(long epochMillis) {
+        long days = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        int millisOfDay = (int) Math.floorMod(epochMillis, MILLIS_PER_DAY);
+
+        // Civil date from day count (proleptic Gregorian)
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        int dayOfEra = (int) (z - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        char[] out = new char[24];
+        writeDigits(out, 0, (int) year, 4);
+        out[4] = '-';
+        writeDigits(out, 5, month, 2);
+        out[7] = '-';
+        writeDigits(out, 8, day, 2);
+        out[10] = 'T';
+        writeDigits(out, 11, millisOfDay / 3600000, 2);
+        out[13] = ':';
+        writeDigits(out, 14, millisOfDay / 60000 % 60, 2);
+        out[16] = ':';
+        writeDigits(out, 17, millisOfDay / 1000 % 60, 2);
+        out[19] = '.';
+        writeDigits(out, 20, millisOfDay % 1000, 3);
+        out[23] = 'Z';
+        return new String(out);
+    }
+
+    /**
+     * Format for display in the device's locale and time zone
+     */
+    public static String formatDisplay(Date date, String pattern) {
+        if (date == null) {
+            return "";
+        }
+        Locale locale = Locale.getDefault();
+        Map<String, SimpleDateFormat> formats = DISPLAY_FORMATS.get().get(locale);
+        if (formats == null) {
+            formats = new HashMap<>();
+            DISPLAY_FORMATS.get().put(locale, formats);
+        }
+        SimpleDateFormat format = formats.get(pattern);
+        if (format == null) {
+            format = new SimpleDateFormat(pattern, locale);
+            formats.put(pattern, format);
+        }
+        // The user can change time zone while the app runs
+        format.setTimeZone(TimeZone.getDefault());
+        return format.format(date);
+    }
+
+    public static String formatDate(Date date) {
+        return formatDisplay(date, DATE_PATTERN);
+    }
+
+    public static String formatTime(Date date) {
+        return formatDisplay(date, TIME_PATTERN);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Read a fixed-width unsigned number, or -1 if any character is not a digit
+     */
+    private static int digits(CharSequence value, int start, int count) {
+        if (start + count > value.length()) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static void writeDigits(char[] out, int start, int number, int count) {
+        for (int i = start + count - 1; i >= start; i--) {
+            out[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int monthIndex = month > 2 ? month - 3 : month + 9;
+        int dayOfYear = (153 * monthIndex + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+}
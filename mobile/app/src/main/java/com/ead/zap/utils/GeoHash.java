@@ -0,0 +1,113 @@
+package com.ead.zap.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class for geohash cells
+ * Encodes coordinates into base32 geohashes and lists the cells covering a bounding box
+ */
+public class GeoHash {
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private GeoHash() {}
+
+    /**
+     * Encode a coordinate as a geohash of the given length
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int value = 0;
+
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLon = mid;
+                } else {
+                    value = value << 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLat = mid;
+                } else {
+                    value = value << 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(value));
+                bit = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Decode a geohash into its bounding box: {minLat, minLon, maxLat, maxLon}
+     */
+    public static double[] bounds(String hash) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        boolean evenBit = true;
+
+        for (int i = 0; i < hash.length(); i++) {
+            int value = BASE32.indexOf(hash.charAt(i));
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + hash);
+            }
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = ((value >> bit) & 1) == 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) minLon = mid; else maxLon = mid;
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) minLat = mid; else maxLat = mid;
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[]{minLat, minLon, maxLat, maxLon};
+    }
+
+    /**
+     * List the geohash cells of the given length that intersect a bounding box
+     */
+    public static List<String> cover(double minLat, double minLon, double maxLat, double maxLon, int precision) {
+        int bits = precision * 5;
+        double cellLat = 180.0 / (1L << (bits / 2));
+        double cellLon = 360.0 / (1L << ((bits + 1) / 2));
+
+        minLat = Math.max(-90, minLat);
+        maxLat = Math.min(90, maxLat);
+        minLon = Math.max(-180, minLon);
+        maxLon = Math.min(180, maxLon);
+
+        long fromRow = (long) Math.floor((minLat + 90) / cellLat);
+        long toRow = (long) Math.floor((maxLat + 90) / cellLat);
+        long fromColumn = (long) Math.floor((minLon + 180) / cellLon);
+        long toColumn = (long) Math.floor((maxLon + 180) / cellLon);
+
+        List<String> cells = new ArrayList<>();
+        for (long row = fromRow; row <= toRow; row++) {
+            double centerLat = Math.min(90, -90 + (row + 0.5) * cellLat);
+            for (long column = fromColumn; column <= toColumn; column++) {
+                double centerLon = Math.min(180, -180 + (column + 0.5) * cellLon);
+                cells.add(encode(centerLat, centerLon, precision));
+            }
+        }
+        return cells;
+    }
+}
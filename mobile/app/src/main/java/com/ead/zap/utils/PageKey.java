@@ -0,0 +1,53 @@
+package com.ead.zap.utils;
+
+/**
+ * Keyset page cursor for history lists, written "millis|id": the time and id of
+ * the last row on a page. The server sorts by (time, id) newest first and
+ * continues strictly after that pair, so rows sharing a timestamp are neither
+ * skipped nor repeated between pages.
+ */
+public final class PageKey {
+    private static final char SEPARATOR = '|';
+
+    private PageKey() {
+    }
+
+    /**
+     * Cursor after a row, or null if its timestamp cannot be read
+     */
+    public static String of(String timestamp, String id) {
+        long millis = DateTimeCodec.parseMillis(timestamp);
+        if (millis == DateTimeCodec.INVALID) {
+            return null;
+        }
+        return id != null ? millis + String.valueOf(SEPARATOR) + id : String.valueOf(millis);
+    }
+
+    /**
+     * The cursor's time as an API timestamp, for the "before" parameter.
+     * A bare timestamp (a cursor stored before ids were added) is passed through.
+     */
+    public static String before(String key) {
+        if (key == null) {
+            return null;
+        }
+        int separator = key.indexOf(SEPARATOR);
+        String millis = separator >= 0 ? key.substring(0, separator) : key;
+        try {
+            return DateTimeCodec.format(Long.parseLong(millis));
+        } catch (NumberFormatException e) {
+            return key;
+        }
+    }
+
+    /**
+     * The cursor's row id, for the "beforeId" parameter, or null if it has none
+     */
+    public static String beforeId(String key) {
+        if (key == null) {
+            return null;
+        }
+        int separator = key.indexOf(SEPARATOR);
+        return separator >= 0 && separator < key.length() - 1 ? key.substring(separator + 1) : null;
+    }
+}
@@ -0,0 +1,160 @@
+package com.ead.zap.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Keyed page loading for long lists shown in a RecyclerView.
+ * Pages are requested from a {@link PageSource} as the user scrolls near
+ * either end of what is loaded, and at most {@code maxPages} pages are held:
+ * loading past the limit drops the page at the far end, and scrolling back
+ * reloads it by its key. Each page's source decides where it comes from
+ * (network, local cache or both). All calls and callbacks are on the main thread.
+ */
+public class PageWindow<T> {
+
+    /**
+     * Loads one page. A null key is the first page.
+     */
+    public interface PageSource<T> {
+        void loadPage(String key, int pageSize, PageCallback<T> callback);
+    }
+
+    /**
+     * Result of a page load; nextKey is null on the last page
+     */
+    public interface PageCallback<T> {
+        void onSuccess(List<T> items, String nextKey);
+        void onError(String error);
+    }
+
+    public interface Listener<T> {
+        void onItemsChanged(List<T> items);
+        void onError(String error);
+    }
+
+    private static class Page<T> {
+        final String key;
+        final List<T> items;
+        final String nextKey;
+
+        Page(String key, List<T> items, String nextKey) {
+            this.key = key;
+            this.items = items;
+            this.nextKey = nextKey;
+        }
+    }
+
+    private final PageSource<T> source;
+    private final Listener<T> listener;
+    private final int pageSize;
+    private final int maxPages;
+    private final int prefetchDistance;
+
+    private final Deque<Page<T>> pages = new ArrayDeque<>();
+    // Keys of the pages dropped from the front, nearest last; the first page's key is null
+    private final Deque<String> droppedKeys = new LinkedList<>();
+    private boolean loading;
+    private int generation;
+
+    /**
+     * @param prefetchDistance how many rows from either end to start loading the next page
+     */
+    public PageWindow(PageSource<T> source, Listener<T> listener, int pageSize, int maxPages, int prefetchDistance) {
+        this.source = source;
+        this.listener = listener;
+        this.pageSize = pageSize;
+        this.maxPages = Math.max(2, maxPages);
+        this.prefetchDistance = prefetchDistance;
+    }
+
+    /**
+     * Drop everything and load the first page
+     */
+    public void refresh() {
+        generation++;
+        pages.clear();
+        droppedKeys.clear();
+        loading = false;
+        load(null, true);
+    }
+
+    /**
+     * Tell the window which rows are on screen, e.g. from a scroll listener
+     */
+    public void onVisibleRange(int firstVisible, int lastVisible) {
+        if (loading || pages.isEmpty()) {
+            return;
+        }
+        int loaded = size();
+        if (lastVisible >= loaded - 1 - prefetchDistance && pages.getLast().nextKey != null) {
+            load(pages.getLast().nextKey, true);
+        } else if (firstVisible <= prefetchDistance && !droppedKeys.isEmpty()) {
+            load(droppedKeys.peekLast(), false);
+        }
+    }
+
+    /**
+     * Rows currently held, in order
+     */
+    public List<T> getItems() {
+        List<T> items = new ArrayList<>(size());
+        for (Page<T> page : pages) {
+            items.addAll(page.items);
+        }
+        return items;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    private int size() {
+        int size = 0;
+        for (Page<T> page : pages) {
+            size += page.items.size();
+        }
+        return size;
+    }
+
+    private void load(String key, boolean append) {
+        loading = true;
+        int requestGeneration = generation;
+        source.loadPage(key, pageSize, new PageCallback<T>() {
+            @Override
+            public void onSuccess(List<T> items, String nextKey) {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                loading = false;
+                Page<T> page = new Page<>(key, items, nextKey);
+                if (append) {
+                    pages.addLast(page);
+                    if (pages.size() > maxPages) {
+                        droppedKeys.addLast(pages.removeFirst().key);
+                    }
+                } else {
+                    droppedKeys.removeLast();
+                    pages.addFirst(page);
+                    if (pages.size() > maxPages) {
+                        // Reachable again through the new last page's nextKey
+                        pages.removeLast();
+                    }
+                }
+                listener.onItemsChanged(getItems());
+            }
+
+            @Override
+            public void onError(String error) {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                loading = false;
+                listener.onError(error);
+            }
+        });
+    }
+}
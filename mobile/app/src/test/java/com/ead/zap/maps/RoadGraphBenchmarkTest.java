@@ -0,0 +1,186 @@
+package com.ead.zap.maps;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Load time, heap and query latency of the offline router on a city-sized
+ * grid (62,500 nodes, about 250,000 edges, 25 km across). Results are printed;
+ * the bounds are loose enough for a slow CI host and only catch regressions
+ * such as copying the graph onto the heap or a query that scans every node.
+ */
+public class RoadGraphBenchmarkTest {
+    private static final int SIDE = 250;
+    private static final double SPACING_DEGREES = 0.001; // ~110 m
+    private static final int MAX_SPEED_KMH = 100;
+    private static final int WARMUP_QUERIES = 20;
+    private static final int QUERIES = 200;
+
+    private static File file;
+
+    @BeforeClass
+    public static void writeGrid() throws IOException {
+        file = File.createTempFile("roadgraph-benchmark", ".zrg");
+        Random random = new Random(42);
+        int nodeCount = SIDE * SIDE;
+        int[] degree = new int[nodeCount];
+        int[][] targets = new int[nodeCount][];
+        for (int node = 0; node < nodeCount; node++) {
+            int row = node / SIDE;
+            int column = node % SIDE;
+            int[] neighbours = new int[4];
+            int count = 0;
+            if (row > 0) neighbours[count++] = node - SIDE;
+            if (row < SIDE - 1) neighbours[count++] = node + SIDE;
+            if (column > 0) neighbours[count++] = node - 1;
+            if (column < SIDE - 1) neighbours[count++] = node + 1;
+            targets[node] = Arrays.copyOf(neighbours, count);
+            degree[node] = count;
+        }
+        int edgeCount = 0;
+        for (int count : degree) {
+            edgeCount += count;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(RoadGraph.MAGIC);
+            out.writeInt(RoadGraph.VERSION);
+            out.writeInt(nodeCount);
+            out.writeInt(edgeCount);
+            out.writeInt(MAX_SPEED_KMH);
+            for (int node = 0; node < nodeCount; node++) {
+                out.writeInt((int) Math.round((6.80 + (node / SIDE) * SPACING_DEGREES) * 1e7));
+            }
+            for (int node = 0; node < nodeCount; node++) {
+                out.writeInt((int) Math.round((79.80 + (node % SIDE) * SPACING_DEGREES) * 1e7));
+            }
+            int offset = 0;
+            for (int node = 0; node <= nodeCount; node++) {
+                out.writeInt(offset);
+                if (node < nodeCount) {
+                    offset += degree[node];
+                }
+            }
+            for (int[] nodeTargets : targets) {
+                for (int target : nodeTargets) {
+                    out.writeInt(target);
+                }
+            }
+            // Every edge is one grid step, about 110 m
+            int lengthDm = 1110;
+            for (int i = 0; i < edgeCount; i++) {
+                out.writeInt(lengthDm);
+            }
+            for (int i = 0; i < edgeCount; i++) {
+                double speedMps = (20 + random.nextInt(MAX_SPEED_KMH - 19)) / 3.6;
+                out.writeInt((int) Math.ceil(lengthDm / speedMps));
+            }
+        }
+    }
+
+    @AfterClass
+    public static void deleteGrid() {
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void load_isAHeaderReadAndKeepsTheGraphOffTheHeap() throws IOException {
+        long[] loadNanos = new long[5];
+        RoadGraph graph = null;
+        for (int i = 0; i < loadNanos.length; i++) {
+            long start = System.nanoTime();
+            graph = RoadGraph.load(file);
+            loadNanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(loadNanos);
+
+        long before = usedHeap();
+        RoadGraph[] kept = new RoadGraph[10];
+        for (int i = 0; i < kept.length; i++) {
+            kept[i] = RoadGraph.load(file);
+        }
+        long perGraph = Math.max(0, usedHeap() - before) / kept.length;
+
+        System.out.println("RoadGraph load: median " + millis(loadNanos[loadNanos.length / 2])
+                + " ms for " + graph.getNodeCount() + " nodes, " + graph.getEdgeCount() + " edges ("
+                + file.length() / 1024 + " KB file); heap per loaded graph " + perGraph / 1024 + " KB");
+        assertEquals(SIDE * SIDE, kept[kept.length - 1].getNodeCount());
+        assertTrue("load took " + millis(loadNanos[loadNanos.length / 2]) + " ms",
+                loadNanos[loadNanos.length / 2] < 200_000_000L);
+        // The file is about 3.6 MB; a load that copied it would show here
+        assertTrue("heap per graph " + perGraph + " bytes", perGraph < 256 * 1024);
+    }
+
+    @Test
+    public void route_latencyAcrossTheGrid() throws IOException {
+        RoadGraph graph = RoadGraph.load(file);
+        long before = usedHeap();
+        RoadGraphRouter router = new RoadGraphRouter(graph);
+        long routerHeap = Math.max(0, usedHeap() - before);
+        Random random = new Random(7);
+
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            router.route(random.nextInt(graph.getNodeCount()), random.nextInt(graph.getNodeCount()));
+        }
+        long[] queryNanos = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int source = random.nextInt(graph.getNodeCount());
+            int target = random.nextInt(graph.getNodeCount());
+            long start = System.nanoTime();
+            RoadGraphRouter.Route route = router.route(source, target);
+            queryNanos[i] = System.nanoTime() - start;
+            assertNotNull(source + " -> " + target, route);
+        }
+        Arrays.sort(queryNanos);
+
+        System.out.println("RoadGraph route: p50 " + millis(queryNanos[QUERIES / 2]) + " ms, p95 "
+                + millis(queryNanos[QUERIES * 95 / 100]) + " ms, max " + millis(queryNanos[QUERIES - 1])
+                + " ms; router working arrays " + routerHeap / 1024 + " KB");
+        assertTrue("p95 " + millis(queryNanos[QUERIES * 95 / 100]) + " ms",
+                queryNanos[QUERIES * 95 / 100] < 1_000_000_000L);
+    }
+
+    @Test
+    public void findNearestNode_latency() throws IOException {
+        RoadGraph graph = RoadGraph.load(file);
+        Random random = new Random(3);
+        long[] nanos = new long[100];
+        for (int i = 0; i < nanos.length; i++) {
+            double latitude = 6.80 + random.nextDouble() * SIDE * SPACING_DEGREES;
+            double longitude = 79.80 + random.nextDouble() * SIDE * SPACING_DEGREES;
+            long start = System.nanoTime();
+            int node = graph.findNearestNode(latitude, longitude);
+            nanos[i] = System.nanoTime() - start;
+            assertEquals(Math.round((latitude - 6.80) / SPACING_DEGREES), node / SIDE, 1);
+        }
+        Arrays.sort(nanos);
+
+        System.out.println("RoadGraph findNearestNode: p50 " + millis(nanos[nanos.length / 2]) + " ms");
+        assertTrue(nanos[nanos.length / 2] < 200_000_000L);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf(Math.round(nanos / 1e5) / 10.0);
+    }
+}
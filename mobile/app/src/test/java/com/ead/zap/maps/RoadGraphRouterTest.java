@@ -0,0 +1,210 @@
+package com.ead.zap.maps;
+
+import org.junit.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the A* router against a brute-force Dijkstra on random road graphs.
+ */
+public class RoadGraphRouterTest {
+    private static final int MAX_SPEED_KMH = 100;
+    private static final double EARTH_RADIUS_M = 6371000.0;
+
+    @Test
+    public void route_matchesBruteForceDijkstra() throws IOException {
+        Random random = new Random(42);
+        for (int graphIndex = 0; graphIndex < 20; graphIndex++) {
+            RoadGraph graph = randomGraph(random, 40 + random.nextInt(40), 3);
+            RoadGraphRouter router = new RoadGraphRouter(graph);
+
+            for (int query = 0; query < 25; query++) {
+                int source = random.nextInt(graph.getNodeCount());
+                int target = random.nextInt(graph.getNodeCount());
+                double expected = dijkstra(graph, source)[target];
+
+                RoadGraphRouter.Route route = router.route(source, target);
+                String label = "graph " + graphIndex + ", " + source + " -> " + target;
+                if (Double.isInfinite(expected)) {
+                    assertNull(label, route);
+                    continue;
+                }
+                assertNotNull(label, route);
+                assertEquals(label, expected, route.getTimeSeconds(), expected * 1e-5 + 1e-3);
+                assertPathIsValid(label, graph, route, source, target);
+            }
+        }
+    }
+
+    @Test
+    public void route_toItself_isSingleNode() throws IOException {
+        RoadGraph graph = randomGraph(new Random(7), 10, 2);
+        RoadGraphRouter.Route route = new RoadGraphRouter(graph).route(3, 3);
+
+        assertNotNull(route);
+        assertArrayEquals(new int[] {3}, route.getNodes());
+        assertEquals(0.0, route.getTimeSeconds(), 0.0);
+    }
+
+    @Test
+    public void route_respectsOneWayEdges() throws IOException {
+        // 0 -> 1 -> 2 only; nothing leads back
+        double[][] coordinates = {{6.90, 79.85}, {6.91, 79.85}, {6.92, 79.85}};
+        int[][] edges = {{0, 1}, {1, 2}};
+        RoadGraph graph = writeGraph(coordinates, edges, new Random(1));
+        RoadGraphRouter router = new RoadGraphRouter(graph);
+
+        assertArrayEquals(new int[] {0, 1, 2}, router.route(0, 2).getNodes());
+        assertNull(router.route(2, 0));
+    }
+
+    /**
+     * Random graph: nodes scattered over a few kilometres, each with a few
+     * outgoing edges to nearby nodes. Some nodes end up unreachable.
+     */
+    private static RoadGraph randomGraph(Random random, int nodeCount, int edgesPerNode) throws IOException {
+        double[][] coordinates = new double[nodeCount][];
+        for (int node = 0; node < nodeCount; node++) {
+            coordinates[node] = new double[] {
+                    6.90 + random.nextDouble() * 0.05,
+                    79.85 + random.nextDouble() * 0.05
+            };
+        }
+
+        List<int[]> edges = new ArrayList<>();
+        for (int node = 0; node < nodeCount; node++) {
+            int count = random.nextInt(edgesPerNode + 1);
+            for (int i = 0; i < count; i++) {
+                int target = random.nextInt(nodeCount);
+                if (target != node) {
+                    edges.add(new int[] {node, target});
+                }
+            }
+        }
+        return writeGraph(coordinates, edges.toArray(new int[0][]), random);
+    }
+
+    /**
+     * Write a graph in the ZRG1 layout and memory-map it back. Edge lengths are
+     * at least the straight-line distance and speeds at most the graph's top
+     * speed, as the router's heuristic assumes.
+     */
+    private static RoadGraph writeGraph(double[][] coordinates, int[][] edges, Random random) throws IOException {
+        int nodeCount = coordinates.length;
+        int[][] sorted = edges.clone();
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a[0], b[0]));
+
+        File file = File.createTempFile("roadgraph", ".zrg");
+        file.deleteOnExit();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(RoadGraph.MAGIC);
+            out.writeInt(RoadGraph.VERSION);
+            out.writeInt(nodeCount);
+            out.writeInt(sorted.length);
+            out.writeInt(MAX_SPEED_KMH);
+            for (double[] coordinate : coordinates) {
+                out.writeInt((int) Math.round(coordinate[0] * 1e7));
+            }
+            for (double[] coordinate : coordinates) {
+                out.writeInt((int) Math.round(coordinate[1] * 1e7));
+            }
+
+            int edge = 0;
+            for (int node = 0; node <= nodeCount; node++) {
+                while (edge < sorted.length && sorted[edge][0] < node) {
+                    edge++;
+                }
+                out.writeInt(edge);
+            }
+
+            double[] lengths = new double[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                out.writeInt(sorted[i][1]);
+                double[] from = coordinates[sorted[i][0]];
+                double[] to = coordinates[sorted[i][1]];
+                lengths[i] = distanceMeters(from[0], from[1], to[0], to[1]) * (1 + random.nextDouble());
+            }
+            for (double length : lengths) {
+                out.writeInt((int) Math.ceil(length * 10));
+            }
+            for (double length : lengths) {
+                double speedMps = (20 + random.nextInt(MAX_SPEED_KMH - 19)) / 3.6;
+                out.writeInt((int) Math.ceil(length / speedMps * 10));
+            }
+        }
+        return RoadGraph.load(file);
+    }
+
+    /**
+     * Textbook O(n^2) Dijkstra over the same graph, without a heap or heuristic
+     */
+    private static double[] dijkstra(RoadGraph graph, int source) {
+        int nodeCount = graph.getNodeCount();
+        double[] time = new double[nodeCount];
+        boolean[] done = new boolean[nodeCount];
+        Arrays.fill(time, Double.POSITIVE_INFINITY);
+        time[source] = 0;
+
+        for (int round = 0; round < nodeCount; round++) {
+            int best = -1;
+            for (int node = 0; node < nodeCount; node++) {
+                if (!done[node] && (best < 0 || time[node] < time[best])) {
+                    best = node;
+                }
+            }
+            if (best < 0 || Double.isInfinite(time[best])) {
+                break;
+            }
+            done[best] = true;
+            for (int edge = graph.getFirstEdge(best); edge < graph.getEdgeEnd(best); edge++) {
+                int next = graph.getEdgeTarget(edge);
+                time[next] = Math.min(time[next], time[best] + graph.getEdgeTimeSeconds(edge));
+            }
+        }
+        return time;
+    }
+
+    private static void assertPathIsValid(String label, RoadGraph graph, RoadGraphRouter.Route route,
+                                          int source, int target) {
+        int[] nodes = route.getNodes();
+        assertEquals(label, source, nodes[0]);
+        assertEquals(label, target, nodes[nodes.length - 1]);
+
+        double time = 0;
+        double length = 0;
+        for (int i = 0; i < nodes.length - 1; i++) {
+            int cheapest = -1;
+            for (int edge = graph.getFirstEdge(nodes[i]); edge < graph.getEdgeEnd(nodes[i]); edge++) {
+                if (graph.getEdgeTarget(edge) == nodes[i + 1]
+                        && (cheapest < 0 || graph.getEdgeTimeSeconds(edge) < graph.getEdgeTimeSeconds(cheapest))) {
+                    cheapest = edge;
+                }
+            }
+            assertTrue(label + ": no edge " + nodes[i] + " -> " + nodes[i + 1], cheapest >= 0);
+            time += graph.getEdgeTimeSeconds(cheapest);
+            length += graph.getEdgeLengthMeters(cheapest);
+        }
+        assertEquals(label, time, route.getTimeSeconds(), time * 1e-5 + 1e-3);
+        assertEquals(label, length, route.getLengthMeters(), 1e-6);
+    }
+
+    private static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double dPhi = phi2 - phi1;
+        double dLambda = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dPhi / 2) * Math.sin(dPhi / 2)
+                + Math.cos(phi1) * Math.cos(phi2) * Math.sin(dLambda / 2) * Math.sin(dLambda / 2);
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,197 @@
+package com.ead.zap.maps;
+
+import com.ead.zap.models.ChargingStation;
+import com.ead.zap.services.ColumnarStationStore;
+
+import org.junit.Test;
+import org.osmdroid.util.GeoPoint;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the route corridor against a brute-force scan of every station
+ * against every segment, and times a 500 km route over 50,000 stations.
+ */
+public class RouteCorridorTest {
+    private static final double KM_PER_DEGREE = 6371.0 * Math.PI / 180.0;
+
+    @Test
+    public void query_matchesBruteForce() {
+        Random random = new Random(42);
+        for (int testCase = 0; testCase < 40; testCase++) {
+            // Step lengths up to 3 km so some segments span several grid cells
+            List<GeoPoint> route = randomRoute(random, 2 + random.nextInt(300), 0.05 + random.nextDouble() * 3.0);
+            double corridorKm = 0.2 + random.nextDouble() * 5.0;
+            List<ChargingStation> stations = stationsAround(random, route, corridorKm, 2000);
+            String label = "case " + testCase + ", corridor " + corridorKm + " km";
+
+            List<RouteCorridor.Hit> hits = new RouteCorridor(route, corridorKm).query(stations);
+
+            assertHits(label, bruteForce(route, corridorKm, stations), hits);
+        }
+    }
+
+    @Test
+    public void query_overAColumnStore_matchesTheObjectQuery() {
+        Random random = new Random(7);
+        List<GeoPoint> route = randomRoute(random, 200, 0.5);
+        List<ChargingStation> stations = stationsAround(random, route, 2.0, 3000);
+        ColumnarStationStore store = new ColumnarStationStore();
+        store.putAll(stations);
+        RouteCorridor corridor = new RouteCorridor(route, 2.0);
+
+        List<RouteCorridor.Hit> expected = corridor.query(stations);
+        List<RouteCorridor.Hit> actual = corridor.query(store);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getStation().getId(), actual.get(i).getStation().getId());
+            assertEquals(expected.get(i).getDistanceAlongRouteKm(), actual.get(i).getDistanceAlongRouteKm(), 1e-9);
+        }
+    }
+
+    @Test
+    public void query_latencyFor500kmRouteAnd50kStations() {
+        Random random = new Random(3);
+        List<GeoPoint> route = randomRoute(random, 5000, 0.1);
+        List<ChargingStation> stations = stationsAround(random, route, 5.0, 50000);
+
+        for (double corridorKm : new double[]{1.0, 5.0}) {
+            long start = System.nanoTime();
+            RouteCorridor corridor = new RouteCorridor(route, corridorKm);
+            long buildNanos = System.nanoTime() - start;
+            corridor.query(stations); // warm-up
+            start = System.nanoTime();
+            List<RouteCorridor.Hit> hits = corridor.query(stations);
+            long queryNanos = System.nanoTime() - start;
+
+            System.out.println("RouteCorridor " + corridorKm + " km over "
+                    + Math.round(corridor.getRouteLengthKm()) + " km, " + stations.size() + " stations: build "
+                    + millis(buildNanos) + " ms, query " + millis(queryNanos) + " ms, " + hits.size() + " hits");
+            assertTrue(corridor.getRouteLengthKm() > 400);
+            // A scan of every segment per station takes seconds here
+            assertTrue("query took " + millis(queryNanos) + " ms", queryNanos < 1_000_000_000L);
+        }
+    }
+
+    /**
+     * Every station tested against every segment, with the corridor's own local distance
+     */
+    private static List<double[]> bruteForce(List<GeoPoint> route, double corridorKm, List<ChargingStation> stations) {
+        double[] cumulativeKm = new double[route.size()];
+        for (int i = 1; i < route.size(); i++) {
+            GeoPoint from = route.get(i - 1);
+            GeoPoint to = route.get(i);
+            cumulativeKm[i] = cumulativeKm[i - 1] + haversineKm(from.getLatitude(), from.getLongitude(),
+                    to.getLatitude(), to.getLongitude());
+        }
+
+        List<double[]> hits = new ArrayList<>();
+        for (int index = 0; index < stations.size(); index++) {
+            double stationLat = stations.get(index).getLocation().getLatitude();
+            double stationLon = stations.get(index).getLocation().getLongitude();
+            double cosLat = Math.cos(Math.toRadians(stationLat));
+            double best = Double.MAX_VALUE;
+            double along = 0;
+            for (int segment = 0; segment + 1 < route.size(); segment++) {
+                double ax = (route.get(segment).getLongitude() - stationLon) * cosLat * KM_PER_DEGREE;
+                double ay = (route.get(segment).getLatitude() - stationLat) * KM_PER_DEGREE;
+                double bx = (route.get(segment + 1).getLongitude() - stationLon) * cosLat * KM_PER_DEGREE;
+                double by = (route.get(segment + 1).getLatitude() - stationLat) * KM_PER_DEGREE;
+                double dx = bx - ax;
+                double dy = by - ay;
+                double lengthSquared = dx * dx + dy * dy;
+                double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, -(ax * dx + ay * dy) / lengthSquared));
+                double distance = Math.hypot(ax + t * dx, ay + t * dy);
+                if (distance < best) {
+                    best = distance;
+                    along = cumulativeKm[segment] + t * (cumulativeKm[segment + 1] - cumulativeKm[segment]);
+                }
+            }
+            if (best <= corridorKm) {
+                hits.add(new double[]{index, best, along});
+            }
+        }
+        hits.sort((a, b) -> Double.compare(a[2], b[2]));
+        return hits;
+    }
+
+    private static void assertHits(String label, List<double[]> expected, List<RouteCorridor.Hit> actual) {
+        assertEquals(label, expected.size(), actual.size());
+        Map<String, double[]> expectedById = new HashMap<>();
+        for (double[] hit : expected) {
+            expectedById.put("station-" + (int) hit[0], hit);
+        }
+        double previousAlong = 0;
+        for (RouteCorridor.Hit hit : actual) {
+            double[] match = expectedById.get(hit.getStation().getId());
+            assertNotNull(label + ": " + hit.getStation().getId(), match);
+            assertEquals(label, match[1], hit.getDistanceFromRouteKm(), 1e-9);
+            assertEquals(label, match[2], hit.getDistanceAlongRouteKm(), 1e-9);
+            assertTrue(label + ": out of order", hit.getDistanceAlongRouteKm() >= previousAlong);
+            previousAlong = hit.getDistanceAlongRouteKm();
+        }
+    }
+
+    /**
+     * Random walk from Colombo with a drifting heading
+     */
+    private static List<GeoPoint> randomRoute(Random random, int vertices, double stepKm) {
+        List<GeoPoint> route = new ArrayList<>(vertices);
+        double latitude = 6.9271;
+        double longitude = 79.8612;
+        double heading = random.nextDouble() * 2 * Math.PI;
+        route.add(new GeoPoint(latitude, longitude));
+        for (int i = 1; i < vertices; i++) {
+            heading += (random.nextDouble() - 0.5) * 0.6;
+            double step = stepKm * (0.5 + random.nextDouble());
+            latitude += step * Math.cos(heading) / KM_PER_DEGREE;
+            longitude += step * Math.sin(heading) / (KM_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+            route.add(new GeoPoint(latitude, longitude));
+        }
+        return route;
+    }
+
+    /**
+     * Stations scattered within twice the corridor of random route vertices, so
+     * many fall close to the corridor's edge
+     */
+    private static List<ChargingStation> stationsAround(Random random, List<GeoPoint> route,
+                                                        double corridorKm, int count) {
+        List<ChargingStation> stations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            GeoPoint vertex = route.get(random.nextInt(route.size()));
+            double offsetKm = corridorKm * 2 * Math.sqrt(random.nextDouble());
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double latitude = vertex.getLatitude() + offsetKm * Math.cos(angle) / KM_PER_DEGREE;
+            double longitude = vertex.getLongitude()
+                    + offsetKm * Math.sin(angle) / (KM_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+
+            ChargingStation station = new ChargingStation();
+            station.setId("station-" + i);
+            station.setLocation(new ChargingStation.Location(latitude, longitude, null));
+            stations.add(station);
+        }
+        return stations;
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6371.0 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf(Math.round(nanos / 1e5) / 10.0);
+    }
+}
@@ -0,0 +1,228 @@
+package com.ead.zap.services;
+
+import com.ead.zap.models.Booking;
+import com.ead.zap.models.BookingStatus;
+import com.google.gson.Gson;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the booking snapshot's partitions, bounded history paging, sessions and optimistic changes.
+ */
+public class BookingStoreTest {
+    private static final long HOUR = 3600000L;
+
+    // Latest first, then by id descending, as the server pages history
+    private static final Comparator<Booking> LATEST_FIRST = (a, b) -> {
+        int byTime = Long.compare(b.getReservationTime().getTime(), a.getReservationTime().getTime());
+        return byTime != 0 ? byTime : b.getBookingId().compareTo(a.getBookingId());
+    };
+
+    private BookingStore store;
+
+    @Before
+    public void setUp() {
+        store = BookingStore.getInstance();
+        store.clear();
+    }
+
+    @Test
+    public void setBookings_partitionsUpcomingHistoryAndCounts() {
+        long now = System.currentTimeMillis();
+        Booking soon = booking("b1", now + HOUR, BookingStatus.APPROVED);
+        Booking later = booking("b2", now + 2 * HOUR, BookingStatus.PENDING);
+        Booking passed = booking("b3", now - HOUR, BookingStatus.APPROVED);
+        Booking done = booking("b4", now - 2 * HOUR, BookingStatus.COMPLETED);
+        Booking cancelled = booking("b5", now - 3 * HOUR, BookingStatus.CANCELLED);
+
+        store.setBookings(store.getSession(), Arrays.asList(later, passed, soon),
+                Arrays.asList(done, cancelled), null);
+
+        assertTrue(store.isLoaded());
+        assertEquals(Arrays.asList(soon, later), store.getUpcoming());
+        assertSame(soon, store.getNextUpcoming());
+        assertEquals(2, store.getCount(BookingStatus.APPROVED));
+        assertEquals(1, store.getCount(BookingStatus.PENDING));
+        assertEquals(1, store.getCount(BookingStatus.COMPLETED));
+        assertEquals(0, store.getCount(BookingStatus.IN_PROGRESS));
+        assertEquals(Arrays.asList(done, cancelled), store.getHistoryPage(null, 10).getBookings());
+    }
+
+    @Test
+    public void getHistoryPage_matchesSortedHistory() {
+        Random random = new Random(42);
+        for (int testCase = 0; testCase < 100; testCase++) {
+            store.clear();
+            List<Booking> history = randomHistory(random, random.nextInt(60));
+            Collections.sort(history, LATEST_FIRST);
+            // The server's first page is empty only when there is no history
+            int loaded = history.isEmpty() ? 0 : 1 + random.nextInt(Math.min(history.size(), 40));
+            List<Booking> firstPage = new ArrayList<>(history.subList(0, loaded));
+            String serverNextKey = loaded < history.size() ? keyOf(firstPage.get(loaded - 1)) : null;
+            Collections.shuffle(firstPage, random);
+
+            store.setBookings(store.getSession(), new ArrayList<>(), firstPage, serverNextKey);
+
+            int pageSize = 1 + random.nextInt(10);
+            List<Booking> paged = new ArrayList<>();
+            String key = null;
+            String label = "case " + testCase;
+            while (true) {
+                BookingStore.HistoryPage page = store.getHistoryPage(key, pageSize);
+                if (page == null) {
+                    // Past the loaded page: the server continues from the same key
+                    assertTrue(label, serverNextKey != null);
+                    assertEquals(label, serverNextKey, key);
+                    break;
+                }
+                assertTrue(label, page.getBookings().size() <= pageSize);
+                paged.addAll(page.getBookings());
+                key = page.getNextKey();
+                if (key == null) {
+                    assertNull(label, serverNextKey);
+                    break;
+                }
+                assertEquals(label, keyOf(paged.get(paged.size() - 1)), key);
+            }
+            assertEquals(label, history.subList(0, serverNextKey != null ? loaded : history.size()), paged);
+        }
+    }
+
+    @Test
+    public void getHistoryPage_keepsBookingsSharingATime() {
+        long time = System.currentTimeMillis() - HOUR;
+        List<Booking> history = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            history.add(booking("b" + i, time, BookingStatus.COMPLETED));
+        }
+        store.setBookings(store.getSession(), new ArrayList<>(), history, null);
+
+        BookingStore.HistoryPage first = store.getHistoryPage(null, 2);
+        BookingStore.HistoryPage second = store.getHistoryPage(first.getNextKey(), 2);
+        BookingStore.HistoryPage third = store.getHistoryPage(second.getNextKey(), 2);
+
+        List<String> ids = new ArrayList<>();
+        for (BookingStore.HistoryPage page : Arrays.asList(first, second, third)) {
+            for (Booking booking : page.getBookings()) {
+                ids.add(booking.getBookingId());
+            }
+        }
+        assertEquals(Arrays.asList("b4", "b3", "b2", "b1", "b0"), ids);
+        assertNull(third.getNextKey());
+    }
+
+    @Test
+    public void setBookings_fromAnEarlierSession_isDropped() {
+        long now = System.currentTimeMillis();
+        int before = store.getSession();
+        store.clear();
+
+        store.setBookings(before, Collections.singletonList(booking("b1", now + HOUR, BookingStatus.APPROVED)),
+                new ArrayList<>(), null);
+
+        assertFalse(store.isLoaded());
+        assertFalse(store.contains("b1"));
+        assertEquals(0, store.getCount(BookingStatus.APPROVED));
+    }
+
+    @Test
+    public void rollback_restoresBookingAndCounts() {
+        long now = System.currentTimeMillis();
+        Booking original = booking("b1", now + HOUR, BookingStatus.APPROVED);
+        store.setBookings(store.getSession(), Collections.singletonList(original), new ArrayList<>(), null);
+
+        BookingStore.PendingChange change = store.applyChange(withStatus(original, BookingStatus.CANCELLED));
+        assertEquals(0, store.getCount(BookingStatus.APPROVED));
+        assertEquals(1, store.getCount(BookingStatus.CANCELLED));
+        assertNull(store.getNextUpcoming());
+
+        store.rollback(change);
+        assertEquals(1, store.getCount(BookingStatus.APPROVED));
+        assertEquals(0, store.getCount(BookingStatus.CANCELLED));
+        assertSame(original, store.getNextUpcoming());
+    }
+
+    @Test
+    public void confirm_ofAnEarlierChange_becomesTheLaterOnesRollbackTarget() {
+        long now = System.currentTimeMillis();
+        Booking original = booking("b1", now + HOUR, BookingStatus.PENDING);
+        store.setBookings(store.getSession(), Collections.singletonList(original), new ArrayList<>(), null);
+
+        Booking moved = booking("b1", now + 2 * HOUR, BookingStatus.PENDING);
+        BookingStore.PendingChange first = store.applyChange(moved);
+        BookingStore.PendingChange second = store.applyChange(withStatus(moved, BookingStatus.CANCELLED));
+        store.confirm(first, null);
+        store.rollback(second);
+
+        assertSame(moved, store.getNextUpcoming());
+        assertEquals(1, store.getCount(BookingStatus.PENDING));
+    }
+
+    @Test
+    public void applyStatusChanges_movesBookingsAndWaitsForPendingChanges() {
+        long now = System.currentTimeMillis();
+        Booking approved = booking("b1", now + HOUR, BookingStatus.APPROVED);
+        Booking pending = booking("b2", now + 2 * HOUR, BookingStatus.PENDING);
+        store.setBookings(store.getSession(), Arrays.asList(approved, pending), new ArrayList<>(), null);
+        BookingStore.PendingChange change = store.applyChange(booking("b2", now + 3 * HOUR, BookingStatus.PENDING));
+
+        List<Booking> changed = store.applyStatusChanges(Arrays.asList(
+                statusChange("b1", "Completed"), statusChange("b2", "Approved"), statusChange("unknown", "Cancelled")));
+
+        assertEquals(1, changed.size());
+        assertEquals("b1", changed.get(0).getBookingId());
+        assertEquals(1, store.getCount(BookingStatus.COMPLETED));
+        assertEquals(1, store.getCount(BookingStatus.PENDING));
+
+        // The owner's change was rejected; the pushed status is what the server holds
+        store.rollback(change);
+        assertEquals(BookingStatus.APPROVED, store.getNextUpcoming().getStatus());
+        assertEquals(1, store.getCount(BookingStatus.APPROVED));
+    }
+
+    private static List<Booking> randomHistory(Random random, int count) {
+        long base = System.currentTimeMillis() - 1000 * HOUR;
+        List<Booking> history = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // Few distinct times, so many bookings share one
+            long time = base + random.nextInt(20) * HOUR;
+            BookingStatus status = random.nextBoolean() ? BookingStatus.COMPLETED : BookingStatus.CANCELLED;
+            history.add(booking(String.format("b%03d", i), time, status));
+        }
+        return history;
+    }
+
+    private static Booking booking(String id, long time, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setBookingId(id);
+        booking.setReservationTime(new Date(time));
+        booking.setStatus(status);
+        return booking;
+    }
+
+    private static Booking withStatus(Booking booking, BookingStatus status) {
+        Booking copy = new Booking(booking);
+        copy.setStatus(status);
+        return copy;
+    }
+
+    private static String keyOf(Booking booking) {
+        return booking.getReservationTime().getTime() + "|" + booking.getBookingId();
+    }
+
+    private static BookingStatusStream.StatusChange statusChange(String id, String status) {
+        return new Gson().fromJson("{\"id\":\"" + id + "\",\"s\":\"" + status + "\"}",
+                BookingStatusStream.StatusChange.class);
+    }
+}
@@ -0,0 +1,151 @@
+package com.ead.zap.services;
+
+import com.ead.zap.models.ChargingStation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Replays four-minute location traces against the nearby-station cache, with a
+ * fake server over 3,000 synthetic stations. Every answer is checked against an
+ * uncached scan; the share of queries answered without a request is printed and
+ * must stay above a floor for each kind of trace.
+ */
+public class NearbyStationCacheHitRateTest {
+    private static final double LATITUDE = 6.9271;
+    private static final double LONGITUDE = 79.8612;
+    private static final double KM_PER_DEGREE = 111.195;
+    private static final int STATION_COUNT = 3000;
+    private static final long TRACE_SECONDS = 240;
+
+    private final List<ChargingStation> stations = new ArrayList<>();
+    private NearbyStationCache cache;
+    private int requests;
+
+    @Before
+    public void setUp() {
+        NearbyStationCache.getInstance().clear();
+        StationCache.getInstance().clear();
+        cache = NearbyStationCache.getInstance();
+
+        Random random = new Random(42);
+        for (int i = 0; i < STATION_COUNT; i++) {
+            ChargingStation station = new ChargingStation();
+            station.setId("station-" + i);
+            station.setName("Station " + i);
+            station.setLocation(new ChargingStation.Location(LATITUDE - 0.5 + random.nextDouble(),
+                    LONGITUDE - 0.5 + random.nextDouble(), "Address " + i));
+            station.setTotalSlots(4);
+            station.setAvailableSlots(random.nextInt(5));
+            station.setActive(true);
+            stations.add(station);
+        }
+    }
+
+    @Test
+    public void urbanDrive_50kmh_every5s_5km() {
+        double rate = replay("urban drive", 50, 5, 5.0, 0, new Random(1));
+        assertTrue(rate >= 0.9);
+    }
+
+    @Test
+    public void stationaryWithGpsJitter_every5s_10km() {
+        double rate = replay("stationary", 0, 5, 10.0, 30, new Random(2));
+        assertTrue(rate >= 0.95);
+    }
+
+    @Test
+    public void highwayDrive_100kmh_every10s_1500m() {
+        double rate = replay("highway", 100, 10, 1.5, 0, new Random(3));
+        assertTrue(rate >= 0.8);
+    }
+
+    /**
+     * Move at a steady speed, turning a little each step, and query every few
+     * seconds. Returns the fraction of queries answered from cache.
+     */
+    private double replay(String name, double speedKmh, int everySeconds, double radiusKm,
+                          double jitterMeters, Random random) {
+        double latitude = LATITUDE;
+        double longitude = LONGITUDE;
+        double heading = random.nextDouble() * 2 * Math.PI;
+        int queries = 0;
+        int hits = 0;
+
+        for (long second = 0; second < TRACE_SECONDS; second += everySeconds) {
+            double stepKm = speedKmh * everySeconds / 3600.0;
+            heading += (random.nextDouble() - 0.5) * 0.3;
+            latitude += stepKm * Math.cos(heading) / KM_PER_DEGREE;
+            longitude += stepKm * Math.sin(heading) / (KM_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+
+            double jitterKm = jitterMeters / 1000.0;
+            double queryLatitude = latitude + random.nextGaussian() * jitterKm / KM_PER_DEGREE;
+            double queryLongitude = longitude + random.nextGaussian() * jitterKm / KM_PER_DEGREE;
+
+            queries++;
+            List<ChargingStation> result = cache.getIfCached(queryLatitude, queryLongitude, radiusKm);
+            if (result != null) {
+                hits++;
+            } else {
+                for (NearbyStationCache.FetchArea area : cache.getMissingAreas(queryLatitude, queryLongitude, radiusKm)) {
+                    List<ChargingStation> fetched = serve(area);
+                    StationCache.getInstance().putAll(fetched);
+                    cache.store(area, fetched);
+                }
+                result = cache.collect(queryLatitude, queryLongitude, radiusKm);
+            }
+            assertEquals(name + " at " + second + " s", scan(queryLatitude, queryLongitude, radiusKm), ids(result));
+        }
+
+        double rate = (double) hits / queries;
+        System.out.println("Nearby cache, " + name + ": " + Math.round(rate * 100) + "% of "
+                + queries + " queries from cache, " + requests + " requests");
+        return rate;
+    }
+
+    // What the nearby-stations endpoint returns for a fetch area
+    private List<ChargingStation> serve(NearbyStationCache.FetchArea area) {
+        requests++;
+        List<ChargingStation> result = new ArrayList<>();
+        for (ChargingStation station : stations) {
+            double distance = distanceKm(area.getLatitude(), area.getLongitude(), station);
+            if (distance <= area.getRadiusKm() && distance >= area.getExcludeRadiusKm()) {
+                result.add(new ChargingStation(station));
+            }
+        }
+        return result;
+    }
+
+    private List<String> scan(double latitude, double longitude, double radiusKm) {
+        List<ChargingStation> result = new ArrayList<>();
+        for (ChargingStation station : stations) {
+            double distance = distanceKm(latitude, longitude, station);
+            if (distance <= radiusKm) {
+                ChargingStation copy = new ChargingStation(station);
+                copy.setDistance(distance);
+                result.add(copy);
+            }
+        }
+        result.sort((a, b) -> Double.compare(a.getDistance(), b.getDistance()));
+        return ids(result);
+    }
+
+    private static List<String> ids(List<ChargingStation> stations) {
+        List<String> ids = new ArrayList<>(stations.size());
+        for (ChargingStation station : stations) {
+            ids.add(station.getId());
+        }
+        return ids;
+    }
+
+    private static double distanceKm(double latitude, double longitude, ChargingStation station) {
+        return LocationService.calculateDistance(latitude, longitude,
+                station.getLocation().getLatitude(), station.getLocation().getLongitude());
+    }
+}
@@ -0,0 +1,109 @@
+package com.ead.zap.services;
+
+import com.ead.zap.utils.GeoHash;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks which circles the nearby-station cache asks the server for.
+ */
+public class NearbyStationCacheTest {
+    private static final double LATITUDE = 6.9271;
+    private static final double LONGITUDE = 79.8612;
+
+    private NearbyStationCache cache;
+
+    @Before
+    public void setUp() {
+        cache = NearbyStationCache.getInstance();
+        cache.clear();
+    }
+
+    @Test
+    public void getMissingAreas_coversEveryMissingCellWithinTheServerLimit() {
+        List<NearbyStationCache.FetchArea> areas = cache.getMissingAreas(LATITUDE, LONGITUDE, 120);
+
+        assertTrue(areas.size() > 1);
+        Set<String> covered = new HashSet<>();
+        for (NearbyStationCache.FetchArea area : areas) {
+            assertTrue(area.getRadiusKm() <= 50.0);
+            for (String hash : area.getCells()) {
+                assertTrue(hash, covers(area, hash));
+                assertTrue("fetched twice: " + hash, covered.add(hash));
+            }
+        }
+        assertTrue(covered.contains(GeoHash.encode(LATITUDE, LONGITUDE, 5)));
+        assertTrue(covered.contains(GeoHash.encode(LATITUDE + 1.05, LONGITUDE - 1.05, 5)));
+    }
+
+    @Test
+    public void getMissingAreas_forAWiderRing_leavesTheFreshCentreOut() {
+        Set<String> fresh = new HashSet<>();
+        for (NearbyStationCache.FetchArea area : cache.getMissingAreas(LATITUDE, LONGITUDE, 10)) {
+            assertEquals(0, area.getExcludeRadiusKm(), 0);
+            cache.store(area, new ArrayList<>());
+            fresh.addAll(area.getCells());
+        }
+
+        List<NearbyStationCache.FetchArea> ring = cache.getMissingAreas(LATITUDE, LONGITUDE, 25);
+
+        assertEquals(1, ring.size());
+        NearbyStationCache.FetchArea area = ring.get(0);
+        for (String hash : area.getCells()) {
+            assertFalse(hash, fresh.contains(hash));
+            assertTrue(hash, covers(area, hash));
+            assertTrue(hash, nearestKm(area, hash) > area.getExcludeRadiusKm());
+        }
+        // The fresh 5 x 5 block is 25 km across; at least its inner 3 x 3 is not sent again
+        int skipped = 0;
+        for (String hash : fresh) {
+            if (farthestKm(area, hash) < area.getExcludeRadiusKm()) {
+                skipped++;
+            }
+        }
+        assertEquals(25, fresh.size());
+        assertTrue(skipped + " fresh cells skipped", skipped >= 9);
+    }
+
+    @Test
+    public void getMissingAreas_whenEveryCellIsFresh_isEmpty() {
+        for (NearbyStationCache.FetchArea area : cache.getMissingAreas(LATITUDE, LONGITUDE, 10)) {
+            cache.store(area, new ArrayList<>());
+        }
+
+        assertTrue(cache.getMissingAreas(LATITUDE, LONGITUDE, 10).isEmpty());
+        assertNotNull(cache.getIfCached(LATITUDE, LONGITUDE, 10));
+    }
+
+    // Whether the fetch circle contains the whole cell
+    private static boolean covers(NearbyStationCache.FetchArea area, String hash) {
+        return farthestKm(area, hash) <= area.getRadiusKm();
+    }
+
+    private static double farthestKm(NearbyStationCache.FetchArea area, String hash) {
+        double[] bounds = GeoHash.bounds(hash);
+        double farthest = 0;
+        for (double latitude : new double[]{bounds[0], bounds[2]}) {
+            for (double longitude : new double[]{bounds[1], bounds[3]}) {
+                farthest = Math.max(farthest, LocationService.calculateDistance(
+                        area.getLatitude(), area.getLongitude(), latitude, longitude));
+            }
+        }
+        return farthest;
+    }
+
+    private static double nearestKm(NearbyStationCache.FetchArea area, String hash) {
+        double[] bounds = GeoHash.bounds(hash);
+        double latitude = Math.max(bounds[0], Math.min(bounds[2], area.getLatitude()));
+        double longitude = Math.max(bounds[1], Math.min(bounds[3], area.getLongitude()));
+        return LocationService.calculateDistance(area.getLatitude(), area.getLongitude(), latitude, longitude);
+    }
+}
@@ -0,0 +1,86 @@
+package com.ead.zap.services;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the slot availability index against a brute-force overlap count on random bookings.
+ */
+public class SlotAvailabilityIndexTest {
+    private static final long MINUTE = 60000L;
+    private static final long RANGE_END = 2200 * MINUTE;
+
+    @Test
+    public void isAvailableAndFreeWindows_matchBruteForce() {
+        Random random = new Random(42);
+        for (int testCase = 0; testCase < 200; testCase++) {
+            int count = random.nextInt(40);
+            long[] starts = new long[count];
+            int[] durations = new int[count];
+            SlotAvailabilityIndex.Builder builder = new SlotAvailabilityIndex.Builder();
+            for (int i = 0; i < count; i++) {
+                starts[i] = random.nextInt(2000) * MINUTE;
+                durations[i] = 30 + random.nextInt(150);
+                builder.add(starts[i], durations[i]);
+            }
+            int capacity = 1 + random.nextInt(3);
+            int duration = 30 + random.nextInt(150);
+            SlotAvailabilityIndex index = builder.build(capacity);
+            List<SlotAvailabilityIndex.FreeWindow> windows = index.getFreeWindows(0, RANGE_END, duration);
+
+            for (long start = 0; start <= RANGE_END; start += MINUTE) {
+                String label = "case " + testCase + ", start minute " + start / MINUTE;
+                int overlapping = 0;
+                for (int i = 0; i < count; i++) {
+                    if (starts[i] < start + duration * MINUTE && start < starts[i] + durations[i] * MINUTE) {
+                        overlapping++;
+                    }
+                }
+                boolean free = overlapping < capacity;
+
+                assertEquals(label, overlapping, index.countOverlapping(start, start + duration * MINUTE));
+                assertEquals(label, free, index.isAvailable(start, duration));
+                assertEquals(label, free, inWindow(windows, start));
+            }
+        }
+    }
+
+    @Test
+    public void freeWindows_areSortedAndSeparated() {
+        SlotAvailabilityIndex index = new SlotAvailabilityIndex.Builder()
+                .add(60 * MINUTE, 60)
+                .add(200 * MINUTE, 30)
+                .build(1);
+
+        List<SlotAvailabilityIndex.FreeWindow> windows = index.getFreeWindows(0, 300 * MINUTE, 30);
+
+        assertEquals(3, windows.size());
+        assertEquals(0, windows.get(0).getFirstStart());
+        assertEquals(30 * MINUTE, windows.get(0).getLastStart());
+        assertEquals(120 * MINUTE, windows.get(1).getFirstStart());
+        assertEquals(170 * MINUTE, windows.get(1).getLastStart());
+        assertEquals(230 * MINUTE, windows.get(2).getFirstStart());
+        assertEquals(300 * MINUTE, windows.get(2).getLastStart());
+    }
+
+    @Test
+    public void zeroCapacity_hasNoFreeWindows() {
+        SlotAvailabilityIndex index = new SlotAvailabilityIndex.Builder().build(0);
+
+        assertFalse(index.isAvailable(0, 30));
+        assertTrue(index.getFreeWindows(0, RANGE_END, 30).isEmpty());
+    }
+
+    private static boolean inWindow(List<SlotAvailabilityIndex.FreeWindow> windows, long start) {
+        for (SlotAvailabilityIndex.FreeWindow window : windows) {
+            if (start >= window.getFirstStart() && start <= window.getLastStart()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
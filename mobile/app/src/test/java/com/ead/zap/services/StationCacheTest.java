@@ -0,0 +1,85 @@
+package com.ead.zap.services;
+
+import com.ead.zap.models.ChargingStation;
+import com.google.gson.Gson;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the station cache's columnar rows: copies on read, snapshot adoption and pushed deltas.
+ */
+public class StationCacheTest {
+    private StationCache cache;
+
+    @Before
+    public void setUp() {
+        cache = StationCache.getInstance();
+        cache.clear();
+    }
+
+    @Test
+    public void get_returnsACopyOfTheRow() {
+        cache.putAll(Arrays.asList(station("a", 6.9271, 79.8612, 2)));
+
+        ChargingStation first = cache.get("a");
+        first.setAvailableSlots(0);
+
+        assertEquals(2, cache.get("a").getAvailableSlots());
+        assertNull(cache.get("missing"));
+    }
+
+    @Test
+    public void loadSnapshot_isUsedOnlyWhileTheCacheIsEmpty() {
+        ColumnarStationStore snapshot = new ColumnarStationStore();
+        snapshot.putAll(Arrays.asList(station("near", 6.9271, 79.8612, 1), station("far", 7.9, 80.7, 1)));
+
+        assertTrue(cache.loadSnapshot(snapshot));
+        assertEquals(2, cache.size());
+        List<ChargingStation> nearby = cache.getStationsWithin(6.93, 79.86, 10);
+        assertEquals(1, nearby.size());
+        assertEquals("near", nearby.get(0).getId());
+
+        ColumnarStationStore older = new ColumnarStationStore();
+        older.putAll(Arrays.asList(station("old", 6.9, 79.9, 1)));
+        assertFalse(cache.loadSnapshot(older));
+        assertNull(cache.get("old"));
+    }
+
+    @Test
+    public void applyAvailability_returnsOnlyTheStationsThatChanged() {
+        cache.putAll(Arrays.asList(station("a", 6.9271, 79.8612, 2), station("b", 6.93, 79.87, 3)));
+        ColumnarStationStore saved = cache.copyStore();
+
+        List<ChargingStation> changed = cache.applyAvailability(deltas(
+                "[{\"id\":\"a\",\"a\":1},{\"id\":\"b\",\"a\":3},{\"id\":\"unknown\",\"a\":5}]"));
+
+        assertEquals(1, changed.size());
+        assertEquals("a", changed.get(0).getId());
+        assertEquals(1, cache.get("a").getAvailableSlots());
+        // The copy taken for the snapshot writer is not affected
+        assertEquals(2, saved.materialize(saved.rowOf("a")).getAvailableSlots());
+    }
+
+    private static ChargingStation station(String id, double latitude, double longitude, int available) {
+        ChargingStation station = new ChargingStation();
+        station.setId(id);
+        station.setName("Station " + id);
+        station.setLocation(new ChargingStation.Location(latitude, longitude, "Address " + id));
+        station.setTotalSlots(4);
+        station.setAvailableSlots(available);
+        station.setActive(true);
+        return station;
+    }
+
+    private static List<StationAvailabilityStream.AvailabilityDelta> deltas(String json) {
+        return new ArrayList<>(Arrays.asList(
+                new Gson().fromJson(json, StationAvailabilityStream.AvailabilityDelta[].class)));
+    }
+}
@@ -0,0 +1,150 @@
+package com.ead.zap.services;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the station grid index against a brute-force haversine scan of random stations.
+ */
+public class StationSpatialIndexTest {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    @Test
+    public void findWithin_matchesBruteForce() {
+        Random random = new Random(42);
+        for (int testCase = 0; testCase < 50; testCase++) {
+            Map<String, double[]> stations = randomStations(random, 1 + random.nextInt(300));
+            StationSpatialIndex index = indexOf(stations);
+
+            for (int query = 0; query < 20; query++) {
+                double latitude = 6.0 + random.nextDouble() * 4.0;
+                double longitude = 79.5 + random.nextDouble() * 2.5;
+                double radiusKm = random.nextDouble() * 60.0;
+                String label = "case " + testCase + ", query " + query;
+
+                List<Double> expected = new ArrayList<>();
+                for (double[] position : stations.values()) {
+                    double distance = haversineKm(latitude, longitude, position[0], position[1]);
+                    if (distance <= radiusKm) {
+                        expected.add(distance);
+                    }
+                }
+                Collections.sort(expected);
+
+                assertDistances(label, expected, index.findWithin(latitude, longitude, radiusKm));
+            }
+        }
+    }
+
+    @Test
+    public void findNearest_matchesBruteForce() {
+        Random random = new Random(7);
+        for (int testCase = 0; testCase < 50; testCase++) {
+            Map<String, double[]> stations = randomStations(random, 1 + random.nextInt(300));
+            StationSpatialIndex index = indexOf(stations);
+
+            for (int query = 0; query < 20; query++) {
+                // Some queries fall outside the stations' area, so whole rings are empty
+                double latitude = 5.0 + random.nextDouble() * 6.0;
+                double longitude = 79.0 + random.nextDouble() * 3.5;
+                int k = 1 + random.nextInt(15);
+                double maxRadiusKm = random.nextBoolean() ? Double.MAX_VALUE : random.nextDouble() * 80.0;
+                String label = "case " + testCase + ", query " + query + ", k " + k;
+
+                List<Double> all = new ArrayList<>();
+                for (double[] position : stations.values()) {
+                    double distance = haversineKm(latitude, longitude, position[0], position[1]);
+                    if (distance <= maxRadiusKm) {
+                        all.add(distance);
+                    }
+                }
+                Collections.sort(all);
+                List<Double> expected = all.subList(0, Math.min(k, all.size()));
+
+                assertDistances(label, expected, index.findNearest(latitude, longitude, k, maxRadiusKm));
+            }
+        }
+    }
+
+    @Test
+    public void putAndRemove_keepIndexInStep() {
+        Random random = new Random(3);
+        Map<String, double[]> stations = randomStations(random, 200);
+        StationSpatialIndex index = indexOf(stations);
+
+        for (int i = 0; i < 100; i++) {
+            String id = "station-" + random.nextInt(200);
+            if (random.nextBoolean()) {
+                stations.remove(id);
+                index.remove(id);
+            } else {
+                double[] position = randomPosition(random);
+                stations.put(id, position);
+                index.put(id, position[0], position[1]);
+            }
+        }
+
+        assertEquals(stations.size(), index.size());
+        List<StationSpatialIndex.Neighbor> all = index.findWithin(8.0, 80.75, 1000.0);
+        assertEquals(stations.size(), all.size());
+        for (StationSpatialIndex.Neighbor neighbor : all) {
+            double[] position = stations.get(neighbor.getId());
+            assertNotNull(neighbor.getId(), position);
+            assertEquals(neighbor.getId(), haversineKm(8.0, 80.75, position[0], position[1]),
+                    neighbor.getDistanceKm(), 1e-9);
+        }
+    }
+
+    @Test
+    public void emptyIndex_findsNothing() {
+        StationSpatialIndex index = new StationSpatialIndex();
+
+        assertTrue(index.findWithin(7.0, 80.0, 50.0).isEmpty());
+        assertTrue(index.findNearest(7.0, 80.0, 5).isEmpty());
+    }
+
+    private static void assertDistances(String label, List<Double> expected,
+                                        List<StationSpatialIndex.Neighbor> actual) {
+        assertEquals(label, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(label + ", hit " + i, expected.get(i), actual.get(i).getDistanceKm(), 1e-9);
+        }
+    }
+
+    private static Map<String, double[]> randomStations(Random random, int count) {
+        Map<String, double[]> stations = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            stations.put("station-" + i, randomPosition(random));
+        }
+        return stations;
+    }
+
+    private static double[] randomPosition(Random random) {
+        return new double[] {6.0 + random.nextDouble() * 4.0, 79.5 + random.nextDouble() * 2.5};
+    }
+
+    private static StationSpatialIndex indexOf(Map<String, double[]> stations) {
+        StationSpatialIndex index = new StationSpatialIndex();
+        for (Map.Entry<String, double[]> station : stations.entrySet()) {
+            index.put(station.getKey(), station.getValue()[0], station.getValue()[1]);
+        }
+        return index;
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
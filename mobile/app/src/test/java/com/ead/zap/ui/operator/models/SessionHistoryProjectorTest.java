@@ -0,0 +1,117 @@
+package com.ead.zap.ui.operator.models;
+
+import com.ead.zap.api.services.BookingApiService;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the session history projector reuses unchanged rows and formats new ones.
+ */
+public class SessionHistoryProjectorTest {
+
+    @Test
+    public void project_reusesRowsUntilTheSessionChanges() {
+        SessionHistoryProjector projector = new SessionHistoryProjector();
+        BookingApiService.SessionHistoryResponseDTO first = session("s1", "2025-10-06T10:00:00Z");
+        BookingApiService.SessionHistoryResponseDTO second = session("s2", "2025-10-06T11:00:00Z");
+
+        List<SessionHistoryItem> before = projector.project(Arrays.asList(first, second));
+        List<SessionHistoryItem> after = projector.project(Arrays.asList(
+                session("s1", "2025-10-06T10:00:00Z"), session("s2", "2025-10-06T12:00:00Z")));
+
+        assertSame(before.get(0), after.get(0));
+        assertNotSame(before.get(1), after.get(1));
+        assertEquals("2025-10-06T12:00:00Z", after.get(1).getVersion());
+    }
+
+    @Test
+    public void project_withoutUpdatedAt_versionsByContent() {
+        SessionHistoryProjector projector = new SessionHistoryProjector();
+        BookingApiService.SessionHistoryResponseDTO session = session("s1", null);
+        session.setEnergyDelivered(10.0);
+
+        SessionHistoryItem original = projector.project(Collections.singletonList(session)).get(0);
+        assertSame(original, projector.project(Collections.singletonList(session)).get(0));
+
+        BookingApiService.SessionHistoryResponseDTO changed = session("s1", null);
+        changed.setEnergyDelivered(12.0);
+        SessionHistoryItem updated = projector.project(Collections.singletonList(changed)).get(0);
+        assertNotSame(original, updated);
+        assertEquals("12.0 kWh", updated.getEnergyDelivered());
+    }
+
+    @Test
+    public void project_keepsOrderAndDropsRowsOfRemovedSessions() {
+        SessionHistoryProjector projector = new SessionHistoryProjector();
+        BookingApiService.SessionHistoryResponseDTO first = session("s1", "v1");
+        BookingApiService.SessionHistoryResponseDTO second = session("s2", "v1");
+
+        SessionHistoryItem dropped = projector.project(Arrays.asList(first, second)).get(1);
+        projector.project(Collections.singletonList(first));
+        List<SessionHistoryItem> rows = projector.project(Arrays.asList(second, first));
+
+        assertEquals("s2", rows.get(0).getBookingId());
+        assertEquals("s1", rows.get(1).getBookingId());
+        assertNotSame(dropped, rows.get(0));
+    }
+
+    @Test
+    public void project_formatsEnergyFromDeliveredActualOrScheduledTime() {
+        SessionHistoryProjector projector = new SessionHistoryProjector();
+        BookingApiService.SessionHistoryResponseDTO delivered = session("s1", "v1");
+        delivered.setEnergyDelivered(12.34);
+        BookingApiService.SessionHistoryResponseDTO actual = session("s2", "v1");
+        actual.setActualStartTime("2025-10-06T10:00:00Z");
+        actual.setActualEndTime("2025-10-06T12:00:00Z");
+        BookingApiService.SessionHistoryResponseDTO scheduled = session("s3", "v1");
+        scheduled.setDurationMinutes(90);
+
+        List<SessionHistoryItem> rows = projector.project(Arrays.asList(delivered, actual, scheduled));
+
+        assertEquals("12.3 kWh", rows.get(0).getEnergyDelivered());
+        assertEquals("15.0 kWh", rows.get(1).getEnergyDelivered());
+        assertEquals("11.3 kWh (Est.)", rows.get(2).getEnergyDelivered());
+        assertTrue(rows.get(2).getTimeRange().endsWith(" (Scheduled)"));
+    }
+
+    @Test
+    public void project_fillsInMissingNamesAndStatus() {
+        SessionHistoryProjector projector = new SessionHistoryProjector();
+        BookingApiService.SessionHistoryResponseDTO session = session("s1", "v1");
+        session.setEvOwnerName("Unknown Customer");
+        session.setEvOwnerNIC("199012345678");
+        session.setChargingStationName(null);
+        session.setChargingStationId("st1");
+        session.setStatus("4");
+        session.setReservationDateTime(null);
+        session.setDurationMinutes(0);
+
+        SessionHistoryItem row = projector.project(Collections.singletonList(session)).get(0);
+
+        assertEquals("Customer (1990***)", row.getCustomerName());
+        assertEquals("Station st1", row.getStationId());
+        assertEquals("Completed", row.getStatus());
+        assertEquals("N/A", row.getDate());
+        assertEquals("N/A", row.getTimeRange());
+        assertEquals("N/A", row.getEnergyDelivered());
+    }
+
+    private static BookingApiService.SessionHistoryResponseDTO session(String bookingId, String updatedAt) {
+        BookingApiService.SessionHistoryResponseDTO session = new BookingApiService.SessionHistoryResponseDTO();
+        session.setBookingId(bookingId);
+        session.setEvOwnerName("Owner " + bookingId);
+        session.setEvOwnerNIC("NIC" + bookingId);
+        session.setChargingStationId("station-1");
+        session.setChargingStationName("Station One");
+        session.setReservationDateTime("2025-10-06T09:00:00Z");
+        session.setStatus("Completed");
+        session.setUpdatedAt(updatedAt);
+        return session;
+    }
+}
@@ -0,0 +1,96 @@
+package com.ead.zap.utils;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the API timestamp codec against SimpleDateFormat and the forms the server sends.
+ */
+public class DateTimeCodecTest {
+    private static final String API_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+    // 1970-01-01 to 2100-01-01
+    private static final long MAX_MILLIS = 4102444800000L;
+
+    @Test
+    public void format_matchesSimpleDateFormat() {
+        SimpleDateFormat reference = utcFormat(API_PATTERN);
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            long millis = (long) (random.nextDouble() * MAX_MILLIS);
+            assertEquals(String.valueOf(millis), reference.format(millis), DateTimeCodec.format(millis));
+        }
+    }
+
+    @Test
+    public void parseMillis_readsWhatFormatWrites() {
+        Random random = new Random(7);
+        for (int i = 0; i < 10000; i++) {
+            long millis = (long) (random.nextDouble() * MAX_MILLIS);
+            assertEquals(String.valueOf(millis), millis, DateTimeCodec.parseMillis(DateTimeCodec.format(millis)));
+        }
+    }
+
+    @Test
+    public void parseMillis_acceptsServerForms() throws ParseException {
+        long expected = utcFormat("yyyy-MM-dd HH:mm:ss.SSS").parse("2025-10-06 14:30:00.123").getTime();
+        long whole = expected - 123;
+
+        assertEquals(expected, DateTimeCodec.parseMillis("2025-10-06T14:30:00.123Z"));
+        assertEquals(expected, DateTimeCodec.parseMillis("2025-10-06T14:30:00.1234567Z"));
+        assertEquals(whole + 100, DateTimeCodec.parseMillis("2025-10-06T14:30:00.1Z"));
+        assertEquals(whole, DateTimeCodec.parseMillis("2025-10-06T14:30:00Z"));
+        assertEquals(whole, DateTimeCodec.parseMillis("2025-10-06T14:30:00"));
+        assertEquals(whole, DateTimeCodec.parseMillis("2025-10-06 14:30:00"));
+        assertEquals(whole, DateTimeCodec.parseMillis("2025-10-06t14:30:00z"));
+        assertEquals(whole - 30 * 1000, DateTimeCodec.parseMillis("2025-10-06T14:29:30Z"));
+        assertEquals(whole, DateTimeCodec.parseMillis("2025-10-06T20:00:00+05:30"));
+        assertEquals(whole, DateTimeCodec.parseMillis("2025-10-06T20:00:00+0530"));
+        assertEquals(whole, DateTimeCodec.parseMillis("2025-10-06T09:30:00-05"));
+        assertEquals(whole - (14 * 60 + 30) * 60000L, DateTimeCodec.parseMillis("2025-10-06"));
+    }
+
+    @Test
+    public void parseMillis_readsLeapSecondAsLastSecond() {
+        assertEquals(DateTimeCodec.parseMillis("2016-12-31T23:59:59Z"),
+                DateTimeCodec.parseMillis("2016-12-31T23:59:60Z"));
+    }
+
+    @Test
+    public void parseMillis_checksLeapYears() {
+        assertNotEquals(DateTimeCodec.INVALID, DateTimeCodec.parseMillis("2024-02-29T00:00:00Z"));
+        assertNotEquals(DateTimeCodec.INVALID, DateTimeCodec.parseMillis("2000-02-29T00:00:00Z"));
+        assertEquals(DateTimeCodec.INVALID, DateTimeCodec.parseMillis("2023-02-29T00:00:00Z"));
+        assertEquals(DateTimeCodec.INVALID, DateTimeCodec.parseMillis("1900-02-29T00:00:00Z"));
+    }
+
+    @Test
+    public void parseMillis_rejectsMalformedInput() {
+        String[] malformed = {
+                "", "garbage", "2025-10", "2025/10/06", "2025-13-01", "2025-00-10", "2025-04-31",
+                "2025-10-06T", "2025-10-06T14", "2025-10-06T24:00:00Z", "2025-10-06T14:60:00Z",
+                "2025-10-06T14:30:61Z", "2025-10-06T14:30:00.Z", "2025-10-06T14:30:00+5",
+                "2025-10-06T14:30:00+19:00", "2025-10-06T14:30:00+05:3", "2025-10-06T14:30:00Zjunk",
+                "2025-1O-06T14:30:00Z"
+        };
+        for (String value : malformed) {
+            assertEquals(value, DateTimeCodec.INVALID, DateTimeCodec.parseMillis(value));
+            assertNull(value, DateTimeCodec.parse(value));
+        }
+        assertEquals(DateTimeCodec.INVALID, DateTimeCodec.parseMillis(null));
+        assertNull(DateTimeCodec.format((Date) null));
+    }
+
+    private static SimpleDateFormat utcFormat(String pattern) {
+        SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+}